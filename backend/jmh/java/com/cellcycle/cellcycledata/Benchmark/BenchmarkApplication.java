@@ -0,0 +1,47 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.CellcycledataApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在基准测试数据库上启动应用上下文(不启动Web容器)，各基准直接从上下文取Service调用
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param database 已生成数据的基准测试库
+     * @param overrides 覆盖application.properties中的配置，例如关闭PPI内存图
+     */
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database, Map<String, Object> overrides) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", database.getUrl());
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("logging.level.root", "WARN");
+        // 每次调用都应真正执行查询：关闭查询结果缓存，也不让data/下残留的快照文件替换数据来源
+        properties.put("cellcycledata.cache.enabled", false);
+        properties.put("cellcycledata.snapshot.serve", false);
+        properties.put("cellcycledata.snapshot.load-on-startup", false);
+        properties.putAll(overrides);
+        // properties()只设置默认值，优先级低于application.properties，因此放在最前面的属性源里
+        return new SpringApplicationBuilder(CellcycledataApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getEnvironment().getPropertySources()
+                        .addFirst(new MapPropertySource("benchmark", properties)))
+                .run();
+    }
+
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database) {
+        return start(database, new LinkedHashMap<>());
+    }
+}
@@ -0,0 +1,254 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的嵌入式数据库(H2 MySQL兼容模式)
+ * 按行数生成确定性的合成数据并保存为文件库，同一行数只生成一次，之后各个fork直接复用；
+ * 生成完成后执行线上的 db/indexes.sql，查询走的索引与生产环境一致
+ */
+public final class BenchmarkDatabase {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkDatabase.class);
+
+    /** 生成数据使用的固定随机种子，保证每次生成的数据相同 */
+    private static final long SEED = 20240601L;
+    private static final int BATCH_SIZE = 10000;
+    private static final String[] STAGES = {"G1", "S", "G2", "M"};
+    private static final String[] INTERACTIONS = {"Activation", "Repression", "Unknown"};
+
+    private final long rows;
+    private final int geneCount;
+    private final int tfCount;
+    private final int mirnaCount;
+    private final int drugCount;
+    private final String url;
+
+    private BenchmarkDatabase(long rows, Path directory) {
+        this.rows = rows;
+        // 每个基因平均约50条互作，与真实数据的稀疏程度相近
+        this.geneCount = (int) Math.max(1000, rows / 50);
+        this.tfCount = Math.max(50, this.geneCount / 20);
+        this.mirnaCount = Math.max(100, this.geneCount / 10);
+        this.drugCount = Math.max(100, this.geneCount / 10);
+        this.url = "jdbc:h2:file:" + directory.resolve("rows-" + rows).toAbsolutePath()
+                + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    }
+
+    /**
+     * 打开指定行数的数据库，不存在或上次没有生成完时重新生成
+     * 数据库目录由系统属性 cellcycledata.benchmark.db-dir 指定，默认 target/jmh-db
+     */
+    public static synchronized BenchmarkDatabase open(long rows) {
+        Path directory = Paths.get(System.getProperty("cellcycledata.benchmark.db-dir", "target/jmh-db"));
+        BenchmarkDatabase database = new BenchmarkDatabase(rows, directory);
+        try (Connection connection = database.connect()) {
+            if (!database.isSeeded(connection)) {
+                database.seed(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to prepare benchmark database " + database.url, e);
+        }
+        return database;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public String gene(int index) {
+        return String.format("GENE%06d", index % this.geneCount);
+    }
+
+    public String tf(int index) {
+        return String.format("TF%05d", index % this.tfCount);
+    }
+
+    public String mirna(int index) {
+        return "hsa-miR-" + (index % this.mirnaCount) + "-5p";
+    }
+
+    public String stage(int index) {
+        return STAGES[index % STAGES.length];
+    }
+
+    public int getGeneCount() {
+        return geneCount;
+    }
+
+    public int getTfCount() {
+        return tfCount;
+    }
+
+    public int getMirnaCount() {
+        return mirnaCount;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(this.url, "sa", "");
+    }
+
+    private boolean isSeeded(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT row_count FROM benchmark_seed")) {
+            return resultSet.next() && resultSet.getLong(1) == this.rows;
+        } catch (SQLException e) {
+            // 标记表不存在，说明库是新建的
+            return false;
+        }
+    }
+
+    private void seed(Connection connection) throws SQLException {
+        long start = System.currentTimeMillis();
+        log.info("Seeding benchmark database with {} rows per interaction table ...", this.rows);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        executeScript(connection, "db/benchmark-schema.sql");
+        connection.setAutoCommit(false);
+        Random random = new Random(SEED);
+
+        batchInsert(connection, "INSERT INTO ppi VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", this.rows, (statement, i) -> {
+            int a = random.nextInt(this.geneCount);
+            int b = random.nextInt(this.geneCount);
+            statement.setString(1, gene(a));
+            statement.setString(2, gene(b));
+            statement.setString(3, "9606.ENSP" + a);
+            statement.setString(4, "9606.ENSP" + b);
+            statement.setInt(5, 0);
+            statement.setDouble(6, 0);
+            statement.setDouble(7, random.nextDouble() * 0.2);
+            statement.setDouble(8, 0);
+            statement.setDouble(9, random.nextDouble() * 0.5);
+            statement.setDouble(10, random.nextDouble() * 0.8);
+            statement.setDouble(11, random.nextDouble() < 0.3 ? 0.9 : 0);
+            statement.setDouble(12, random.nextDouble());
+            statement.setDouble(13, 0.15 + random.nextDouble() * 0.85);
+        });
+        batchInsert(connection, "INSERT INTO tf VALUES (?, ?, ?)", this.rows, (statement, i) -> {
+            statement.setString(1, tf(random.nextInt(this.tfCount)));
+            statement.setString(2, gene(random.nextInt(this.geneCount)));
+            statement.setString(3, INTERACTIONS[random.nextInt(INTERACTIONS.length)]);
+        });
+        batchInsert(connection, "INSERT INTO mirna_gene VALUES (?, ?)", this.rows, (statement, i) -> {
+            statement.setString(1, mirna(random.nextInt(this.mirnaCount)));
+            statement.setString(2, gene(random.nextInt(this.geneCount)));
+        });
+        batchInsert(connection, "INSERT INTO sl VALUES (?, ?)", this.rows, (statement, i) -> {
+            statement.setString(1, gene(random.nextInt(this.geneCount)));
+            statement.setString(2, gene(random.nextInt(this.geneCount)));
+        });
+        batchInsert(connection, "INSERT INTO sl_nature VALUES (?, ?, ?, ?, ?, ?)", this.rows / 10, (statement, i) -> {
+            statement.setString(1, gene(random.nextInt(this.geneCount)));
+            statement.setString(2, stage(random.nextInt(STAGES.length)));
+            statement.setString(3, gene(random.nextInt(this.geneCount)));
+            statement.setString(4, stage(random.nextInt(STAGES.length)));
+            statement.setString(5, random.nextBoolean() ? "sensitive" : "insensitive");
+            statement.setString(6, "CELL" + random.nextInt(200));
+        });
+        batchInsert(connection, "INSERT INTO gene_target VALUES (?, ?, ?, ?, ?)", this.rows / 10, (statement, i) -> {
+            statement.setString(1, gene(random.nextInt(this.geneCount)));
+            statement.setString(2, stage(random.nextInt(STAGES.length)));
+            statement.setString(3, "DRUG" + random.nextInt(this.drugCount));
+            statement.setString(4, "CANCER" + random.nextInt(30));
+            statement.setString(5, String.valueOf(10000000 + random.nextInt(30000000)));
+        });
+        batchInsert(connection, "INSERT INTO cellcyclegenedata (Gene_Symbol, Category, Species, stage) VALUES (?, ?, ?, ?)",
+                Math.min(this.geneCount, 20000), (statement, i) -> {
+                    statement.setString(1, gene((int) i));
+                    statement.setString(2, random.nextBoolean() ? "Regulator" : "Core");
+                    statement.setString(3, "Homo sapiens");
+                    statement.setString(4, stage((int) i));
+                });
+        batchInsert(connection, "INSERT INTO drug_information VALUES (?, ?)", this.drugCount, (statement, i) -> {
+            statement.setString(1, "DRUG" + i);
+            statement.setString(2, "Synthetic drug " + i);
+        });
+
+        connection.setAutoCommit(true);
+        executeScript(connection, "db/indexes.sql");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO benchmark_seed VALUES (" + this.rows + ")");
+        }
+        log.info("Seeded in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private interface RowWriter {
+        void write(PreparedStatement statement, long index) throws SQLException;
+    }
+
+    private static void batchInsert(Connection connection, String sql, long count, RowWriter writer) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long i = 0; i < count; i++) {
+                writer.write(statement, i);
+                statement.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    /**
+     * 执行classpath上的SQL脚本，语句以分号结尾，忽略 -- 注释行
+     */
+    private static void executeScript(Connection connection, String resource) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (InputStream input = BenchmarkDatabase.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("SQL script not found on classpath: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    statements.add(current.substring(0, current.lastIndexOf(";")));
+                    current.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Service.GeneTargetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeneTargetService各查询的耗时，gene_target表的行数为互作表的十分之一
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class GeneTargetServiceBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private long rows;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private GeneTargetService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = BenchmarkDatabase.open(this.rows);
+        this.context = BenchmarkApplication.start(this.database);
+        this.service = this.context.getBean(GeneTargetService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<GeneTarget> byGene() {
+        return this.service.selectByGene(this.database.gene(ThreadLocalRandom.current().nextInt(this.database.getGeneCount())));
+    }
+
+    /**
+     * 每个阶段约占四分之一的行，衡量大结果集的映射开销
+     */
+    @Benchmark
+    public List<GeneTarget> byStage() {
+        return this.service.selectByStage(this.database.stage(ThreadLocalRandom.current().nextInt(4)));
+    }
+
+    @Benchmark
+    public PageResult firstPage() {
+        return this.service.selectPage(null, 100, null);
+    }
+}
@@ -0,0 +1,94 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Service.PPIDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PPIDataService各查询的耗时，分别测内存互作图和直接查库两种模式；
+ * 子网络查询只支持内存图模式，见 PPISubnetworkBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class PPIDataServiceBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private long rows;
+
+    @Param({"true", "false"})
+    private boolean inMemory;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private PPIDataService service;
+    private String secondPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = BenchmarkDatabase.open(this.rows);
+        this.context = BenchmarkApplication.start(this.database,
+                Collections.<String, Object>singletonMap("cellcycledata.ppi.in-memory", this.inMemory));
+        this.service = this.context.getBean(PPIDataService.class);
+        this.secondPageCursor = this.service.selectPage(null, 100, null).getNextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    private String randomGene() {
+        return this.database.gene(ThreadLocalRandom.current().nextInt(this.database.getGeneCount()));
+    }
+
+    @Benchmark
+    public List<PPIData> byGene() {
+        return this.service.getPPIDataByGene(randomGene());
+    }
+
+    @Benchmark
+    public List<PPIData> byGeneAndMinScore() {
+        return this.service.getPPIDataByGeneAndMinScore(randomGene(), 0.7);
+    }
+
+    /**
+     * 高阈值只命中约0.1%的互作
+     */
+    @Benchmark
+    public List<PPIData> byMinScore() {
+        return this.service.getPPIDataByMinScore(0.999);
+    }
+
+    @Benchmark
+    public PageResult firstPage() {
+        return this.service.selectPage(null, 100, null);
+    }
+
+    @Benchmark
+    public PageResult nextPageProjected() {
+        return this.service.selectPage(this.secondPageCursor, 100, "node1,node2,combined_score");
+    }
+}
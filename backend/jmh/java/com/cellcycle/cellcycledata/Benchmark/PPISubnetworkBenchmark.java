@@ -0,0 +1,66 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Entity.PPISubnetwork;
+import com.cellcycle.cellcycledata.Service.PPIDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 子网络扩展的耗时；该查询只在内存互作图模式下可用，因此不对直接查库模式参数化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class PPISubnetworkBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private long rows;
+
+    @Param({"100", "500"})
+    private int maxNodes;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private PPIDataService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = BenchmarkDatabase.open(this.rows);
+        this.context = BenchmarkApplication.start(this.database,
+                Collections.<String, Object>singletonMap("cellcycledata.ppi.in-memory", true));
+        this.service = this.context.getBean(PPIDataService.class);
+        if (this.service.getGraph() == null) {
+            throw new IllegalStateException("PPI graph failed to load, subnetwork queries are unavailable");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public PPISubnetwork subnetwork() {
+        String seed = this.database.gene(ThreadLocalRandom.current().nextInt(this.database.getGeneCount()));
+        return this.service.getSubnetwork(Collections.singletonList(seed), 2, 0.7, this.maxNodes);
+    }
+}
@@ -0,0 +1,64 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Service.SLDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SLDataService各查询的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class SLDataServiceBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private long rows;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private SLDataService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = BenchmarkDatabase.open(this.rows);
+        this.context = BenchmarkApplication.start(this.database);
+        this.service = this.context.getBean(SLDataService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<SLData> byGene() {
+        return this.service.selectSLDataByGene(this.database.gene(ThreadLocalRandom.current().nextInt(this.database.getGeneCount())));
+    }
+
+    @Benchmark
+    public PageResult firstPage() {
+        return this.service.selectPage(null, 100, null);
+    }
+}
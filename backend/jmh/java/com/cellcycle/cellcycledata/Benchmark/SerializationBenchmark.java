@@ -0,0 +1,95 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体列表的Jackson序列化耗时，即接口返回List时消息转换器所做的工作
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<PPIData> ppi;
+    private List<TFData> tf;
+    private List<MirnaGene> mirna;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.ppi = new ArrayList<>(this.size);
+        this.tf = new ArrayList<>(this.size);
+        this.mirna = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            PPIData row = new PPIData();
+            row.setNode1(String.format("GENE%06d", random.nextInt(20000)));
+            row.setNode2(String.format("GENE%06d", random.nextInt(20000)));
+            row.setNode1_string_id("9606.ENSP" + random.nextInt(1000000));
+            row.setNode2_string_id("9606.ENSP" + random.nextInt(1000000));
+            row.setNeighborhood_on_chromosome(0);
+            row.setGene_fusion(0.0);
+            row.setPhylogenetic_cooccurrence(random.nextDouble());
+            row.setHomology(0.0);
+            row.setCoexpression(random.nextDouble());
+            row.setExperimentally_determined_interaction(random.nextDouble());
+            row.setDatabase_annotated(random.nextBoolean() ? 0.9 : 0.0);
+            row.setAutomated_textmining(random.nextDouble());
+            row.setCombined_score(random.nextDouble());
+            this.ppi.add(row);
+
+            TFData tfRow = new TFData();
+            tfRow.setTf(String.format("TF%05d", random.nextInt(1000)));
+            tfRow.setTarget_gene(String.format("GENE%06d", random.nextInt(20000)));
+            tfRow.setInteraction(random.nextBoolean() ? "Activation" : "Repression");
+            this.tf.add(tfRow);
+
+            MirnaGene mirnaRow = new MirnaGene();
+            mirnaRow.setMiRNA("hsa-miR-" + random.nextInt(2000) + "-5p");
+            mirnaRow.setGene(String.format("GENE%06d", random.nextInt(20000)));
+            this.mirna.add(mirnaRow);
+        }
+    }
+
+    @Benchmark
+    public byte[] ppiList() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.ppi);
+    }
+
+    @Benchmark
+    public byte[] tfList() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.tf);
+    }
+
+    @Benchmark
+    public byte[] mirnaList() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.mirna);
+    }
+}
@@ -0,0 +1,158 @@
+package com.cellcycle.cellcycledata.Benchmark;
+
+import com.cellcycle.cellcycledata.Service.StaticDatasetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 静态TSV文件(原先在cellcycledataController中逐请求解析)的读取、解析和JSON序列化耗时
+ * 每次调用前修改文件时间戳，使StaticDatasetService重新加载；scale为数据行的复制倍数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaticDatasetParsingBenchmark {
+
+    private static final String KEGG_PATHWAY_FILE = "Browser/KEGG_pathway.txt";
+    private static final String HALLMARK_CELL_FILE = "home/hallmark_cell.txt";
+    private static final String MIRNA_WORDCLOUD_FILE = "network/miRNA_gene_interaction_number.txt";
+
+    @Param({"1", "100"})
+    private int scale;
+
+    private Path directory;
+    private AnnotationConfigApplicationContext context;
+    private StaticDatasetService service;
+    private long version;
+
+    @Configuration
+    static class ParsingConfig {
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("cellcycledata-static");
+        for (String file : new String[]{KEGG_PATHWAY_FILE, HALLMARK_CELL_FILE, MIRNA_WORDCLOUD_FILE}) {
+            copyScaled(file);
+        }
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cellcycledata.static.dir", this.directory.toString());
+        // 每次调用都检查文件时间戳
+        properties.put("cellcycledata.static.reload-check-ms", 0);
+        this.context = new AnnotationConfigApplicationContext();
+        this.context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        this.context.register(ParsingConfig.class, StaticDatasetService.class);
+        this.context.refresh();
+        this.service = this.context.getBean(StaticDatasetService.class);
+        this.version = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.context.close();
+        for (String file : new String[]{KEGG_PATHWAY_FILE, HALLMARK_CELL_FILE, MIRNA_WORDCLOUD_FILE}) {
+            Files.deleteIfExists(this.directory.resolve(file));
+        }
+    }
+
+    /**
+     * 把classpath中的数据文件复制到临时目录，表头保留一份，数据行重复scale次
+     */
+    private void copyScaled(String file) throws IOException {
+        List<String> lines;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("static/" + file)) {
+            if (input == null) {
+                throw new IllegalStateException("Static file not found on classpath: " + file);
+            }
+            lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))
+                    .lines().collect(Collectors.toList());
+        }
+        Path target = this.directory.resolve(file);
+        Files.createDirectories(target.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            if (!lines.isEmpty()) {
+                writer.write(lines.get(0));
+                writer.newLine();
+            }
+            for (int copy = 0; copy < this.scale; copy++) {
+                for (int i = 1; i < lines.size(); i++) {
+                    writer.write(lines.get(i));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private void touch(String file) {
+        File target = this.directory.resolve(file).toFile();
+        // 时间戳每次递增1秒，避开文件系统的时间精度
+        this.version += 1000;
+        if (!target.setLastModified(this.version)) {
+            throw new IllegalStateException("Cannot update timestamp of " + target);
+        }
+    }
+
+    @Benchmark
+    public byte[] keggPathway() {
+        touch(KEGG_PATHWAY_FILE);
+        return this.service.getKeggPathwayJson().getJson();
+    }
+
+    @Benchmark
+    public byte[] hallmarkCell() {
+        touch(HALLMARK_CELL_FILE);
+        return this.service.getHallmarkCellJson().getJson();
+    }
+
+    @Benchmark
+    public byte[] mirnaGeneWordcloud() {
+        touch(MIRNA_WORDCLOUD_FILE);
+        return this.service.getMirnaGeneWordcloudJson().getJson();
+    }
+
+    /**
+     * 文件未变化时的读取路径，即大多数请求实际走的路径
+     */
+    @Benchmark
+    public byte[] keggPathwayCached() {
+        return this.service.getKeggPathwayJson().getJson();
+    }
+}
@@ -0,0 +1,77 @@
+-- 基准测试使用的表结构，列名与线上库及实体类保持一致(H2 MySQL兼容模式)
+
+CREATE TABLE IF NOT EXISTS ppi (
+    node1 VARCHAR(64),
+    node2 VARCHAR(64),
+    node1_string_id VARCHAR(64),
+    node2_string_id VARCHAR(64),
+    neighborhood_on_chromosome INT,
+    gene_fusion DOUBLE,
+    phylogenetic_cooccurrence DOUBLE,
+    homology DOUBLE,
+    coexpression DOUBLE,
+    experimentally_determined_interaction DOUBLE,
+    database_annotated DOUBLE,
+    automated_textmining DOUBLE,
+    combined_score DOUBLE
+);
+
+CREATE TABLE IF NOT EXISTS tf (
+    tf VARCHAR(64),
+    target_gene VARCHAR(64),
+    interaction VARCHAR(32)
+);
+
+CREATE TABLE IF NOT EXISTS mirna_gene (
+    miRNA VARCHAR(64),
+    gene VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS sl (
+    geneA VARCHAR(64),
+    geneB VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS sl_nature (
+    Gene_A VARCHAR(64),
+    stage_Gene_A VARCHAR(32),
+    Gene_B VARCHAR(64),
+    stage_Gene_B VARCHAR(32),
+    GEMINI_sensitive VARCHAR(32),
+    Cell_line VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS gene_target (
+    gene VARCHAR(64),
+    stage VARCHAR(32),
+    drug VARCHAR(128),
+    cancer VARCHAR(128),
+    pmid VARCHAR(32)
+);
+
+CREATE TABLE IF NOT EXISTS cellcyclegenedata (
+    Gene_Symbol VARCHAR(64),
+    Description VARCHAR(512),
+    Category VARCHAR(64),
+    Species VARCHAR(64),
+    Gene_ID VARCHAR(32),
+    Related_Gene_Symbol VARCHAR(256),
+    UniProt_ID VARCHAR(32),
+    Article_Title VARCHAR(512),
+    PMID VARCHAR(32),
+    Year_of_Publication VARCHAR(8),
+    Method VARCHAR(128),
+    stage VARCHAR(32)
+);
+
+CREATE TABLE IF NOT EXISTS drug_information (
+    drug VARCHAR(128),
+    information VARCHAR(1024)
+);
+
+-- 索引不在这里建，生成数据后执行线上的 db/indexes.sql，保证测的是同一套索引
+
+-- 数据已完整写入的标记，中途中断的库会被重新生成
+CREATE TABLE IF NOT EXISTS benchmark_seed (
+    row_count BIGINT
+);
@@ -0,0 +1,35 @@
+#!/bin/sh
+# 编译并运行 backend/jmh 下的JMH基准测试
+#
+# 基准代码由JMH注解处理器(jmh-generator-annprocess)生成测量桩和 META-INF/BenchmarkList，
+# 所以必须用 -processorpath 编译，不能只把源码放进应用的classpath
+#
+# 需要两个环境变量：
+#   APP_CLASSPATH  应用编译输出(backend/main)及其依赖，另加H2驱动；
+#                  在应用的构建环境中可由 mvn dependency:build-classpath 得到依赖部分
+#   JMH_CLASSPATH  jmh-core、jmh-generator-annprocess 及其依赖(jopt-simple、commons-math3)
+#
+# 其余参数原样传给JMH，例如：
+#   backend/jmh/run.sh PPISubnetworkBenchmark -p rows=10000
+#   backend/jmh/run.sh -l    列出全部基准
+set -eu
+
+: "${APP_CLASSPATH:?APP_CLASSPATH must list the compiled application and its dependencies}"
+: "${JMH_CLASSPATH:?JMH_CLASSPATH must list jmh-core and jmh-generator-annprocess}"
+
+here=$(cd "$(dirname "$0")" && pwd)
+out=${JMH_OUT:-$here/target}
+
+rm -rf "$out/classes" "$out/generated"
+mkdir -p "$out/classes" "$out/generated"
+find "$here/java" -name '*.java' > "$out/sources.txt"
+javac -encoding UTF-8 \
+    -cp "$APP_CLASSPATH:$JMH_CLASSPATH" \
+    -processorpath "$JMH_CLASSPATH" \
+    -s "$out/generated" -d "$out/classes" \
+    @"$out/sources.txt"
+cp -R "$here/resources/." "$out/classes/"
+
+exec java -Dcellcycledata.benchmark.db-dir="$out/jmh-db" \
+    -cp "$out/classes:$APP_CLASSPATH:$JMH_CLASSPATH" \
+    org.openjdk.jmh.Main "$@"
@@ -0,0 +1,67 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.AutocompleteSuggestion;
+import com.cellcycle.cellcycledata.Service.AutocompleteService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 搜索框自动补全控制器
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class AutocompleteController {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_EDITS = 2;
+
+    @Resource
+    private AutocompleteService autocompleteService;
+
+    /**
+     * 补全建议：前缀匹配优先，不足时按编辑距离补充
+     * @param q 输入的文本
+     * @param limit 最多返回的建议数
+     * @param maxEdits 模糊匹配允许的最大编辑距离，0表示只做前缀匹配
+     * @param types 逗号分隔的词条类型(gene、mirna、tf、drug、kegg、hallmark)，为空时不限制
+     */
+    @GetMapping("/autocomplete")
+    public List<AutocompleteSuggestion> suggest(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "10") Integer limit,
+            @RequestParam(value = "maxEdits", defaultValue = "1") Integer maxEdits,
+            @RequestParam(value = "types", required = false) String types) {
+        Set<String> typeFilter = null;
+        if (types != null && !types.trim().isEmpty()) {
+            typeFilter = new HashSet<>(Arrays.asList(types.trim().split("\\s*,\\s*")));
+        }
+        return this.autocompleteService.suggest(q, Math.max(1, Math.min(limit, MAX_LIMIT)),
+                Math.max(0, Math.min(maxEdits, MAX_EDITS)), typeFilter);
+    }
+
+    /**
+     * 重新读取词条来源并重建索引；数据表重新加载后索引会自动同步，只在需要强制重试失败的来源时调用
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     * @param sources 逗号分隔的来源名称，为空时重新读取全部来源
+     * @return 各来源当前的词条数
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/autocomplete/refresh")
+    public Map<String, Integer> refresh(@RequestParam(value = "sources", required = false) String sources) {
+        if (sources == null || sources.trim().isEmpty()) {
+            return this.autocompleteService.refreshAll();
+        }
+        return this.autocompleteService.refresh(Arrays.asList(sources.trim().split("\\s*,\\s*")));
+    }
+}
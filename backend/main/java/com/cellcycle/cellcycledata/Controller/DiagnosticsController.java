@@ -0,0 +1,41 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.SchemaCheckResult;
+import com.cellcycle.cellcycledata.Service.SchemaValidationService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 运行状态诊断控制器
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class DiagnosticsController {
+
+    @Resource
+    private SchemaValidationService schemaValidationService;
+
+    /**
+     * 启动时的数据表结构校验结果
+     */
+    @GetMapping("/diagnostics/schema")
+    public List<SchemaCheckResult> getSchemaCheckResults() {
+        return this.schemaValidationService.getResults();
+    }
+
+    /**
+     * 重新校验数据表结构；需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/diagnostics/schema")
+    public List<SchemaCheckResult> revalidateSchema() {
+        return this.schemaValidationService.validate();
+    }
+}
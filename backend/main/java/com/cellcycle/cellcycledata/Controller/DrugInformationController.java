@@ -2,6 +2,7 @@ package com.cellcycle.cellcycledata.Controller;
 
 import com.cellcycle.cellcycledata.Entity.DrugInformation;
 import com.cellcycle.cellcycledata.Service.DrugInformationService;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
 import javax.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,11 +17,13 @@ public class DrugInformationController {
     @Resource
     private DrugInformationService drugInformationService;
 
+    @DatabaseRoute
     @GetMapping("/drug-information")
     public List<DrugInformation> getAllDrugInformation() {
         return this.drugInformationService.selectAllDrugInformation();
     }
 
+    @DatabaseRoute
     @GetMapping("/drug-information/{drug}")
     public DrugInformation getDrugInformationByDrug(@PathVariable String drug) {
         return this.drugInformationService.selectByDrug(drug);
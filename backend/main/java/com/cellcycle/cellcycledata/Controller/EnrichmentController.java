@@ -0,0 +1,30 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.EnrichmentRequest;
+import com.cellcycle.cellcycledata.Entity.EnrichmentResult;
+import com.cellcycle.cellcycledata.Service.EnrichmentService;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+
+/**
+ * 基因集合富集分析控制器
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class EnrichmentController {
+
+    @Resource
+    private EnrichmentService enrichmentService;
+
+    /**
+     * 对任意基因列表做KEGG通路和癌症标志富集分析，返回超几何p值、富集倍数和BH校正FDR
+     * 与 /kegg-pathway 中预先计算的DAVID结果不同，这里按请求的基因列表实时计算
+     */
+    @PostMapping("/enrichment")
+    public EnrichmentResult enrich(@RequestBody EnrichmentRequest request) {
+        return this.enrichmentService.enrich(request);
+    }
+}
@@ -0,0 +1,31 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.GeneCard;
+import com.cellcycle.cellcycledata.Service.GeneCardService;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+
+/**
+ * 基因详情聚合控制器
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class GeneCardController {
+
+    @Resource
+    private GeneCardService geneCardService;
+
+    /**
+     * 一次返回基因在细胞周期基因表、PPI、TF、miRNA、SL、SL Nature、药物靶点、
+     * 癌症标志和KEGG通路中的全部信息，以及各来源的耗时
+     */
+    @DatabaseRoute
+    @GetMapping("/gene/{gene}/card")
+    public GeneCard getGeneCard(@PathVariable("gene") String gene) {
+        return this.geneCardService.getGeneCard(gene);
+    }
+}
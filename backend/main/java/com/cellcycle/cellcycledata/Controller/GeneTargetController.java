@@ -1,8 +1,15 @@
 package com.cellcycle.cellcycledata.Controller;
 
+import com.cellcycle.cellcycledata.Entity.DrugRepurposing;
 import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Service.DrugRepurposingService;
 import com.cellcycle.cellcycledata.Service.GeneTargetService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
 import javax.annotation.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -12,22 +19,86 @@ import java.util.List;
 @RequestMapping("cellcycledata")
 @ResponseBody
 public class GeneTargetController {
+
+    /** 参与评分的互作邻居数上限 */
+    private static final int MAX_NEIGHBORS = 500;
+    /** 候选药物最多返回的条数 */
+    private static final int MAX_CANDIDATES = 1000;
     
     @Resource
     private GeneTargetService geneTargetService;
 
+    @Resource
+    private DrugRepurposingService drugRepurposingService;
+
+    @DatabaseRoute
     @GetMapping("/gene-targets")
     public List<GeneTarget> getAllGeneTargets() {
         return this.geneTargetService.selectAllGeneTargets();
     }
 
+    @DatabaseRoute
     @GetMapping("/gene-targets/gene/{gene}")
     public List<GeneTarget> getGeneTargetsByGene(@PathVariable String gene) {
         return this.geneTargetService.selectByGene(gene);
     }
 
+    @DatabaseRoute
     @GetMapping("/gene-targets/stage/{stage}")
     public List<GeneTarget> getGeneTargetsByStage(@PathVariable String stage) {
         return this.geneTargetService.selectByStage(stage);
     }
+    
+    /**
+     * 键集分页读取基因靶点数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/gene-targets/page")
+    public PageResult getGeneTargetsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return this.geneTargetService.selectPage(cursor, limit, fields);
+    }
+    
+    /**
+     * 老药新用候选药物排名：直接靶向该基因、靶向其互作邻居、靶向其合成致死伙伴的药物按权重汇总打分
+     * @param minScore 互作邻居的最低combined_score，默认0
+     * @param maxNeighbors 按分数取前若干个互作邻居，默认50，最多500
+     * @param directWeight 直接靶向的权重，默认1
+     * @param ppiWeight 靶向互作邻居的权重，默认0.5，按邻居分数与最高分之比折算
+     * @param slWeight 靶向合成致死伙伴的权重，默认0.7
+     * @param limit 返回的候选数，默认50，最多1000
+     */
+    @GetMapping("/drug-repurposing/{gene}")
+    public ResponseEntity<?> getDrugRepurposingCandidates(
+            @PathVariable("gene") String gene,
+            @RequestParam(value = "minScore", defaultValue = "0") Double minScore,
+            @RequestParam(value = "maxNeighbors", defaultValue = "50") Integer maxNeighbors,
+            @RequestParam(value = "directWeight", defaultValue = "1") Double directWeight,
+            @RequestParam(value = "ppiWeight", defaultValue = "0.5") Double ppiWeight,
+            @RequestParam(value = "slWeight", defaultValue = "0.7") Double slWeight,
+            @RequestParam(value = "limit", defaultValue = "50") Integer limit) {
+        DrugRepurposing result = this.drugRepurposingService.getCandidates(gene, minScore,
+                Math.max(0, Math.min(maxNeighbors, MAX_NEIGHBORS)), directWeight, ppiWeight, slWeight,
+                Math.max(1, Math.min(limit, MAX_CANDIDATES)));
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Drug target index is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * gene_target或drug_information表数据更新后重建药物靶点索引
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/drug-repurposing/reload")
+    public void reloadDrugRepurposing() {
+        this.drugRepurposingService.reload();
+    }
 }
@@ -0,0 +1,69 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.AdmissionRouteStats;
+import com.cellcycle.cellcycledata.Entity.ReplicaRouting;
+import com.cellcycle.cellcycledata.Entity.SlowSqlEntry;
+import com.cellcycle.cellcycledata.Service.AdmissionService;
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 运行指标控制器
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class MetricsController {
+
+    @Resource
+    private MetricsService metricsService;
+
+    @Resource
+    private AdmissionService admissionService;
+
+    /**
+     * Prometheus抓取接口：接口耗时、Mapper耗时、序列化耗时、返回行数和连接池状态
+     */
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String getMetrics() {
+        return this.metricsService.renderPrometheus();
+    }
+
+    /**
+     * 只读副本的健康状态、复制延迟、熔断状态与各路由目标的连接计数
+     */
+    @GetMapping("/metrics/replicas")
+    public ReplicaRouting getReplicaRouting() {
+        return this.metricsService.getReplicaRouting();
+    }
+
+    /**
+     * 全局(路由为*，只计访问数据库的路由)和各路由的并发准入状态：处理中、排队中、累计放行和拒绝数
+     */
+    @GetMapping("/metrics/admission")
+    public List<AdmissionRouteStats> getAdmission() {
+        return this.admissionService.getStats();
+    }
+
+    /**
+     * 目前最慢的SQL，按耗时降序
+     */
+    @GetMapping("/metrics/slow-sql")
+    public List<SlowSqlEntry> getSlowSql(@RequestParam(value = "limit", defaultValue = "20") Integer limit) {
+        return this.metricsService.getSlowSql(Math.max(1, limit));
+    }
+
+    /**
+     * 清空慢SQL列表；需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DeleteMapping("/metrics/slow-sql")
+    public void resetSlowSql() {
+        this.metricsService.resetSlowSql();
+    }
+}
@@ -1,11 +1,22 @@
 package com.cellcycle.cellcycledata.Controller;
 
+import com.cellcycle.cellcycledata.Entity.CoTargetSimilarity;
 import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 import com.cellcycle.cellcycledata.Service.MirnaGeneService;
+import com.cellcycle.cellcycledata.Service.MirnaSimilarityService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.Map;
 
 /**
  * MirnaGene控制器，提供miRNA-gene互作数据的REST API接口
@@ -14,31 +25,31 @@ import java.util.List;
 @RequestMapping("cellcycledata")
 public class MirnaGeneController {
 
+    /** 相似度排名最多返回的条数 */
+    private static final int MAX_NEIGHBORS = 500;
+
     @Resource
     private MirnaGeneService mirnaGeneService;
 
+    @Resource
+    private MirnaSimilarityService mirnaSimilarityService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
     /**
      * 获取所有miRNA-gene互作数据
      */
+    @DatabaseRoute
     @GetMapping("/mirna/all")
     public List<MirnaGene> getAllMirnaGeneData() {
-        List<MirnaGene> result = this.mirnaGeneService.getAllMirnaGeneData();
-        
-        // 调试：打印第一条数据的所有字段
-        if (!result.isEmpty()) {
-            MirnaGene first = result.get(0);
-            System.out.println("=== Backend Debug: First MirnaGene Data ===");
-            System.out.println("miRNA: " + first.getMiRNA());
-            System.out.println("gene: " + first.getGene());
-            System.out.println("=== End Backend Debug ===");
-        }
-        
-        return result;
+        return this.mirnaGeneService.getAllMirnaGeneData();
     }
 
     /**
      * 根据miRNA名称获取互作数据
      */
+    @DatabaseRoute
     @GetMapping("/mirna/mirna/{miRNA}")
     public List<MirnaGene> getMirnaGeneDataByMirna(@PathVariable("miRNA") String miRNA) {
         return this.mirnaGeneService.getMirnaGeneDataByMirna(miRNA);
@@ -47,6 +58,7 @@ public class MirnaGeneController {
     /**
      * 根据基因名称获取互作数据
      */
+    @DatabaseRoute
     @GetMapping("/mirna/gene/{gene}")
     public List<MirnaGene> getMirnaGeneDataByGene(@PathVariable("gene") String gene) {
         return this.mirnaGeneService.getMirnaGeneDataByGene(gene);
@@ -55,6 +67,7 @@ public class MirnaGeneController {
     /**
      * 获取所有唯一的miRNA名称
      */
+    @DatabaseRoute
     @GetMapping("/mirna/mirnas")
     public List<String> getAllDistinctMirnas() {
         return this.mirnaGeneService.getAllDistinctMirnas();
@@ -63,6 +76,7 @@ public class MirnaGeneController {
     /**
      * 获取所有唯一的基因名称
      */
+    @DatabaseRoute
     @GetMapping("/mirna/genes")
     public List<String> getAllDistinctGenes() {
         return this.mirnaGeneService.getAllDistinctGenes();
@@ -71,8 +85,98 @@ public class MirnaGeneController {
     /**
      * 根据miRNA或基因名称获取互作数据
      */
+    @DatabaseRoute
     @GetMapping("/mirna/search/{name}")
     public List<MirnaGene> getMirnaGeneDataByMirnaOrGene(@PathVariable("name") String name) {
         return this.mirnaGeneService.getMirnaGeneDataByMirnaOrGene(name);
     }
+    
+    /**
+     * 批量获取一组靶基因的miRNA互作数据，代替逐个基因调用 /mirna/gene/{gene}
+     * @param genes 基因名列表(JSON数组)，最多1000个
+     * @return 基因 -> 靶向该基因的miRNA互作数据
+     */
+    @DatabaseRoute
+    @PostMapping("/mirna/batch")
+    public Map<String, List<MirnaGene>> getMirnaGeneDataByGenes(@RequestBody List<String> genes) {
+        return this.mirnaGeneService.getMirnaGeneDataByGenes(genes);
+    }
+    
+    /**
+     * 与指定miRNA共有靶基因最多的miRNA
+     * @param metric jaccard(交集/并集，默认)或overlap(交集/较小集合)
+     * @param k 返回条数，默认20，最多500
+     * @param minShared 至少共有的靶基因数，默认1
+     */
+    @GetMapping("/mirna/mirna/{miRNA}/similar")
+    public ResponseEntity<?> getSimilarMirnas(
+            @PathVariable("miRNA") String miRNA,
+            @RequestParam(value = "metric", defaultValue = "jaccard") String metric,
+            @RequestParam(value = "k", defaultValue = "20") Integer k,
+            @RequestParam(value = "minShared", defaultValue = "1") Integer minShared) {
+        return orUnavailable(this.mirnaSimilarityService.getSimilarMirnas(
+                miRNA, metric, Math.max(1, Math.min(k, MAX_NEIGHBORS)), minShared));
+    }
+
+    /**
+     * 与指定基因共享调控miRNA最多的基因
+     * @param metric jaccard(交集/并集，默认)或overlap(交集/较小集合)
+     * @param k 返回条数，默认20，最多500
+     * @param minShared 至少共有的调控miRNA数，默认1
+     */
+    @GetMapping("/mirna/gene/{gene}/co-regulated")
+    public ResponseEntity<?> getCoRegulatedGenes(
+            @PathVariable("gene") String gene,
+            @RequestParam(value = "metric", defaultValue = "jaccard") String metric,
+            @RequestParam(value = "k", defaultValue = "20") Integer k,
+            @RequestParam(value = "minShared", defaultValue = "1") Integer minShared) {
+        return orUnavailable(this.mirnaSimilarityService.getCoRegulatedGenes(
+                gene, metric, Math.max(1, Math.min(k, MAX_NEIGHBORS)), minShared));
+    }
+
+    /**
+     * mirna_gene表数据更新后重建相似度索引并清空结果缓存
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/mirna/similarity/reload")
+    public void reloadSimilarity() {
+        this.mirnaSimilarityService.reload();
+    }
+
+    /**
+     * 以NDJSON流式输出所有miRNA-gene互作数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/mirna/all/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllMirnaGeneData() {
+        return out -> {
+            NdjsonResultHandler<MirnaGene> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(MirnaGene.class), out);
+            this.mirnaGeneService.streamAllMirnaGeneData(handler);
+            handler.finish();
+        };
+    }
+    
+    /**
+     * 键集分页读取miRNA-gene互作数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/mirna/page")
+    public PageResult getMirnaGeneDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return this.mirnaGeneService.selectPage(cursor, limit, fields);
+    }
+
+    private static ResponseEntity<?> orUnavailable(CoTargetSimilarity result) {
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("miRNA similarity index is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
 }
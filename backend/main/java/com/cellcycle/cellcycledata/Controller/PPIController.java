@@ -1,54 +1,69 @@
 package com.cellcycle.cellcycledata.Controller;
 
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.CentralityRanking;
 import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPIEvidenceResult;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Entity.PPISubnetwork;
+import com.cellcycle.cellcycledata.Service.CentralityService;
 import com.cellcycle.cellcycledata.Service.PPIDataService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @CrossOrigin
 @RequestMapping("cellcycledata")
 @ResponseBody
 public class PPIController {
+
+    /** 子网络搜索的最大跳数 */
+    private static final int MAX_DEPTH = 5;
+    /** 子网络节点数上限 */
+    private static final int MAX_NODES = 5000;
+    /** 中心性排名每页最多行数 */
+    private static final int MAX_RANKING_PAGE = 1000;
+    /** 证据通道过滤每页最多行数 */
+    private static final int MAX_EVIDENCE_PAGE = 1000;
+    /** 证据通道过滤的最大起始行，排序时要保留offset+limit行，更深的翻页请收紧过滤条件 */
+    private static final int MAX_EVIDENCE_OFFSET = 10000;
     
     @Resource
     private PPIDataService ppiDataService;
+
+    @Resource
+    private CentralityService centralityService;
+
+    @Resource
+    private ObjectMapper objectMapper;
     
     /**
      * 获取所有蛋白质互作数据
      */
+    @DatabaseRoute
     @GetMapping("/ppi/all")
     public List<PPIData> getAllPPIData() {
-        List<PPIData> result = this.ppiDataService.getAllPPIData();
-        
-        // 调试：打印第一条数据的所有字段
-        if (!result.isEmpty()) {
-            PPIData first = result.get(0);
-            System.out.println("=== Backend Debug: First PPI Data ===");
-            System.out.println("node1: " + first.getNode1());
-            System.out.println("node2: " + first.getNode2());
-            System.out.println("node1_string_id: " + first.getNode1_string_id());
-            System.out.println("node2_string_id: " + first.getNode2_string_id());
-            System.out.println("neighborhood_on_chromosome: " + first.getNeighborhood_on_chromosome());
-            System.out.println("gene_fusion: " + first.getGene_fusion());
-            System.out.println("phylogenetic_cooccurrence: " + first.getPhylogenetic_cooccurrence());
-            System.out.println("homology: " + first.getHomology());
-            System.out.println("coexpression: " + first.getCoexpression());
-            System.out.println("experimentally_determined_interaction: " + first.getExperimentally_determined_interaction());
-            System.out.println("database_annotated: " + first.getDatabase_annotated());
-            System.out.println("automated_textmining: " + first.getAutomated_textmining());
-            System.out.println("combined_score: " + first.getCombined_score());
-            System.out.println("=== End Backend Debug ===");
-        }
-        
-        return result;
+        return this.ppiDataService.getAllPPIData();
     }
     
     /**
      * 根据最低分数阈值获取蛋白质互作数据
      */
+    @DatabaseRoute
     @GetMapping("/ppi/score/{minScore}")
     public List<PPIData> getPPIDataByMinScore(@PathVariable("minScore") Double minScore) {
         return this.ppiDataService.getPPIDataByMinScore(minScore);
@@ -57,6 +72,7 @@ public class PPIController {
     /**
      * 获取与特定基因相关的蛋白质互作数据
      */
+    @DatabaseRoute
     @GetMapping("/ppi/gene/{gene}")
     public List<PPIData> getPPIDataByGene(@PathVariable("gene") String gene) {
         return this.ppiDataService.getPPIDataByGene(gene);
@@ -65,10 +81,178 @@ public class PPIController {
     /**
      * 根据基因和最低分数阈值获取蛋白质互作数据
      */
+    @DatabaseRoute
     @GetMapping("/ppi/gene/{gene}/score/{minScore}")
     public List<PPIData> getPPIDataByGeneAndMinScore(
             @PathVariable("gene") String gene,
             @PathVariable("minScore") Double minScore) {
         return this.ppiDataService.getPPIDataByGeneAndMinScore(gene, minScore);
     }
+    
+    /**
+     * 批量获取一组基因的蛋白质互作数据，代替逐个基因调用 /ppi/gene/{gene}
+     * @param genes 基因名列表(JSON数组)，最多1000个
+     * @param minScore 最低综合分数，可选
+     * @return 基因 -> 相关互作数据，按请求顺序排列
+     */
+    @DatabaseRoute
+    @PostMapping("/ppi/batch")
+    public Map<String, List<PPIData>> getPPIDataByGenes(
+            @RequestBody List<String> genes,
+            @RequestParam(value = "minScore", required = false) Double minScore) {
+        return this.ppiDataService.getPPIDataByGenes(genes, minScore);
+    }
+    
+    /**
+     * 提取多跳互作子网络
+     * @param genes 逗号分隔的种子基因
+     * @param depth 最大跳数
+     * @param minScore 沿边扩展所需的最低combined_score
+     * @param maxNodes 子网络节点数上限
+     */
+    @GetMapping("/ppi/subnetwork")
+    public ResponseEntity<?> getPPISubnetwork(
+            @RequestParam("genes") String genes,
+            @RequestParam(value = "depth", defaultValue = "1") Integer depth,
+            @RequestParam(value = "minScore", defaultValue = "0") Double minScore,
+            @RequestParam(value = "maxNodes", defaultValue = "500") Integer maxNodes) {
+        Set<String> seeds = new LinkedHashSet<>();
+        for (String gene : genes.split(",")) {
+            if (!gene.trim().isEmpty()) {
+                seeds.add(gene.trim());
+            }
+        }
+        if (seeds.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("At least one seed gene is required");
+        }
+        int boundedDepth = Math.max(0, Math.min(depth, MAX_DEPTH));
+        int boundedNodes = Math.max(1, Math.min(maxNodes, MAX_NODES));
+        PPISubnetwork result = this.ppiDataService.getSubnetwork(seeds, boundedDepth, minScore, boundedNodes);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("PPI graph is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 互作网络中心性排名，由后台任务计算，互作数据变化后才重新计算
+     * 结果尚未算出时返回202及任务状态，稍后重试即可；排队的计算任务已满时返回429
+     * @param metric degree、weightedDegree、betweenness、closeness或pageRank
+     * @param minScore 只使用combined_score不低于该值的互作，默认0，按0.05向下取整
+     * @param offset 起始名次，默认0
+     * @param limit 每页行数，默认50，最多1000
+     */
+    @GetMapping("/ppi/centrality")
+    public ResponseEntity<?> getCentralityRanking(
+            @RequestParam(value = "metric", defaultValue = "degree") String metric,
+            @RequestParam(value = "minScore", defaultValue = "0") Double minScore,
+            @RequestParam(value = "offset", defaultValue = "0") Integer offset,
+            @RequestParam(value = "limit", defaultValue = "50") Integer limit) {
+        CentralityRanking result = this.centralityService.getRanking(metric, minScore,
+                Math.max(0, offset), Math.max(1, Math.min(limit, MAX_RANKING_PAGE)));
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("PPI graph is not loaded");
+        }
+        if ("running".equals(result.getStatus())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+        }
+        if ("rejected".equals(result.getStatus())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(result);
+        }
+        if ("failed".equals(result.getStatus())) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 按多个证据通道的最低值过滤互作，例如只保留实验证据的网络：
+     * /ppi/evidence?min=experimentally_determined_interaction:0.4,coexpression:0.5&sort=coexpression:desc
+     * @param min 逗号分隔的"通道:最低值"，通道为ppi表的各证据列；缺失该通道的互作不满足条件
+     * @param sort 逗号分隔的"通道[:asc|desc]"，默认combined_score降序
+     * @param gene 只保留一端为该基因的互作，可省略
+     * @param offset 起始行，默认0，最多10000
+     * @param limit 每页行数，默认100，最多1000
+     */
+    @GetMapping("/ppi/evidence")
+    public ResponseEntity<?> getPPIDataByEvidence(
+            @RequestParam(value = "min", required = false) String min,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "gene", required = false) String gene,
+            @RequestParam(value = "offset", defaultValue = "0") Integer offset,
+            @RequestParam(value = "limit", defaultValue = "100") Integer limit) {
+        if (offset > MAX_EVIDENCE_OFFSET) {
+            throw new InvalidQueryException("offset must not exceed " + MAX_EVIDENCE_OFFSET
+                    + ", narrow the thresholds or the gene instead");
+        }
+        Map<String, Double> minimums = new LinkedHashMap<>();
+        for (String item : split(min)) {
+            int colon = item.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new InvalidQueryException("Invalid threshold '" + item + "', expected channel:value");
+            }
+            try {
+                minimums.put(item.substring(0, colon).trim(), Double.valueOf(item.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidQueryException("Invalid threshold '" + item + "', expected channel:value");
+            }
+        }
+        PPIEvidenceResult result = this.ppiDataService.filterByEvidence(minimums, split(sort), gene,
+                Math.max(0, offset), Math.max(1, Math.min(limit, MAX_EVIDENCE_PAGE)));
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("PPI graph is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    private static List<String> split(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+        return items;
+    }
+    
+    /**
+     * ppi表数据更新后重新加载内存互作图，中心性排名随之在下次查询时重新计算
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/ppi/reload")
+    public void reloadPPIGraph() {
+        this.ppiDataService.reloadGraph();
+    }
+    
+    /**
+     * 以NDJSON流式输出所有蛋白质互作数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/ppi/all/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllPPIData() {
+        return out -> {
+            NdjsonResultHandler<PPIData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(PPIData.class), out);
+            this.ppiDataService.streamAllPPIData(handler);
+            handler.finish();
+        };
+    }
+    
+    /**
+     * 键集分页读取蛋白质互作数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/ppi/page")
+    public PageResult getPPIDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return this.ppiDataService.selectPage(cursor, limit, fields);
+    }
 }
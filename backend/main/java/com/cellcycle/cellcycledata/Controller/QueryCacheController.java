@@ -0,0 +1,49 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.QueryCacheStats;
+import com.cellcycle.cellcycledata.Service.QueryCacheService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询缓存控制器：各数据表缓存的命中统计，以及数据更新后的重新加载
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class QueryCacheController {
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    /**
+     * 每张表一个缓存：条目数、缓存行数、命中/未命中/淘汰/失效次数和当前数据版本号
+     */
+    @GetMapping("/cache/stats")
+    public List<QueryCacheStats> getStats() {
+        return this.queryCacheService.getStats();
+    }
+
+    /**
+     * 数据表更新后调用：使这些表的缓存失效，并重建依赖它们的内存索引
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403，此时只能重启服务来刷新缓存
+     * @param tables 逗号分隔的表名，省略时重新加载全部表
+     * @return 表名 -> 新的数据版本号
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/cache/reload")
+    public Map<String, Long> reload(@RequestParam(value = "tables", required = false) String tables) {
+        if (tables == null || tables.trim().isEmpty()) {
+            return this.queryCacheService.reload(null);
+        }
+        return this.queryCacheService.reload(Arrays.asList(tables.trim().split("\\s*,\\s*")));
+    }
+}
@@ -1,11 +1,19 @@
 package com.cellcycle.cellcycledata.Controller;
 
 import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 import com.cellcycle.cellcycledata.Service.SLDataService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 合成致死(Synthetic Lethality)数据控制器
@@ -18,24 +26,18 @@ public class SLDataController {
     
     @Resource
     private SLDataService slDataService;
+
+    @Resource
+    private ObjectMapper objectMapper;
     
     /**
      * 获取所有合成致死数据
      * @return 所有合成致死数据列表
      */
+    @DatabaseRoute
     @GetMapping("/sl/all")
     public List<SLData> getAllSLData() {
-        try {
-            // 直接调用服务层方法，其中已包含调试代码
-            List<SLData> result = slDataService.selectAllSLData();
-            
-            // 返回结果
-            return result;
-        } catch (Exception e) {
-            System.err.println("Error in getAllSLData: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+        return slDataService.selectAllSLData();
     }
     
     /**
@@ -43,8 +45,82 @@ public class SLDataController {
      * @param gene 基因名称
      * @return 与指定基因相关的合成致死数据列表
      */
+    @DatabaseRoute
     @GetMapping("/sl/gene/{gene}")
     public List<SLData> getSLDataByGene(@PathVariable("gene") String gene) {
         return slDataService.selectSLDataByGene(gene);
     }
+    
+    /**
+     * 批量获取一组基因的合成致死数据，代替逐个基因调用 /sl/gene/{gene}
+     * @param genes 基因名列表(JSON数组)，最多1000个
+     * @return 基因 -> 与该基因相关的合成致死数据
+     */
+    @DatabaseRoute
+    @PostMapping("/sl/batch")
+    public Map<String, List<SLData>> getSLDataByGenes(@RequestBody List<String> genes) {
+        return slDataService.selectSLDataByGenes(genes);
+    }
+    
+    /**
+     * 判断两个基因是否构成合成致死
+     * @return 基因对及其数据来源，不是合成致死对时sources为空
+     */
+    @GetMapping("/sl/pair")
+    public ResponseEntity<?> getSLPair(@RequestParam("geneA") String geneA, @RequestParam("geneB") String geneB) {
+        return orUnavailable(slDataService.getSLPair(geneA, geneB));
+    }
+    
+    /**
+     * 与一组基因(例如肿瘤突变列表)全部构成合成致死的共同伙伴基因
+     * @param genes 基因名列表(JSON数组)
+     */
+    @PostMapping("/sl/shared-partners")
+    public ResponseEntity<?> getSharedPartners(@RequestBody List<String> genes) {
+        return orUnavailable(slDataService.getSharedPartners(genes));
+    }
+    
+    /**
+     * 一组基因内部两两之间的全部合成致死对
+     * @param genes 基因名列表(JSON数组)
+     */
+    @PostMapping("/sl/pairs-within")
+    public ResponseEntity<?> getPairsWithin(@RequestBody List<String> genes) {
+        return orUnavailable(slDataService.getPairsWithin(genes));
+    }
+    
+    private static ResponseEntity<?> orUnavailable(Object result) {
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("SL index is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 以NDJSON流式输出所有合成致死数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/sl/all/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllSLData() {
+        return out -> {
+            NdjsonResultHandler<SLData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(SLData.class), out);
+            slDataService.streamAllSLData(handler);
+            handler.finish();
+        };
+    }
+    
+    /**
+     * 键集分页读取合成致死数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/sl/page")
+    public PageResult getSLDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return slDataService.selectPage(cursor, limit, fields);
+    }
 }
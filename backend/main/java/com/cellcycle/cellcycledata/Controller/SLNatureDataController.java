@@ -1,11 +1,23 @@
 package com.cellcycle.cellcycledata.Controller;
 
 import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLNatureFacets;
+import com.cellcycle.cellcycledata.Entity.SLNatureRows;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 import com.cellcycle.cellcycledata.Service.SLNatureDataService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 合成致死自然数据(SL Nature)控制器
@@ -16,26 +28,22 @@ import java.util.List;
 @ResponseBody
 public class SLNatureDataController {
     
+    private static final int MAX_FACET_PAGE = 1000;
+    
     @Resource
     private SLNatureDataService slNatureDataService;
+
+    @Resource
+    private ObjectMapper objectMapper;
     
     /**
      * 获取所有合成致死自然数据
      * @return 所有合成致死自然数据列表
      */
+    @DatabaseRoute
     @GetMapping("/sl/nature/all")
     public List<SLNatureData> getAllSLNatureData() {
-        try {
-            // 直接调用服务层方法，其中已包含调试代码
-            List<SLNatureData> result = slNatureDataService.selectAllSLNatureData();
-            
-            // 返回结果
-            return result;
-        } catch (Exception e) {
-            System.err.println("Error in getAllSLNatureData: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+        return slNatureDataService.selectAllSLNatureData();
     }
     
     /**
@@ -43,8 +51,106 @@ public class SLNatureDataController {
      * @param gene 基因名称
      * @return 与指定基因相关的合成致死自然数据列表
      */
+    @DatabaseRoute
     @GetMapping("/sl/nature/gene/{gene}")
     public List<SLNatureData> getSLNatureDataByGene(@PathVariable("gene") String gene) {
         return slNatureDataService.selectSLNatureDataByGene(gene);
     }
+    
+    /**
+     * 分面计数：满足过滤条件的总行数，以及stageGeneA、stageGeneB、cellLine、geminiSensitive各取值的行数
+     * 各参数均可省略，省略表示该维度不限
+     */
+    @GetMapping("/sl/nature/facets")
+    public ResponseEntity<?> getSLNatureFacets(
+            @RequestParam(value = "stageGeneA", required = false) String stageGeneA,
+            @RequestParam(value = "stageGeneB", required = false) String stageGeneB,
+            @RequestParam(value = "cellLine", required = false) String cellLine,
+            @RequestParam(value = "geminiSensitive", required = false) String geminiSensitive) {
+        SLNatureFacets result = slNatureDataService.getFacets(
+                filters(stageGeneA, stageGeneB, cellLine, geminiSensitive));
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("SL nature facet cube is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 分面下钻：满足过滤条件的一页明细
+     * @param offset 起始行，默认0
+     * @param limit 每页行数，默认50，最多1000
+     */
+    @GetMapping("/sl/nature/facets/rows")
+    public ResponseEntity<?> getSLNatureFacetRows(
+            @RequestParam(value = "stageGeneA", required = false) String stageGeneA,
+            @RequestParam(value = "stageGeneB", required = false) String stageGeneB,
+            @RequestParam(value = "cellLine", required = false) String cellLine,
+            @RequestParam(value = "geminiSensitive", required = false) String geminiSensitive,
+            @RequestParam(value = "offset", defaultValue = "0") Integer offset,
+            @RequestParam(value = "limit", defaultValue = "50") Integer limit) {
+        SLNatureRows result = slNatureDataService.getFacetRows(
+                filters(stageGeneA, stageGeneB, cellLine, geminiSensitive),
+                Math.max(0, offset), Math.max(1, Math.min(limit, MAX_FACET_PAGE)));
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("SL nature facet cube is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * sl_nature表数据更新后重建分面立方体和合成致死索引
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/sl/nature/reload")
+    public void reloadSLNatureData() {
+        slNatureDataService.reload();
+    }
+    
+    private static Map<String, String> filters(String stageGeneA, String stageGeneB, String cellLine,
+                                               String geminiSensitive) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (stageGeneA != null) {
+            filters.put("stageGeneA", stageGeneA);
+        }
+        if (stageGeneB != null) {
+            filters.put("stageGeneB", stageGeneB);
+        }
+        if (cellLine != null) {
+            filters.put("cellLine", cellLine);
+        }
+        if (geminiSensitive != null) {
+            filters.put("geminiSensitive", geminiSensitive);
+        }
+        return filters;
+    }
+    
+    /**
+     * 以NDJSON流式输出所有合成致死自然数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/sl/nature/all/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllSLNatureData() {
+        return out -> {
+            NdjsonResultHandler<SLNatureData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(SLNatureData.class), out);
+            slNatureDataService.streamAllSLNatureData(handler);
+            handler.finish();
+        };
+    }
+    
+    /**
+     * 键集分页读取合成致死自然数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/sl/nature/page")
+    public PageResult getSLNatureDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return slNatureDataService.selectPage(cursor, limit, fields);
+    }
 }
@@ -0,0 +1,52 @@
+package com.cellcycle.cellcycledata.Controller;
+
+import com.cellcycle.cellcycledata.Entity.SnapshotInfo;
+import com.cellcycle.cellcycledata.Service.SnapshotService;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+
+/**
+ * 参考数据快照控制器：查看当前映射的快照，从数据库导出新快照，或重新映射快照文件(后两者为管理接口)
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+@ResponseBody
+public class SnapshotController {
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    /**
+     * 快照路径、生成时间、校验和、各表行数，以及是否正由快照提供查询
+     */
+    @GetMapping("/snapshot")
+    public SnapshotInfo getInfo() {
+        return this.snapshotService.getInfo();
+    }
+
+    /**
+     * 从数据库导出全部参考数据表，替换快照文件后重新映射
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/snapshot/export")
+    public SnapshotInfo export() throws IOException {
+        return this.snapshotService.export();
+    }
+
+    /**
+     * 重新映射快照文件，用于把其他节点导出的快照复制过来之后
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @PostMapping("/snapshot/load")
+    public SnapshotInfo load() throws IOException {
+        return this.snapshotService.load();
+    }
+}
@@ -1,11 +1,20 @@
 package com.cellcycle.cellcycledata.Controller;
 
 import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 import com.cellcycle.cellcycledata.Service.TFDataService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.config.AdminEndpoint;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 转录因子-基因互作数据控制器
@@ -15,33 +24,35 @@ import java.util.List;
 @RequestMapping("cellcycledata")
 @ResponseBody
 public class TFController {
+
+    /** 级联和调控链搜索的最大步数 */
+    private static final int MAX_DEPTH = 10;
+    /** 级联结果的基因数上限 */
+    private static final int MAX_NODES = 10000;
+    /** 反馈环的最大长度 */
+    private static final int MAX_LOOP_LENGTH = 6;
+    /** 每类环路最多返回的条数 */
+    private static final int MAX_LOOPS = 5000;
     
     @Resource
     private TFDataService tfDataService;
+
+    @Resource
+    private ObjectMapper objectMapper;
     
     /**
      * 获取所有转录因子-基因互作数据
      */
+    @DatabaseRoute
     @GetMapping("/tf/all")
     public List<TFData> getAllTFData() {
-        List<TFData> result = this.tfDataService.getAllTFData();
-        
-        // 调试：打印第一条数据的所有字段
-        if (!result.isEmpty()) {
-            TFData first = result.get(0);
-            System.out.println("=== Backend Debug: First TF Data ===");
-            System.out.println("tf: " + first.getTf());
-            System.out.println("target_gene: " + first.getTarget_gene());
-            System.out.println("interaction: " + first.getInteraction());
-            System.out.println("=== End Backend Debug ===");
-        }
-        
-        return result;
+        return this.tfDataService.getAllTFData();
     }
     
     /**
      * 获取与特定转录因子相关的互作数据
      */
+    @DatabaseRoute
     @GetMapping("/tf/factor/{tf}")
     public List<TFData> getTFDataByTF(@PathVariable("tf") String tf) {
         return this.tfDataService.getTFDataByTF(tf);
@@ -50,6 +61,7 @@ public class TFController {
     /**
      * 获取与特定目标基因相关的互作数据
      */
+    @DatabaseRoute
     @GetMapping("/tf/target/{targetGene}")
     public List<TFData> getTFDataByTargetGene(@PathVariable("targetGene") String targetGene) {
         return this.tfDataService.getTFDataByTargetGene(targetGene);
@@ -58,8 +70,131 @@ public class TFController {
     /**
      * 获取与特定基因相关的互作数据（作为转录因子或目标基因）
      */
+    @DatabaseRoute
     @GetMapping("/tf/gene/{gene}")
     public List<TFData> getTFDataByGene(@PathVariable("gene") String gene) {
         return this.tfDataService.getTFDataByGene(gene);
     }
+    
+    /**
+     * 批量获取一组基因的转录因子调控数据，代替逐个基因调用 /tf/gene/{gene}
+     * @param genes 基因名列表(JSON数组)，最多1000个
+     * @return 基因 -> 该基因作为转录因子或靶基因的调控数据
+     */
+    @DatabaseRoute
+    @PostMapping("/tf/batch")
+    public Map<String, List<TFData>> getTFDataByGenes(@RequestBody List<String> genes) {
+        return this.tfDataService.getTFDataByGenes(genes);
+    }
+    
+    /**
+     * 调控级联：基因在depth步内可达的下游靶基因
+     * @param depth 最大步数，默认3，最多10
+     * @param maxNodes 返回基因数上限，默认2000
+     */
+    @GetMapping("/tf/network/{gene}/downstream")
+    public ResponseEntity<?> getDownstream(
+            @PathVariable("gene") String gene,
+            @RequestParam(value = "depth", defaultValue = "3") Integer depth,
+            @RequestParam(value = "maxNodes", defaultValue = "2000") Integer maxNodes) {
+        return orUnavailable(this.tfDataService.getCascade(gene, true,
+                Math.max(1, Math.min(depth, MAX_DEPTH)), Math.max(1, Math.min(maxNodes, MAX_NODES))));
+    }
+    
+    /**
+     * 调控级联：在depth步内能够调控该基因的上游转录因子
+     * @param depth 最大步数，默认3，最多10
+     * @param maxNodes 返回基因数上限，默认2000
+     */
+    @GetMapping("/tf/network/{gene}/upstream")
+    public ResponseEntity<?> getUpstream(
+            @PathVariable("gene") String gene,
+            @RequestParam(value = "depth", defaultValue = "3") Integer depth,
+            @RequestParam(value = "maxNodes", defaultValue = "2000") Integer maxNodes) {
+        return orUnavailable(this.tfDataService.getCascade(gene, false,
+                Math.max(1, Math.min(depth, MAX_DEPTH)), Math.max(1, Math.min(maxNodes, MAX_NODES))));
+    }
+    
+    /**
+     * source到target的最短调控链及其净效应
+     * @param maxDepth 最大步数，默认6，最多10
+     */
+    @GetMapping("/tf/network/chain")
+    public ResponseEntity<?> getShortestChain(
+            @RequestParam("source") String source,
+            @RequestParam("target") String target,
+            @RequestParam(value = "maxDepth", defaultValue = "6") Integer maxDepth) {
+        return orUnavailable(this.tfDataService.getShortestChain(source, target,
+                Math.max(1, Math.min(maxDepth, MAX_DEPTH))));
+    }
+    
+    /**
+     * 包含该基因的前馈环，以及经过它的反馈环
+     * @param maxLength 反馈环最大长度，默认4，最多6
+     * @param limit 每类环路最多返回的条数，默认500
+     */
+    @GetMapping("/tf/network/{gene}/loops")
+    public ResponseEntity<?> getLoops(
+            @PathVariable("gene") String gene,
+            @RequestParam(value = "maxLength", defaultValue = "4") Integer maxLength,
+            @RequestParam(value = "limit", defaultValue = "500") Integer limit) {
+        return orUnavailable(this.tfDataService.getLoops(gene,
+                Math.max(1, Math.min(maxLength, MAX_LOOP_LENGTH)), Math.max(1, Math.min(limit, MAX_LOOPS))));
+    }
+    
+    /**
+     * 调控网络中的强连通分量(相互调控的基因组)，按大小降序
+     * @param minSize 最小分量大小，默认2
+     */
+    @GetMapping("/tf/network/components")
+    public ResponseEntity<?> getComponents(
+            @RequestParam(value = "minSize", defaultValue = "2") Integer minSize) {
+        return orUnavailable(this.tfDataService.getComponents(Math.max(1, minSize)));
+    }
+    
+    /**
+     * tf表数据更新后重新加载调控网络
+     * 需要管理员令牌(X-Admin-Token)，未配置cellcycledata.admin.token时返回403
+     */
+    @AdminEndpoint
+    @DatabaseRoute
+    @PostMapping("/tf/network/reload")
+    public void reloadNetwork() {
+        this.tfDataService.reloadGraph();
+    }
+    
+    /**
+     * 以NDJSON流式输出所有转录因子-基因互作数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/tf/all/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllTFData() {
+        return out -> {
+            NdjsonResultHandler<TFData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(TFData.class), out);
+            this.tfDataService.streamAllTFData(handler);
+            handler.finish();
+        };
+    }
+    
+    /**
+     * 键集分页读取转录因子-基因互作数据
+     * @param cursor 上一页返回的nextCursor，为空时读取第一页
+     * @param limit 每页行数，默认20，最多1000
+     * @param fields 逗号分隔的返回字段，为空时返回全部字段
+     */
+    @DatabaseRoute
+    @GetMapping("/tf/page")
+    public PageResult getTFDataPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return this.tfDataService.selectPage(cursor, limit, fields);
+    }
+
+    private static ResponseEntity<?> orUnavailable(Object result) {
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("TF network is not loaded");
+        }
+        return ResponseEntity.ok(result);
+    }
 }
@@ -2,18 +2,18 @@ package com.cellcycle.cellcycledata.Controller;
 
 import com.cellcycle.cellcycledata.Entity.cellcycledata;
 import com.cellcycle.cellcycledata.Service.cellcycledataService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import com.cellcycle.cellcycledata.Service.StaticDatasetService;
+import com.cellcycle.cellcycledata.config.DatabaseRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import javax.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
 
 @RestController
 @CrossOrigin
@@ -24,121 +24,98 @@ public class cellcycledataController {
     @Resource
     private cellcycledataService cellcycledataService;
 
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private StaticDatasetService staticDatasetService;
+
+    @DatabaseRoute
     @GetMapping("/allcellcyclegene")
     public List<cellcycledata> selectAllCellcycledata() {
         return this.cellcycledataService.selectAllCellcycledata();
     }
 
+    @DatabaseRoute
     @GetMapping("/allcellcyclegenename")
     public String[] GetAllGeneName(){
-        List<cellcycledata> cellcycledata = this.cellcycledataService.selectAllCellcycledata();
-        String[] gene = new String[cellcycledata.size()];
-        for (int i = 0; i < cellcycledata.size(); i++) {
-            gene[i] = cellcycledata.get(i).getGene_Symbol();
-        }
-        return gene;
+        return this.cellcycledataService.selectAllGeneSymbols().toArray(new String[0]);
+    }
+
+    @DatabaseRoute
+    @GetMapping("/cellcyclegene/symbol/{symbol}")
+    public List<cellcycledata> selectByGeneSymbol(@PathVariable("symbol") String symbol) {
+        return this.cellcycledataService.selectByGeneSymbol(symbol);
+    }
+
+    @DatabaseRoute
+    @GetMapping("/cellcyclegene/stage/{stage}")
+    public List<cellcycledata> selectByStage(@PathVariable("stage") String stage) {
+        return this.cellcycledataService.selectByStage(stage);
+    }
+
+    @DatabaseRoute
+    @GetMapping("/cellcyclegene/category/{category}")
+    public List<cellcycledata> selectByCategory(@PathVariable("category") String category) {
+        return this.cellcycledataService.selectByCategory(category);
+    }
+
+    @DatabaseRoute
+    @GetMapping("/cellcyclegene/species/{species}")
+    public List<cellcycledata> selectBySpecies(@PathVariable("species") String species) {
+        return this.cellcycledataService.selectBySpecies(species);
     }
 
     @GetMapping("/kegg-pathway")
-    public ResponseEntity<?> getKEGGPathway() {
+    public ResponseEntity<?> getKEGGPathway(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            ClassPathResource resource = new ClassPathResource("static/Browser/KEGG_pathway.txt");
-            List<Map<String, String>> results = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
-                String line;
-                String[] headers = null;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split("\t");
-                    if (headers == null) {
-                        headers = values;
-                    } else {
-                        Map<String, String> row = new HashMap<>();
-                        for (int i = 0; i < headers.length && i < values.length; i++) {
-                            row.put(headers[i], values[i]);
-                        }
-                        results.add(row);
-                    }
-                }
-            }
-            return ResponseEntity.ok(results);
-        } catch (IOException e) {
+            return jsonResponse(this.staticDatasetService.getKeggPathwayJson(), ifNoneMatch);
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading KEGG pathway data");
         }
     }
     
     @GetMapping("/hallmark-cell")
-    public ResponseEntity<?> getHallmarkCellData() {
+    public ResponseEntity<?> getHallmarkCellData(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            ClassPathResource resource = new ClassPathResource("static/home/hallmark_cell.txt");
-            List<Map<String, Object>> results = new ArrayList<>();
-            Map<String, List<String>> geneHallmarkMap = new HashMap<>();
-            Map<String, Integer> geneCountMap = new HashMap<>();
-            
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
-                String line;
-                String[] headers = null;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split("\t");
-                    if (headers == null) {
-                        headers = values;
-                    } else if (values.length >= 2) {
-                        String gene = values[0];
-                        String hallmark = values[1];
-                        
-                        // 统计基因出现次数
-                        geneCountMap.put(gene, geneCountMap.getOrDefault(gene, 0) + 1);
-                        
-                        // 收集基因对应的所有hallmark
-                        if (!geneHallmarkMap.containsKey(gene)) {
-                            geneHallmarkMap.put(gene, new ArrayList<>());
-                        }
-                        geneHallmarkMap.get(gene).add(hallmark);
-                    }
-                }
-            }
-            
-            // 构建结果
-            for (String gene : geneHallmarkMap.keySet()) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("gene", gene);
-                row.put("hallmarks", geneHallmarkMap.get(gene));
-                row.put("count", geneCountMap.get(gene));
-                results.add(row);
-            }
-            
-            return ResponseEntity.ok(results);
-        } catch (IOException e) {
+            return jsonResponse(this.staticDatasetService.getHallmarkCellJson(), ifNoneMatch);
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading hallmark cell data");
         }
     }
     
     @GetMapping("/mirna-gene-wordcloud")
-    public ResponseEntity<?> getMirnaGeneWordcloud() {
+    public ResponseEntity<?> getMirnaGeneWordcloud(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            ClassPathResource resource = new ClassPathResource("static/network/miRNA_gene_interaction_number.txt");
-            List<Map<String, Object>> results = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
-                String line;
-                String[] headers = null;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split("\t");
-                    if (headers == null) {
-                        headers = values;
-                    } else if (values.length >= 2) {
-                        Map<String, Object> row = new HashMap<>();
-                        row.put("name", values[0]); // 基因名称
-                        try {
-                            row.put("value", Integer.parseInt(values[1])); // 频数
-                        } catch (NumberFormatException e) {
-                            row.put("value", 0);
-                        }
-                        results.add(row);
-                    }
-                }
-            }
-            return ResponseEntity.ok(results);
-        } catch (IOException e) {
+            return jsonResponse(this.staticDatasetService.getMirnaGeneWordcloudJson(), ifNoneMatch);
+        } catch (UncheckedIOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading miRNA-gene wordcloud data");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 返回预先序列化的JSON，客户端缓存的ETag未变化时返回304
+     */
+    private ResponseEntity<?> jsonResponse(StaticDatasetService.JsonSnapshot snapshot, String ifNoneMatch) {
+        if (snapshot.getEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getJson());
+    }
+    
+    /**
+     * 以NDJSON流式输出所有细胞周期基因数据，逐行读取、逐行写出
+     */
+    @DatabaseRoute
+    @GetMapping(value = "/allcellcyclegene/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamAllCellcycledata() {
+        return out -> {
+            NdjsonResultHandler<cellcycledata> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(cellcycledata.class), out);
+            this.cellcycledataService.streamAllCellcycledata(handler);
+            handler.finish();
+        };
+    }
+}
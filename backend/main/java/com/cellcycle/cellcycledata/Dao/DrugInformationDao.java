@@ -12,4 +12,7 @@ public interface DrugInformationDao {
     
     // 根据药物名称查询信息
     DrugInformation selectByDrug(String drug);
+    
+    // 查询所有药物名称
+    List<String> selectAllDrugNames();
 }
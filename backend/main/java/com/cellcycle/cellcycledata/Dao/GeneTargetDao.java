@@ -1,9 +1,11 @@
 package com.cellcycle.cellcycledata.Dao;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.SelectProvider;
 import com.cellcycle.cellcycledata.Entity.GeneTarget;
 
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface GeneTargetDao {
@@ -15,4 +17,11 @@ public interface GeneTargetDao {
     
     // 根据阶段查询
     List<GeneTarget> selectByStage(String stage);
+    
+    // 查询所有唯一的药物名称
+    List<String> selectAllDistinctDrugs();
+    
+    // 键集分页查询，只读取请求的字段
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
 }
@@ -0,0 +1,128 @@
+package com.cellcycle.cellcycledata.Dao;
+
+import java.util.List;
+
+/**
+ * 键集分页SQL构造器，供各Dao的@SelectProvider使用
+ * 范围查询生成形如 SELECT ... FROM t WHERE k1 >= ? AND (k1 > ? OR k1 = ? AND k2 > ?) ORDER BY k1, k2 LIMIT ? 的语句，
+ * 翻页只需沿排序键索引做一次范围扫描，与页码深度无关；
+ * 排序键取值为NULL时改用IS NULL/IS NOT NULL，按MySQL的NULL最小规则比较，不会因NULL比较结果为未知而漏行
+ */
+public class KeysetPageProvider {
+
+    public static String selectPage(KeysetPageQuery query) {
+        PageableTable table = query.getTable();
+        StringBuilder sql = new StringBuilder("SELECT ");
+        List<String> fields = query.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(table.columnOf(fields.get(i))).append(" AS ").append(fields.get(i));
+        }
+        sql.append(" FROM ").append(table.getTableName());
+
+        List<String> keys = table.getKeyFields();
+        if (query.getEqualKey() != null) {
+            // 同一排序键的行按全部字段排序，使组内偏移在多次请求之间保持一致
+            sql.append(" WHERE ").append(equal(table, "equalKey", query.getEqualKey(), keys.size()));
+            sql.append(" ORDER BY ");
+            int i = 0;
+            for (String column : table.getColumns().values()) {
+                sql.append(i++ > 0 ? ", " : "").append(column);
+            }
+            sql.append(" LIMIT #{limit} OFFSET #{offset}");
+            return sql.toString();
+        }
+
+        String where = " WHERE ";
+        if (query.getAfterKey() != null) {
+            sql.append(where).append(after(table, query.getAfterKey()));
+            where = " AND ";
+        }
+        if (query.getBeforeKey() != null) {
+            sql.append(where).append(before(table, query.getBeforeKey()));
+        }
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(table.columnOf(keys.get(i)));
+        }
+        sql.append(" LIMIT #{limit}");
+        return sql.toString();
+    }
+
+    /**
+     * 前n个排序键与key相等
+     */
+    private static String equal(PageableTable table, String param, List<String> key, int n) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            String column = table.columnOf(table.getKeyFields().get(i));
+            sql.append(i > 0 ? " AND " : "").append(column);
+            if (key.get(i) == null) {
+                sql.append(" IS NULL");
+            } else {
+                sql.append(" = #{").append(param).append('[').append(i).append("]}");
+            }
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 排序键大于key：展开为 k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...，首列非NULL时另加 k1 >= v1 便于走索引
+     */
+    private static String after(PageableTable table, List<String> key) {
+        List<String> keys = table.getKeyFields();
+        StringBuilder sql = new StringBuilder();
+        if (key.get(0) != null) {
+            sql.append(table.columnOf(keys.get(0))).append(" >= #{afterKey[0]} AND ");
+        }
+        sql.append('(');
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append('(');
+            if (i > 0) {
+                sql.append(equal(table, "afterKey", key, i)).append(" AND ");
+            }
+            String column = table.columnOf(keys.get(i));
+            if (key.get(i) == null) {
+                sql.append(column).append(" IS NOT NULL");
+            } else {
+                sql.append(column).append(" > #{afterKey[").append(i).append("]}");
+            }
+            sql.append(')');
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * 排序键小于key，NULL小于任何值，没有比NULL更小的值
+     */
+    private static String before(PageableTable table, List<String> key) {
+        List<String> keys = table.getKeyFields();
+        StringBuilder sql = new StringBuilder("(");
+        int terms = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (key.get(i) == null) {
+                continue;
+            }
+            if (terms++ > 0) {
+                sql.append(" OR ");
+            }
+            sql.append('(');
+            if (i > 0) {
+                sql.append(equal(table, "beforeKey", key, i)).append(" AND ");
+            }
+            String column = table.columnOf(keys.get(i));
+            sql.append('(').append(column).append(" IS NULL OR ")
+                    .append(column).append(" < #{beforeKey[").append(i).append("]})");
+            sql.append(')');
+        }
+        if (terms == 0) {
+            sql.append("1 = 0");
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.cellcycle.cellcycledata.Dao;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 键集分页查询参数
+ * 排序键可以重复，也可以为NULL(与MySQL一致排在最前)，一页由以下两类查询拼成：
+ * 按排序键范围读取(afterKey/beforeKey，按排序键排序)，以及读取排序键等于equalKey的一组行(按全部字段排序，用offset跳过已返回的行)
+ */
+@Data
+public class KeysetPageQuery {
+    /**
+     * 查询的数据表
+     */
+    private PageableTable table;
+
+    /**
+     * 需要读取的字段(已校验，且包含全部排序键)
+     */
+    private List<String> fields;
+
+    /**
+     * 只读取排序键大于该值的行，为null时不限下界；元素为null表示该列为NULL
+     */
+    private List<String> afterKey;
+
+    /**
+     * 只读取排序键小于该值的行，为null时不限上界
+     */
+    private List<String> beforeKey;
+
+    /**
+     * 不为null时只读取排序键等于该值的行，此时忽略afterKey和beforeKey
+     */
+    private List<String> equalKey;
+
+    /**
+     * 读取equalKey分组时跳过的行数
+     */
+    private Integer offset;
+
+    /**
+     * 读取的行数
+     */
+    private Integer limit;
+}
@@ -1,10 +1,16 @@
 package com.cellcycle.cellcycledata.Dao;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Entity.MirnaGene;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,16 +26,18 @@ public interface MirnaGeneDao {
     List<MirnaGene> selectAllMirnaGeneData();
     
     /**
-     * 调试：查询表结构
+     * 流式查询所有miRNA-gene互作数据，逐行回调handler
      */
-    @Select("SHOW COLUMNS FROM mirna_gene")
-    List<Map<String, Object>> showColumns();
+    @Select("SELECT * FROM mirna_gene")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(MirnaGene.class)
+    void streamAllMirnaGeneData(ResultHandler<MirnaGene> handler);
     
     /**
-     * 调试：原始SQL查询
+     * 查询表结构，供启动时的结构校验使用
      */
-    @Select("SELECT miRNA, gene FROM mirna_gene LIMIT 1")
-    List<Map<String, Object>> selectRawData();
+    @Select("SHOW COLUMNS FROM mirna_gene")
+    List<Map<String, Object>> showColumns();
     
     /**
      * 根据miRNA名称查询互作数据
@@ -60,4 +68,19 @@ public interface MirnaGeneDao {
      */
     @Select("SELECT * FROM mirna_gene WHERE miRNA = #{name} OR gene = #{name}")
     List<MirnaGene> selectMirnaGeneDataByMirnaOrGene(@Param("name") String name);
+    
+    /**
+     * 批量查询一组靶基因的miRNA互作数据，调用方负责控制每批基因数量
+     */
+    @Select({"<script>",
+            "SELECT * FROM mirna_gene",
+            "WHERE gene IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "</script>"})
+    List<MirnaGene> selectMirnaGeneDataByGenes(@Param("genes") Collection<String> genes);
+    
+    /**
+     * 键集分页查询，只读取请求的字段
+     */
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
 }
@@ -1,10 +1,16 @@
 package com.cellcycle.cellcycledata.Dao;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Entity.PPIData;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -17,16 +23,18 @@ public interface PPIDataDao {
     List<PPIData> selectAllPPIData();
     
     /**
-     * 调试：查询表结构
+     * 流式查询所有蛋白质互作数据：MySQL驱动逐行返回(fetchSize=Integer.MIN_VALUE)，每行回调一次handler
      */
-    @Select("SHOW COLUMNS FROM ppi")
-    List<Map<String, Object>> showColumns();
+    @Select("SELECT * FROM ppi")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(PPIData.class)
+    void streamAllPPIData(ResultHandler<PPIData> handler);
     
     /**
-     * 调试：原始SQL查询
+     * 查询表结构，供启动时的结构校验使用
      */
-    @Select("SELECT node1, node2, node1_string_id, node2_string_id, combined_score FROM ppi LIMIT 1")
-    List<Map<String, Object>> selectRawData();
+    @Select("SHOW COLUMNS FROM ppi")
+    List<Map<String, Object>> showColumns();
     
     /**
      * 根据最低分数阈值查询蛋白质互作数据
@@ -45,4 +53,20 @@ public interface PPIDataDao {
      */
     @Select("SELECT * FROM ppi WHERE (node1 = #{gene} OR node2 = #{gene}) AND combined_score >= #{minScore}")
     List<PPIData> selectPPIDataByGeneAndMinScore(@Param("gene") String gene, @Param("minScore") Double minScore);
+    
+    /**
+     * 批量查询与一组基因相关的蛋白质互作数据，调用方负责控制每批基因数量
+     */
+    @Select({"<script>",
+            "SELECT * FROM ppi",
+            "WHERE node1 IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "OR node2 IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "</script>"})
+    List<PPIData> selectPPIDataByGenes(@Param("genes") Collection<String> genes);
+    
+    /**
+     * 键集分页查询，只读取请求的字段
+     */
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
 }
@@ -0,0 +1,94 @@
+package com.cellcycle.cellcycledata.Dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支持键集(keyset)分页与字段投影的数据表
+ * 每张表声明对外字段名到数据库列名的映射以及排序键，
+ * 分页SQL中的标识符只来自这里，请求参数中的字段名必须先经过白名单校验
+ */
+public enum PageableTable {
+    PPI("ppi", columns(
+            "node1", "node1",
+            "node2", "node2",
+            "node1_string_id", "node1_string_id",
+            "node2_string_id", "node2_string_id",
+            "neighborhood_on_chromosome", "neighborhood_on_chromosome",
+            "gene_fusion", "gene_fusion",
+            "phylogenetic_cooccurrence", "phylogenetic_cooccurrence",
+            "homology", "homology",
+            "coexpression", "coexpression",
+            "experimentally_determined_interaction", "experimentally_determined_interaction",
+            "database_annotated", "database_annotated",
+            "automated_textmining", "automated_textmining",
+            "combined_score", "combined_score"),
+            "node1", "node2"),
+    TF("tf", columns(
+            "tf", "tf",
+            "target_gene", "target_gene",
+            "interaction", "interaction"),
+            "tf", "target_gene"),
+    MIRNA_GENE("mirna_gene", columns(
+            "miRNA", "miRNA",
+            "gene", "gene"),
+            "miRNA", "gene"),
+    SL("sl", columns(
+            "geneA", "geneA",
+            "geneB", "geneB"),
+            "geneA", "geneB"),
+    SL_NATURE("sl_nature", columns(
+            "geneA", "Gene_A",
+            "stageGeneA", "stage_Gene_A",
+            "geneB", "Gene_B",
+            "stageGeneB", "stage_Gene_B",
+            "geminiSensitive", "GEMINI_sensitive",
+            "cellLine", "Cell_line"),
+            "geneA", "geneB", "cellLine"),
+    GENE_TARGET("gene_target", columns(
+            "gene", "gene",
+            "stage", "stage",
+            "drug", "drug",
+            "cancer", "cancer",
+            "pmid", "pmid"),
+            "gene", "drug", "cancer");
+
+    private final String tableName;
+    /** 字段名 -> 列名，保持声明顺序 */
+    private final Map<String, String> columns;
+    /** 排序键字段，对应索引的前导列；可以重复或为NULL，同一排序键的行在分页时按全部字段排序 */
+    private final List<String> keyFields;
+
+    PageableTable(String tableName, Map<String, String> columns, String... keyFields) {
+        this.tableName = tableName;
+        this.columns = Collections.unmodifiableMap(columns);
+        this.keyFields = Collections.unmodifiableList(Arrays.asList(keyFields));
+    }
+
+    private static Map<String, String> columns(String... fieldColumnPairs) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < fieldColumnPairs.length; i += 2) {
+            map.put(fieldColumnPairs[i], fieldColumnPairs[i + 1]);
+        }
+        return map;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Map<String, String> getColumns() {
+        return columns;
+    }
+
+    public List<String> getKeyFields() {
+        return keyFields;
+    }
+
+    public String columnOf(String field) {
+        return columns.get(field);
+    }
+}
@@ -2,9 +2,15 @@ package com.cellcycle.cellcycledata.Dao;
 
 import com.cellcycle.cellcycledata.Entity.SLData;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -22,16 +28,18 @@ public interface SLDataDao {
     List<SLData> selectAllSLData();
     
     /**
-     * 调试：查询表结构
+     * 流式获取所有合成致死数据，逐行回调handler
      */
-    @Select("SHOW COLUMNS FROM sl")
-    List<Map<String, Object>> showColumns();
+    @Select("SELECT geneA, geneB FROM sl")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(SLData.class)
+    void streamAllSLData(ResultHandler<SLData> handler);
     
     /**
-     * 调试：原始SQL查询
+     * 查询表结构，供启动时的结构校验使用
      */
-    @Select("SELECT geneA, geneB FROM sl LIMIT 1")
-    List<Map<String, Object>> selectRawData();
+    @Select("SHOW COLUMNS FROM sl")
+    List<Map<String, Object>> showColumns();
     
     /**
      * 根据基因名称查询相关的合成致死数据
@@ -40,4 +48,20 @@ public interface SLDataDao {
      */
     @Select("SELECT geneA, geneB FROM sl WHERE geneA = #{gene} OR geneB = #{gene}")
     List<SLData> selectSLDataByGene(@Param("gene") String gene);
+    
+    /**
+     * 批量查询与一组基因相关的合成致死数据，调用方负责控制每批基因数量
+     */
+    @Select({"<script>",
+            "SELECT geneA, geneB FROM sl",
+            "WHERE geneA IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "OR geneB IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "</script>"})
+    List<SLData> selectSLDataByGenes(@Param("genes") Collection<String> genes);
+    
+    /**
+     * 键集分页查询，只读取请求的字段
+     */
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
 }
@@ -2,8 +2,13 @@ package com.cellcycle.cellcycledata.Dao;
 
 import com.cellcycle.cellcycledata.Entity.SLNatureData;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 import java.util.Map;
@@ -22,16 +27,18 @@ public interface SLNatureDataDao {
     List<SLNatureData> selectAllSLNatureData();
     
     /**
-     * 调试：查询表结构
+     * 流式获取所有合成致死自然数据，逐行回调handler
      */
-    @Select("SHOW COLUMNS FROM sl_nature")
-    List<Map<String, Object>> showColumns();
+    @Select("SELECT Gene_A AS geneA, stage_Gene_A AS stageGeneA, Gene_B AS geneB, stage_Gene_B AS stageGeneB, GEMINI_sensitive AS geminiSensitive, Cell_line AS cellLine FROM sl_nature")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(SLNatureData.class)
+    void streamAllSLNatureData(ResultHandler<SLNatureData> handler);
     
     /**
-     * 调试：原始SQL查询
+     * 查询表结构，供启动时的结构校验使用
      */
-    @Select("SELECT Gene_A AS geneA, stage_Gene_A AS stageGeneA, Gene_B AS geneB, stage_Gene_B AS stageGeneB, GEMINI_sensitive AS geminiSensitive, Cell_line AS cellLine FROM sl_nature LIMIT 1")
-    List<Map<String, Object>> selectRawData();
+    @Select("SHOW COLUMNS FROM sl_nature")
+    List<Map<String, Object>> showColumns();
     
     /**
      * 根据基因名称查询相关的合成致死自然数据
@@ -40,4 +47,10 @@ public interface SLNatureDataDao {
      */
     @Select("SELECT Gene_A AS geneA, stage_Gene_A AS stageGeneA, Gene_B AS geneB, stage_Gene_B AS stageGeneB, GEMINI_sensitive AS geminiSensitive, Cell_line AS cellLine FROM sl_nature WHERE Gene_A = #{gene} OR Gene_B = #{gene}")
     List<SLNatureData> selectSLNatureDataByGene(@Param("gene") String gene);
+    
+    /**
+     * 键集分页查询，只读取请求的字段
+     */
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
 }
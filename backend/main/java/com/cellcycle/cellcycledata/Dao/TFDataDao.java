@@ -1,10 +1,16 @@
 package com.cellcycle.cellcycledata.Dao;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Entity.TFData;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,16 +26,18 @@ public interface TFDataDao {
     List<TFData> selectAllTFData();
     
     /**
-     * 调试：查询表结构
+     * 流式查询所有转录因子-基因互作数据，逐行回调handler
      */
-    @Select("SHOW COLUMNS FROM tf")
-    List<Map<String, Object>> showColumns();
+    @Select("SELECT * FROM tf")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(TFData.class)
+    void streamAllTFData(ResultHandler<TFData> handler);
     
     /**
-     * 调试：原始SQL查询
+     * 查询表结构，供启动时的结构校验使用
      */
-    @Select("SELECT tf, target_gene, interaction FROM tf LIMIT 1")
-    List<Map<String, Object>> selectRawData();
+    @Select("SHOW COLUMNS FROM tf")
+    List<Map<String, Object>> showColumns();
     
     /**
      * 查询与特定转录因子相关的互作数据
@@ -48,4 +56,26 @@ public interface TFDataDao {
      */
     @Select("SELECT * FROM tf WHERE tf = #{gene} OR target_gene = #{gene}")
     List<TFData> selectTFDataByGene(@Param("gene") String gene);
+    
+    /**
+     * 批量查询一组基因作为转录因子或靶基因的调控数据，调用方负责控制每批基因数量
+     */
+    @Select({"<script>",
+            "SELECT * FROM tf",
+            "WHERE tf IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "OR target_gene IN <foreach collection='genes' item='g' open='(' separator=',' close=')'>#{g}</foreach>",
+            "</script>"})
+    List<TFData> selectTFDataByGenes(@Param("genes") Collection<String> genes);
+    
+    /**
+     * 键集分页查询，只读取请求的字段
+     */
+    @SelectProvider(type = KeysetPageProvider.class, method = "selectPage")
+    List<Map<String, Object>> selectPage(KeysetPageQuery query);
+    
+    /**
+     * 查询所有唯一的转录因子名称
+     */
+    @Select("SELECT DISTINCT tf FROM tf ORDER BY tf")
+    List<String> selectAllDistinctTFs();
 }
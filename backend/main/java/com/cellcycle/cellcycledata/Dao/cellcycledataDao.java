@@ -1,6 +1,7 @@
 package com.cellcycle.cellcycledata.Dao;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Entity.cellcycledata;
 
 import java.util.List;
@@ -10,6 +11,24 @@ public interface cellcycledataDao {
 
     //  查询表格中所有睡眠相关基因
       List<cellcycledata>selectAllCellcycledata();
+
+    //  流式查询所有基因，逐行回调handler
+      void streamAllCellcycledata(ResultHandler<cellcycledata> handler);
+
+    //  根据基因名查询
+      List<cellcycledata> selectByGeneSymbol(String geneSymbol);
+
+    //  根据细胞周期阶段查询
+      List<cellcycledata> selectByStage(String stage);
+
+    //  根据类别查询
+      List<cellcycledata> selectByCategory(String category);
+
+    //  根据物种查询
+      List<cellcycledata> selectBySpecies(String species);
+
+    //  只查询所有基因名称
+      List<String> selectAllGeneSymbols();
     
     
     }
@@ -0,0 +1,221 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.AutocompleteSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 只读的自动补全索引
+ * 词条按小写形式排序存放在数组中：前缀查询是一次二分查找加顺序扫描；
+ * 模糊查询只比较长度差不超过允许编辑距离的词条，并使用带状编辑距离提前终止
+ */
+public final class AutocompleteIndex {
+
+    /**
+     * 一个词条：显示文本及其类型(gene、mirna、tf、drug、kegg、hallmark等)
+     */
+    public static final class Term {
+        private final String text;
+        private final String type;
+        private final String key;
+
+        public Term(String text, String type) {
+            this.text = text;
+            this.type = type;
+            this.key = text.toLowerCase(Locale.ROOT);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
+    private static final Comparator<Term> ORDER = Comparator
+            .comparing((Term term) -> term.key)
+            .thenComparing(term -> term.type);
+
+    /** 按key排序的词条 */
+    private final Term[] terms;
+    /** 按key长度排序的词条下标 */
+    private final int[] byLength;
+    /** 长度为L的词条在byLength中的区间为[lengthOffsets[L], lengthOffsets[L+1]) */
+    private final int[] lengthOffsets;
+
+    private AutocompleteIndex(Term[] terms, int[] byLength, int[] lengthOffsets) {
+        this.terms = terms;
+        this.byLength = byLength;
+        this.lengthOffsets = lengthOffsets;
+    }
+
+    /**
+     * 由若干来源的词条构建索引，相同文本和类型的词条只保留一个
+     */
+    public static AutocompleteIndex build(Collection<List<Term>> sources) {
+        List<Term> all = new ArrayList<>();
+        for (List<Term> source : sources) {
+            all.addAll(source);
+        }
+        all.sort(ORDER);
+
+        List<Term> unique = new ArrayList<>(all.size());
+        for (Term term : all) {
+            Term last = unique.isEmpty() ? null : unique.get(unique.size() - 1);
+            if (last == null || !last.key.equals(term.key) || !last.type.equals(term.type)) {
+                unique.add(term);
+            }
+        }
+        Term[] terms = unique.toArray(new Term[0]);
+
+        int maxLength = 0;
+        for (Term term : terms) {
+            maxLength = Math.max(maxLength, term.key.length());
+        }
+        int[] lengthOffsets = new int[maxLength + 2];
+        for (Term term : terms) {
+            lengthOffsets[term.key.length() + 1]++;
+        }
+        for (int length = 0; length <= maxLength; length++) {
+            lengthOffsets[length + 1] += lengthOffsets[length];
+        }
+        int[] byLength = new int[terms.length];
+        int[] cursor = Arrays.copyOf(lengthOffsets, maxLength + 1);
+        for (int i = 0; i < terms.length; i++) {
+            byLength[cursor[terms[i].key.length()]++] = i;
+        }
+        return new AutocompleteIndex(terms, byLength, lengthOffsets);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * 查询补全建议：先返回前缀匹配，不足limit时补充编辑距离不超过maxEdits的词条
+     * @param types 允许的词条类型，为null时不限制
+     */
+    public List<AutocompleteSuggestion> suggest(String query, int limit, int maxEdits, Set<String> types) {
+        List<AutocompleteSuggestion> result = new ArrayList<>();
+        String key = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        Set<Integer> taken = new HashSet<>();
+        for (int i = lowerBound(key); i < terms.length && result.size() < limit; i++) {
+            if (!terms[i].key.startsWith(key)) {
+                break;
+            }
+            if (accepts(types, terms[i])) {
+                taken.add(i);
+                result.add(suggestion(terms[i], terms[i].key.length() == key.length() ? 0 : null));
+            }
+        }
+        if (result.size() >= limit || maxEdits <= 0) {
+            return result;
+        }
+
+        // 按编辑距离由小到大补充模糊匹配
+        List<AutocompleteSuggestion> fuzzy = new ArrayList<>();
+        int minLength = Math.max(0, key.length() - maxEdits);
+        int maxLength = Math.min(lengthOffsets.length - 2, key.length() + maxEdits);
+        for (int length = minLength; length <= maxLength; length++) {
+            for (int j = lengthOffsets[length]; j < lengthOffsets[length + 1]; j++) {
+                int i = byLength[j];
+                if (taken.contains(i) || !accepts(types, terms[i])) {
+                    continue;
+                }
+                int distance = boundedDistance(key, terms[i].key, maxEdits);
+                if (distance <= maxEdits) {
+                    fuzzy.add(suggestion(terms[i], distance));
+                }
+            }
+        }
+        fuzzy.sort(Comparator.comparing(AutocompleteSuggestion::getDistance)
+                .thenComparing(AutocompleteSuggestion::getTerm, String.CASE_INSENSITIVE_ORDER));
+        for (AutocompleteSuggestion suggestion : fuzzy) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(suggestion);
+        }
+        return result;
+    }
+
+    private static boolean accepts(Set<String> types, Term term) {
+        return types == null || types.contains(term.type);
+    }
+
+    private static AutocompleteSuggestion suggestion(Term term, Integer distance) {
+        AutocompleteSuggestion suggestion = new AutocompleteSuggestion();
+        suggestion.setTerm(term.text);
+        suggestion.setType(term.type);
+        suggestion.setDistance(distance);
+        return suggestion;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0, hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].key.compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 带状Levenshtein距离，只计算对角线两侧maxEdits宽的区域，
+     * 某一行的最小值已超过maxEdits时立即返回maxEdits+1
+     */
+    static int boundedDistance(String a, String b, int maxEdits) {
+        int n = a.length(), m = b.length();
+        if (Math.abs(n - m) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int overflow = maxEdits + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxEdits ? j : overflow;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(m, i + maxEdits);
+            current[0] = i <= maxEdits ? i : overflow;
+            if (from > 1) {
+                current[from - 1] = overflow;
+            }
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j] + 1, current[j - 1] + 1));
+                current[j] = Math.min(value, overflow);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = overflow;
+            }
+            if (rowMin > maxEdits) {
+                return overflow;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], overflow);
+    }
+}
@@ -0,0 +1,289 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.CoTargetNeighbor;
+import com.cellcycle.cellcycledata.Entity.CoTargetSimilarity;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * mirna_gene二部图的只读位图索引
+ * 每个miRNA保存其靶基因集合、每个基因保存调控它的miRNA集合，均为long[]位图；
+ * 两个集合的交集大小是逐字按位与再计数，全量比较用fork-join按ID区间拆分并行，
+ * 每段各自保留前k名后再合并
+ */
+public final class CoTargetIndex {
+
+    public enum Side {
+        /** 按共同靶基因比较miRNA */
+        MIRNA,
+        /** 按共同调控miRNA比较基因 */
+        GENE
+    }
+
+    public enum Metric {
+        /** 交集 / 并集 */
+        JACCARD,
+        /** 交集 / 较小集合 */
+        OVERLAP
+    }
+
+    /** 每个fork-join叶子任务比较的对象数 */
+    private static final int LEAF_SIZE = 512;
+
+    private final Part mirnas;
+    private final Part genes;
+
+    private CoTargetIndex(Part mirnas, Part genes) {
+        this.mirnas = mirnas;
+        this.genes = genes;
+    }
+
+    /**
+     * 二部图的一侧：名称编号及每个对象的邻居位图
+     */
+    private static final class Part {
+        final Map<String, Integer> ids;
+        final String[] names;
+        final long[][] bits;
+        final int[] sizes;
+
+        Part(Map<String, Integer> ids, String[] names, long[][] bits, int[] sizes) {
+            this.ids = ids;
+            this.names = names;
+            this.bits = bits;
+            this.sizes = sizes;
+        }
+    }
+
+    /**
+     * 由mirna_gene全表构建索引，重复的miRNA-基因对只计一次
+     */
+    public static CoTargetIndex build(List<MirnaGene> rows) {
+        Map<String, Integer> mirnaIds = new HashMap<>();
+        List<String> mirnaNames = new ArrayList<>();
+        Map<String, Integer> geneIds = new HashMap<>();
+        List<String> geneNames = new ArrayList<>();
+        int[] edges = new int[rows.size() * 2];
+        int count = 0;
+        for (MirnaGene row : rows) {
+            if (row.getMiRNA() == null || row.getGene() == null
+                    || row.getMiRNA().trim().isEmpty() || row.getGene().trim().isEmpty()) {
+                continue;
+            }
+            edges[count++] = intern(mirnaIds, mirnaNames, row.getMiRNA());
+            edges[count++] = intern(geneIds, geneNames, row.getGene());
+        }
+
+        long[][] targets = new long[mirnaNames.size()][(geneNames.size() + 63) >>> 6];
+        long[][] regulators = new long[geneNames.size()][(mirnaNames.size() + 63) >>> 6];
+        for (int i = 0; i < count; i += 2) {
+            int mirna = edges[i];
+            int gene = edges[i + 1];
+            targets[mirna][gene >>> 6] |= 1L << gene;
+            regulators[gene][mirna >>> 6] |= 1L << mirna;
+        }
+        return new CoTargetIndex(
+                new Part(mirnaIds, mirnaNames.toArray(new String[0]), targets, cardinalities(targets)),
+                new Part(geneIds, geneNames.toArray(new String[0]), regulators, cardinalities(regulators)));
+    }
+
+    public int mirnaCount() {
+        return mirnas.names.length;
+    }
+
+    public int geneCount() {
+        return genes.names.length;
+    }
+
+    /**
+     * 与查询对象最相似的前k个同侧对象，按相似度降序，相同时按共同数降序、名称升序
+     * @param minShared 至少共有的邻居数，小于它的对象不参与排名
+     * @throws InvalidQueryException 名称不存在
+     */
+    public CoTargetSimilarity topK(Side side, String name, Metric metric, int k, int minShared, ForkJoinPool pool) {
+        Part part = side == Side.MIRNA ? mirnas : genes;
+        Integer id = name == null ? null : part.ids.get(GeneNames.normalize(name));
+        if (id == null) {
+            throw new InvalidQueryException("Unknown " + (side == Side.MIRNA ? "miRNA" : "gene") + " '" + name + "'");
+        }
+        long[] query = part.bits[id];
+        // 只需比较查询位图中非零的字
+        int nonZero = 0;
+        for (long word : query) {
+            if (word != 0) {
+                nonZero++;
+            }
+        }
+        int[] words = new int[nonZero];
+        for (int w = 0, i = 0; w < query.length; w++) {
+            if (query[w] != 0) {
+                words[i++] = w;
+            }
+        }
+
+        Search search = new Search(part, id, words, metric, k, Math.max(1, minShared));
+        PriorityQueue<Candidate> best = pool.invoke(new TopKTask(search, 0, part.names.length));
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(search.order.reversed());
+
+        List<CoTargetNeighbor> neighbors = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            CoTargetNeighbor neighbor = new CoTargetNeighbor();
+            neighbor.setName(part.names[candidate.id]);
+            neighbor.setShared(candidate.shared);
+            neighbor.setSize(part.sizes[candidate.id]);
+            neighbor.setScore(candidate.score);
+            neighbors.add(neighbor);
+        }
+        CoTargetSimilarity result = new CoTargetSimilarity();
+        result.setQuery(part.names[id]);
+        result.setType(side.name().toLowerCase(Locale.ROOT));
+        result.setMetric(metric.name().toLowerCase(Locale.ROOT));
+        result.setSize(part.sizes[id]);
+        result.setNeighbors(neighbors);
+        return result;
+    }
+
+    private static final class Candidate {
+        final int id;
+        final int shared;
+        final double score;
+
+        Candidate(int id, int shared, double score) {
+            this.id = id;
+            this.shared = shared;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 一次查询的参数，各子任务共享
+     */
+    private static final class Search {
+        final Part part;
+        final int query;
+        final int[] words;
+        final Metric metric;
+        final int k;
+        final int minShared;
+        /** 由差到好排序，堆顶是当前保留的最差一项 */
+        final Comparator<Candidate> order;
+
+        Search(Part part, int query, int[] words, Metric metric, int k, int minShared) {
+            this.part = part;
+            this.query = query;
+            this.words = words;
+            this.metric = metric;
+            this.k = k;
+            this.minShared = minShared;
+            Comparator<Candidate> byScore = Comparator.comparingDouble(c -> c.score);
+            this.order = byScore
+                    .thenComparingInt(c -> c.shared)
+                    .thenComparing((Candidate c) -> part.names[c.id], Comparator.reverseOrder());
+        }
+
+        /**
+         * 按相似度上界判断是否可能进入前k名，Jaccard的上界是小集合/大集合
+         */
+        boolean mayQualify(int candidate, PriorityQueue<Candidate> best) {
+            int size = part.sizes[candidate];
+            if (size < minShared) {
+                return false;
+            }
+            if (best.size() < k || metric != Metric.JACCARD) {
+                return true;
+            }
+            int querySize = part.sizes[query];
+            return (double) Math.min(size, querySize) / Math.max(size, querySize) >= best.peek().score;
+        }
+
+        void offer(PriorityQueue<Candidate> best, Candidate candidate) {
+            if (best.size() < k) {
+                best.add(candidate);
+            } else if (order.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+    }
+
+    private static final class TopKTask extends RecursiveTask<PriorityQueue<Candidate>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        TopKTask(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PriorityQueue<Candidate> compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                TopKTask left = new TopKTask(search, from, mid);
+                left.fork();
+                PriorityQueue<Candidate> best = new TopKTask(search, mid, to).compute();
+                for (Candidate candidate : left.join()) {
+                    search.offer(best, candidate);
+                }
+                return best;
+            }
+            PriorityQueue<Candidate> best = new PriorityQueue<>(search.k + 1, search.order);
+            long[] query = search.part.bits[search.query];
+            int querySize = search.part.sizes[search.query];
+            for (int candidate = from; candidate < to; candidate++) {
+                if (candidate == search.query || !search.mayQualify(candidate, best)) {
+                    continue;
+                }
+                long[] bits = search.part.bits[candidate];
+                int shared = 0;
+                for (int w : search.words) {
+                    shared += Long.bitCount(query[w] & bits[w]);
+                }
+                if (shared < search.minShared) {
+                    continue;
+                }
+                int size = search.part.sizes[candidate];
+                double score = search.metric == Metric.JACCARD
+                        ? (double) shared / (querySize + size - shared)
+                        : (double) shared / Math.min(querySize, size);
+                search.offer(best, new Candidate(candidate, shared, score));
+            }
+            return best;
+        }
+    }
+
+    private static int[] cardinalities(long[][] bits) {
+        int[] sizes = new int[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            for (long word : bits[i]) {
+                sizes[i] += Long.bitCount(word);
+            }
+        }
+        return sizes;
+    }
+
+    private static int intern(Map<String, Integer> ids, List<String> names, String name) {
+        String key = GeneNames.normalize(name);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(name.trim());
+        }
+        return id;
+    }
+}
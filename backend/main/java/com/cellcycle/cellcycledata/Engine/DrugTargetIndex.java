@@ -0,0 +1,153 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.DrugCandidate;
+import com.cellcycle.cellcycledata.Entity.DrugEvidence;
+import com.cellcycle.cellcycledata.Entity.DrugInformation;
+import com.cellcycle.cellcycledata.Entity.DrugRepurposing;
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * gene_target与drug_information的内存连接索引，用于老药新用候选排名
+ * 药物和基因均编号为整数ID；基因 -> 作用于它的药物ID数组，药物ID -> 名称、说明、靶基因数
+ */
+public final class DrugTargetIndex {
+
+    /**
+     * 一个与查询基因相关的基因及其关系，由调用方从互作图和合成致死索引中收集
+     */
+    public static final class RelatedGene {
+        private final String gene;
+        private final String relation;
+        private final Double ppiScore;
+        private final double weight;
+
+        public RelatedGene(String gene, String relation, Double ppiScore, double weight) {
+            this.gene = gene;
+            this.relation = relation;
+            this.ppiScore = ppiScore;
+            this.weight = weight;
+        }
+    }
+
+    /** 基因名称(规范化后) -> 作用于它的药物ID，升序去重 */
+    private final Map<String, int[]> drugsByGene;
+    private final String[] drugNames;
+    private final String[] drugInformation;
+    private final int[] targetCounts;
+
+    private DrugTargetIndex(Map<String, int[]> drugsByGene, String[] drugNames, String[] drugInformation,
+                            int[] targetCounts) {
+        this.drugsByGene = drugsByGene;
+        this.drugNames = drugNames;
+        this.drugInformation = drugInformation;
+        this.targetCounts = targetCounts;
+    }
+
+    public static DrugTargetIndex build(List<GeneTarget> targets, List<DrugInformation> information) {
+        Map<String, Integer> drugIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        Map<String, List<Integer>> byGene = new HashMap<>();
+        for (GeneTarget target : targets) {
+            String gene = GeneNames.normalize(target.getGene());
+            String drug = GeneNames.normalize(target.getDrug());
+            if (gene == null || gene.isEmpty() || drug == null || drug.isEmpty()) {
+                continue;
+            }
+            Integer id = drugIds.get(drug);
+            if (id == null) {
+                id = names.size();
+                drugIds.put(drug, id);
+                names.add(target.getDrug().trim());
+            }
+            byGene.computeIfAbsent(gene, key -> new ArrayList<>()).add(id);
+        }
+
+        Map<String, int[]> drugsByGene = new HashMap<>(byGene.size() * 2);
+        int[] targetCounts = new int[names.size()];
+        for (Map.Entry<String, List<Integer>> entry : byGene.entrySet()) {
+            int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+            drugsByGene.put(entry.getKey(), ids);
+            for (int id : ids) {
+                targetCounts[id]++;
+            }
+        }
+
+        String[] drugInformation = new String[names.size()];
+        for (DrugInformation row : information) {
+            Integer id = row.getDrug() == null ? null : drugIds.get(GeneNames.normalize(row.getDrug()));
+            if (id != null && drugInformation[id] == null) {
+                drugInformation[id] = row.getInformation();
+            }
+        }
+        return new DrugTargetIndex(drugsByGene, names.toArray(new String[0]), drugInformation, targetCounts);
+    }
+
+    public int drugCount() {
+        return drugNames.length;
+    }
+
+    public int geneCount() {
+        return drugsByGene.size();
+    }
+
+    /**
+     * 为查询基因的候选药物打分：每个相关基因把自己的权重加到作用于它的每个药物上，
+     * 查询基因本身作为direct关系传入；按得分降序，相同时依据多者优先，再按药物名称
+     */
+    public DrugRepurposing rank(String gene, List<RelatedGene> related, int ppiNeighbors, int slPartners, int limit) {
+        double[] scores = new double[drugNames.length];
+        Map<Integer, List<DrugEvidence>> evidence = new LinkedHashMap<>();
+        for (RelatedGene relatedGene : related) {
+            int[] drugs = drugsByGene.get(GeneNames.normalize(relatedGene.gene));
+            if (drugs == null) {
+                continue;
+            }
+            for (int drug : drugs) {
+                scores[drug] += relatedGene.weight;
+                DrugEvidence item = new DrugEvidence();
+                item.setGene(relatedGene.gene);
+                item.setRelation(relatedGene.relation);
+                item.setPpiScore(relatedGene.ppiScore);
+                item.setContribution(relatedGene.weight);
+                evidence.computeIfAbsent(drug, key -> new ArrayList<>()).add(item);
+            }
+        }
+
+        Integer[] order = evidence.keySet().toArray(new Integer[0]);
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byEvidence = Integer.compare(evidence.get(b).size(), evidence.get(a).size());
+            return byEvidence != 0 ? byEvidence : drugNames[a].compareTo(drugNames[b]);
+        });
+        List<DrugCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < order.length && i < limit; i++) {
+            int drug = order[i];
+            DrugCandidate candidate = new DrugCandidate();
+            candidate.setRank(i + 1);
+            candidate.setDrug(drugNames[drug]);
+            candidate.setScore(scores[drug]);
+            candidate.setTargetCount(targetCounts[drug]);
+            candidate.setInformation(drugInformation[drug]);
+            candidate.setEvidence(evidence.get(drug));
+            candidates.add(candidate);
+        }
+
+        DrugRepurposing result = new DrugRepurposing();
+        result.setGene(gene);
+        result.setPpiNeighbors(ppiNeighbors);
+        result.setSlPartners(slPartners);
+        result.setTotal(order.length);
+        result.setCandidates(candidates);
+        return result;
+    }
+}
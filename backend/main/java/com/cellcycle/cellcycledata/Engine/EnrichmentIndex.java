@@ -0,0 +1,320 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.EnrichmentResult;
+import com.cellcycle.cellcycledata.Entity.EnrichmentTerm;
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * KEGG通路与癌症标志基因集合的超几何富集分析索引
+ * 所有出现过的基因统一编号，每个条目及每个集合库的注释基因全集都是long[]位图；
+ * 一次分析只需把输入基因转成位图，逐条目按位与计数，再查预先算好的对数阶乘表求尾概率。
+ * KEGG文件只列出通路中属于细胞周期基因列表的成员，默认背景因此取文件给出的
+ * 全基因组数字：总体为Pop Total，条目大小为Pop Hits
+ */
+public final class EnrichmentIndex {
+
+    public static final String KEGG = "kegg";
+    public static final String HALLMARK = "hallmark";
+
+    /** 基因名称(规范化后) -> 基因ID */
+    private final Map<String, Integer> geneIds;
+    private final String[] geneNames;
+    private final Map<String, Library> libraries;
+    /** logFactorial[i] = ln(i!)，长度为基因总数+1 */
+    private final double[] logFactorial;
+
+    private EnrichmentIndex(Map<String, Integer> geneIds, String[] geneNames, Map<String, Library> libraries) {
+        this.geneIds = geneIds;
+        this.geneNames = geneNames;
+        this.libraries = libraries;
+        int population = geneNames.length;
+        for (Library library : libraries.values()) {
+            population = Math.max(population, library.population);
+        }
+        this.logFactorial = new double[population + 1];
+        for (int i = 1; i < logFactorial.length; i++) {
+            logFactorial[i] = logFactorial[i - 1] + Math.log(i);
+        }
+    }
+
+    /**
+     * 一个基因集合库：各条目的位图以及库内注释基因全集
+     * population大于0时，默认背景的总体和各条目大小取termSizes与population，而不是位图计数
+     */
+    private static final class Library {
+        final String[] terms;
+        final long[][] members;
+        final long[] annotated;
+        final int[] termSizes;
+        final int population;
+
+        Library(String[] terms, long[][] members, long[] annotated, int[] termSizes, int population) {
+            this.terms = terms;
+            this.members = members;
+            this.annotated = annotated;
+            this.termSizes = termSizes;
+            this.population = population;
+        }
+    }
+
+    /**
+     * 由KEGG_pathway.txt和hallmark_cell.txt的解析结果构建索引
+     * KEGG文件只列出了命中细胞周期基因列表的通路成员，注释全集即这些基因；
+     * 各行的Pop Hits和Pop Total另行保存，作为默认背景下的条目大小和总体大小
+     */
+    public static EnrichmentIndex build(List<KeggPathway> pathways, List<HallmarkGene> hallmarkGenes) {
+        Map<String, Integer> geneIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+
+        Map<String, List<Integer>> keggTerms = new LinkedHashMap<>();
+        Map<String, Integer> popHits = new HashMap<>();
+        int popTotal = 0;
+        for (KeggPathway pathway : pathways) {
+            List<Integer> members = keggTerms.computeIfAbsent(pathway.getTerm(), term -> new ArrayList<>());
+            for (String gene : pathway.getGenes()) {
+                members.add(intern(geneIds, names, gene));
+            }
+            if (pathway.getPopHits() != null) {
+                popHits.merge(pathway.getTerm(), pathway.getPopHits(), Math::max);
+            }
+            if (pathway.getPopTotal() != null) {
+                popTotal = Math.max(popTotal, pathway.getPopTotal());
+            }
+        }
+        Map<String, List<Integer>> hallmarkTerms = new LinkedHashMap<>();
+        for (HallmarkGene hallmarkGene : hallmarkGenes) {
+            int id = intern(geneIds, names, hallmarkGene.getGene());
+            for (String hallmark : hallmarkGene.getHallmarks()) {
+                hallmarkTerms.computeIfAbsent(hallmark, term -> new ArrayList<>()).add(id);
+            }
+        }
+
+        int words = (names.size() + 63) >>> 6;
+        Map<String, Library> libraries = new LinkedHashMap<>();
+        libraries.put(KEGG, library(keggTerms, words, popHits, popTotal));
+        libraries.put(HALLMARK, library(hallmarkTerms, words, Collections.<String, Integer>emptyMap(), 0));
+        return new EnrichmentIndex(geneIds, names.toArray(new String[0]), libraries);
+    }
+
+    /**
+     * 对输入基因做富集分析
+     * @param background 自定义背景，为null时KEGG以全基因组(Pop Total)为背景、癌症标志以其注释全集为背景；
+     *                   给出时总体和条目大小都只在背景与注释全集的交集内计数
+     * @param collections 参与分析的库，为null或空时全部参与
+     * @throws InvalidQueryException 库名不存在
+     */
+    public EnrichmentResult enrich(Collection<String> genes, Collection<String> background,
+                                   Collection<String> collections, int minOverlap, double maxFdr) {
+        List<String> selected = new ArrayList<>();
+        if (collections == null || collections.isEmpty()) {
+            selected.addAll(libraries.keySet());
+        } else {
+            for (String collection : collections) {
+                String key = collection == null ? "" : collection.trim().toLowerCase(Locale.ROOT);
+                if (!libraries.containsKey(key)) {
+                    throw new InvalidQueryException("Unknown collection '" + collection + "', available collections: "
+                            + libraries.keySet());
+                }
+                if (!selected.contains(key)) {
+                    selected.add(key);
+                }
+            }
+        }
+
+        int words = (geneNames.length + 63) >>> 6;
+        long[] input = new long[words];
+        for (String gene : genes) {
+            Integer id = geneIds.get(GeneNames.normalize(gene));
+            if (id != null) {
+                input[id >>> 6] |= 1L << id;
+            }
+        }
+        long[] restrict = null;
+        if (background != null) {
+            restrict = new long[words];
+            for (String gene : background) {
+                Integer id = geneIds.get(GeneNames.normalize(gene));
+                if (id != null) {
+                    restrict[id >>> 6] |= 1L << id;
+                }
+            }
+        }
+
+        List<EnrichmentTerm> reported = new ArrayList<>();
+        long[] mapped = new long[words];
+        int tested = 0;
+        for (String name : selected) {
+            Library library = libraries.get(name);
+            long[] universe = library.annotated.clone();
+            long[] list = new long[words];
+            int universeSize = 0;
+            int listSize = 0;
+            for (int w = 0; w < words; w++) {
+                if (restrict != null) {
+                    universe[w] &= restrict[w];
+                }
+                list[w] = input[w] & universe[w];
+                mapped[w] |= list[w];
+                universeSize += Long.bitCount(universe[w]);
+                listSize += Long.bitCount(list[w]);
+            }
+            // 文件只含部分成员，位图计数会把总体和条目大小都低估成细胞周期基因列表本身
+            boolean genomeWide = restrict == null && library.population > 0;
+            if (genomeWide) {
+                universeSize = library.population;
+            }
+
+            List<EnrichmentTerm> scored = new ArrayList<>();
+            for (int t = 0; t < library.terms.length; t++) {
+                long[] members = library.members[t];
+                int termSize = 0;
+                int overlap = 0;
+                for (int w = 0; w < words; w++) {
+                    termSize += Long.bitCount(members[w] & universe[w]);
+                    overlap += Long.bitCount(members[w] & list[w]);
+                }
+                if (genomeWide) {
+                    termSize = Math.min(Math.max(termSize, library.termSizes[t]), universeSize);
+                }
+                if (termSize == 0) {
+                    continue;
+                }
+                EnrichmentTerm term = new EnrichmentTerm();
+                term.setCollection(name);
+                term.setTerm(library.terms[t]);
+                term.setOverlap(overlap);
+                term.setTermSize(termSize);
+                term.setListSize(listSize);
+                term.setBackgroundSize(universeSize);
+                term.setPValue(upperTail(overlap, universeSize, termSize, listSize));
+                term.setFoldEnrichment(listSize == 0 ? 0.0
+                        : ((double) overlap / listSize) / ((double) termSize / universeSize));
+                term.setGenes(genesOf(members, list));
+                scored.add(term);
+            }
+            tested += scored.size();
+            benjaminiHochberg(scored);
+            for (EnrichmentTerm term : scored) {
+                if (term.getOverlap() >= minOverlap && term.getFdr() <= maxFdr) {
+                    reported.add(term);
+                }
+            }
+        }
+        reported.sort(Comparator.comparingDouble(EnrichmentTerm::getPValue)
+                .thenComparing(Comparator.comparingDouble(EnrichmentTerm::getFoldEnrichment).reversed())
+                .thenComparing(EnrichmentTerm::getTerm));
+
+        List<String> found = new ArrayList<>();
+        List<String> unmapped = new ArrayList<>();
+        for (String gene : genes) {
+            Integer id = geneIds.get(GeneNames.normalize(gene));
+            if (id != null && (mapped[id >>> 6] & 1L << id) != 0) {
+                found.add(geneNames[id]);
+            } else {
+                unmapped.add(gene);
+            }
+        }
+        EnrichmentResult result = new EnrichmentResult();
+        result.setGenes(found);
+        result.setUnmappedGenes(unmapped);
+        result.setTestedTerms(tested);
+        result.setTerms(reported);
+        return result;
+    }
+
+    /**
+     * 超几何分布上尾概率P(X >= k)：总体N个、其中K个属于条目，抽取n个
+     * 先用对数阶乘求起点的概率，之后按相邻项之比递推
+     */
+    double upperTail(int k, int total, int successes, int draws) {
+        if (k <= 0) {
+            return 1.0;
+        }
+        int max = Math.min(successes, draws);
+        int start = Math.max(k, draws - (total - successes));
+        if (start > max) {
+            return 0.0;
+        }
+        double probability = Math.exp(logChoose(successes, start) + logChoose(total - successes, draws - start)
+                - logChoose(total, draws));
+        double sum = 0;
+        for (int i = start; i <= max; i++) {
+            sum += probability;
+            probability *= (double) (successes - i) * (draws - i) / ((i + 1.0) * (total - successes - draws + i + 1.0));
+        }
+        return Math.min(1.0, sum);
+    }
+
+    private double logChoose(int n, int k) {
+        return logFactorial[n] - logFactorial[k] - logFactorial[n - k];
+    }
+
+    /**
+     * 按p值升序计算q = min(p_j * m / j)，j >= i
+     */
+    private static void benjaminiHochberg(List<EnrichmentTerm> terms) {
+        terms.sort(Comparator.comparingDouble(EnrichmentTerm::getPValue));
+        int m = terms.size();
+        double previous = 1.0;
+        for (int i = m - 1; i >= 0; i--) {
+            EnrichmentTerm term = terms.get(i);
+            previous = Math.min(previous, term.getPValue() * m / (i + 1));
+            term.setFdr(previous);
+        }
+    }
+
+    private List<String> genesOf(long[] members, long[] list) {
+        List<String> genes = new ArrayList<>();
+        for (int w = 0; w < members.length; w++) {
+            long bits = members[w] & list[w];
+            while (bits != 0) {
+                genes.add(geneNames[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return genes;
+    }
+
+    private static Library library(Map<String, List<Integer>> terms, int words, Map<String, Integer> termSizes,
+                                   int population) {
+        String[] names = terms.keySet().toArray(new String[0]);
+        long[][] members = new long[names.length][words];
+        long[] annotated = new long[words];
+        int[] sizes = new int[names.length];
+        for (int t = 0; t < names.length; t++) {
+            for (int id : terms.get(names[t])) {
+                members[t][id >>> 6] |= 1L << id;
+                annotated[id >>> 6] |= 1L << id;
+            }
+            sizes[t] = termSizes.getOrDefault(names[t], 0);
+        }
+        int known = 0;
+        for (long word : annotated) {
+            known += Long.bitCount(word);
+        }
+        // 总体不能小于已知的注释基因数，否则数据不一致，退回按位图计数
+        return new Library(names, members, annotated, sizes, population >= known ? population : 0);
+    }
+
+    private static int intern(Map<String, Integer> geneIds, List<String> names, String gene) {
+        String key = GeneNames.normalize(gene);
+        Integer id = geneIds.get(key);
+        if (id == null) {
+            id = names.size();
+            geneIds.put(key, id);
+            names.add(gene.trim());
+        }
+        return id;
+    }
+}
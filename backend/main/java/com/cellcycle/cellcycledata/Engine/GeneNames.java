@@ -0,0 +1,19 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import java.util.Locale;
+
+/**
+ * 基因名称规范化工具
+ */
+public final class GeneNames {
+
+    private GeneNames() {
+    }
+
+    /**
+     * 与MySQL默认排序规则一致，忽略大小写及首尾空白
+     */
+    public static String normalize(String gene) {
+        return gene == null ? null : gene.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,126 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的并发直方图，记录时只做一次二分查找和几次无锁累加
+ * 分桶上界与Prometheus的le标签一一对应
+ */
+public final class Histogram {
+
+    /** 请求和SQL耗时的分桶上界(秒) */
+    public static final double[] LATENCY_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+
+    /** 返回行数的分桶上界 */
+    public static final double[] ROWS = {0, 1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private final double[] bounds;
+    /** counts[i]为落在(bounds[i-1], bounds[i]]内的次数，最后一个为超过所有上界的次数 */
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final AtomicLong maxBits = new AtomicLong(Double.doubleToLongBits(0));
+
+    public Histogram(double[] bounds) {
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(double value) {
+        int lo = 0, hi = this.bounds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.bounds[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        this.counts[lo].increment();
+        this.sum.add(value);
+        long current;
+        while (value > Double.longBitsToDouble(current = this.maxBits.get())) {
+            if (this.maxBits.compareAndSet(current, Double.doubleToLongBits(value))) {
+                break;
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] cumulative = new long[this.counts.length];
+        long total = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            total += this.counts[i].sum();
+            cumulative[i] = total;
+        }
+        return new Snapshot(this.bounds, cumulative, this.sum.sum(), Double.longBitsToDouble(this.maxBits.get()));
+    }
+
+    /**
+     * 某一时刻的直方图读数，各桶为累计计数
+     */
+    public static final class Snapshot {
+        private final double[] bounds;
+        private final long[] cumulative;
+        private final double sum;
+        private final double max;
+
+        private Snapshot(double[] bounds, long[] cumulative, double sum, double max) {
+            this.bounds = bounds;
+            this.cumulative = cumulative;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public double[] getBounds() {
+            return bounds;
+        }
+
+        /**
+         * 小于等于bounds[i]的次数，最后一个元素为总次数
+         */
+        public long[] getCumulative() {
+            return cumulative;
+        }
+
+        public long getCount() {
+            return cumulative[cumulative.length - 1];
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * 按桶内线性插值估算分位数，落在最后一个桶时返回最大值
+         */
+        public double quantile(double q) {
+            long count = getCount();
+            if (count == 0) {
+                return 0;
+            }
+            double rank = q * count;
+            long previous = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                if (cumulative[i] >= rank) {
+                    double lower = i == 0 ? 0 : bounds[i - 1];
+                    long inBucket = cumulative[i] - previous;
+                    double fraction = inBucket == 0 ? 1 : (rank - previous) / inBucket;
+                    return Math.min(max, lower + (bounds[i] - lower) * fraction);
+                }
+                previous = cumulative[i];
+            }
+            return max;
+        }
+    }
+}
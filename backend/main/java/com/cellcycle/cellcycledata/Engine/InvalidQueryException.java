@@ -0,0 +1,14 @@
+package com.cellcycle.cellcycledata.Engine;
+
+/**
+ * 请求参数不合法(基因列表、游标、字段、通道、维度、指标等)，消息直接返回给调用方，
+ * 由ApiExceptionHandler转换为400；其余异常仍按服务器错误处理
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
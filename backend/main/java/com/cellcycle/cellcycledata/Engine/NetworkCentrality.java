@@ -0,0 +1,361 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.CentralityEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * 蛋白质互作网络的中心性指标，一次计算、只读使用
+ * 度和加权度直接由邻接表得出；介数和接近度共用每个源点的一次广度优先搜索(Brandes算法)，
+ * 源点按区间拆成fork-join任务，各任务累加到自己的数组后两两合并；PageRank以边分数为权重做幂迭代。
+ * 介数和接近度按跳数计算，边分数只表示可信度，不作为距离
+ */
+public final class NetworkCentrality {
+
+    public enum Metric {
+        DEGREE, WEIGHTED_DEGREE, BETWEENNESS, CLOSENESS, PAGERANK;
+
+        /**
+         * 忽略大小写、下划线和连字符，weightedDegree、weighted_degree、pageRank均可
+         */
+        public static Metric parse(String name) {
+            String key = name == null ? "" : name.replaceAll("[_\\-\\s]", "").toUpperCase(Locale.ROOT);
+            for (Metric metric : values()) {
+                if (metric.name().replace("_", "").equals(key)) {
+                    return metric;
+                }
+            }
+            throw new InvalidQueryException("Unknown metric '" + name + "', available metrics: "
+                    + "degree, weightedDegree, betweenness, closeness, pageRank");
+        }
+    }
+
+    private static final double DAMPING = 0.85;
+    private static final double PAGERANK_TOLERANCE = 1e-10;
+    private static final int PAGERANK_MAX_ITERATIONS = 200;
+
+    private final String[] names;
+    private final int[] degree;
+    private final double[] weightedDegree;
+    private final double[] betweenness;
+    private final double[] closeness;
+    private final double[] pageRank;
+    /** 指标 -> 按该指标降序排列的节点ID，只含至少有一条边的节点 */
+    private final int[][] rankings;
+    private final int edgeCount;
+
+    private NetworkCentrality(String[] names, int[] degree, double[] weightedDegree, double[] betweenness,
+                              double[] closeness, double[] pageRank, int edgeCount) {
+        this.names = names;
+        this.degree = degree;
+        this.weightedDegree = weightedDegree;
+        this.betweenness = betweenness;
+        this.closeness = closeness;
+        this.pageRank = pageRank;
+        this.edgeCount = edgeCount;
+        this.rankings = new int[Metric.values().length][];
+        for (Metric metric : Metric.values()) {
+            rankings[metric.ordinal()] = rank(metric);
+        }
+    }
+
+    /**
+     * 在分数不低于minScore的子网络上计算全部指标
+     */
+    public static NetworkCentrality compute(PPIGraph graph, double minScore, ForkJoinPool pool) {
+        return compute(graph, minScore, pool, () -> false);
+    }
+
+    /**
+     * 同上，计算过程中定期检查cancelled，返回true时尽快以CancellationException结束
+     */
+    public static NetworkCentrality compute(PPIGraph graph, double minScore, ForkJoinPool pool,
+                                            BooleanSupplier cancelled) {
+        String[] names = new String[graph.nodeCount()];
+        for (int v = 0; v < names.length; v++) {
+            names[v] = graph.geneName(v);
+        }
+        return compute(names, graph.adjacency(minScore), pool, cancelled);
+    }
+
+    static NetworkCentrality compute(String[] names, PPIGraph.Adjacency adjacency, ForkJoinPool pool,
+                                     BooleanSupplier cancelled) {
+        int n = names.length;
+        int[] offsets = adjacency.offsets;
+        int[] degree = new int[n];
+        double[] weightedDegree = new double[n];
+        int connected = 0;
+        for (int v = 0; v < n; v++) {
+            degree[v] = offsets[v + 1] - offsets[v];
+            for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                weightedDegree[v] += adjacency.weights[slot];
+            }
+            if (degree[v] > 0) {
+                connected++;
+            }
+        }
+
+        double[][] paths = pool.invoke(new ShortestPathTask(adjacency, n, 0, n, leafSize(n, pool), cancelled));
+        double[] betweenness = paths[0];
+        double[] closeness = paths[1];
+        // 无向图中每条最短路径被两端各统计一次；再按(n-1)(n-2)/2归一化到[0, 1]
+        double pairs = connected > 2 ? (connected - 1.0) * (connected - 2.0) / 2 : 1;
+        for (int v = 0; v < n; v++) {
+            betweenness[v] = betweenness[v] / 2 / pairs;
+        }
+        // 由每个源点的距离和与可达数换算为Wasserman-Faust接近度
+        double[] reached = paths[2];
+        for (int v = 0; v < n; v++) {
+            closeness[v] = closeness[v] == 0 || connected < 2
+                    ? 0 : reached[v] / (connected - 1) * (reached[v] / closeness[v]);
+        }
+
+        double[] pageRank = pageRank(adjacency, degree, connected, pool, cancelled);
+        return new NetworkCentrality(names, degree, weightedDegree, betweenness, closeness, pageRank,
+                adjacency.neighbors.length / 2);
+    }
+
+    /**
+     * 至少有一条边的节点数
+     */
+    public int nodeCount() {
+        return rankings[0].length;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * 按指标降序的一段排名，分数相同时按基因名升序
+     */
+    public List<CentralityEntry> ranking(Metric metric, int offset, int limit) {
+        int[] order = rankings[metric.ordinal()];
+        List<CentralityEntry> entries = new ArrayList<>();
+        for (int i = offset; i < order.length && i < offset + limit; i++) {
+            int v = order[i];
+            CentralityEntry entry = new CentralityEntry();
+            entry.setRank(i + 1);
+            entry.setGene(names[v]);
+            entry.setDegree(degree[v]);
+            entry.setWeightedDegree(weightedDegree[v]);
+            entry.setBetweenness(betweenness[v]);
+            entry.setCloseness(closeness[v]);
+            entry.setPageRank(pageRank[v]);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private int[] rank(Metric metric) {
+        double[] values = new double[names.length];
+        for (int v = 0; v < names.length; v++) {
+            switch (metric) {
+                case DEGREE:
+                    values[v] = degree[v];
+                    break;
+                case WEIGHTED_DEGREE:
+                    values[v] = weightedDegree[v];
+                    break;
+                case BETWEENNESS:
+                    values[v] = betweenness[v];
+                    break;
+                case CLOSENESS:
+                    values[v] = closeness[v];
+                    break;
+                default:
+                    values[v] = pageRank[v];
+            }
+        }
+        Comparator<Integer> order = Comparator.comparingDouble((Integer v) -> values[v]).reversed()
+                .thenComparing(v -> names[v]);
+        return IntStream.range(0, names.length)
+                .filter(v -> degree[v] > 0)
+                .boxed()
+                .sorted(order)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * 每个叶子任务处理的源点数，保证每个工作线程分到若干个任务以平衡负载
+     */
+    private static int leafSize(int n, ForkJoinPool pool) {
+        return Math.max(8, n / (pool.getParallelism() * 16));
+    }
+
+    /**
+     * 以[from, to)内的节点为源点做广度优先搜索，返回{介数累加, 距离和, 可达数}
+     */
+    private static final class ShortestPathTask extends RecursiveTask<double[][]> {
+        private static final long serialVersionUID = 1L;
+
+        private final PPIGraph.Adjacency adjacency;
+        private final int n;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final BooleanSupplier cancelled;
+
+        ShortestPathTask(PPIGraph.Adjacency adjacency, int n, int from, int to, int leafSize,
+                         BooleanSupplier cancelled) {
+            this.adjacency = adjacency;
+            this.n = n;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected double[][] compute() {
+            if (to - from > leafSize) {
+                int mid = (from + to) >>> 1;
+                ShortestPathTask left = new ShortestPathTask(adjacency, n, from, mid, leafSize, cancelled);
+                left.fork();
+                double[][] result = new ShortestPathTask(adjacency, n, mid, to, leafSize, cancelled).compute();
+                double[][] other = left.join();
+                for (int i = 0; i < n; i++) {
+                    result[0][i] += other[0][i];
+                    result[1][i] += other[1][i];
+                    result[2][i] += other[2][i];
+                }
+                return result;
+            }
+
+            int[] offsets = adjacency.offsets;
+            int[] neighbors = adjacency.neighbors;
+            double[] centrality = new double[n];
+            double[] distanceSum = new double[n];
+            double[] reachable = new double[n];
+            int[] distance = new int[n];
+            double[] sigma = new double[n];
+            double[] delta = new double[n];
+            int[] queue = new int[n];
+            Arrays.fill(distance, -1);
+            for (int s = from; s < to; s++) {
+                if (offsets[s + 1] == offsets[s]) {
+                    continue;
+                }
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Centrality computation cancelled");
+                }
+                // 广度优先搜索，队列顺序即按距离非降序，反向遍历即可回溯
+                int size = 0;
+                queue[size++] = s;
+                distance[s] = 0;
+                sigma[s] = 1;
+                long sum = 0;
+                for (int head = 0; head < size; head++) {
+                    int u = queue[head];
+                    for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                        int v = neighbors[slot];
+                        if (distance[v] < 0) {
+                            distance[v] = distance[u] + 1;
+                            sum += distance[v];
+                            queue[size++] = v;
+                        }
+                        if (distance[v] == distance[u] + 1) {
+                            sigma[v] += sigma[u];
+                        }
+                    }
+                }
+                distanceSum[s] = sum;
+                reachable[s] = size - 1;
+
+                // 依赖累加：前驱即距离恰好小1的邻居，无需单独保存前驱列表
+                for (int i = size - 1; i > 0; i--) {
+                    int w = queue[i];
+                    double coefficient = (1 + delta[w]) / sigma[w];
+                    for (int slot = offsets[w]; slot < offsets[w + 1]; slot++) {
+                        int v = neighbors[slot];
+                        if (distance[v] == distance[w] - 1) {
+                            delta[v] += sigma[v] * coefficient;
+                        }
+                    }
+                    centrality[w] += delta[w];
+                }
+                for (int i = 0; i < size; i++) {
+                    int v = queue[i];
+                    distance[v] = -1;
+                    sigma[v] = 0;
+                    delta[v] = 0;
+                }
+            }
+            return new double[][]{centrality, distanceSum, reachable};
+        }
+    }
+
+    /**
+     * 加权PageRank，只在有边的节点之间分配；出边权重和为0的节点视为悬挂节点，其得分均分给所有节点
+     */
+    private static double[] pageRank(PPIGraph.Adjacency adjacency, int[] degree, int connected, ForkJoinPool pool,
+                                     BooleanSupplier cancelled) {
+        int n = degree.length;
+        double[] rank = new double[n];
+        if (connected == 0) {
+            return rank;
+        }
+        int[] offsets = adjacency.offsets;
+        int[] neighbors = adjacency.neighbors;
+        double[] weights = adjacency.weights;
+        double[] outWeight = new double[n];
+        for (int v = 0; v < n; v++) {
+            for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                outWeight[v] += Math.max(0, weights[slot]);
+            }
+            if (degree[v] > 0) {
+                rank[v] = 1.0 / connected;
+            }
+        }
+        double[] next = new double[n];
+        for (int iteration = 0; iteration < PAGERANK_MAX_ITERATIONS; iteration++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Centrality computation cancelled");
+            }
+            double dangling = 0;
+            for (int v = 0; v < n; v++) {
+                if (degree[v] > 0 && outWeight[v] == 0) {
+                    dangling += rank[v];
+                }
+            }
+            double base = (1 - DAMPING) / connected + DAMPING * dangling / connected;
+            double[] current = rank;
+            double[] updated = next;
+            // 按入边拉取，各节点互不干扰，可直接在fork-join池中并行
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+                if (degree[v] == 0) {
+                    updated[v] = 0;
+                    return;
+                }
+                double sum = 0;
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                    int u = neighbors[slot];
+                    if (outWeight[u] > 0) {
+                        sum += current[u] * Math.max(0, weights[slot]) / outWeight[u];
+                    }
+                }
+                updated[v] = base + DAMPING * sum;
+            })).join();
+            double change = 0;
+            for (int v = 0; v < n; v++) {
+                change += Math.abs(next[v] - rank[v]);
+            }
+            next = rank;
+            rank = updated;
+            if (change < PAGERANK_TOLERANCE) {
+                break;
+            }
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,417 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPIEvidenceResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * ppi表各证据通道的列式存储，用于按任意通道阈值组合过滤并排序
+ * 每个通道一个double数组(缺失值为NaN，任何阈值比较都不成立)，行按combined_score降序排列；
+ * 每1024行为一块，记录各通道在块内的最大值(zone map)，块最大值低于阈值时整块跳过；
+ * 块内先用选择性最强的条件扫描出候选行号，其余条件只在候选行号上逐个收窄，循环体不含分支；
+ * 行顺序与PPIGraph的edgesByScore相同，按基因过滤时直接从互作图的邻接表(CSR)取出该基因的边作为候选行，不扫描整张表
+ */
+public final class PPIEvidenceColumns {
+
+    /** 可过滤、可排序的证据通道，与ppi表列名一致 */
+    public static final List<String> CHANNELS = Collections.unmodifiableList(Arrays.asList(
+            "neighborhood_on_chromosome", "gene_fusion", "phylogenetic_cooccurrence", "homology",
+            "coexpression", "experimentally_determined_interaction", "database_annotated",
+            "automated_textmining", "combined_score"));
+
+    private static final int COMBINED_SCORE = CHANNELS.indexOf("combined_score");
+    private static final int BLOCK = 1024;
+    /** 估计条件选择性时每个通道保留的分位点数 */
+    private static final int QUANTILES = 64;
+    /** 估计分位点时每个通道最多抽样的行数 */
+    private static final int SAMPLE = 1 << 16;
+
+    private final PPIData[] rows;
+    /** [通道][行] */
+    private final double[][] columns;
+    /** [通道][块]，块内非缺失值的最大值，全部缺失时为负无穷 */
+    private final double[][] blockMax;
+    /** [通道]，抽样值的分位点，升序 */
+    private final double[][] quantiles;
+    /** [通道]，非缺失值所占比例 */
+    private final double[] present;
+
+    /** 按基因过滤时提供邻接边的互作图 */
+    private final PPIGraph graph;
+    /** 互作图的边ID -> 本存储的行号 */
+    private final int[] rowOfEdge;
+
+    private PPIEvidenceColumns(PPIData[] rows, double[][] columns, double[][] blockMax, double[][] quantiles,
+                               double[] present, PPIGraph graph, int[] rowOfEdge) {
+        this.rows = rows;
+        this.columns = columns;
+        this.blockMax = blockMax;
+        this.quantiles = quantiles;
+        this.present = present;
+        this.graph = graph;
+        this.rowOfEdge = rowOfEdge;
+    }
+
+    /**
+     * 由ppi表的全部行构建，同时建立互作图
+     */
+    public static PPIEvidenceColumns build(List<PPIData> source) {
+        return build(PPIGraph.build(source));
+    }
+
+    /**
+     * 由已加载的互作图构建，与图共用边的顺序
+     */
+    public static PPIEvidenceColumns build(PPIGraph graph) {
+        // 按combined_score降序(缺失值在最后)，默认排序下无需再排
+        int[] order = graph.edgesByScore();
+        int n = order.length;
+        PPIData[] rows = new PPIData[n];
+        int[] rowOfEdge = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = graph.edge(order[i]);
+            rowOfEdge[order[i]] = i;
+        }
+        int blocks = (n + BLOCK - 1) / BLOCK;
+
+        List<ToDoubleFunction<PPIData>> getters = Arrays.asList(
+                row -> value(row.getNeighborhood_on_chromosome()),
+                row -> value(row.getGene_fusion()),
+                row -> value(row.getPhylogenetic_cooccurrence()),
+                row -> value(row.getHomology()),
+                row -> value(row.getCoexpression()),
+                row -> value(row.getExperimentally_determined_interaction()),
+                row -> value(row.getDatabase_annotated()),
+                row -> value(row.getAutomated_textmining()),
+                row -> value(row.getCombined_score()));
+        double[][] columns = new double[CHANNELS.size()][];
+        double[][] blockMax = new double[CHANNELS.size()][];
+        double[][] quantiles = new double[CHANNELS.size()][];
+        double[] present = new double[CHANNELS.size()];
+        for (int c = 0; c < columns.length; c++) {
+            ToDoubleFunction<PPIData> getter = getters.get(c);
+            double[] column = new double[n];
+            double[] max = new double[blocks];
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                double v = getter.applyAsDouble(rows[i]);
+                column[i] = v;
+                if (!Double.isNaN(v)) {
+                    count++;
+                    if (v > max[i / BLOCK]) {
+                        max[i / BLOCK] = v;
+                    }
+                }
+            }
+            columns[c] = column;
+            blockMax[c] = max;
+            present[c] = n == 0 ? 0 : (double) count / n;
+            quantiles[c] = quantiles(column);
+        }
+        return new PPIEvidenceColumns(rows, columns, blockMax, quantiles, present, graph, rowOfEdge);
+    }
+
+    private static double value(Number value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * 等距抽样非缺失值后取分位点，只用于比较各条件的选择性，不要求精确
+     */
+    private static double[] quantiles(double[] column) {
+        int stride = Math.max(1, column.length / SAMPLE);
+        double[] sample = new double[Math.min(column.length, SAMPLE + 1)];
+        int size = 0;
+        for (int i = 0; i < column.length && size < sample.length; i += stride) {
+            if (!Double.isNaN(column[i])) {
+                sample[size++] = column[i];
+            }
+        }
+        if (size == 0) {
+            return new double[0];
+        }
+        Arrays.sort(sample, 0, size);
+        double[] points = new double[QUANTILES + 1];
+        for (int q = 0; q <= QUANTILES; q++) {
+            points[q] = sample[(int) ((long) q * (size - 1) / QUANTILES)];
+        }
+        return points;
+    }
+
+    public int rowCount() {
+        return rows.length;
+    }
+
+    /**
+     * 通道名对应的列号
+     * @throws InvalidQueryException 通道不存在
+     */
+    private static int channel(String name) {
+        int index = CHANNELS.indexOf(name == null ? "" : name.trim().toLowerCase(Locale.ROOT));
+        if (index < 0) {
+            throw new InvalidQueryException("Unknown evidence channel '" + name + "', available channels: " + CHANNELS);
+        }
+        return index;
+    }
+
+    /**
+     * 估计满足 通道值>=threshold 的行所占比例
+     */
+    private double selectivity(int channel, double threshold) {
+        double[] points = quantiles[channel];
+        if (points.length == 0) {
+            return 0;
+        }
+        int above = 0;
+        for (double point : points) {
+            if (point >= threshold) {
+                above++;
+            }
+        }
+        return present[channel] * above / points.length;
+    }
+
+    /**
+     * 过滤并排序
+     * @param minimums 通道名 -> 最低值(含)，缺失该通道的行不满足条件
+     * @param sort 排序键，形如"coexpression:desc"，方向省略时为desc；为空时按combined_score降序
+     * @param gene 只保留一端为该基因的互作，为null时不限
+     * @throws InvalidQueryException 通道名或排序方向不合法
+     */
+    public PPIEvidenceResult filter(Map<String, Double> minimums, List<String> sort, String gene, int offset, int limit) {
+        Map<String, Double> applied = new LinkedHashMap<>();
+        List<double[]> predicates = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : minimums.entrySet()) {
+            int c = channel(entry.getKey());
+            double threshold = entry.getValue();
+            applied.put(CHANNELS.get(c), threshold);
+            predicates.add(new double[]{c, threshold, selectivity(c, threshold)});
+        }
+        predicates.sort((a, b) -> Double.compare(a[2], b[2]));
+        int[] channels = new int[predicates.size()];
+        double[] thresholds = new double[predicates.size()];
+        for (int p = 0; p < channels.length; p++) {
+            channels[p] = (int) predicates.get(p)[0];
+            thresholds[p] = predicates.get(p)[1];
+        }
+
+        List<String> sortKeys = new ArrayList<>();
+        List<Integer> sortChannels = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        for (String key : sort == null ? Collections.<String>emptyList() : sort) {
+            String[] parts = key.trim().split(":");
+            int c = channel(parts[0]);
+            String direction = parts.length > 1 ? parts[1].trim().toLowerCase(Locale.ROOT) : "desc";
+            if (parts.length > 2 || (!direction.equals("asc") && !direction.equals("desc"))) {
+                throw new InvalidQueryException("Invalid sort key '" + key + "', expected channel[:asc|desc]");
+            }
+            sortKeys.add(CHANNELS.get(c) + ":" + direction);
+            sortChannels.add(c);
+            descending.add(direction.equals("desc"));
+        }
+        if (sortKeys.isEmpty()) {
+            sortKeys.add(CHANNELS.get(COMBINED_SCORE) + ":desc");
+        }
+
+        boolean byGene = gene != null && !gene.trim().isEmpty();
+        int[] matches;
+        int total;
+        long scanned;
+        if (byGene) {
+            // 邻接边已按分数降序排列，换成行号后即为升序，收窄后顺序不变
+            int[] edges = graph.incidentEdges(graph.nodeId(gene));
+            matches = new int[edges.length];
+            for (int j = 0; j < edges.length; j++) {
+                matches[j] = rowOfEdge[edges[j]];
+            }
+            total = narrow(matches, edges.length, channels, thresholds, 0);
+            scanned = edges.length;
+        } else {
+            int[] selection = new int[BLOCK];
+            matches = new int[Math.min(rows.length, BLOCK * 4)];
+            total = 0;
+            scanned = 0;
+            for (int start = 0; start < rows.length; start += BLOCK) {
+                if (pruned(start / BLOCK, channels, thresholds)) {
+                    continue;
+                }
+                int end = Math.min(rows.length, start + BLOCK);
+                scanned += end - start;
+                int k = select(start, end, selection, channels, thresholds);
+                if (total + k > matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(total + k, matches.length * 2));
+                }
+                System.arraycopy(selection, 0, matches, total, k);
+                total += k;
+            }
+        }
+
+        int[] page = sortChannels.isEmpty() || (sortChannels.size() == 1 && sortChannels.get(0) == COMBINED_SCORE
+                && descending.get(0))
+                ? Arrays.copyOfRange(matches, Math.min(offset, total), (int) Math.min(total, (long) offset + limit))
+                : top(matches, total, sortChannels, descending, offset, limit);
+
+        List<PPIData> result = new ArrayList<>(page.length);
+        for (int row : page) {
+            result.add(rows[row]);
+        }
+        PPIEvidenceResult evidence = new PPIEvidenceResult();
+        evidence.setMinimums(applied);
+        evidence.setSort(sortKeys);
+        evidence.setGene(byGene ? gene.trim() : null);
+        evidence.setTotal(total);
+        evidence.setScannedRows(scanned);
+        evidence.setOffset(offset);
+        evidence.setLimit(limit);
+        evidence.setRows(result);
+        return evidence;
+    }
+
+    /**
+     * 任一条件在该块内的最大值低于阈值时整块不可能命中
+     */
+    private boolean pruned(int block, int[] channels, double[] thresholds) {
+        for (int p = 0; p < channels.length; p++) {
+            if (blockMax[channels[p]][block] < thresholds[p]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把[start, end)内满足全部条件的行号写入selection，返回行数
+     * 每个条件一趟：无条件写入当前行号，满足时才前移写指针，避免难以预测的分支
+     */
+    private int select(int start, int end, int[] selection, int[] channels, double[] thresholds) {
+        int k = 0;
+        if (channels.length == 0) {
+            for (int i = start; i < end; i++) {
+                selection[k++] = i;
+            }
+            return k;
+        }
+        double[] column = columns[channels[0]];
+        double threshold = thresholds[0];
+        for (int i = start; i < end; i++) {
+            selection[k] = i;
+            k += column[i] >= threshold ? 1 : 0;
+        }
+        return narrow(selection, k, channels, thresholds, 1);
+    }
+
+    /**
+     * 用第from个起的条件收窄selection前k个候选行号，返回剩余行数
+     */
+    private int narrow(int[] selection, int k, int[] channels, double[] thresholds, int from) {
+        for (int p = from; p < channels.length && k > 0; p++) {
+            double[] column = columns[channels[p]];
+            double threshold = thresholds[p];
+            int kept = 0;
+            for (int j = 0; j < k; j++) {
+                int i = selection[j];
+                selection[kept] = i;
+                kept += column[i] >= threshold ? 1 : 0;
+            }
+            k = kept;
+        }
+        return k;
+    }
+
+    /**
+     * 按排序键取第offset到offset+limit名：用大小为offset+limit的堆保留当前最好的行，最后再对堆内排序
+     * 缺失值无论升降序都排在最后，全部排序键相同时按combined_score降序
+     */
+    private int[] top(int[] matches, int total, List<Integer> sortChannels, List<Boolean> descending,
+                      int offset, int limit) {
+        int keys = sortChannels.size();
+        double[][] keyColumns = new double[keys][];
+        boolean[] desc = new boolean[keys];
+        for (int s = 0; s < keys; s++) {
+            keyColumns[s] = columns[sortChannels.get(s)];
+            desc[s] = descending.get(s);
+        }
+        RowOrder order = (a, b) -> {
+            for (int s = 0; s < keyColumns.length; s++) {
+                double va = keyColumns[s][a];
+                double vb = keyColumns[s][b];
+                boolean missingA = Double.isNaN(va);
+                boolean missingB = Double.isNaN(vb);
+                if (missingA || missingB) {
+                    if (missingA != missingB) {
+                        return missingA ? 1 : -1;
+                    }
+                    continue;
+                }
+                int cmp = desc[s] ? Double.compare(vb, va) : Double.compare(va, vb);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return Integer.compare(a, b);
+        };
+
+        int wanted = (int) Math.min(total, (long) offset + limit);
+        // 堆顶为当前保留的行中排名最靠后的一行
+        int[] heap = new int[wanted];
+        int size = 0;
+        for (int m = 0; m < total && wanted > 0; m++) {
+            int row = matches[m];
+            if (size < wanted) {
+                heap[size] = row;
+                int i = size++;
+                while (i > 0 && order.compare(heap[(i - 1) >>> 1], heap[i]) < 0) {
+                    swap(heap, i, (i - 1) >>> 1);
+                    i = (i - 1) >>> 1;
+                }
+            } else if (order.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+                        child++;
+                    }
+                    if (order.compare(heap[i], heap[child]) >= 0) {
+                        break;
+                    }
+                    swap(heap, i, child);
+                    i = child;
+                }
+            }
+        }
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = heap[i];
+        }
+        Arrays.sort(sorted, order::compare);
+        int from = Math.min(offset, size);
+        int[] page = new int[size - from];
+        for (int i = from; i < size; i++) {
+            page[i - from] = sorted[i];
+        }
+        return page;
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private interface RowOrder {
+        int compare(int a, int b);
+    }
+}
@@ -0,0 +1,403 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPISubnetwork;
+import com.cellcycle.cellcycledata.Entity.PPISubnetworkNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 蛋白质互作网络的只读内存图
+ * 基因名称被编号为连续的整数ID，邻接关系以CSR(压缩稀疏行)形式存放，
+ * 每个节点的邻边以及全局边序列均按combined_score降序排列，
+ * 因此"基因"、"分数阈值"、"基因+分数阈值"三类查询都只需一次二分查找加一段连续拷贝。
+ */
+public final class PPIGraph {
+
+    /** 基因名称(规范化后) -> 节点ID */
+    private final Map<String, Integer> geneIds;
+    /** 节点ID -> 基因名称(保留首次出现时的原始写法) */
+    private final String[] geneNames;
+    /** 边ID -> 原始行 */
+    private final PPIData[] edges;
+    /** 边ID -> combined_score，缺失分数记为负无穷，任何阈值查询都不会命中 */
+    private final double[] edgeScores;
+
+    /** 节点ID -> 邻接区间起点，长度为节点数+1 */
+    private final int[] offsets;
+    /** 邻接槽位 -> 边ID */
+    private final int[] adjEdges;
+    /** 邻接槽位 -> 邻居节点ID */
+    private final int[] adjNeighbors;
+    /** 邻接槽位 -> 边分数，每个节点区间内降序 */
+    private final double[] adjScores;
+
+    /** 按分数降序排列的全部边ID */
+    private final int[] edgesByScore;
+    /** 与edgesByScore平行的分数数组 */
+    private final double[] sortedScores;
+
+    private PPIGraph(Map<String, Integer> geneIds, String[] geneNames, PPIData[] edges, double[] edgeScores,
+                     int[] offsets, int[] adjEdges, int[] adjNeighbors, double[] adjScores,
+                     int[] edgesByScore, double[] sortedScores) {
+        this.geneIds = geneIds;
+        this.geneNames = geneNames;
+        this.edges = edges;
+        this.edgeScores = edgeScores;
+        this.offsets = offsets;
+        this.adjEdges = adjEdges;
+        this.adjNeighbors = adjNeighbors;
+        this.adjScores = adjScores;
+        this.edgesByScore = edgesByScore;
+        this.sortedScores = sortedScores;
+    }
+
+    /**
+     * 由ppi表的全部行构建图
+     */
+    public static PPIGraph build(List<PPIData> rows) {
+        int m = rows.size();
+        PPIData[] edges = rows.toArray(new PPIData[0]);
+        double[] edgeScores = new double[m];
+        int[] source = new int[m];
+        int[] target = new int[m];
+
+        Map<String, Integer> geneIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int e = 0; e < m; e++) {
+            PPIData row = edges[e];
+            Double score = row.getCombined_score();
+            edgeScores[e] = score == null ? Double.NEGATIVE_INFINITY : score;
+            source[e] = intern(row.getNode1(), geneIds, names);
+            target[e] = intern(row.getNode2(), geneIds, names);
+        }
+
+        int[] edgesByScore = sortByScoreDesc(edgeScores);
+        double[] sortedScores = new double[m];
+        for (int i = 0; i < m; i++) {
+            sortedScores[i] = edgeScores[edgesByScore[i]];
+        }
+
+        // 统计度数，自环只计一次
+        int n = names.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (source[e] >= 0) {
+                offsets[source[e] + 1]++;
+            }
+            if (target[e] >= 0 && target[e] != source[e]) {
+                offsets[target[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // 按全局降序依次填充，每个节点区间自然保持降序
+        int slots = offsets[n];
+        int[] adjEdges = new int[slots];
+        int[] adjNeighbors = new int[slots];
+        double[] adjScores = new double[slots];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int i = 0; i < m; i++) {
+            int e = edgesByScore[i];
+            int u = source[e];
+            int v = target[e];
+            if (u >= 0) {
+                int slot = cursor[u]++;
+                adjEdges[slot] = e;
+                adjNeighbors[slot] = v;
+                adjScores[slot] = edgeScores[e];
+            }
+            if (v >= 0 && v != u) {
+                int slot = cursor[v]++;
+                adjEdges[slot] = e;
+                adjNeighbors[slot] = u;
+                adjScores[slot] = edgeScores[e];
+            }
+        }
+
+        return new PPIGraph(geneIds, names.toArray(new String[0]), edges, edgeScores,
+                offsets, adjEdges, adjNeighbors, adjScores, edgesByScore, sortedScores);
+    }
+
+    private static int intern(String gene, Map<String, Integer> geneIds, List<String> names) {
+        String key = GeneNames.normalize(gene);
+        if (key == null || key.isEmpty()) {
+            return -1;
+        }
+        Integer id = geneIds.get(key);
+        if (id == null) {
+            id = names.size();
+            geneIds.put(key, id);
+            names.add(gene.trim());
+        }
+        return id;
+    }
+
+    /**
+     * 返回按分数降序排列的边ID数组(稳定的间接归并排序，避免装箱)
+     */
+    static int[] sortByScoreDesc(double[] scores) {
+        int m = scores.length;
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[m];
+        for (int width = 1; width < m; width <<= 1) {
+            for (int lo = 0; lo < m; lo += width << 1) {
+                int mid = Math.min(lo + width, m);
+                int hi = Math.min(lo + (width << 1), m);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = scores[order[j]] > scores[order[i]] ? order[j++] : order[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < hi) {
+                    buffer[k++] = order[j++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * 在降序数组的[from, to)区间内，返回第一个分数小于minScore的位置
+     */
+    private static int cutoff(double[] descending, int from, int to, double minScore) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (descending[mid] >= minScore) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 查询基因对应的节点ID，不存在时返回-1
+     */
+    public int nodeId(String gene) {
+        Integer id = geneIds.get(GeneNames.normalize(gene));
+        return id == null ? -1 : id;
+    }
+
+    public int nodeCount() {
+        return geneNames.length;
+    }
+
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    public String geneName(int node) {
+        return geneNames[node];
+    }
+
+    /**
+     * 与特定基因相关的全部互作，按分数降序
+     */
+    public List<PPIData> edgesOf(String gene) {
+        return edgesOf(gene, Double.NEGATIVE_INFINITY, true);
+    }
+
+    /**
+     * 与特定基因相关且分数不低于阈值的互作，按分数降序
+     */
+    public List<PPIData> edgesOf(String gene, double minScore) {
+        return edgesOf(gene, minScore, false);
+    }
+
+    private List<PPIData> edgesOf(String gene, double minScore, boolean includeUnscored) {
+        int node = nodeId(gene);
+        if (node < 0) {
+            return new ArrayList<>();
+        }
+        int from = offsets[node];
+        int to = includeUnscored ? offsets[node + 1] : cutoff(adjScores, from, offsets[node + 1], minScore);
+        List<PPIData> result = new ArrayList<>(to - from);
+        for (int slot = from; slot < to; slot++) {
+            result.add(edges[adjEdges[slot]]);
+        }
+        return result;
+    }
+
+    /**
+     * 分数不低于阈值的全部互作，按分数降序
+     */
+    public List<PPIData> edgesWithMinScore(double minScore) {
+        int to = cutoff(sortedScores, 0, sortedScores.length, minScore);
+        List<PPIData> result = new ArrayList<>(to);
+        for (int i = 0; i < to; i++) {
+            result.add(edges[edgesByScore[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * 从种子基因出发做有界广度优先搜索，只沿分数不低于阈值的边扩展，
+     * 访问节点数达到maxNodes时停止，返回访问到的节点及其导出子图
+     * 种子基因总是全部收录，种子数本身超过maxNodes时不再扩展，两种情况都标记为truncated
+     */
+    public PPISubnetwork subnetwork(Collection<String> seeds, int depth, double minScore, int maxNodes) {
+        int[] hops = new int[geneNames.length];
+        Arrays.fill(hops, -1);
+        int[] queue = new int[Math.min(geneNames.length, Math.max(Math.max(maxNodes, 0), seeds.size()))];
+        int size = 0;
+
+        List<String> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String seed : seeds) {
+            int node = nodeId(seed);
+            if (node < 0) {
+                missing.add(seed);
+            } else if (hops[node] < 0) {
+                hops[node] = 0;
+                queue[size++] = node;
+                found.add(geneNames[node]);
+            }
+        }
+        int limit = Math.max(maxNodes, size);
+        boolean truncated = size > maxNodes;
+
+        // 队列即访问顺序，head之前的节点已完成扩展
+        for (int head = 0; head < size && !truncated; head++) {
+            int u = queue[head];
+            if (hops[u] >= depth) {
+                continue;
+            }
+            int end = cutoff(adjScores, offsets[u], offsets[u + 1], minScore);
+            for (int slot = offsets[u]; slot < end; slot++) {
+                int v = adjNeighbors[slot];
+                if (v >= 0 && hops[v] < 0) {
+                    if (size == limit) {
+                        truncated = true;
+                        break;
+                    }
+                    hops[v] = hops[u] + 1;
+                    queue[size++] = v;
+                }
+            }
+        }
+
+        List<PPISubnetworkNode> nodes = new ArrayList<>(size);
+        List<PPIData> induced = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int u = queue[i];
+            PPISubnetworkNode node = new PPISubnetworkNode();
+            node.setGene(geneNames[u]);
+            node.setHop(hops[u]);
+            nodes.add(node);
+
+            // 每条非自环边在两个端点各出现一次，只在ID较小的一端收集
+            int end = cutoff(adjScores, offsets[u], offsets[u + 1], minScore);
+            for (int slot = offsets[u]; slot < end; slot++) {
+                int v = adjNeighbors[slot];
+                if (v >= 0 && hops[v] >= 0 && u <= v) {
+                    induced.add(edges[adjEdges[slot]]);
+                }
+            }
+        }
+
+        PPISubnetwork result = new PPISubnetwork();
+        result.setSeeds(found);
+        result.setMissingSeeds(missing);
+        result.setNodes(nodes);
+        result.setEdges(induced);
+        result.setTruncated(truncated);
+        return result;
+    }
+
+    /**
+     * 网络分析用的简单无向图：只保留分数不低于阈值的边，去掉自环并合并重复边(取最高分)
+     * 节点ID与本图一致，每个节点的邻居按分数降序
+     */
+    public static final class Adjacency {
+        public final int[] offsets;
+        public final int[] neighbors;
+        public final double[] weights;
+
+        Adjacency(int[] offsets, int[] neighbors, double[] weights) {
+            this.offsets = offsets;
+            this.neighbors = neighbors;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * 分数不低于阈值的简单无向图，缺失分数的边不会被收录
+     */
+    public Adjacency adjacency(double minScore) {
+        int n = geneNames.length;
+        int[] ends = new int[n];
+        int total = 0;
+        for (int u = 0; u < n; u++) {
+            ends[u] = cutoff(adjScores, offsets[u], offsets[u + 1], minScore);
+            total += ends[u] - offsets[u];
+        }
+        int[] resultOffsets = new int[n + 1];
+        int[] neighbors = new int[total];
+        double[] weights = new double[total];
+        // seen[v] == u+1 表示v已是u的邻居；区间按分数降序，先出现的即最高分
+        int[] seen = new int[n];
+        int size = 0;
+        for (int u = 0; u < n; u++) {
+            for (int slot = offsets[u]; slot < ends[u]; slot++) {
+                int v = adjNeighbors[slot];
+                if (v >= 0 && v != u && seen[v] != u + 1) {
+                    seen[v] = u + 1;
+                    neighbors[size] = v;
+                    weights[size++] = adjScores[slot];
+                }
+            }
+            resultOffsets[u + 1] = size;
+        }
+        return new Adjacency(resultOffsets, Arrays.copyOf(neighbors, size), Arrays.copyOf(weights, size));
+    }
+
+    /**
+     * 边ID对应的原始行
+     */
+    PPIData edge(int e) {
+        return edges[e];
+    }
+
+    /**
+     * 按分数降序排列的全部边ID，供同包的列存储按相同顺序建行号；调用方不得修改
+     */
+    int[] edgesByScore() {
+        return edgesByScore;
+    }
+
+    /**
+     * 节点的全部邻接边ID，与edgesByScore中的先后顺序一致(分数降序)；节点不存在时返回空数组
+     */
+    int[] incidentEdges(int node) {
+        return node < 0 ? new int[0] : Arrays.copyOfRange(adjEdges, offsets[node], offsets[node + 1]);
+    }
+
+    /**
+     * 全部互作，保持建图时的原始行顺序
+     */
+    public List<PPIData> allEdges() {
+        List<PPIData> result = new ArrayList<>(edges.length);
+        Collections.addAll(result, edges);
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.QueryCacheStats;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 一张数据表的查询结果缓存，同时按条目数和总权重限制大小，超出时淘汰最久未访问的条目
+ * 每个缓存带一个数据版本号：表数据重新加载时版本号加一并清空全部条目；
+ * 查询开始前记下版本号，写入时版本号已变化则说明期间发生过重新加载，结果不再写入
+ * 同一个键的并发未命中只执行一次查询，其余调用等待并共享这次查询的结果(single-flight)，
+ * 即使结果因超重不进入缓存也是如此；进行中的查询同样记着开始时的版本号，
+ * 重新加载之后到达的调用不会等待重新加载之前开始的查询，而是自己重新查询
+ */
+public final class QueryCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    /** 访问顺序的LinkedHashMap，迭代顺序即淘汰顺序；所有访问都在this上加锁 */
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+    /** 正在执行的查询，完成后移除 */
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 一次进行中的查询及其开始时的数据版本号
+     */
+    private static final class Flight<V> {
+        final long version;
+        final CompletableFuture<V> future = new CompletableFuture<>();
+
+        Flight(long version) {
+            this.version = version;
+        }
+    }
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param maxEntries 最多保留的条目数，为0时只合并并发查询、不保留结果
+     * @param maxWeight 全部条目的权重上限，单个条目超过上限时不缓存
+     * @param weigher 条目权重，例如结果行数
+     */
+    public QueryCache(String name, int maxEntries, long maxWeight, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * 命中时直接返回缓存的结果，否则调用loader查询并写入
+     * 返回的对象在多个请求之间共享，调用方不能修改
+     */
+    public V get(K key, Supplier<V> loader) {
+        long expected = this.version.get();
+        synchronized (this) {
+            Entry<V> entry = this.entries.get(key);
+            if (entry != null) {
+                this.hits.increment();
+                return entry.value;
+            }
+        }
+        this.misses.increment();
+        Flight<V> flight = new Flight<>(expected);
+        while (true) {
+            Flight<V> leader = this.inFlight.putIfAbsent(key, flight);
+            if (leader == null) {
+                break;
+            }
+            // 不早于本次调用所见版本的查询结果可以共享；更早的查询可能读到了重新加载前的数据
+            if (leader.version >= expected) {
+                this.coalesced.increment();
+                return await(leader.future);
+            }
+            if (this.inFlight.replace(key, leader, flight)) {
+                break;
+            }
+        }
+        try {
+            long start = System.nanoTime();
+            V value = loader.get();
+            this.loadNanos.add(System.nanoTime() - start);
+            put(key, value, expected);
+            flight.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 等待其他线程的同一查询，查询失败时抛出原异常
+     */
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void put(K key, V value, long expected) {
+        if (this.maxEntries <= 0) {
+            return;
+        }
+        long entryWeight = Math.max(1, this.weigher.applyAsLong(value));
+        if (entryWeight > this.maxWeight) {
+            this.rejections.increment();
+            return;
+        }
+        synchronized (this) {
+            if (this.version.get() != expected) {
+                return;
+            }
+            Entry<V> previous = this.entries.put(key, new Entry<>(value, entryWeight));
+            this.weight += entryWeight - (previous == null ? 0 : previous.weight);
+            Iterator<Entry<V>> eldest = this.entries.values().iterator();
+            while (this.entries.size() > this.maxEntries || this.weight > this.maxWeight) {
+                Entry<V> evicted = eldest.next();
+                eldest.remove();
+                this.weight -= evicted.weight;
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 表数据已变化：版本号加一并清空条目，返回新的版本号
+     */
+    public synchronized long invalidate() {
+        long next = this.version.incrementAndGet();
+        this.invalidations.add(this.entries.size());
+        this.entries.clear();
+        this.weight = 0;
+        return next;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 当前大小与累计计数的快照
+     */
+    public QueryCacheStats stats() {
+        QueryCacheStats stats = new QueryCacheStats();
+        stats.setTable(name);
+        stats.setMaxEntries(maxEntries);
+        stats.setMaxWeight(maxWeight);
+        synchronized (this) {
+            stats.setVersion(version.get());
+            stats.setEntries(entries.size());
+            stats.setWeight(weight);
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRate(hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.setEvictions(evictions.sum());
+        stats.setInvalidations(invalidations.sum());
+        stats.setRejections(rejections.sum());
+        stats.setCoalesced(coalesced.sum());
+        stats.setLoadMillis(TimeUnit.NANOSECONDS.toMillis(loadNanos.sum()));
+        return stats;
+    }
+
+    /**
+     * 按行数计算权重：集合为元素个数，映射为各值的元素个数之和，其他对象为1
+     */
+    public static long rows(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            long total = 0;
+            for (Object item : ((Map<?, ?>) value).values()) {
+                total += rows(item);
+            }
+            return total;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,446 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 参考数据表的只读二进制快照，由SnapshotWriter生成，用FileChannel.map映射后直接读取
+ * 列值、空值位图和索引留在映射区，不复制到堆上；字符串在第一次读取时解码，此后同一字典编号返回同一对象，
+ * 因此由快照解码出的整表实体列表(构建内存索引时)不会为重复的基因名各自保存一份字符串
+ * 文件结构：
+ * <pre>
+ * 文件头(48字节)  魔数、格式版本、生成时间、目录的位置/长度/CRC32
+ * 数据段           字符串字典(按字符串排序的偏移数组+UTF-8字节)、各列的值数组和空值位图、各索引的键/偏移/行号数组
+ * 目录             各表的行数、列名和类型、各段的位置/长度/CRC32
+ * </pre>
+ * 字符串列存字典编号(null为-1)，整数列和小数列存原始值，另有空值位图；
+ * 索引按列值规范化(GeneNames.normalize)后的字典编号升序排列，同一取值的行号连续存放
+ * 每个数据段单独映射，单段不超过2GB即可，整个文件不受此限制
+ */
+public final class ReferenceSnapshot implements Closeable {
+
+    /** "CCSNAPSH" */
+    static final long MAGIC = 0x4343534E41505348L;
+    public static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 48;
+
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_INTEGER = 2;
+    static final byte TYPE_DECIMAL = 3;
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final long createdAt;
+    private final long checksum;
+    private final IntBuffer dictionaryOffsets;
+    private final ByteBuffer dictionaryBytes;
+    private final int dictionarySize;
+    /** 已解码的字典字符串，按字典编号存放；并发读取时最多重复解码，String不可变可以安全发布 */
+    private final String[] strings;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    private ReferenceSnapshot(Path path, FileChannel channel, boolean verify) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.size = channel.size();
+        if (this.size < HEADER_BYTES) {
+            throw new IOException("Snapshot " + path + " is truncated");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getLong(0) != MAGIC) {
+            throw new IOException("Not a snapshot file: " + path);
+        }
+        int version = header.getInt(8);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version + " in " + path);
+        }
+        this.createdAt = header.getLong(16);
+        Section tocSection = new Section(header.getLong(24), header.getLong(32), header.getInt(40));
+        this.checksum = tocSection.crc & 0xFFFFFFFFL;
+
+        // 目录总是校验：它决定了所有数据段的位置
+        ByteBuffer toc = map(tocSection, true);
+        this.dictionarySize = toc.getInt();
+        IntBuffer offsets = intView(map(Section.read(toc), verify));
+        ByteBuffer bytes = map(Section.read(toc), verify);
+        this.dictionaryOffsets = offsets;
+        this.dictionaryBytes = bytes == null ? ByteBuffer.allocate(0) : bytes;
+        this.strings = new String[this.dictionarySize];
+
+        int tableCount = toc.getInt();
+        for (int t = 0; t < tableCount; t++) {
+            String name = readName(toc);
+            int rowCount = toc.getInt();
+            int columnCount = toc.getInt();
+            List<Column> columns = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                String columnName = readName(toc);
+                byte type = toc.get();
+                ByteBuffer values = map(Section.read(toc), verify);
+                ByteBuffer nulls = map(Section.read(toc), verify);
+                columns.add(new Column(columnName, type, values, nulls));
+            }
+            int indexCount = toc.getInt();
+            Map<String, Index> indexes = new LinkedHashMap<>();
+            for (int i = 0; i < indexCount; i++) {
+                String column = readName(toc);
+                IntBuffer keys = intView(map(Section.read(toc), verify));
+                IntBuffer keyOffsets = intView(map(Section.read(toc), verify));
+                IntBuffer rows = intView(map(Section.read(toc), verify));
+                indexes.put(column, new Index(keys, keyOffsets, rows));
+            }
+            this.tables.put(name, new Table(name, rowCount, columns, indexes));
+        }
+    }
+
+    /**
+     * 映射快照文件
+     * @param verify 是否校验全部数据段的CRC32；校验需要读遍整个文件，不校验时只读文件头和目录
+     * @throws IOException 文件不存在、格式不符或校验失败
+     */
+    public static ReferenceSnapshot open(Path path, boolean verify) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ReferenceSnapshot(path, channel, verify);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer map(Section section, boolean verify) throws IOException {
+        if (section.length == 0) {
+            return null;
+        }
+        if (section.offset < HEADER_BYTES || section.offset + section.length > this.size) {
+            throw new IOException("Snapshot " + this.path + " is truncated");
+        }
+        ByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, section.offset, section.length);
+        if (verify) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != section.crc) {
+                throw new IOException("Snapshot " + this.path + " is corrupt: checksum mismatch at offset "
+                        + section.offset);
+            }
+        }
+        return buffer;
+    }
+
+    private static IntBuffer intView(ByteBuffer buffer) {
+        return buffer == null ? IntBuffer.allocate(0) : buffer.asIntBuffer();
+    }
+
+    private static String readName(ByteBuffer toc) {
+        byte[] bytes = new byte[toc.getInt()];
+        toc.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long sizeBytes() {
+        return size;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * 目录段的CRC32，目录中又记录了各数据段的CRC32，因此可作为整个文件的校验和
+     */
+    public long checksum() {
+        return checksum;
+    }
+
+    public int dictionarySize() {
+        return dictionarySize;
+    }
+
+    public List<String> tableNames() {
+        return Collections.unmodifiableList(new ArrayList<>(tables.keySet()));
+    }
+
+    /**
+     * 快照中的表，不存在时返回null
+     */
+    public Table table(String name) {
+        return tables.get(name);
+    }
+
+    /**
+     * 字典编号对应的字符串，第一次读取时从映射区解码，之后返回同一对象
+     */
+    String string(int id) {
+        if (id < 0) {
+            return null;
+        }
+        String cached = strings[id];
+        if (cached != null) {
+            return cached;
+        }
+        int start = dictionaryOffsets.get(id);
+        byte[] bytes = new byte[dictionaryOffsets.get(id + 1) - start];
+        ByteBuffer view = dictionaryBytes.duplicate();
+        view.position(start);
+        view.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings[id] = value;
+        return value;
+    }
+
+    /**
+     * 字符串的字典编号，字典按String.compareTo排序，二分查找；不存在时返回-1
+     */
+    int find(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = dictionarySize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = string(mid).compareTo(value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 映射区随对象被回收而释放；关闭文件通道后已映射的内容仍可读取，因此替换快照时可以立即关闭旧快照
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 快照中的一张表，按列号和行号读取单元格
+     */
+    public final class Table {
+        private final String name;
+        private final int rowCount;
+        private final List<Column> columns;
+        private final Map<String, Index> indexes;
+
+        private Table(String name, int rowCount, List<Column> columns, Map<String, Index> indexes) {
+            this.name = name;
+            this.rowCount = rowCount;
+            this.columns = columns;
+            this.indexes = indexes;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * 列名对应的列号
+         * @throws IllegalArgumentException 列不存在
+         */
+        public int column(String columnName) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).name.equals(columnName)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Snapshot table " + name + " has no column " + columnName);
+        }
+
+        public String string(int column, int row) {
+            return ReferenceSnapshot.this.string(columns.get(column).ints.get(row));
+        }
+
+        public Integer integer(int column, int row) {
+            Column c = columns.get(column);
+            return c.isNull(row) ? null : c.ints.get(row);
+        }
+
+        public Double decimal(int column, int row) {
+            Column c = columns.get(column);
+            return c.isNull(row) ? null : c.doubles.get(row);
+        }
+
+        /**
+         * 按列类型读取单元格：字符串列为String，整数列为Integer，小数列为Double
+         */
+        public Object value(int column, int row) {
+            byte type = columns.get(column).type;
+            if (type == TYPE_STRING) {
+                return string(column, row);
+            }
+            // 分开返回：Integer和Double放在同一个条件表达式里会被拆箱提升为double，NULL时抛出异常
+            if (type == TYPE_INTEGER) {
+                return integer(column, row);
+            }
+            return decimal(column, row);
+        }
+
+        /**
+         * 比较同一列的两行，NULL最小；字符串列直接比较字典编号，与String.compareTo的顺序相同
+         */
+        public int compare(int column, int rowA, int rowB) {
+            Column c = columns.get(column);
+            if (c.type == TYPE_STRING) {
+                return Integer.compare(c.ints.get(rowA), c.ints.get(rowB));
+            }
+            boolean nullA = c.isNull(rowA);
+            boolean nullB = c.isNull(rowB);
+            if (nullA || nullB) {
+                return Boolean.compare(!nullA, !nullB);
+            }
+            return c.type == TYPE_INTEGER ? Integer.compare(c.ints.get(rowA), c.ints.get(rowB))
+                    : Double.compare(c.doubles.get(rowA), c.doubles.get(rowB));
+        }
+
+        /**
+         * 比较字符串列某行的取值与value，NULL最小
+         */
+        public int compare(int column, int row, String value) {
+            String cell = string(column, row);
+            if (cell == null || value == null) {
+                return Boolean.compare(cell != null, value != null);
+            }
+            return cell.compareTo(value);
+        }
+
+        /**
+         * 规范化取值等于key的行号，升序
+         * @throws IllegalArgumentException 该列没有索引
+         */
+        public int[] rows(String indexedColumn, String key) {
+            Index index = indexes.get(indexedColumn);
+            if (index == null) {
+                throw new IllegalArgumentException("Snapshot table " + name + " has no index on " + indexedColumn);
+            }
+            int id = find(GeneNames.normalize(key));
+            if (id < 0) {
+                return NO_ROWS;
+            }
+            int low = 0;
+            int high = index.keys.limit() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Integer.compare(index.keys.get(mid), id);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    int start = index.offsets.get(mid);
+                    int[] rows = new int[index.offsets.get(mid + 1) - start];
+                    for (int i = 0; i < rows.length; i++) {
+                        rows[i] = index.rows.get(start + i);
+                    }
+                    return rows;
+                }
+            }
+            return NO_ROWS;
+        }
+
+        /**
+         * 字符串列的不同取值(不含null)，按字符串排序
+         */
+        public List<String> distinct(int column) {
+            IntBuffer ids = columns.get(column).ints;
+            BitSet seen = new BitSet(dictionarySize);
+            for (int row = 0; row < rowCount; row++) {
+                int id = ids.get(row);
+                if (id >= 0) {
+                    seen.set(id);
+                }
+            }
+            List<String> values = new ArrayList<>(seen.cardinality());
+            for (int id = seen.nextSetBit(0); id >= 0; id = seen.nextSetBit(id + 1)) {
+                values.add(ReferenceSnapshot.this.string(id));
+            }
+            return values;
+        }
+    }
+
+    private static final class Column {
+        final String name;
+        final byte type;
+        final IntBuffer ints;
+        final DoubleBuffer doubles;
+        final LongBuffer nulls;
+
+        Column(String name, byte type, ByteBuffer values, ByteBuffer nulls) {
+            this.name = name;
+            this.type = type;
+            ByteBuffer data = values == null ? ByteBuffer.allocate(0) : values;
+            this.ints = type == TYPE_DECIMAL ? null : data.asIntBuffer();
+            this.doubles = type == TYPE_DECIMAL ? data.asDoubleBuffer() : null;
+            this.nulls = nulls == null ? null : nulls.asLongBuffer();
+        }
+
+        boolean isNull(int row) {
+            if (type == TYPE_STRING) {
+                return ints.get(row) < 0;
+            }
+            return nulls != null && (nulls.get(row >>> 6) & (1L << row)) != 0;
+        }
+    }
+
+    private static final class Index {
+        final IntBuffer keys;
+        final IntBuffer offsets;
+        final IntBuffer rows;
+
+        Index(IntBuffer keys, IntBuffer offsets, IntBuffer rows) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * 目录中的段引用：起始位置、长度和CRC32
+     */
+    static final class Section {
+        final long offset;
+        final long length;
+        final int crc;
+
+        Section(long offset, long length, int crc) {
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+
+        static Section read(ByteBuffer toc) {
+            return new Section(toc.getLong(), toc.getLong(), toc.getInt());
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLPair;
+import com.cellcycle.cellcycledata.Entity.SLPairsInSet;
+import com.cellcycle.cellcycledata.Entity.SLSharedPartners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 合成致死基因对的只读内存索引，合并sl和sl_nature两张表
+ * 基因名称编号为整数ID；基因对(小ID, 大ID)打包成一个long存放在开放寻址哈希表中，
+ * 判断两个基因是否构成合成致死只需一次探测；每个基因的伙伴集合是一个BitSet，
+ * 共同伙伴和集合内基因对都化为位运算
+ */
+public final class SLIndex {
+
+    public static final int SOURCE_SL = 1;
+    public static final int SOURCE_SL_NATURE = 2;
+
+    /** 哈希表空槽标记，合法的键高低32位都非负，不会等于-1 */
+    private static final long EMPTY = -1L;
+
+    /** 基因名称(规范化后) -> 基因ID */
+    private final Map<String, Integer> geneIds;
+    /** 基因ID -> 基因名称(保留首次出现时的原始写法) */
+    private final String[] geneNames;
+    /** 开放寻址哈希表：打包后的基因对 */
+    private final long[] pairKeys;
+    /** 与pairKeys平行：来源标记位 */
+    private final byte[] pairSources;
+    private final int mask;
+    private final int pairCount;
+    /** 基因ID -> 合成致死伙伴的ID集合 */
+    private final BitSet[] partners;
+
+    private SLIndex(Map<String, Integer> geneIds, String[] geneNames, long[] pairKeys, byte[] pairSources,
+                    int pairCount, BitSet[] partners) {
+        this.geneIds = geneIds;
+        this.geneNames = geneNames;
+        this.pairKeys = pairKeys;
+        this.pairSources = pairSources;
+        this.mask = pairKeys.length - 1;
+        this.pairCount = pairCount;
+        this.partners = partners;
+    }
+
+    /**
+     * 由两张表的全部行构建索引，同一基因对的重复行(例如不同细胞系)合并为一项
+     */
+    public static SLIndex build(List<SLData> sl, List<SLNatureData> slNature) {
+        Map<String, Integer> geneIds = new HashMap<>();
+        List<String> geneNames = new ArrayList<>();
+        long[] keys = new long[sl.size() + slNature.size()];
+        byte[] sources = new byte[keys.length];
+        int count = 0;
+        for (SLData row : sl) {
+            long key = pairKey(geneIds, geneNames, row.getGeneA(), row.getGeneB());
+            if (key != EMPTY) {
+                keys[count] = key;
+                sources[count++] = SOURCE_SL;
+            }
+        }
+        for (SLNatureData row : slNature) {
+            long key = pairKey(geneIds, geneNames, row.getGeneA(), row.getGeneB());
+            if (key != EMPTY) {
+                keys[count] = key;
+                sources[count++] = SOURCE_SL_NATURE;
+            }
+        }
+
+        // 排序去重，合并同一基因对的来源标记；低2位存来源，基因ID远小于2^29，左移不会溢出
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = keys[i] << 2 | sources[i];
+        }
+        Arrays.sort(packed);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            long key = packed[i] >>> 2;
+            if (unique > 0 && keys[unique - 1] == key) {
+                sources[unique - 1] |= (byte) (packed[i] & 3);
+            } else {
+                keys[unique] = key;
+                sources[unique++] = (byte) (packed[i] & 3);
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(16, unique * 2 - 1)) << 1;
+        long[] pairKeys = new long[capacity];
+        byte[] pairSources = new byte[capacity];
+        Arrays.fill(pairKeys, EMPTY);
+        BitSet[] partners = new BitSet[geneNames.size()];
+        for (int i = 0; i < partners.length; i++) {
+            partners[i] = new BitSet();
+        }
+        for (int i = 0; i < unique; i++) {
+            int slot = slot(keys[i], capacity - 1, pairKeys);
+            pairKeys[slot] = keys[i];
+            pairSources[slot] = sources[i];
+            int low = (int) (keys[i] >>> 32);
+            int high = (int) keys[i];
+            partners[low].set(high);
+            partners[high].set(low);
+        }
+        return new SLIndex(geneIds, geneNames.toArray(new String[0]), pairKeys, pairSources, unique, partners);
+    }
+
+    public int geneCount() {
+        return geneNames.length;
+    }
+
+    public int pairCount() {
+        return pairCount;
+    }
+
+    /**
+     * 查询两个基因是否构成合成致死，不是时sources为空列表
+     */
+    public SLPair pair(String geneA, String geneB) {
+        Integer a = geneIds.get(GeneNames.normalize(geneA));
+        Integer b = geneIds.get(GeneNames.normalize(geneB));
+        int sources = 0;
+        if (a != null && b != null) {
+            long key = key(a, b);
+            int slot = slot(key, mask, pairKeys);
+            if (pairKeys[slot] == key) {
+                sources = pairSources[slot];
+            }
+        }
+        return toPair(a == null ? geneA : geneNames[a], b == null ? geneB : geneNames[b], sources);
+    }
+
+    /**
+     * 与一个基因构成合成致死的全部伙伴，按名称排序；基因不存在时返回空列表
+     */
+    public List<String> partnersOf(String gene) {
+        Integer id = geneIds.get(GeneNames.normalize(gene));
+        List<String> result = new ArrayList<>();
+        if (id != null) {
+            BitSet set = partners[id];
+            for (int other = set.nextSetBit(0); other >= 0; other = set.nextSetBit(other + 1)) {
+                if (other != id) {
+                    result.add(geneNames[other]);
+                }
+            }
+            Collections.sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * 与所有输入基因都构成合成致死的伙伴基因
+     */
+    public SLSharedPartners sharedPartners(Collection<String> genes) {
+        List<String> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        int[] ids = resolve(genes, found, missing);
+
+        List<String> shared = new ArrayList<>();
+        if (missing.isEmpty() && ids.length > 0) {
+            BitSet common = (BitSet) partners[ids[0]].clone();
+            for (int i = 1; i < ids.length && !common.isEmpty(); i++) {
+                common.and(partners[ids[i]]);
+            }
+            for (int id : ids) {
+                common.clear(id);
+            }
+            for (int id = common.nextSetBit(0); id >= 0; id = common.nextSetBit(id + 1)) {
+                shared.add(geneNames[id]);
+            }
+            Collections.sort(shared);
+        }
+
+        SLSharedPartners result = new SLSharedPartners();
+        result.setGenes(found);
+        result.setMissingGenes(missing);
+        result.setPartners(shared);
+        return result;
+    }
+
+    /**
+     * 输入基因两两之间的全部合成致死对，按输入顺序排列
+     */
+    public SLPairsInSet pairsWithin(Collection<String> genes) {
+        List<String> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        int[] ids = resolve(genes, found, missing);
+
+        BitSet members = new BitSet();
+        for (int id : ids) {
+            members.set(id);
+        }
+        List<SLPair> pairs = new ArrayList<>();
+        BitSet visited = new BitSet();
+        for (int id : ids) {
+            BitSet inside = (BitSet) partners[id].clone();
+            inside.and(members);
+            // 已处理过的基因作为起点时已经输出过该对
+            inside.andNot(visited);
+            for (int other = inside.nextSetBit(0); other >= 0; other = inside.nextSetBit(other + 1)) {
+                long key = key(id, other);
+                pairs.add(toPair(geneNames[id], geneNames[other], pairSources[slot(key, mask, pairKeys)]));
+            }
+            visited.set(id);
+        }
+
+        SLPairsInSet result = new SLPairsInSet();
+        result.setGenes(found);
+        result.setMissingGenes(missing);
+        result.setPairs(pairs);
+        return result;
+    }
+
+    private int[] resolve(Collection<String> genes, List<String> found, List<String> missing) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String gene : genes) {
+            Integer id = geneIds.get(GeneNames.normalize(gene));
+            if (id == null) {
+                missing.add(gene);
+            } else if (ids.add(id)) {
+                found.add(geneNames[id]);
+            }
+        }
+        int[] result = new int[ids.size()];
+        int i = 0;
+        for (Integer id : ids) {
+            result[i++] = id;
+        }
+        return result;
+    }
+
+    private static SLPair toPair(String geneA, String geneB, int sources) {
+        List<String> names = new ArrayList<>(2);
+        if ((sources & SOURCE_SL) != 0) {
+            names.add("sl");
+        }
+        if ((sources & SOURCE_SL_NATURE) != 0) {
+            names.add("sl_nature");
+        }
+        SLPair pair = new SLPair();
+        pair.setGeneA(geneA);
+        pair.setGeneB(geneB);
+        pair.setSources(names);
+        return pair;
+    }
+
+    /**
+     * 编号并打包一行的两个基因，任一基因为空时返回EMPTY
+     */
+    private static long pairKey(Map<String, Integer> geneIds, List<String> geneNames, String geneA, String geneB) {
+        if (geneA == null || geneB == null || geneA.trim().isEmpty() || geneB.trim().isEmpty()) {
+            return EMPTY;
+        }
+        return key(intern(geneIds, geneNames, geneA), intern(geneIds, geneNames, geneB));
+    }
+
+    private static int intern(Map<String, Integer> geneIds, List<String> geneNames, String gene) {
+        String key = GeneNames.normalize(gene);
+        Integer id = geneIds.get(key);
+        if (id == null) {
+            id = geneNames.size();
+            geneIds.put(key, id);
+            geneNames.add(gene.trim());
+        }
+        return id;
+    }
+
+    /**
+     * 无序基因对的打包键：高32位为较小的ID
+     */
+    private static long key(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return (long) low << 32 | high;
+    }
+
+    /**
+     * 线性探测，返回键所在的槽位或应插入的空槽位
+     */
+    private static int slot(long key, int mask, long[] table) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
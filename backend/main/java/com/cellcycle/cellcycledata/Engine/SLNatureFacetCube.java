@@ -0,0 +1,212 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLNatureFacets;
+import com.cellcycle.cellcycledata.Entity.SLNatureRows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * sl_nature表的只读分面立方体，维度为stageGeneA、stageGeneB、cellLine、geminiSensitive
+ * 每行按4个维度的全部2^4种组合登记到倒排表中，键为各维度取值编码(+1)按16位打包，0表示该维度不限；
+ * 任意维度组合的计数是一次哈希查找，明细分页是倒排表上的一段切片
+ */
+public final class SLNatureFacetCube {
+
+    public static final List<String> DIMENSIONS = Collections.unmodifiableList(
+            Arrays.asList("stageGeneA", "stageGeneB", "cellLine", "geminiSensitive"));
+
+    private static final List<Function<SLNatureData, String>> ACCESSORS = Arrays.asList(
+            SLNatureData::getStageGeneA, SLNatureData::getStageGeneB,
+            SLNatureData::getCellLine, SLNatureData::getGeminiSensitive);
+
+    private static final int BITS = 16;
+    /** 编码+1后必须放得进16位 */
+    private static final int MAX_VALUES = (1 << BITS) - 2;
+    private static final int[] EMPTY = new int[0];
+
+    private final List<SLNatureData> rows;
+    /** 维度 -> 编码 -> 取值，按取值排序 */
+    private final String[][] values;
+    /** 维度 -> 取值 -> 编码 */
+    private final List<Map<String, Integer>> codes;
+    /** 打包键 -> 行号(升序) */
+    private final Map<Long, int[]> postings;
+
+    private SLNatureFacetCube(List<SLNatureData> rows, String[][] values, List<Map<String, Integer>> codes,
+                              Map<Long, int[]> postings) {
+        this.rows = rows;
+        this.values = values;
+        this.codes = codes;
+        this.postings = postings;
+    }
+
+    public static SLNatureFacetCube build(List<SLNatureData> data) {
+        List<SLNatureData> rows = Collections.unmodifiableList(new ArrayList<>(data));
+        int dimensions = DIMENSIONS.size();
+
+        String[][] values = new String[dimensions][];
+        List<Map<String, Integer>> codes = new ArrayList<>();
+        for (int d = 0; d < dimensions; d++) {
+            TreeSet<String> distinct = new TreeSet<>();
+            for (SLNatureData row : rows) {
+                distinct.add(valueOf(row, d));
+            }
+            if (distinct.size() > MAX_VALUES) {
+                throw new IllegalStateException("Too many distinct values in " + DIMENSIONS.get(d) + ": " + distinct.size());
+            }
+            values[d] = distinct.toArray(new String[0]);
+            Map<String, Integer> dimensionCodes = new HashMap<>();
+            for (int code = 0; code < values[d].length; code++) {
+                dimensionCodes.put(values[d][code], code);
+            }
+            codes.add(dimensionCodes);
+        }
+
+        // 第一遍计数，第二遍按行号顺序填充，倒排表天然有序
+        int combinations = 1 << dimensions;
+        long[][] rowKeys = new long[rows.size()][combinations];
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int r = 0; r < rows.size(); r++) {
+            long full = 0;
+            for (int d = 0; d < dimensions; d++) {
+                full |= (long) (codes.get(d).get(valueOf(rows.get(r), d)) + 1) << (BITS * d);
+            }
+            for (int mask = 0; mask < combinations; mask++) {
+                long key = project(full, mask, dimensions);
+                rowKeys[r][mask] = key;
+                counts.computeIfAbsent(key, k -> new int[1])[0]++;
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(counts.size() * 2);
+        for (Map.Entry<Long, int[]> entry : counts.entrySet()) {
+            postings.put(entry.getKey(), new int[entry.getValue()[0]]);
+            // 计数器清零后作为第二遍的填充位置
+            entry.getValue()[0] = 0;
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            for (long key : rowKeys[r]) {
+                postings.get(key)[counts.get(key)[0]++] = r;
+            }
+        }
+        return new SLNatureFacetCube(rows, values, codes, postings);
+    }
+
+    /**
+     * 全部行，供 /sl/nature/all 直接返回
+     */
+    public List<SLNatureData> rows() {
+        return rows;
+    }
+
+    /**
+     * 满足过滤条件的行数及各维度的分面计数
+     * @param filters 维度名 -> 取值，未出现的维度不限
+     */
+    public SLNatureFacets facets(Map<String, String> filters) {
+        int[] filter = encode(filters);
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (int d = 0; d < DIMENSIONS.size(); d++) {
+            int[] others = filter.clone();
+            others[d] = 0;
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            if (!unknownValue(others)) {
+                for (int code = 0; code < values[d].length; code++) {
+                    others[d] = code + 1;
+                    int count = postingsOf(others).length;
+                    if (count > 0) {
+                        counts.put(values[d][code], count);
+                    }
+                }
+            }
+            facets.put(DIMENSIONS.get(d), counts);
+        }
+        SLNatureFacets result = new SLNatureFacets();
+        result.setFilters(filters);
+        result.setTotal(postingsOf(filter).length);
+        result.setFacets(facets);
+        return result;
+    }
+
+    /**
+     * 满足过滤条件的一页明细
+     */
+    public SLNatureRows page(Map<String, String> filters, int offset, int limit) {
+        int[] matches = postingsOf(encode(filters));
+        List<SLNatureData> page = new ArrayList<>();
+        for (int i = offset; i < matches.length && i < offset + limit; i++) {
+            page.add(rows.get(matches[i]));
+        }
+        SLNatureRows result = new SLNatureRows();
+        result.setFilters(filters);
+        result.setTotal(matches.length);
+        result.setOffset(offset);
+        result.setLimit(limit);
+        result.setRows(page);
+        return result;
+    }
+
+    /**
+     * 把过滤条件转成各维度的编码+1，0表示不限，-1表示取值不存在
+     * @throws InvalidQueryException 维度名不存在
+     */
+    private int[] encode(Map<String, String> filters) {
+        int[] filter = new int[DIMENSIONS.size()];
+        for (Map.Entry<String, String> entry : filters.entrySet()) {
+            int d = DIMENSIONS.indexOf(entry.getKey());
+            if (d < 0) {
+                throw new InvalidQueryException("Unknown facet '" + entry.getKey() + "', available facets: " + DIMENSIONS);
+            }
+            Integer code = codes.get(d).get(entry.getValue() == null ? "" : entry.getValue().trim());
+            filter[d] = code == null ? -1 : code + 1;
+        }
+        return filter;
+    }
+
+    private static boolean unknownValue(int[] filter) {
+        for (int value : filter) {
+            if (value < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] postingsOf(int[] filter) {
+        if (unknownValue(filter)) {
+            return EMPTY;
+        }
+        long key = 0;
+        for (int d = 0; d < filter.length; d++) {
+            key |= (long) filter[d] << (BITS * d);
+        }
+        int[] found = postings.get(key);
+        return found == null ? EMPTY : found;
+    }
+
+    /**
+     * 只保留mask中各维度的编码，其余维度置0
+     */
+    private static long project(long full, int mask, int dimensions) {
+        long key = 0;
+        for (int d = 0; d < dimensions; d++) {
+            if ((mask & (1 << d)) != 0) {
+                key |= full & (((1L << BITS) - 1) << (BITS * d));
+            }
+        }
+        return key;
+    }
+
+    private static String valueOf(SLNatureData row, int dimension) {
+        String value = ACCESSORS.get(dimension).apply(row);
+        return value == null ? "" : value.trim();
+    }
+}
@@ -0,0 +1,453 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * 生成ReferenceSnapshot格式的快照文件
+ * 先用table登记各表的行、列和索引，write时统一构建字符串字典再依次写出；
+ * 文件先写到同目录的临时文件，刷盘后原子替换目标文件，已映射旧文件的进程不受影响
+ */
+public final class SnapshotWriter {
+
+    private final List<TableSpec<?>> tables = new ArrayList<>();
+
+    /**
+     * 登记一张表，返回值用于继续声明列和索引
+     */
+    public <T> TableSpec<T> table(String name, List<T> rows) {
+        TableSpec<T> table = new TableSpec<>(name, rows);
+        this.tables.add(table);
+        return table;
+    }
+
+    /**
+     * 一张表的列定义，列值通过取值函数从行对象读出
+     */
+    public static final class TableSpec<T> {
+        private final String name;
+        private final List<T> rows;
+        private final List<ColumnSpec<T>> columns = new ArrayList<>();
+        private final List<String> indexes = new ArrayList<>();
+
+        private TableSpec(String name, List<T> rows) {
+            this.name = name;
+            this.rows = rows;
+        }
+
+        public TableSpec<T> string(String column, Function<T, String> getter) {
+            this.columns.add(new ColumnSpec<>(column, ReferenceSnapshot.TYPE_STRING, getter));
+            return this;
+        }
+
+        public TableSpec<T> integer(String column, Function<T, Integer> getter) {
+            this.columns.add(new ColumnSpec<>(column, ReferenceSnapshot.TYPE_INTEGER, getter));
+            return this;
+        }
+
+        public TableSpec<T> decimal(String column, Function<T, Double> getter) {
+            this.columns.add(new ColumnSpec<>(column, ReferenceSnapshot.TYPE_DECIMAL, getter));
+            return this;
+        }
+
+        /**
+         * 为已声明的字符串列建立按规范化取值查找行号的索引
+         */
+        public TableSpec<T> index(String column) {
+            ColumnSpec<T> spec = find(column);
+            if (spec == null || spec.type != ReferenceSnapshot.TYPE_STRING) {
+                throw new IllegalArgumentException("Index column " + column + " must be a string column of " + name);
+            }
+            this.indexes.add(column);
+            return this;
+        }
+
+        private ColumnSpec<T> find(String column) {
+            for (ColumnSpec<T> spec : columns) {
+                if (spec.name.equals(column)) {
+                    return spec;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ColumnSpec<T> {
+        final String name;
+        final byte type;
+        final Function<T, ?> getter;
+
+        ColumnSpec(String name, byte type, Function<T, ?> getter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+
+    /**
+     * 写出快照文件
+     * @return 快照的校验和，与ReferenceSnapshot.checksum一致
+     */
+    public long write(Path target) throws IOException {
+        Map<String, Integer> dictionary = buildDictionary();
+        String[] strings = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            strings[entry.getValue()] = entry.getKey();
+        }
+
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            long checksum;
+            try (Output out = new Output(FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING))) {
+                out.skip(ReferenceSnapshot.HEADER_BYTES);
+                ByteBuffer toc = ByteBuffer.allocate(1024);
+
+                out.begin();
+                int offset = 0;
+                out.putInt(0);
+                byte[][] encoded = new byte[strings.length][];
+                for (int i = 0; i < strings.length; i++) {
+                    encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+                    offset += encoded[i].length;
+                    out.putInt(offset);
+                }
+                ReferenceSnapshot.Section offsets = out.end();
+                out.begin();
+                for (byte[] bytes : encoded) {
+                    out.put(bytes);
+                }
+                ReferenceSnapshot.Section bytes = out.end();
+                toc = putInt(toc, strings.length);
+                toc = putSection(toc, offsets);
+                toc = putSection(toc, bytes);
+
+                toc = putInt(toc, tables.size());
+                for (TableSpec<?> table : tables) {
+                    toc = writeTable(out, toc, table, dictionary);
+                }
+
+                toc.flip();
+                out.begin();
+                out.put(toc);
+                ReferenceSnapshot.Section tocSection = out.end();
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(ReferenceSnapshot.HEADER_BYTES);
+                header.putLong(ReferenceSnapshot.MAGIC);
+                header.putInt(ReferenceSnapshot.FORMAT_VERSION);
+                header.putInt(0);
+                header.putLong(System.currentTimeMillis());
+                header.putLong(tocSection.offset);
+                header.putLong(tocSection.length);
+                header.putInt(tocSection.crc);
+                header.putInt(0);
+                header.flip();
+                out.writeAt(header, 0);
+                out.force();
+                checksum = tocSection.crc & 0xFFFFFFFFL;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return checksum;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 所有字符串列的取值和索引列的规范化取值，排序后编号，读取时可按字符串二分查找
+     */
+    private Map<String, Integer> buildDictionary() {
+        Set<String> distinct = new HashSet<>();
+        for (TableSpec<?> table : tables) {
+            collect(table, distinct);
+        }
+        String[] sorted = distinct.toArray(new String[0]);
+        Arrays.sort(sorted);
+        Map<String, Integer> dictionary = new HashMap<>(sorted.length * 2);
+        for (int i = 0; i < sorted.length; i++) {
+            dictionary.put(sorted[i], i);
+        }
+        return dictionary;
+    }
+
+    private static <T> void collect(TableSpec<T> table, Set<String> distinct) {
+        for (ColumnSpec<T> column : table.columns) {
+            if (column.type != ReferenceSnapshot.TYPE_STRING) {
+                continue;
+            }
+            boolean indexed = table.indexes.contains(column.name);
+            for (T row : table.rows) {
+                String value = (String) column.getter.apply(row);
+                if (value != null) {
+                    distinct.add(value);
+                    if (indexed) {
+                        distinct.add(GeneNames.normalize(value));
+                    }
+                }
+            }
+        }
+    }
+
+    private static <T> ByteBuffer writeTable(Output out, ByteBuffer toc, TableSpec<T> table,
+                                             Map<String, Integer> dictionary) throws IOException {
+        int rowCount = table.rows.size();
+        toc = putName(toc, table.name);
+        toc = putInt(toc, rowCount);
+        toc = putInt(toc, table.columns.size());
+        for (ColumnSpec<T> column : table.columns) {
+            BitSet nulls = new BitSet(rowCount);
+            out.begin();
+            for (int row = 0; row < rowCount; row++) {
+                Object value = column.getter.apply(table.rows.get(row));
+                if (column.type == ReferenceSnapshot.TYPE_STRING) {
+                    out.putInt(value == null ? -1 : dictionary.get(value));
+                } else if (column.type == ReferenceSnapshot.TYPE_INTEGER) {
+                    out.putInt(value == null ? 0 : (Integer) value);
+                } else {
+                    out.putDouble(value == null ? 0.0 : (Double) value);
+                }
+                if (value == null) {
+                    nulls.set(row);
+                }
+            }
+            ReferenceSnapshot.Section values = out.end();
+            out.begin();
+            if (column.type != ReferenceSnapshot.TYPE_STRING && !nulls.isEmpty()) {
+                long[] words = Arrays.copyOf(nulls.toLongArray(), (rowCount + 63) >>> 6);
+                for (long word : words) {
+                    out.putLong(word);
+                }
+            }
+            ReferenceSnapshot.Section nullSection = out.end();
+            toc = putName(toc, column.name);
+            toc = ensure(toc, 1);
+            toc.put(column.type);
+            toc = putSection(toc, values);
+            toc = putSection(toc, nullSection);
+        }
+
+        toc = putInt(toc, table.indexes.size());
+        for (String indexed : table.indexes) {
+            toc = putName(toc, indexed);
+            toc = writeIndex(out, toc, table, table.find(indexed), dictionary);
+        }
+        return toc;
+    }
+
+    /**
+     * 按规范化取值的字典编号分组的行号：keys为出现过的编号(升序)，offsets[i]..offsets[i+1]为其行号范围
+     */
+    private static <T> ByteBuffer writeIndex(Output out, ByteBuffer toc, TableSpec<T> table, ColumnSpec<T> column,
+                                             Map<String, Integer> dictionary) throws IOException {
+        int rowCount = table.rows.size();
+        int[] keyOfRow = new int[rowCount];
+        int[] counts = new int[dictionary.size() + 1];
+        for (int row = 0; row < rowCount; row++) {
+            String value = (String) column.getter.apply(table.rows.get(row));
+            String key = GeneNames.normalize(value);
+            keyOfRow[row] = key == null || key.isEmpty() ? -1 : dictionary.get(key);
+            if (keyOfRow[row] >= 0) {
+                counts[keyOfRow[row] + 1]++;
+            }
+        }
+        int[] starts = new int[dictionary.size() + 1];
+        for (int id = 0; id < dictionary.size(); id++) {
+            starts[id + 1] = starts[id] + counts[id + 1];
+        }
+        int[] rows = new int[starts[dictionary.size()]];
+        int[] next = Arrays.copyOf(starts, dictionary.size());
+        for (int row = 0; row < rowCount; row++) {
+            if (keyOfRow[row] >= 0) {
+                rows[next[keyOfRow[row]]++] = row;
+            }
+        }
+
+        out.begin();
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (counts[id + 1] > 0) {
+                out.putInt(id);
+            }
+        }
+        ReferenceSnapshot.Section keys = out.end();
+        out.begin();
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (counts[id + 1] > 0) {
+                out.putInt(starts[id]);
+            }
+        }
+        out.putInt(rows.length);
+        ReferenceSnapshot.Section offsets = out.end();
+        out.begin();
+        for (int row : rows) {
+            out.putInt(row);
+        }
+        ReferenceSnapshot.Section rowSection = out.end();
+        toc = putSection(toc, keys);
+        toc = putSection(toc, offsets);
+        return putSection(toc, rowSection);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static ByteBuffer putInt(ByteBuffer toc, int value) {
+        toc = ensure(toc, 4);
+        toc.putInt(value);
+        return toc;
+    }
+
+    private static ByteBuffer putName(ByteBuffer toc, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        toc = ensure(toc, 4 + bytes.length);
+        toc.putInt(bytes.length);
+        toc.put(bytes);
+        return toc;
+    }
+
+    private static ByteBuffer putSection(ByteBuffer toc, ReferenceSnapshot.Section section) {
+        toc = ensure(toc, 20);
+        toc.putLong(section.offset);
+        toc.putLong(section.length);
+        toc.putInt(section.crc);
+        return toc;
+    }
+
+    /**
+     * 带缓冲的顺序写出，记录当前位置并计算当前段的CRC32
+     */
+    private static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private final CRC32 crc = new CRC32();
+        /** buffer中尚未计入CRC的起始位置 */
+        private int crcMark;
+        private long position;
+        private long sectionStart;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void skip(int bytes) throws IOException {
+            flush();
+            this.position += bytes;
+            this.channel.position(this.position);
+        }
+
+        void begin() {
+            updateCrc();
+            this.crc.reset();
+            this.sectionStart = this.position;
+        }
+
+        ReferenceSnapshot.Section end() {
+            updateCrc();
+            return new ReferenceSnapshot.Section(this.sectionStart, this.position - this.sectionStart,
+                    (int) this.crc.getValue());
+        }
+
+        void putInt(int value) throws IOException {
+            room(4);
+            this.buffer.putInt(value);
+            this.position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            room(8);
+            this.buffer.putLong(value);
+            this.position += 8;
+        }
+
+        void putDouble(double value) throws IOException {
+            room(8);
+            this.buffer.putDouble(value);
+            this.position += 8;
+        }
+
+        void put(byte[] bytes) throws IOException {
+            put(ByteBuffer.wrap(bytes));
+        }
+
+        void put(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                room(1);
+                int n = Math.min(bytes.remaining(), this.buffer.remaining());
+                ByteBuffer slice = bytes.duplicate();
+                slice.limit(slice.position() + n);
+                this.buffer.put(slice);
+                bytes.position(bytes.position() + n);
+                this.position += n;
+            }
+        }
+
+        private void room(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void updateCrc() {
+            this.crc.update(this.buffer.array(), this.crcMark, this.buffer.position() - this.crcMark);
+            this.crcMark = this.buffer.position();
+        }
+
+        void flush() throws IOException {
+            updateCrc();
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+            this.crcMark = 0;
+        }
+
+        void writeAt(ByteBuffer bytes, long at) throws IOException {
+            while (bytes.hasRemaining()) {
+                at += this.channel.write(bytes, at);
+            }
+        }
+
+        void force() throws IOException {
+            this.channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.TFCascade;
+import com.cellcycle.cellcycledata.Entity.TFCascadeNode;
+import com.cellcycle.cellcycledata.Entity.TFChain;
+import com.cellcycle.cellcycledata.Entity.TFComponent;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.TFLoop;
+import com.cellcycle.cellcycledata.Entity.TFLoops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 转录调控网络的只读有向图，边由tf表的(tf, target_gene)构成，符号取自interaction列
+ * 出边和入边各存一份CSR，每个节点区间按邻居ID升序，判断某条边是否存在只需一次二分查找；
+ * 强连通分量在建图时用Tarjan算法预先求出，反馈环只需在查询基因所在的分量内搜索
+ */
+public final class TFGraph {
+
+    /** 同一对基因的多行记录按位合并 */
+    private static final int ACTIVATION = 1;
+    private static final int REPRESSION = 2;
+    private static final int UNKNOWN = 4;
+
+    /** 反馈环搜索最多扩展的边数，防止大分量内的组合爆炸 */
+    private static final int LOOP_SEARCH_BUDGET = 1_000_000;
+
+    /** 基因名称(规范化后) -> 节点ID */
+    private final Map<String, Integer> geneIds;
+    /** 节点ID -> 基因名称(保留首次出现时的原始写法) */
+    private final String[] geneNames;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final byte[] outFlags;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final byte[] inFlags;
+
+    /** 节点ID -> 强连通分量编号 */
+    private final int[] component;
+    /** 分量编号 -> 节点数 */
+    private final int[] componentSizes;
+
+    private TFGraph(Map<String, Integer> geneIds, String[] geneNames,
+                    int[] outOffsets, int[] outTargets, byte[] outFlags,
+                    int[] inOffsets, int[] inSources, byte[] inFlags) {
+        this.geneIds = geneIds;
+        this.geneNames = geneNames;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outFlags = outFlags;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.inFlags = inFlags;
+        this.component = new int[geneNames.length];
+        this.componentSizes = tarjan(outOffsets, outTargets, component);
+    }
+
+    /**
+     * 由tf表的全部行构建图，同一对基因的重复行合并为一条边
+     */
+    public static TFGraph build(List<TFData> rows) {
+        Map<String, Integer> geneIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        long[] packed = new long[rows.size()];
+        int count = 0;
+        for (TFData row : rows) {
+            int tf = intern(row.getTf(), geneIds, names);
+            int target = intern(row.getTarget_gene(), geneIds, names);
+            if (tf >= 0 && target >= 0) {
+                // 节点数远小于2^28，(源, 靶, 符号)打包进一个long后排序即得按源、靶升序的边表
+                packed[count++] = ((long) tf << 28 | target) << 3 | flagOf(row.getInteraction());
+            }
+        }
+        Arrays.sort(packed, 0, count);
+
+        int edges = 0;
+        for (int i = 0; i < count; i++) {
+            long key = packed[i] >>> 3;
+            if (edges > 0 && packed[edges - 1] >>> 3 == key) {
+                packed[edges - 1] |= packed[i] & 7;
+            } else {
+                packed[edges++] = packed[i];
+            }
+        }
+
+        int n = names.size();
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < edges; e++) {
+            outOffsets[source(packed[e]) + 1]++;
+            inOffsets[target(packed[e]) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] += outOffsets[v];
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] outTargets = new int[edges];
+        byte[] outFlags = new byte[edges];
+        int[] inSources = new int[edges];
+        byte[] inFlags = new byte[edges];
+        int[] inCursor = Arrays.copyOf(inOffsets, n);
+        // 边表按源升序，出边依次填入即可；按源升序填入入边，每个靶节点的入边区间也按源升序
+        for (int e = 0; e < edges; e++) {
+            int u = source(packed[e]);
+            int v = target(packed[e]);
+            byte flags = (byte) (packed[e] & 7);
+            outTargets[e] = v;
+            outFlags[e] = flags;
+            int slot = inCursor[v]++;
+            inSources[slot] = u;
+            inFlags[slot] = flags;
+        }
+        return new TFGraph(geneIds, names.toArray(new String[0]),
+                outOffsets, outTargets, outFlags, inOffsets, inSources, inFlags);
+    }
+
+    public int nodeCount() {
+        return geneNames.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * 在depth步内可达的下游靶基因(downstream=true)或上游调控因子
+     */
+    public TFCascade cascade(String gene, boolean downstream, int depth, int maxNodes) {
+        int start = requireNode(gene);
+        int[] offsets = downstream ? outOffsets : inOffsets;
+        int[] neighbors = downstream ? outTargets : inSources;
+        byte[] flags = downstream ? outFlags : inFlags;
+
+        int[] hops = new int[geneNames.length];
+        int[] parents = new int[geneNames.length];
+        int[] signs = new int[geneNames.length];
+        Arrays.fill(hops, -1);
+        int[] queue = new int[geneNames.length];
+        int size = 0;
+        hops[start] = 0;
+        signs[start] = 1;
+        queue[size++] = start;
+        boolean truncated = false;
+        for (int head = 0; head < size && !truncated; head++) {
+            int u = queue[head];
+            if (hops[u] >= depth) {
+                continue;
+            }
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                int v = neighbors[slot];
+                if (hops[v] >= 0) {
+                    continue;
+                }
+                // 不含起点，size-1即已收录的基因数
+                if (size - 1 >= maxNodes) {
+                    truncated = true;
+                    break;
+                }
+                hops[v] = hops[u] + 1;
+                parents[v] = u;
+                signs[v] = signs[u] * sign(flags[slot]);
+                queue[size++] = v;
+            }
+        }
+
+        List<TFCascadeNode> nodes = new ArrayList<>(size - 1);
+        for (int i = 1; i < size; i++) {
+            int v = queue[i];
+            TFCascadeNode node = new TFCascadeNode();
+            node.setGene(geneNames[v]);
+            node.setHop(hops[v]);
+            node.setVia(geneNames[parents[v]]);
+            node.setEffect(effect(signs[v]));
+            nodes.add(node);
+        }
+        TFCascade result = new TFCascade();
+        result.setGene(geneNames[start]);
+        result.setDirection(downstream ? "downstream" : "upstream");
+        result.setDepth(depth);
+        result.setNodes(nodes);
+        result.setTruncated(truncated);
+        return result;
+    }
+
+    /**
+     * source到target的最短调控链(步数最少)，maxDepth步内不可达时genes为空列表
+     */
+    public TFChain shortestChain(String source, String target, int maxDepth) {
+        int from = requireNode(source);
+        int to = requireNode(target);
+        int[] hops = new int[geneNames.length];
+        int[] parentSlots = new int[geneNames.length];
+        Arrays.fill(hops, -1);
+        int[] queue = new int[geneNames.length];
+        int size = 0;
+        hops[from] = 0;
+        queue[size++] = from;
+        for (int head = 0; head < size && hops[to] < 0; head++) {
+            int u = queue[head];
+            if (hops[u] >= maxDepth) {
+                break;
+            }
+            for (int slot = outOffsets[u]; slot < outOffsets[u + 1]; slot++) {
+                int v = outTargets[slot];
+                if (hops[v] < 0) {
+                    hops[v] = hops[u] + 1;
+                    parentSlots[v] = slot;
+                    queue[size++] = v;
+                }
+            }
+        }
+
+        List<String> genes = new ArrayList<>();
+        List<String> interactions = new ArrayList<>();
+        int sign = 1;
+        if (hops[to] >= 0) {
+            for (int v = to; v != from; ) {
+                int slot = parentSlots[v];
+                genes.add(geneNames[v]);
+                interactions.add(label(outFlags[slot]));
+                sign *= sign(outFlags[slot]);
+                v = sourceOfSlot(slot);
+            }
+            genes.add(geneNames[from]);
+            Collections.reverse(genes);
+            Collections.reverse(interactions);
+        }
+        TFChain result = new TFChain();
+        result.setSource(geneNames[from]);
+        result.setTarget(geneNames[to]);
+        result.setGenes(genes);
+        result.setInteractions(interactions);
+        result.setEffect(interactions.isEmpty() ? null : effect(sign));
+        return result;
+    }
+
+    /**
+     * 包含该基因的前馈环(X→Y→Z且X→Z，基因可处于任一位置)以及经过它、长度不超过maxLength的反馈环
+     * @param limit 两类环路各自最多返回的条数
+     */
+    public TFLoops loops(String gene, int maxLength, int limit) {
+        int g = requireNode(gene);
+        List<TFLoop> feedForward = new ArrayList<>();
+        boolean truncated = feedForward(g, limit, feedForward);
+
+        List<TFLoop> feedback = new ArrayList<>();
+        int selfLoop = edgeSlot(g, g);
+        if (selfLoop >= 0) {
+            feedback.add(feedbackLoop(new int[]{g}, new int[]{selfLoop}, 1));
+        }
+        if (componentSizes[component[g]] > 1 && maxLength > 1) {
+            int[] path = new int[maxLength];
+            int[] slots = new int[maxLength];
+            boolean[] onPath = new boolean[geneNames.length];
+            path[0] = g;
+            onPath[g] = true;
+            int[] budget = {LOOP_SEARCH_BUDGET};
+            truncated |= cycles(g, 1, maxLength, limit, path, slots, onPath, budget, feedback);
+        }
+
+        TFLoops result = new TFLoops();
+        result.setGene(geneNames[g]);
+        result.setComponentSize(componentSizes[component[g]]);
+        result.setFeedForward(feedForward);
+        result.setFeedback(feedback);
+        result.setTruncated(truncated);
+        return result;
+    }
+
+    /**
+     * 节点数不少于minSize的强连通分量，按大小降序
+     */
+    public List<TFComponent> components(int minSize) {
+        List<List<String>> members = new ArrayList<>();
+        for (int i = 0; i < componentSizes.length; i++) {
+            members.add(componentSizes[i] >= minSize ? new ArrayList<>() : null);
+        }
+        for (int v = 0; v < geneNames.length; v++) {
+            List<String> list = members.get(component[v]);
+            if (list != null) {
+                list.add(geneNames[v]);
+            }
+        }
+        List<TFComponent> result = new ArrayList<>();
+        for (List<String> list : members) {
+            if (list != null) {
+                Collections.sort(list);
+                TFComponent c = new TFComponent();
+                c.setSize(list.size());
+                c.setGenes(list);
+                result.add(c);
+            }
+        }
+        result.sort((a, b) -> Integer.compare(b.getSize(), a.getSize()));
+        return result;
+    }
+
+    /**
+     * @return 是否因达到limit而未列全
+     */
+    private boolean feedForward(int g, int limit, List<TFLoop> loops) {
+        // g为X：g→Y→Z 且 g→Z
+        for (int xy = outOffsets[g]; xy < outOffsets[g + 1]; xy++) {
+            int y = outTargets[xy];
+            if (y == g) {
+                continue;
+            }
+            for (int yz = outOffsets[y]; yz < outOffsets[y + 1]; yz++) {
+                int z = outTargets[yz];
+                int xz = z == g || z == y ? -1 : edgeSlot(g, z);
+                if (xz >= 0 && !addFeedForward(loops, limit, g, y, z, xy, yz, xz)) {
+                    return true;
+                }
+            }
+        }
+        // g为Y：X→g→Z 且 X→Z
+        for (int in = inOffsets[g]; in < inOffsets[g + 1]; in++) {
+            int x = inSources[in];
+            if (x == g) {
+                continue;
+            }
+            int xy = edgeSlot(x, g);
+            for (int yz = outOffsets[g]; yz < outOffsets[g + 1]; yz++) {
+                int z = outTargets[yz];
+                int xz = z == g || z == x ? -1 : edgeSlot(x, z);
+                if (xz >= 0 && !addFeedForward(loops, limit, x, g, z, xy, yz, xz)) {
+                    return true;
+                }
+            }
+        }
+        // g为Z：X→Y→g 且 X→g
+        for (int in = inOffsets[g]; in < inOffsets[g + 1]; in++) {
+            int x = inSources[in];
+            if (x == g) {
+                continue;
+            }
+            int xz = edgeSlot(x, g);
+            for (int xy = outOffsets[x]; xy < outOffsets[x + 1]; xy++) {
+                int y = outTargets[xy];
+                int yz = y == g || y == x ? -1 : edgeSlot(y, g);
+                if (yz >= 0 && !addFeedForward(loops, limit, x, y, g, xy, yz, xz)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean addFeedForward(List<TFLoop> loops, int limit, int x, int y, int z, int xy, int yz, int xz) {
+        if (loops.size() >= limit) {
+            return false;
+        }
+        int indirect = sign(outFlags[xy]) * sign(outFlags[yz]);
+        int direct = sign(outFlags[xz]);
+        TFLoop loop = new TFLoop();
+        loop.setGenes(Arrays.asList(geneNames[x], geneNames[y], geneNames[z]));
+        loop.setInteractions(Arrays.asList(label(outFlags[xy]), label(outFlags[yz]), label(outFlags[xz])));
+        loop.setEffect(indirect == 0 || direct == 0 ? "unknown" : indirect == direct ? "coherent" : "incoherent");
+        loops.add(loop);
+        return true;
+    }
+
+    /**
+     * 在g所在的强连通分量内深度优先搜索回到g的简单环
+     * @return 是否因达到limit或搜索预算而未列全
+     */
+    private boolean cycles(int g, int length, int maxLength, int limit, int[] path, int[] slots, boolean[] onPath,
+                           int[] budget, List<TFLoop> loops) {
+        int u = path[length - 1];
+        for (int slot = outOffsets[u]; slot < outOffsets[u + 1]; slot++) {
+            if (--budget[0] < 0) {
+                return true;
+            }
+            int v = outTargets[slot];
+            if (component[v] != component[g]) {
+                continue;
+            }
+            if (v == g) {
+                // 自环已单独处理
+                if (length > 1) {
+                    if (loops.size() >= limit) {
+                        return true;
+                    }
+                    slots[length - 1] = slot;
+                    loops.add(feedbackLoop(path, slots, length));
+                }
+            } else if (!onPath[v] && length < maxLength) {
+                path[length] = v;
+                slots[length - 1] = slot;
+                onPath[v] = true;
+                boolean stop = cycles(g, length + 1, maxLength, limit, path, slots, onPath, budget, loops);
+                onPath[v] = false;
+                if (stop) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private TFLoop feedbackLoop(int[] path, int[] slots, int length) {
+        List<String> genes = new ArrayList<>(length + 1);
+        List<String> interactions = new ArrayList<>(length);
+        int sign = 1;
+        for (int i = 0; i < length; i++) {
+            genes.add(geneNames[path[i]]);
+            interactions.add(label(outFlags[slots[i]]));
+            sign *= sign(outFlags[slots[i]]);
+        }
+        genes.add(geneNames[path[0]]);
+        TFLoop loop = new TFLoop();
+        loop.setGenes(genes);
+        loop.setInteractions(interactions);
+        loop.setEffect(sign == 0 ? "unknown" : sign > 0 ? "positive" : "negative");
+        return loop;
+    }
+
+    /**
+     * u→v的出边槽位，不存在时返回-1
+     */
+    private int edgeSlot(int u, int v) {
+        int slot = Arrays.binarySearch(outTargets, outOffsets[u], outOffsets[u + 1], v);
+        return slot >= 0 ? slot : -1;
+    }
+
+    /**
+     * 出边槽位所属的源节点
+     */
+    private int sourceOfSlot(int slot) {
+        int lo = 0, hi = geneNames.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (outOffsets[mid] <= slot) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private int requireNode(String gene) {
+        Integer id = gene == null ? null : geneIds.get(GeneNames.normalize(gene));
+        if (id == null) {
+            throw new InvalidQueryException("Gene '" + gene + "' is not in the TF network");
+        }
+        return id;
+    }
+
+    /**
+     * 迭代版Tarjan算法，写入每个节点的分量编号并返回各分量大小
+     */
+    private static int[] tarjan(int[] offsets, int[] targets, int[] component) {
+        int n = component.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        Arrays.fill(index, -1);
+        int[] stack = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] callStack = new int[n];
+        int[] edgeCursor = new int[n];
+        int[] sizes = new int[n];
+        int stackSize = 0;
+        int next = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = next++;
+            edgeCursor[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int u = callStack[depth - 1];
+                if (edgeCursor[u] < offsets[u + 1]) {
+                    int v = targets[edgeCursor[u]++];
+                    if (index[v] < 0) {
+                        index[v] = low[v] = next++;
+                        edgeCursor[v] = offsets[v];
+                        stack[stackSize++] = v;
+                        onStack[v] = true;
+                        callStack[depth++] = v;
+                    } else if (onStack[v]) {
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+                if (low[u] == index[u]) {
+                    int v;
+                    do {
+                        v = stack[--stackSize];
+                        onStack[v] = false;
+                        component[v] = components;
+                        sizes[components]++;
+                    } while (v != u);
+                    components++;
+                }
+            }
+        }
+        return Arrays.copyOf(sizes, components);
+    }
+
+    /**
+     * interaction列的取值转为符号位：Activation、Repression，其他(包括空值)记为未知
+     */
+    private static int flagOf(String interaction) {
+        if (interaction == null) {
+            return UNKNOWN;
+        }
+        String value = interaction.trim().toLowerCase(Locale.ROOT);
+        if (value.startsWith("repress") || value.startsWith("inhib") || value.equals("-")) {
+            return REPRESSION;
+        }
+        if (value.startsWith("activ") || value.startsWith("induc") || value.equals("+")) {
+            return ACTIVATION;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * 边的符号：+1激活，-1抑制，0未知或既有激活又有抑制的记录
+     */
+    private static int sign(byte flags) {
+        boolean activation = (flags & ACTIVATION) != 0;
+        boolean repression = (flags & REPRESSION) != 0;
+        return activation == repression ? 0 : activation ? 1 : -1;
+    }
+
+    private static String label(byte flags) {
+        if ((flags & ACTIVATION) != 0 && (flags & REPRESSION) != 0) {
+            return "dual";
+        }
+        return effect(sign(flags));
+    }
+
+    private static String effect(int sign) {
+        return sign > 0 ? "activation" : sign < 0 ? "repression" : "unknown";
+    }
+
+    private static int source(long packed) {
+        return (int) (packed >>> 31);
+    }
+
+    private static int target(long packed) {
+        return (int) (packed >>> 3) & ((1 << 28) - 1);
+    }
+
+    private static int intern(String gene, Map<String, Integer> geneIds, List<String> names) {
+        String key = GeneNames.normalize(gene);
+        if (key == null || key.isEmpty()) {
+            return -1;
+        }
+        Integer id = geneIds.get(key);
+        if (id == null) {
+            id = names.size();
+            geneIds.put(key, id);
+            names.add(gene.trim());
+        }
+        return id;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 一个路由的并发准入状态与累计计数
+ */
+@Data
+public class AdmissionRouteStats {
+
+    /**
+     * 路由模板，例如 /cellcycledata/ppi/all
+     */
+    private String route;
+
+    private Integer maxConcurrent;
+
+    private Integer maxQueue;
+
+    /**
+     * 正在处理的请求数
+     */
+    private Integer active;
+
+    /**
+     * 正在排队等待的请求数
+     */
+    private Integer queued;
+
+    private Long admitted;
+
+    /**
+     * 排队已满而立即返回503的请求数
+     */
+    private Long rejected;
+
+    /**
+     * 排队超时后返回503的请求数
+     */
+    private Long timedOut;
+}
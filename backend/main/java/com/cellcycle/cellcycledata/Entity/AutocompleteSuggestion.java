@@ -0,0 +1,24 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 自动补全建议
+ */
+@Data
+public class AutocompleteSuggestion {
+    /**
+     * 词条原文
+     */
+    private String term;
+
+    /**
+     * 词条类型：gene、mirna、tf、drug、kegg、hallmark
+     */
+    private String type;
+
+    /**
+     * 与查询的编辑距离，前缀匹配(非完全相同)时为null
+     */
+    private Integer distance;
+}
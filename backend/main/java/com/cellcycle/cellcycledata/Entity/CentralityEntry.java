@@ -0,0 +1,30 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 中心性排名中的一个基因及其全部指标
+ */
+@Data
+public class CentralityEntry {
+    private Integer rank;
+    private String gene;
+    private Integer degree;
+
+    /**
+     * 相连互作的combined_score之和
+     */
+    private Double weightedDegree;
+
+    /**
+     * 归一化到[0, 1]的介数中心性
+     */
+    private Double betweenness;
+
+    /**
+     * Wasserman-Faust接近度，按可达比例修正，适用于不连通的网络
+     */
+    private Double closeness;
+
+    private Double pageRank;
+}
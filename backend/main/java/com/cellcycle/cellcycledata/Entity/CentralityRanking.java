@@ -0,0 +1,48 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 蛋白质互作网络中心性排名的一页
+ */
+@Data
+public class CentralityRanking {
+
+    /**
+     * 结果版本号，每次重新计算递增
+     */
+    private Long version;
+
+    /**
+     * running：正在计算；done：已完成；failed：计算失败；rejected：排队任务已满，未提交
+     */
+    private String status;
+
+    private String error;
+
+    private Double minScore;
+
+    private String metric;
+
+    /**
+     * 计算完成的时间戳(毫秒)
+     */
+    private Long computedAt;
+
+    private Long elapsedMillis;
+
+    /**
+     * 阈值下至少有一条互作的基因数，即排名总数
+     */
+    private Integer nodeCount;
+
+    private Integer edgeCount;
+
+    private Integer offset;
+
+    private Integer limit;
+
+    private List<CentralityEntry> rows;
+}
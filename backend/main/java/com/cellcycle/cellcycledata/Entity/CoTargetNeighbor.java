@@ -0,0 +1,14 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 相似度排名中的一项：名称、共同靶点(或共同调控miRNA)数、自身集合大小及相似度
+ */
+@Data
+public class CoTargetNeighbor {
+    private String name;
+    private Integer shared;
+    private Integer size;
+    private Double score;
+}
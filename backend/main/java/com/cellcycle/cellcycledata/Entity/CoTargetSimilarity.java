@@ -0,0 +1,34 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * miRNA共靶标或基因共调控的相似度排名
+ */
+@Data
+public class CoTargetSimilarity {
+
+    /**
+     * 查询的miRNA或基因名称
+     */
+    private String query;
+
+    /**
+     * mirna：按共同靶基因比较miRNA；gene：按共同调控miRNA比较基因
+     */
+    private String type;
+
+    /**
+     * jaccard 或 overlap
+     */
+    private String metric;
+
+    /**
+     * 查询对象自身的集合大小
+     */
+    private Integer size;
+
+    private List<CoTargetNeighbor> neighbors;
+}
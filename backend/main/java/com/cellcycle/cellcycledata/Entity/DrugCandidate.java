@@ -0,0 +1,27 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一个候选药物及其得分
+ */
+@Data
+public class DrugCandidate {
+    private Integer rank;
+    private String drug;
+    private Double score;
+
+    /**
+     * 该药物在gene_target中作用的基因总数
+     */
+    private Integer targetCount;
+
+    /**
+     * drug_information中的药物说明，没有记录时为null
+     */
+    private String information;
+
+    private List<DrugEvidence> evidence;
+}
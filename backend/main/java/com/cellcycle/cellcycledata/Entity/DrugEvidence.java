@@ -0,0 +1,30 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 候选药物的一条依据：药物作用的靶基因与查询基因的关系
+ */
+@Data
+public class DrugEvidence {
+
+    /**
+     * 药物在gene_target中的靶基因
+     */
+    private String gene;
+
+    /**
+     * direct：即查询基因；ppi：查询基因的互作邻居；sl：查询基因的合成致死伙伴
+     */
+    private String relation;
+
+    /**
+     * ppi关系时为互作的combined_score
+     */
+    private Double ppiScore;
+
+    /**
+     * 这条依据对总分的贡献
+     */
+    private Double contribution;
+}
@@ -0,0 +1,30 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 以一个基因为中心的老药新用候选排名
+ */
+@Data
+public class DrugRepurposing {
+    private String gene;
+
+    /**
+     * 参与评分的互作邻居数
+     */
+    private Integer ppiNeighbors;
+
+    /**
+     * 参与评分的合成致死伙伴数
+     */
+    private Integer slPartners;
+
+    /**
+     * 有依据的候选药物总数，candidates只返回其中前limit个
+     */
+    private Integer total;
+
+    private List<DrugCandidate> candidates;
+}
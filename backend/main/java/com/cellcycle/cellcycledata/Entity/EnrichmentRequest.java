@@ -0,0 +1,37 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 富集分析请求
+ */
+@Data
+public class EnrichmentRequest {
+
+    /**
+     * 待分析的基因列表，最多1000个
+     */
+    private List<String> genes;
+
+    /**
+     * 自定义背景基因，为空时KEGG以全基因组(Pop Total)为背景、癌症标志以其注释基因为背景
+     */
+    private List<String> background;
+
+    /**
+     * 参与分析的基因集合库：kegg、hallmark，为空时全部参与
+     */
+    private List<String> collections;
+
+    /**
+     * 最少命中基因数，默认1
+     */
+    private Integer minOverlap;
+
+    /**
+     * 只返回FDR不高于该值的条目，默认1(全部返回)
+     */
+    private Double maxFdr;
+}
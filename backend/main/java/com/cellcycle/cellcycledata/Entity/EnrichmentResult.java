@@ -0,0 +1,29 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 富集分析结果，条目按p值升序
+ */
+@Data
+public class EnrichmentResult {
+
+    /**
+     * 至少在一个基因集合库中有注释的输入基因
+     */
+    private List<String> genes;
+
+    /**
+     * 在所选基因集合库中都没有注释、不参与检验的输入基因
+     */
+    private List<String> unmappedGenes;
+
+    /**
+     * 参与检验(背景中至少有一个基因)的条目数
+     */
+    private Integer testedTerms;
+
+    private List<EnrichmentTerm> terms;
+}
@@ -0,0 +1,53 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一个通路或癌症标志的富集结果
+ */
+@Data
+public class EnrichmentTerm {
+
+    /**
+     * 所属基因集合库：kegg 或 hallmark
+     */
+    private String collection;
+
+    private String term;
+
+    /**
+     * 输入基因中属于该条目的个数
+     */
+    private Integer overlap;
+
+    /**
+     * 背景中属于该条目的基因数
+     */
+    private Integer termSize;
+
+    /**
+     * 输入基因中有注释的个数
+     */
+    private Integer listSize;
+
+    /**
+     * 背景基因数
+     */
+    private Integer backgroundSize;
+
+    /**
+     * 超几何检验单侧p值，P(X >= overlap)
+     */
+    private Double pValue;
+
+    private Double foldEnrichment;
+
+    /**
+     * Benjamini-Hochberg校正后的FDR，在同一基因集合库内校正
+     */
+    private Double fdr;
+
+    private List<String> genes;
+}
@@ -0,0 +1,51 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基因详情页的聚合数据，一次请求返回所有来源的结果
+ */
+@Data
+public class GeneCard {
+    private String gene;
+
+    /**
+     * 细胞周期基因表中的记录
+     */
+    private List<cellcycledata> cellCycleGenes;
+
+    private List<PPIData> ppi;
+    private List<TFData> tf;
+    private List<MirnaGene> mirna;
+    private List<SLData> sl;
+    private List<SLNatureData> slNature;
+    private List<GeneTarget> geneTargets;
+
+    /**
+     * 基因对应的癌症标志
+     */
+    private List<String> hallmarks;
+
+    /**
+     * 包含该基因的KEGG通路
+     */
+    private List<String> keggPathways;
+
+    /**
+     * 各数据来源的耗时(毫秒)
+     */
+    private Map<String, Long> timings;
+
+    /**
+     * 查询失败或超时的数据来源及原因，对应字段为空列表
+     */
+    private Map<String, String> errors;
+
+    /**
+     * 整体耗时(毫秒)
+     */
+    private Long totalMillis;
+}
@@ -0,0 +1,19 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Value;
+
+/**
+ * 基因的miRNA互作数量(miRNA_gene_interaction_number.txt)，用于词云，不可变
+ */
+@Value
+public class GeneInteractionCount {
+    /**
+     * 基因名称
+     */
+    String name;
+
+    /**
+     * 互作数量
+     */
+    Integer value;
+}
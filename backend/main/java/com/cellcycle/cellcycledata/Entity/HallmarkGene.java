@@ -0,0 +1,18 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 基因及其对应的癌症标志(hallmark_cell.txt)，不可变
+ */
+@Value
+public class HallmarkGene {
+    String gene;
+    /**
+     * 癌症标志(不可修改)
+     */
+    List<String> hallmarks;
+    Integer count;
+}
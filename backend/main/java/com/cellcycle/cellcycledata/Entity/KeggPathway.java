@@ -0,0 +1,37 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * KEGG通路富集结果(DAVID输出KEGG_pathway.txt中的一行)，不可变
+ */
+@Value
+public class KeggPathway {
+    String category;
+    /**
+     * 通路，如 hsa04110:Cell cycle
+     */
+    String term;
+    Integer count;
+    Double percent;
+    Double pValue;
+    /**
+     * 通路中命中的基因(不可修改)
+     */
+    List<String> genes;
+    Integer listTotal;
+    /**
+     * 背景基因组中属于该通路的基因数
+     */
+    Integer popHits;
+    /**
+     * 背景基因组中有KEGG注释的基因总数
+     */
+    Integer popTotal;
+    Double foldEnrichment;
+    Double bonferroni;
+    Double benjamini;
+    Double fdr;
+}
@@ -0,0 +1,41 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按证据通道阈值过滤并排序后的一页互作数据
+ */
+@Data
+public class PPIEvidenceResult {
+
+    /**
+     * 实际应用的条件：通道名 -> 最低值
+     */
+    private Map<String, Double> minimums;
+
+    /**
+     * 实际使用的排序键，形如"coexpression:desc"
+     */
+    private List<String> sort;
+
+    private String gene;
+
+    /**
+     * 满足全部条件的总行数
+     */
+    private Integer total;
+
+    /**
+     * 实际扫描的行数，其余行所在的块因最大值低于阈值被跳过；按基因过滤时为该基因的邻接边数
+     */
+    private Long scannedRows;
+
+    private Integer offset;
+
+    private Integer limit;
+
+    private List<PPIData> rows;
+}
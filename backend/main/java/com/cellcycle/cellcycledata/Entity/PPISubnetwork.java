@@ -0,0 +1,36 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 以种子基因为中心、经有界广度优先搜索得到的蛋白质互作子网络
+ */
+@Data
+public class PPISubnetwork {
+    /**
+     * 在互作网络中找到的种子基因
+     */
+    private List<String> seeds;
+
+    /**
+     * 在互作网络中不存在的种子基因
+     */
+    private List<String> missingSeeds;
+
+    /**
+     * 子网络节点，按访问顺序排列
+     */
+    private List<PPISubnetworkNode> nodes;
+
+    /**
+     * 节点之间分数不低于阈值的全部互作(导出子图)
+     */
+    private List<PPIData> edges;
+
+    /**
+     * 是否因达到节点上限而提前停止搜索；种子基因总是全部返回，种子数超过上限时不再扩展，同样为true
+     */
+    private Boolean truncated;
+}
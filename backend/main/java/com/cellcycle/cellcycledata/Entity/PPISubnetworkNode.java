@@ -0,0 +1,12 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 子网络中的节点：基因名称及其距最近种子基因的跳数
+ */
+@Data
+public class PPISubnetworkNode {
+    private String gene;
+    private Integer hop;
+}
@@ -0,0 +1,27 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 键集分页结果
+ */
+@Data
+public class PageResult {
+    /**
+     * 当前页的行，只包含请求的字段
+     */
+    private List<Map<String, Object>> items;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 本页请求的行数上限
+     */
+    private Integer limit;
+}
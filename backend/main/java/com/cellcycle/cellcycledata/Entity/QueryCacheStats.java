@@ -0,0 +1,59 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 一张数据表查询缓存的当前状态与累计统计
+ */
+@Data
+public class QueryCacheStats {
+
+    private String table;
+
+    /**
+     * 数据版本号，表数据每重新加载一次加一
+     */
+    private Long version;
+
+    private Integer entries;
+
+    /**
+     * 全部条目的权重之和，即缓存的结果行数
+     */
+    private Long weight;
+
+    private Integer maxEntries;
+
+    private Long maxWeight;
+
+    private Long hits;
+
+    private Long misses;
+
+    private Double hitRate;
+
+    /**
+     * 因超出条目数或权重上限被淘汰的条目数
+     */
+    private Long evictions;
+
+    /**
+     * 因数据重新加载被清除的条目数
+     */
+    private Long invalidations;
+
+    /**
+     * 单个结果超过权重上限而未缓存的次数
+     */
+    private Long rejections;
+
+    /**
+     * 未命中但与正在执行的同一查询合并、没有再访问数据库的次数
+     */
+    private Long coalesced;
+
+    /**
+     * 未命中时查询数据库的累计耗时
+     */
+    private Long loadMillis;
+}
@@ -0,0 +1,29 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 读写分离数据源的路由统计
+ */
+@Data
+public class ReplicaRouting {
+
+    /**
+     * 未配置只读副本时为false，此时所有查询都走主库
+     */
+    private Boolean enabled;
+
+    /**
+     * 非只读语句(及Mapper之外取得的连接)路由到主库的次数
+     */
+    private Long primaryRoutes;
+
+    /**
+     * 只读语句因没有可用副本而回退到主库的次数
+     */
+    private Long fallbacks;
+
+    private List<ReplicaStatus> replicas;
+}
@@ -0,0 +1,53 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 一个只读副本的健康状态与路由计数
+ */
+@Data
+public class ReplicaStatus {
+
+    private String name;
+
+    /**
+     * JDBC地址，不含用户名和密码
+     */
+    private String url;
+
+    /**
+     * 熔断器状态：closed正常路由；open暂停路由；half_open允许一次试探
+     */
+    private String state;
+
+    /**
+     * 最近一次健康检查是否通过，复制延迟超过上限也视为不健康
+     */
+    private Boolean healthy;
+
+    /**
+     * 复制延迟(秒)，无法获取时为-1，复制已停止时为null
+     */
+    private Double lagSeconds;
+
+    /**
+     * 当前借出未归还的连接数，路由时优先选最少的副本
+     */
+    private Integer outstanding;
+
+    /**
+     * 累计路由到该副本的连接数
+     */
+    private Long routed;
+
+    private Long failures;
+
+    private Integer consecutiveFailures;
+
+    /**
+     * 最近一次健康检查的时间戳(毫秒)
+     */
+    private Long checkedAt;
+
+    private String lastError;
+}
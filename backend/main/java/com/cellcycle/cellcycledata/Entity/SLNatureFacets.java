@@ -0,0 +1,28 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 合成致死自然数据在各维度上的分面计数
+ */
+@Data
+public class SLNatureFacets {
+
+    /**
+     * 生效的过滤条件：维度名 -> 取值
+     */
+    private Map<String, String> filters;
+
+    /**
+     * 满足全部过滤条件的行数
+     */
+    private Integer total;
+
+    /**
+     * 维度名 -> (取值 -> 行数)
+     * 某维度自身的计数不受该维度过滤条件的限制，便于前端在同一维度内切换取值
+     */
+    private Map<String, Map<String, Integer>> facets;
+}
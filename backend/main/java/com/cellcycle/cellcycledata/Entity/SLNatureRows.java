@@ -0,0 +1,26 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按分面过滤后的一页合成致死自然数据
+ */
+@Data
+public class SLNatureRows {
+
+    private Map<String, String> filters;
+
+    /**
+     * 满足过滤条件的总行数
+     */
+    private Integer total;
+
+    private Integer offset;
+
+    private Integer limit;
+
+    private List<SLNatureData> rows;
+}
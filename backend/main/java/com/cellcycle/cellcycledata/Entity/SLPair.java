@@ -0,0 +1,21 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一对合成致死基因
+ */
+@Data
+public class SLPair {
+
+    private String geneA;
+
+    private String geneB;
+
+    /**
+     * 记录该基因对的数据来源：sl、sl_nature，不是合成致死对时为空列表
+     */
+    private List<String> sources;
+}
@@ -0,0 +1,24 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一组基因内部两两之间的合成致死对
+ */
+@Data
+public class SLPairsInSet {
+
+    /**
+     * 在合成致死数据中找到的输入基因
+     */
+    private List<String> genes;
+
+    /**
+     * 没有任何合成致死记录的输入基因
+     */
+    private List<String> missingGenes;
+
+    private List<SLPair> pairs;
+}
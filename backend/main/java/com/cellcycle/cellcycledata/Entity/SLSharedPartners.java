@@ -0,0 +1,27 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 与一组基因全部构成合成致死的共同伙伴基因
+ */
+@Data
+public class SLSharedPartners {
+
+    /**
+     * 在合成致死数据中找到的输入基因
+     */
+    private List<String> genes;
+
+    /**
+     * 没有任何合成致死记录的输入基因，存在这类基因时共同伙伴必然为空
+     */
+    private List<String> missingGenes;
+
+    /**
+     * 共同伙伴基因，不包含输入基因本身，按名称排序
+     */
+    private List<String> partners;
+}
@@ -0,0 +1,46 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 数据表结构校验结果
+ */
+@Data
+public class SchemaCheckResult {
+    /**
+     * 数据表名
+     */
+    private String table;
+
+    /**
+     * 对应的实体类
+     */
+    private String entity;
+
+    /**
+     * OK：结构一致；DRIFT：实体字段在表中缺失；UNAVAILABLE：无法读取表结构
+     */
+    private String status;
+
+    /**
+     * 实体需要但表中不存在的列
+     */
+    private List<String> missingColumns;
+
+    /**
+     * 表中存在但实体未映射的列
+     */
+    private List<String> extraColumns;
+
+    /**
+     * 无法读取表结构时的错误信息
+     */
+    private String error;
+
+    /**
+     * 校验时间(毫秒时间戳)
+     */
+    private Long checkedAt;
+}
@@ -0,0 +1,29 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 一次慢SQL执行记录
+ */
+@Data
+public class SlowSqlEntry {
+
+    /**
+     * Mapper方法，例如 com.cellcycle.cellcycledata.Dao.PPIDataDao.selectPPIDataByGene
+     */
+    private String statement;
+
+    /**
+     * 预编译后的SQL，参数以?表示
+     */
+    private String sql;
+
+    private Double millis;
+
+    /**
+     * 返回的行数或影响的行数
+     */
+    private Integer rows;
+
+    private Long timestamp;
+}
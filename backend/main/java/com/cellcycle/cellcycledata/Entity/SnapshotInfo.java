@@ -0,0 +1,47 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 当前映射的参考数据快照
+ */
+@Data
+public class SnapshotInfo {
+
+    private String path;
+
+    private Boolean loaded;
+
+    /**
+     * 为true时查询和内存索引读取快照而不访问数据库
+     */
+    private Boolean serving;
+
+    private Integer formatVersion;
+
+    /**
+     * 快照生成时间(毫秒时间戳)
+     */
+    private Long createdAt;
+
+    /**
+     * 十六进制CRC32校验和，相同数据的两次导出也会因生成时间不同而不同
+     */
+    private String checksum;
+
+    private Long sizeBytes;
+
+    private Integer dictionarySize;
+
+    /**
+     * 表名 -> 行数
+     */
+    private Map<String, Integer> tables;
+
+    /**
+     * 最近一次导出或映射的耗时
+     */
+    private Long millis;
+}
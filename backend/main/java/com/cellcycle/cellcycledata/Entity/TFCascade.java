@@ -0,0 +1,30 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 从一个基因出发、在有限步数内可达的下游靶基因或上游调控因子
+ */
+@Data
+public class TFCascade {
+    private String gene;
+
+    /**
+     * downstream 或 upstream
+     */
+    private String direction;
+
+    private Integer depth;
+
+    /**
+     * 可达基因，按步数升序
+     */
+    private List<TFCascadeNode> nodes;
+
+    /**
+     * 是否因达到节点上限而提前停止搜索
+     */
+    private Boolean truncated;
+}
@@ -0,0 +1,26 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+/**
+ * 调控级联中的一个基因
+ */
+@Data
+public class TFCascadeNode {
+    private String gene;
+
+    /**
+     * 距查询基因的最少调控步数
+     */
+    private Integer hop;
+
+    /**
+     * 最短路径上的前一个基因(下游查询)或后一个基因(上游查询)
+     */
+    private String via;
+
+    /**
+     * 沿该最短路径的净效应：activation、repression或unknown
+     */
+    private String effect;
+}
@@ -0,0 +1,29 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 两个基因之间最短的调控链
+ */
+@Data
+public class TFChain {
+    private String source;
+    private String target;
+
+    /**
+     * 链上依次经过的基因，含首尾；在步数上限内不可达时为空列表
+     */
+    private List<String> genes;
+
+    /**
+     * 每一步的调控类型，比genes少一项
+     */
+    private List<String> interactions;
+
+    /**
+     * 整条链的净效应：activation、repression或unknown
+     */
+    private String effect;
+}
@@ -0,0 +1,14 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 调控网络的一个强连通分量，分量内任意两个基因互相可达
+ */
+@Data
+public class TFComponent {
+    private Integer size;
+    private List<String> genes;
+}
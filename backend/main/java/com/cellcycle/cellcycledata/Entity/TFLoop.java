@@ -0,0 +1,17 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 调控网络中的一个环路
+ * 前馈环：genes为[X, Y, Z]，interactions依次为X→Y、Y→Z、X→Z，effect为coherent、incoherent或unknown；
+ * 反馈环：genes从查询基因出发并回到查询基因，interactions为每一步的调控类型，effect为positive、negative或unknown
+ */
+@Data
+public class TFLoop {
+    private List<String> genes;
+    private List<String> interactions;
+    private String effect;
+}
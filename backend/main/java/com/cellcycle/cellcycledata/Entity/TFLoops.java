@@ -0,0 +1,27 @@
+package com.cellcycle.cellcycledata.Entity;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 包含某个基因的前馈环和反馈环
+ */
+@Data
+public class TFLoops {
+    private String gene;
+
+    /**
+     * 该基因所在强连通分量的大小，为1且无自调控时不存在反馈环
+     */
+    private Integer componentSize;
+
+    private List<TFLoop> feedForward;
+
+    private List<TFLoop> feedback;
+
+    /**
+     * 是否因达到数量或搜索上限而未列全
+     */
+    private Boolean truncated;
+}
@@ -0,0 +1,206 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.AdmissionRouteStats;
+import com.cellcycle.cellcycledata.config.DataSourceConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按路由的并发准入控制
+ * 每个路由模板最多同时处理maxConcurrent个请求；访问数据库的路由(@DatabaseRoute)另外共用maxGlobal个全局名额
+ * (默认为连接池的maxActive)，其余请求排队等待，两级排队合计不超过queueTimeout；
+ * 排队人数已满或等待超时的请求立即以503拒绝，多个路由同时突发也不会把数据库连接池耗尽，
+ * 只读内存数据的路由和监控接口不占全局名额
+ */
+@Service("admissionService")
+public class AdmissionService {
+
+    /**
+     * 统计中表示全局名额的路由名
+     */
+    public static final String GLOBAL_ROUTE = "*";
+
+    @Resource
+    private MetricsService metricsService;
+
+    @Value("${cellcycledata.admission.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每个路由默认的最大并发数
+     */
+    @Value("${cellcycledata.admission.max-concurrent:16}")
+    private int maxConcurrent;
+
+    /**
+     * 每个路由最多排队的请求数
+     */
+    @Value("${cellcycledata.admission.max-queue:64}")
+    private int maxQueue;
+
+    /**
+     * 访问数据库的路由合计的最大并发数，0表示取主库连接池的maxActive
+     */
+    @Value("${cellcycledata.admission.max-global:0}")
+    private int maxGlobal;
+
+    @Value("${cellcycledata.admission.queue-timeout-ms:1000}")
+    private long queueTimeoutMillis;
+
+    /**
+     * 单独设置并发数的路由，格式为 路由模板=并发数，多个用逗号分隔
+     */
+    @Value("${cellcycledata.admission.route-limits:}")
+    private String routeLimits;
+
+    @Resource
+    private DataSource dataSource;
+
+    private final Map<String, Integer> limits = new HashMap<>();
+
+    /** 访问数据库的路由共用的名额，统计中以GLOBAL_ROUTE显示 */
+    private Gate global;
+
+    private final ConcurrentMap<String, Gate> gates = new ConcurrentHashMap<>();
+
+    private static final class Gate {
+        final int maxConcurrent;
+        final Semaphore permits;
+        final AtomicInteger queued = new AtomicInteger();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+
+        Gate(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        this.global = new Gate(Math.max(1, this.maxGlobal > 0 ? this.maxGlobal : DataSourceConfig.maxActive(this.dataSource)));
+        for (String item : this.routeLimits.split(",")) {
+            int separator = item.lastIndexOf('=');
+            if (separator > 0) {
+                this.limits.put(item.substring(0, separator).trim(), Integer.parseInt(item.substring(separator + 1).trim()));
+            }
+        }
+    }
+
+    /**
+     * 为请求申请该路由的处理名额，global为true时再申请一个全局名额；返回false时调用方应返回503；
+     * 返回true时处理结束后必须调用exit，申请了全局名额的还必须调用一次exitGlobal(可以提前)
+     */
+    public boolean enter(String route, boolean global) {
+        if (!this.enabled) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.queueTimeoutMillis);
+        Gate gate = gate(route);
+        if (!acquire(gate, route, "", deadline)) {
+            return false;
+        }
+        if (global) {
+            if (!acquire(this.global, route, "global_", deadline)) {
+                gate.permits.release();
+                return false;
+            }
+            this.global.admitted.increment();
+        }
+        gate.admitted.increment();
+        return true;
+    }
+
+    /**
+     * 申请一个名额，名额不足时排队等到deadline；拒绝原因加上prefix区分是路由名额还是全局名额
+     */
+    private boolean acquire(Gate gate, String route, String prefix, long deadline) {
+        if (gate.permits.tryAcquire()) {
+            return true;
+        }
+        if (gate.queued.incrementAndGet() > this.maxQueue) {
+            gate.queued.decrementAndGet();
+            gate.rejected.increment();
+            this.metricsService.recordAdmissionRejected(route, prefix + "queue_full");
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = gate.permits.tryAcquire(Math.max(0, deadline - start), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            gate.queued.decrementAndGet();
+        }
+        this.metricsService.recordAdmissionWait(route, System.nanoTime() - start);
+        if (!acquired) {
+            gate.timedOut.increment();
+            this.metricsService.recordAdmissionRejected(route, prefix + "timeout");
+        }
+        return acquired;
+    }
+
+    public void exit(String route) {
+        if (this.enabled) {
+            gate(route).permits.release();
+        }
+    }
+
+    /**
+     * 归还enter(route, true)申请的全局名额
+     */
+    public void exitGlobal() {
+        if (this.enabled) {
+            this.global.permits.release();
+        }
+    }
+
+    /**
+     * 准入状态：第一项为全局名额(路由为GLOBAL_ROUTE)，其后为收到过请求的各路由，按路由排序
+     */
+    public List<AdmissionRouteStats> getStats() {
+        List<AdmissionRouteStats> stats = new ArrayList<>();
+        stats.add(stats(GLOBAL_ROUTE, this.global));
+        for (Map.Entry<String, Gate> entry : new TreeMap<>(this.gates).entrySet()) {
+            stats.add(stats(entry.getKey(), entry.getValue()));
+        }
+        return stats;
+    }
+
+    private AdmissionRouteStats stats(String route, Gate gate) {
+        AdmissionRouteStats item = new AdmissionRouteStats();
+        item.setRoute(route);
+        item.setMaxConcurrent(gate.maxConcurrent);
+        item.setMaxQueue(this.maxQueue);
+        item.setActive(gate.maxConcurrent - gate.permits.availablePermits());
+        item.setQueued(gate.queued.get());
+        item.setAdmitted(gate.admitted.sum());
+        item.setRejected(gate.rejected.sum());
+        item.setTimedOut(gate.timedOut.sum());
+        return item;
+    }
+
+    private Gate gate(String route) {
+        Gate gate = this.gates.get(route);
+        return gate != null ? gate
+                : this.gates.computeIfAbsent(route, key -> new Gate(Math.max(1, this.limits.getOrDefault(key, this.maxConcurrent))));
+    }
+}
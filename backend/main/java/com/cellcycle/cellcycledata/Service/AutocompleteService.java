@@ -0,0 +1,269 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.AutocompleteIndex;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Engine.PPIGraph;
+import com.cellcycle.cellcycledata.Entity.AutocompleteSuggestion;
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 基因、miRNA、转录因子、药物、KEGG通路和癌症标志的自动补全服务
+ * 各来源的词条分别保存，某个来源变化时只重新读取该来源，再合并成新的只读索引；
+ * 数据表重新加载(数据版本号变化)、内存互作图替换或静态文件重新加载后，下一次查询时自动同步，
+ * 同步期间其他查询继续使用原有索引
+ */
+@Service("autocompleteService")
+public class AutocompleteService {
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteService.class);
+
+    public static final String SOURCE_CELL_CYCLE_GENES = "cellcycle-genes";
+    public static final String SOURCE_PPI_GENES = "ppi-genes";
+    public static final String SOURCE_MIRNAS = "mirnas";
+    public static final String SOURCE_MIRNA_TARGETS = "mirna-targets";
+    public static final String SOURCE_TFS = "tfs";
+    public static final String SOURCE_DRUGS = "drugs";
+    public static final String SOURCE_KEGG = "kegg";
+    public static final String SOURCE_HALLMARKS = "hallmarks";
+
+    @Resource
+    private cellcycledataService cellcycledataService;
+    @Resource
+    private PPIDataService ppiDataService;
+    @Resource
+    private MirnaGeneService mirnaGeneService;
+    @Resource
+    private TFDataService tfDataService;
+    @Resource
+    private DrugInformationService drugInformationService;
+    @Resource
+    private GeneTargetService geneTargetService;
+    @Resource
+    private StaticDatasetService staticDatasetService;
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    /** 来源名称 -> 词条加载器 */
+    private final Map<String, Supplier<List<AutocompleteIndex.Term>>> loaders = new LinkedHashMap<>();
+    /** 来源名称 -> 当前词条 */
+    private final Map<String, List<AutocompleteIndex.Term>> sourceTerms = new LinkedHashMap<>();
+    /** 读取数据库的来源 -> 它依赖的数据表 */
+    private final Map<String, List<String>> sourceTables = new LinkedHashMap<>();
+    /** 读取数据库的来源 -> 上次读取前依赖表的数据版本号之和，版本号只增不减 */
+    private final Map<String, Long> indexedVersions = new ConcurrentHashMap<>();
+    /** 来源名称 -> 最近一次的失败信息，同一失败只记录一次日志 */
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    /** 保护sourceTerms和索引重建 */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile AutocompleteIndex index = AutocompleteIndex.build(Collections.<List<AutocompleteIndex.Term>>emptyList());
+
+    /** 上次建索引时的内存互作图和静态数据集，引用变化说明已重新加载 */
+    private volatile PPIGraph indexedGraph;
+    private volatile List<KeggPathway> indexedPathways;
+    private volatile List<HallmarkGene> indexedHallmarks;
+
+    @PostConstruct
+    public void init() {
+        this.loaders.put(SOURCE_CELL_CYCLE_GENES, () -> terms(this.cellcycledataService.selectAllGeneSymbols(), "gene"));
+        this.loaders.put(SOURCE_PPI_GENES, () -> {
+            List<String> genes = new ArrayList<>();
+            PPIGraph graph = this.ppiDataService.getGraph();
+            this.indexedGraph = graph;
+            if (graph != null) {
+                for (int node = 0; node < graph.nodeCount(); node++) {
+                    genes.add(graph.geneName(node));
+                }
+            }
+            return terms(genes, "gene");
+        });
+        this.loaders.put(SOURCE_MIRNAS, () -> terms(this.mirnaGeneService.getAllDistinctMirnas(), "mirna"));
+        this.loaders.put(SOURCE_MIRNA_TARGETS, () -> terms(this.mirnaGeneService.getAllDistinctGenes(), "gene"));
+        this.loaders.put(SOURCE_TFS, () -> terms(this.tfDataService.getAllDistinctTFs(), "tf"));
+        this.loaders.put(SOURCE_DRUGS, () -> {
+            List<String> drugs = new ArrayList<>(this.drugInformationService.selectAllDrugNames());
+            drugs.addAll(this.geneTargetService.selectAllDistinctDrugs());
+            return terms(drugs, "drug");
+        });
+        this.loaders.put(SOURCE_KEGG, () -> {
+            List<KeggPathway> pathways = this.staticDatasetService.getKeggPathways();
+            this.indexedPathways = pathways;
+            List<String> names = new ArrayList<>();
+            for (KeggPathway pathway : pathways) {
+                names.add(pathway.getTerm());
+            }
+            return terms(names, "kegg");
+        });
+        this.loaders.put(SOURCE_HALLMARKS, () -> {
+            List<HallmarkGene> hallmarkGenes = this.staticDatasetService.getHallmarkGenes();
+            this.indexedHallmarks = hallmarkGenes;
+            List<String> names = new ArrayList<>();
+            for (HallmarkGene hallmarkGene : hallmarkGenes) {
+                names.addAll(hallmarkGene.getHallmarks());
+            }
+            return terms(names, "hallmark");
+        });
+        this.sourceTables.put(SOURCE_CELL_CYCLE_GENES, Collections.singletonList(QueryCacheService.CELL_CYCLE_GENES));
+        this.sourceTables.put(SOURCE_MIRNAS, Collections.singletonList(QueryCacheService.MIRNA_GENE));
+        this.sourceTables.put(SOURCE_MIRNA_TARGETS, Collections.singletonList(QueryCacheService.MIRNA_GENE));
+        this.sourceTables.put(SOURCE_TFS, Collections.singletonList(QueryCacheService.TF));
+        this.sourceTables.put(SOURCE_DRUGS, Arrays.asList(QueryCacheService.DRUG_INFORMATION, QueryCacheService.GENE_TARGET));
+        refresh(this.loaders.keySet());
+    }
+
+    /**
+     * 查询补全建议
+     * @param types 允许的词条类型，为null时不限制
+     */
+    public List<AutocompleteSuggestion> suggest(String query, int limit, int maxEdits, Set<String> types) {
+        syncSources();
+        return this.index.suggest(query, limit, maxEdits, types);
+    }
+
+    /**
+     * 重新读取已变化的来源；已有其他线程在重建时直接返回，本次查询使用原有索引
+     */
+    private void syncSources() {
+        if (staleSources().isEmpty() || !this.refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            List<String> stale = staleSources();
+            if (!stale.isEmpty()) {
+                log.info("Autocomplete sources {} changed, rebuilding index", stale);
+                refresh(stale);
+            }
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    /**
+     * 依赖表的数据版本号、内存互作图或静态数据集与上次读取时不同的来源
+     */
+    List<String> staleSources() {
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : this.sourceTables.entrySet()) {
+            Long indexed = this.indexedVersions.get(entry.getKey());
+            if (indexed == null || indexed != version(entry.getValue())) {
+                stale.add(entry.getKey());
+            }
+        }
+        if (this.indexedGraph != this.ppiDataService.getGraph()) {
+            stale.add(SOURCE_PPI_GENES);
+        }
+        try {
+            if (this.indexedPathways != this.staticDatasetService.getKeggPathways()) {
+                stale.add(SOURCE_KEGG);
+            }
+            if (this.indexedHallmarks != this.staticDatasetService.getHallmarkGenes()) {
+                stale.add(SOURCE_HALLMARKS);
+            }
+            recovered("static datasets");
+        } catch (RuntimeException e) {
+            failed("static datasets", e);
+        }
+        return stale;
+    }
+
+    /**
+     * 重新读取指定来源的词条并重建索引，读取失败的来源保留原有词条，
+     * 读取数据库的来源在依赖表再次变化或手动刷新前不再重试
+     * @return 各来源当前的词条数
+     */
+    public Map<String, Integer> refresh(Collection<String> sources) {
+        this.refreshLock.lock();
+        try {
+            for (String source : sources) {
+                Supplier<List<AutocompleteIndex.Term>> loader = this.loaders.get(source);
+                if (loader == null) {
+                    throw new InvalidQueryException("Unknown autocomplete source '" + source
+                            + "', available sources: " + this.loaders.keySet());
+                }
+                List<String> tables = this.sourceTables.get(source);
+                if (tables != null) {
+                    this.indexedVersions.put(source, version(tables));
+                }
+                try {
+                    this.sourceTerms.put(source, loader.get());
+                    recovered(source);
+                } catch (RuntimeException e) {
+                    failed(source, e);
+                }
+            }
+            this.index = AutocompleteIndex.build(this.sourceTerms.values());
+            return getSourceSizes();
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    /**
+     * 重新读取全部来源
+     */
+    public Map<String, Integer> refreshAll() {
+        return refresh(new ArrayList<>(this.loaders.keySet()));
+    }
+
+    public Map<String, Integer> getSourceSizes() {
+        this.refreshLock.lock();
+        try {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            for (Map.Entry<String, List<AutocompleteIndex.Term>> entry : this.sourceTerms.entrySet()) {
+                sizes.put(entry.getKey(), entry.getValue().size());
+            }
+            return sizes;
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    private long version(List<String> tables) {
+        long sum = 0;
+        for (String table : tables) {
+            sum += this.queryCacheService.version(table);
+        }
+        return sum;
+    }
+
+    private void failed(String source, RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        if (!message.equals(this.failures.put(source, message))) {
+            log.warn("Autocomplete source {} unavailable: {}", source, message);
+        }
+    }
+
+    private void recovered(String source) {
+        if (this.failures.remove(source) != null) {
+            log.info("Autocomplete source {} available again", source);
+        }
+    }
+
+    private static List<AutocompleteIndex.Term> terms(Collection<String> names, String type) {
+        List<AutocompleteIndex.Term> terms = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name != null && !name.trim().isEmpty()) {
+                terms.add(new AutocompleteIndex.Term(name.trim(), type));
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,253 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Engine.NetworkCentrality;
+import com.cellcycle.cellcycledata.Engine.PPIGraph;
+import com.cellcycle.cellcycledata.Entity.CentralityRanking;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 蛋白质互作网络中心性的后台计算与排名查询
+ * 每个combined_score阈值对应一个计算任务，结果绑定在计算时的内存互作图上；
+ * 只有互作图重新加载(数据变化)后，下一次查询才会触发重新计算。
+ * 阈值按score-step向下取整后作为任务键，排队的任务数有上限，超出时直接拒绝；
+ * 结果被淘汰或过期时，尚未完成的任务随之取消
+ */
+@Service("centralityService")
+public class CentralityService {
+
+    private static final Logger log = LoggerFactory.getLogger(CentralityService.class);
+
+    @Resource
+    private PPIDataService ppiDataService;
+
+    /**
+     * 计算线程数，0表示使用CPU核数
+     */
+    @Value("${cellcycledata.centrality.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * 启动后预先计算的阈值
+     */
+    @Value("${cellcycledata.centrality.min-score:0}")
+    private double defaultMinScore;
+
+    /**
+     * 最多保留的阈值结果数，超出时淘汰最久未查询的
+     */
+    @Value("${cellcycledata.centrality.max-results:8}")
+    private int maxResults;
+
+    /**
+     * 阈值的取整步长，不同的请求阈值最多对应(最大分数/步长+1)个任务
+     */
+    @Value("${cellcycledata.centrality.score-step:0.05}")
+    private double scoreStep;
+
+    /**
+     * 最多排队等待的任务数，不含正在执行的一个
+     */
+    @Value("${cellcycledata.centrality.max-pending:2}")
+    private int maxPending;
+
+    private ForkJoinPool pool;
+
+    /** 任务逐个执行，每个任务内部已用满fork-join池 */
+    private ThreadPoolExecutor jobs;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private Map<Double, Job> results;
+
+    private static final class Job {
+        final PPIGraph graph;
+        final double minScore;
+        final long version;
+        final long startedAt = System.currentTimeMillis();
+        volatile NetworkCentrality centrality;
+        volatile String error;
+        volatile long finishedAt;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Job(PPIGraph graph, double minScore, long version) {
+            this.graph = graph;
+            this.minScore = minScore;
+            this.version = version;
+        }
+
+        /**
+         * 排队中的任务不再执行，执行中的任务在下一个检查点结束
+         */
+        void cancel() {
+            this.cancelled = true;
+            if (this.future != null) {
+                this.future.cancel(false);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        this.pool = new ForkJoinPool(this.parallelism > 0 ? this.parallelism : Runtime.getRuntime().availableProcessors());
+        this.jobs = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, this.maxPending)), runnable -> {
+            Thread thread = new Thread(runnable, "centrality-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int capacity = this.maxResults;
+        this.results = new LinkedHashMap<Double, Job>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Double, Job> eldest) {
+                if (size() > capacity) {
+                    discard(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        job(quantize(this.defaultMinScore));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.jobs.shutdownNow();
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * 按指标降序的一页排名；结果尚未算出时status为running且rows为空，
+     * 排队任务已满时status为rejected，互作图未加载时返回null
+     * @param minScore 按score-step向下取整，实际使用的阈值见返回的minScore
+     * @throws InvalidQueryException 指标未知，或阈值为负数、非有限值
+     */
+    public CentralityRanking getRanking(String metric, double minScore, int offset, int limit) {
+        NetworkCentrality.Metric parsed = NetworkCentrality.Metric.parse(metric);
+        double key = quantize(minScore);
+        Job job = job(key);
+        if (job == null) {
+            return null;
+        }
+        CentralityRanking ranking = new CentralityRanking();
+        ranking.setVersion(job.version);
+        ranking.setMinScore(job.minScore);
+        ranking.setMetric(metric);
+        ranking.setOffset(offset);
+        ranking.setLimit(limit);
+        NetworkCentrality centrality = job.centrality;
+        if (job.future == null) {
+            ranking.setStatus("rejected");
+            ranking.setError("Too many pending centrality jobs, retry later");
+        } else if (centrality != null) {
+            ranking.setStatus("done");
+            ranking.setComputedAt(job.finishedAt);
+            ranking.setElapsedMillis(job.finishedAt - job.startedAt);
+            ranking.setNodeCount(centrality.nodeCount());
+            ranking.setEdgeCount(centrality.edgeCount());
+            ranking.setRows(centrality.ranking(parsed, offset, limit));
+        } else if (job.error != null) {
+            ranking.setStatus("failed");
+            ranking.setError(job.error);
+            forget(job);
+        } else {
+            ranking.setStatus("running");
+        }
+        return ranking;
+    }
+
+    /**
+     * 阈值向下取整到score-step的整数倍，同一区间内的阈值共用一个任务
+     */
+    double quantize(double minScore) {
+        if (Double.isNaN(minScore) || Double.isInfinite(minScore) || minScore < 0) {
+            throw new InvalidQueryException("minScore must be a non-negative number, got " + minScore);
+        }
+        // 加一个极小量，避免0.15/0.05这类商因浮点误差落到下一档
+        long steps = (long) Math.floor(minScore / this.scoreStep + 1e-9);
+        return BigDecimal.valueOf(this.scoreStep).multiply(BigDecimal.valueOf(steps)).doubleValue();
+    }
+
+    /**
+     * 取得当前互作图上该阈值的计算任务，没有或已过期时提交新任务；
+     * 排队已满时返回未提交(future为null)、也不保存的任务
+     */
+    private synchronized Job job(double minScore) {
+        PPIGraph graph = this.ppiDataService.getGraph();
+        if (graph == null) {
+            return null;
+        }
+        Job job = this.results.get(minScore);
+        if (job != null && job.graph == graph) {
+            return job;
+        }
+        if (job != null) {
+            // 互作图已更换，旧任务的结果不会再被使用
+            this.results.remove(minScore);
+            discard(job);
+        }
+        Job created = new Job(graph, minScore, this.versions.incrementAndGet());
+        try {
+            created.future = this.jobs.submit(() -> run(created));
+        } catch (RejectedExecutionException e) {
+            log.debug("Centrality job for minScore={} rejected, {} jobs pending", minScore, this.jobs.getQueue().size());
+            return created;
+        }
+        this.results.put(minScore, created);
+        return created;
+    }
+
+    /**
+     * 失败的任务报告一次后移除，下一次查询重新提交，而不是一直返回同一个错误
+     */
+    private synchronized void forget(Job job) {
+        this.results.remove(job.minScore, job);
+    }
+
+    /**
+     * 取消不再保留的任务，并把它从排队中移除以腾出名额
+     */
+    private void discard(Job job) {
+        job.cancel();
+        this.jobs.purge();
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        try {
+            NetworkCentrality centrality = NetworkCentrality.compute(job.graph, job.minScore, this.pool,
+                    () -> job.cancelled);
+            job.finishedAt = System.currentTimeMillis();
+            job.centrality = centrality;
+            log.info("Centrality v{} (minScore={}) computed: {} genes, {} interactions in {} ms", job.version,
+                    job.minScore, centrality.nodeCount(), centrality.edgeCount(), job.finishedAt - job.startedAt);
+        } catch (CancellationException e) {
+            log.debug("Centrality v{} (minScore={}) cancelled", job.version, job.minScore);
+        } catch (RuntimeException e) {
+            job.finishedAt = System.currentTimeMillis();
+            job.error = e.toString();
+            log.warn("Centrality v{} (minScore={}) failed: {}", job.version, job.minScore, e.toString());
+        }
+    }
+}
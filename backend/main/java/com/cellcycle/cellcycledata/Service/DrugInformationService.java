@@ -11,12 +11,26 @@ import java.util.List;
 public class DrugInformationService {
     @Resource
     private DrugInformationDao drugInformationDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
     
     public List<DrugInformation> selectAllDrugInformation() {
-        return this.drugInformationDao.selectAllDrugInformation();
+        return this.queryCacheService.get(QueryCacheService.DRUG_INFORMATION, "selectAllDrugInformation",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDrugInformation() : this.drugInformationDao.selectAllDrugInformation());
     }
     
     public DrugInformation selectByDrug(String drug) {
-        return this.drugInformationDao.selectByDrug(drug);
+        return this.queryCacheService.get(QueryCacheService.DRUG_INFORMATION, "selectByDrug",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectDrugInformationByDrug(drug)
+                        : this.drugInformationDao.selectByDrug(drug), drug);
+    }
+    
+    public List<String> selectAllDrugNames() {
+        return this.queryCacheService.get(QueryCacheService.DRUG_INFORMATION, "selectAllDrugNames",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDrugNames() : this.drugInformationDao.selectAllDrugNames());
     }
 }
@@ -0,0 +1,172 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.DrugInformationDao;
+import com.cellcycle.cellcycledata.Dao.GeneTargetDao;
+import com.cellcycle.cellcycledata.Engine.DrugTargetIndex;
+import com.cellcycle.cellcycledata.Engine.GeneNames;
+import com.cellcycle.cellcycledata.Engine.SLIndex;
+import com.cellcycle.cellcycledata.Entity.DrugRepurposing;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 老药新用候选排名：直接作用于查询基因的药物、作用于其高分互作邻居的药物、
+ * 作用于其合成致死伙伴的药物，按关系加权汇总后排序
+ * 药物靶点在启动时载入内存索引，互作邻居和合成致死伙伴分别取自内存互作图和合成致死索引
+ */
+@Service("drugRepurposingService")
+public class DrugRepurposingService {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugRepurposingService.class);
+
+    @Resource
+    private GeneTargetDao geneTargetDao;
+
+    @Resource
+    private DrugInformationDao drugInformationDao;
+
+    @Resource
+    private PPIDataService ppiDataService;
+
+    @Resource
+    private SLDataService slDataService;
+
+    @Resource
+    private SLNatureDataService slNatureDataService;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    private volatile DrugTargetIndex index;
+
+    @PostConstruct
+    public void init() {
+        reload();
+        Runnable reloader = this::reload;
+        this.queryCacheService.registerReloader(QueryCacheService.GENE_TARGET, reloader);
+        this.queryCacheService.registerReloader(QueryCacheService.DRUG_INFORMATION, reloader);
+    }
+
+    /**
+     * 重新读取gene_target和drug_information表并重建索引，失败时保留原有索引
+     */
+    public synchronized void reload() {
+        this.queryCacheService.invalidate(QueryCacheService.GENE_TARGET);
+        this.queryCacheService.invalidate(QueryCacheService.DRUG_INFORMATION);
+        try {
+            long start = System.currentTimeMillis();
+            DrugTargetIndex loaded = this.snapshotService.isServing()
+                    ? DrugTargetIndex.build(this.snapshotService.selectAllGeneTargets(),
+                            this.snapshotService.selectAllDrugInformation())
+                    : DrugTargetIndex.build(this.geneTargetDao.selectAllGeneTargets(),
+                            this.drugInformationDao.selectAllDrugInformation());
+            this.index = loaded;
+            log.info("Drug target index built: {} drugs, {} genes in {} ms",
+                    loaded.drugCount(), loaded.geneCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Drug target index build failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询基因的候选药物排名，索引未加载时返回null
+     * @param minScore 互作邻居的最低combined_score
+     * @param maxNeighbors 按分数取前若干个互作邻居
+     * @param directWeight 直接靶向查询基因的权重
+     * @param ppiWeight 靶向互作邻居的权重，按该邻居分数与最高分之比折算
+     * @param slWeight 靶向合成致死伙伴的权重
+     */
+    public DrugRepurposing getCandidates(String gene, double minScore, int maxNeighbors, double directWeight,
+                                         double ppiWeight, double slWeight, int limit) {
+        DrugTargetIndex current = this.index;
+        if (current == null) {
+            return null;
+        }
+        String key = GeneNames.normalize(gene);
+        List<DrugTargetIndex.RelatedGene> related = new ArrayList<>();
+        related.add(new DrugTargetIndex.RelatedGene(gene.trim(), "direct", null, directWeight));
+
+        Map<String, PPIData> neighbors = ppiNeighbors(gene, key, minScore, maxNeighbors);
+        double topScore = 0;
+        for (PPIData row : neighbors.values()) {
+            topScore = Math.max(topScore, row.getCombined_score());
+        }
+        for (Map.Entry<String, PPIData> entry : neighbors.entrySet()) {
+            double score = entry.getValue().getCombined_score();
+            double weight = topScore > 0 ? ppiWeight * score / topScore : ppiWeight;
+            related.add(new DrugTargetIndex.RelatedGene(entry.getKey(), "ppi", score, weight));
+        }
+
+        List<String> partners = slPartners(gene, key);
+        for (String partner : partners) {
+            related.add(new DrugTargetIndex.RelatedGene(partner, "sl", null, slWeight));
+        }
+        return current.rank(gene.trim(), related, neighbors.size(), partners.size(), limit);
+    }
+
+    /**
+     * 分数不低于阈值的互作邻居，按分数降序取前maxNeighbors个，同一邻居只保留最高分的一条
+     */
+    private Map<String, PPIData> ppiNeighbors(String gene, String key, double minScore, int maxNeighbors) {
+        List<PPIData> rows = new ArrayList<>(this.ppiDataService.getPPIDataByGeneAndMinScore(gene, minScore));
+        rows.sort(Comparator.comparing(PPIData::getCombined_score).reversed());
+        Map<String, PPIData> neighbors = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (PPIData row : rows) {
+            String other = key.equals(GeneNames.normalize(row.getNode1())) ? row.getNode2() : row.getNode1();
+            String otherKey = GeneNames.normalize(other);
+            if (otherKey == null || otherKey.isEmpty() || otherKey.equals(key) || !seen.add(otherKey)) {
+                continue;
+            }
+            neighbors.put(other.trim(), row);
+            if (neighbors.size() >= maxNeighbors) {
+                break;
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * sl和sl_nature两张表中的合成致死伙伴；索引未加载时改为查询数据库
+     */
+    private List<String> slPartners(String gene, String key) {
+        SLIndex slIndex = this.slDataService.getIndex();
+        if (slIndex != null) {
+            return slIndex.partnersOf(gene);
+        }
+        Map<String, String> partners = new TreeMap<>();
+        for (SLData row : this.slDataService.selectSLDataByGene(gene)) {
+            addPartner(partners, key, row.getGeneA(), row.getGeneB());
+        }
+        for (SLNatureData row : this.slNatureDataService.selectSLNatureDataByGene(gene)) {
+            addPartner(partners, key, row.getGeneA(), row.getGeneB());
+        }
+        return new ArrayList<>(partners.values());
+    }
+
+    private static void addPartner(Map<String, String> partners, String key, String geneA, String geneB) {
+        String other = key.equals(GeneNames.normalize(geneA)) ? geneB : geneA;
+        String otherKey = GeneNames.normalize(other);
+        if (otherKey != null && !otherKey.isEmpty() && !otherKey.equals(key)) {
+            partners.putIfAbsent(otherKey, other.trim());
+        }
+    }
+}
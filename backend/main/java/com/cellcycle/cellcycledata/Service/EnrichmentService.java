@@ -0,0 +1,61 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.EnrichmentIndex;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.EnrichmentRequest;
+import com.cellcycle.cellcycledata.Entity.EnrichmentResult;
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 基因集合富集分析，基因集合来自KEGG通路和癌症标志两个静态数据文件
+ */
+@Service("enrichmentService")
+public class EnrichmentService {
+
+    @Resource
+    private StaticDatasetService staticDatasetService;
+
+    /**
+     * 最近一次构建的索引及其来源数据；静态文件重新加载后来源列表随之更换，据此判断是否需要重建
+     */
+    private volatile Built built;
+
+    private static final class Built {
+        final List<KeggPathway> pathways;
+        final List<HallmarkGene> hallmarkGenes;
+        final EnrichmentIndex index;
+
+        Built(List<KeggPathway> pathways, List<HallmarkGene> hallmarkGenes) {
+            this.pathways = pathways;
+            this.hallmarkGenes = hallmarkGenes;
+            this.index = EnrichmentIndex.build(pathways, hallmarkGenes);
+        }
+    }
+
+    /**
+     * 对一组基因做超几何富集分析并做Benjamini-Hochberg校正
+     * @throws InvalidQueryException 基因列表为空或超过上限、库名不存在
+     */
+    public EnrichmentResult enrich(EnrichmentRequest request) {
+        List<String> genes = GeneBatches.distinctGenes(request.getGenes());
+        int minOverlap = request.getMinOverlap() == null ? 1 : Math.max(0, request.getMinOverlap());
+        double maxFdr = request.getMaxFdr() == null ? 1.0 : request.getMaxFdr();
+        return index().enrich(genes, request.getBackground(), request.getCollections(), minOverlap, maxFdr);
+    }
+
+    private EnrichmentIndex index() {
+        List<KeggPathway> pathways = this.staticDatasetService.getKeggPathways();
+        List<HallmarkGene> hallmarkGenes = this.staticDatasetService.getHallmarkGenes();
+        Built current = this.built;
+        if (current == null || current.pathways != pathways || current.hallmarkGenes != hallmarkGenes) {
+            current = new Built(pathways, hallmarkGenes);
+            this.built = current;
+        }
+        return current.index;
+    }
+}
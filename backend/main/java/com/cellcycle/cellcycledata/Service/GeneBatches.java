@@ -0,0 +1,83 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.GeneNames;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 多基因批量查询的公共逻辑：整理输入的基因列表、分批执行IN查询并按基因分组结果
+ */
+public final class GeneBatches {
+
+    /** 一次请求最多允许的基因数 */
+    public static final int MAX_GENES = 1000;
+
+    /** 每条IN查询包含的基因数，控制SQL长度和单次扫描范围 */
+    public static final int CHUNK_SIZE = 200;
+
+    private GeneBatches() {
+    }
+
+    /**
+     * 去掉空白项，按大小写不敏感去重并保持输入顺序
+     * @throws InvalidQueryException 基因列表为空或超过上限
+     */
+    public static List<String> distinctGenes(Collection<String> genes) {
+        Map<String, String> distinct = new LinkedHashMap<>();
+        if (genes != null) {
+            for (String gene : genes) {
+                if (gene != null && !gene.trim().isEmpty()) {
+                    distinct.putIfAbsent(GeneNames.normalize(gene), gene.trim());
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            throw new InvalidQueryException("At least one gene is required");
+        }
+        if (distinct.size() > MAX_GENES) {
+            throw new InvalidQueryException("At most " + MAX_GENES + " genes per request, got " + distinct.size());
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    /**
+     * 按CHUNK_SIZE分批执行IN查询，并按请求中的基因分组，每个基因都有一项(可能为空列表)
+     * 每批的结果只归到该批的基因下：两端分属不同批次的互作会被两批各查到一次，
+     * 这样恰好在两个基因下各出现一次，不会重复
+     * @param query 对应Dao的批量查询方法
+     * @param genesOfRow 一行数据涉及的基因名，例如互作的两端
+     */
+    public static <T> Map<String, List<T>> queryByGene(List<String> genes, Function<List<String>, List<T>> query,
+                                                       Function<T, String[]> genesOfRow) {
+        Map<String, List<T>> grouped = new LinkedHashMap<>();
+        for (String gene : genes) {
+            grouped.put(gene, new ArrayList<>());
+        }
+        for (int from = 0; from < genes.size(); from += CHUNK_SIZE) {
+            List<String> chunk = genes.subList(from, Math.min(genes.size(), from + CHUNK_SIZE));
+            Map<String, List<T>> byKey = new HashMap<>();
+            for (String gene : chunk) {
+                byKey.put(GeneNames.normalize(gene), grouped.get(gene));
+            }
+            for (T row : query.apply(chunk)) {
+                List<T> previous = null;
+                for (String gene : genesOfRow.apply(row)) {
+                    List<T> list = gene == null ? null : byKey.get(GeneNames.normalize(gene));
+                    // 自互作两端是同一个基因，只计一次
+                    if (list != null && list != previous) {
+                        list.add(row);
+                        previous = list;
+                    }
+                }
+            }
+        }
+        return grouped;
+    }
+}
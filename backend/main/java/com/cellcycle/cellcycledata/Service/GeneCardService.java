@@ -0,0 +1,240 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.GeneCard;
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.cellcycledata;
+import com.cellcycle.cellcycledata.config.DataSourceConfig;
+import com.cellcycle.cellcycledata.config.QueryDeadlineInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 基因详情聚合服务
+ * 各数据来源的查询并发执行，页面延迟取决于最慢的来源而不是所有来源之和；
+ * 所有请求同时进行的来源查询数不超过数据库连接池的大小，超出的查询等待名额直到整体超时；
+ * 超时的来源查询被中断，已发出的SQL按剩余时间设置了查询超时，到期后由驱动中止并归还名额和连接；
+ * 单个来源失败或超时只影响对应字段
+ */
+@Service("geneCardService")
+public class GeneCardService {
+    private static final Logger log = LoggerFactory.getLogger(GeneCardService.class);
+
+    @Resource
+    private cellcycledataService cellcycledataService;
+    @Resource
+    private PPIDataService ppiDataService;
+    @Resource
+    private TFDataService tfDataService;
+    @Resource
+    private MirnaGeneService mirnaGeneService;
+    @Resource
+    private SLDataService slDataService;
+    @Resource
+    private SLNatureDataService slNatureDataService;
+    @Resource
+    private GeneTargetService geneTargetService;
+    @Resource
+    private StaticDatasetService staticDatasetService;
+    @Resource
+    private DataSource dataSource;
+
+    @Value("${cellcycledata.gene-card.threads:16}")
+    private int threads;
+
+    @Value("${cellcycledata.gene-card.queue-size:256}")
+    private int queueSize;
+
+    @Value("${cellcycledata.gene-card.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    /**
+     * 同时进行的来源查询数上限，0表示与数据库连接池的最大连接数相同
+     */
+    @Value("${cellcycledata.gene-card.max-concurrent-queries:0}")
+    private int maxConcurrentQueries;
+
+    /**
+     * 运行在Java 21及以上时改用虚拟线程
+     */
+    @Value("${cellcycledata.gene-card.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+    private Semaphore queryPermits;
+
+    @PostConstruct
+    public void init() {
+        int permits = this.maxConcurrentQueries > 0 ? this.maxConcurrentQueries : DataSourceConfig.maxActive(this.dataSource);
+        this.queryPermits = new Semaphore(permits, true);
+        log.info("Gene card lookups run at most {} source queries concurrently", permits);
+        this.executor = this.virtualThreads ? newVirtualThreadExecutor() : null;
+        if (this.executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "gene-card-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // 队列满时由请求线程自己执行，避免无界排队
+            this.executor = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(this.queueSize), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("Gene card lookups run on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 汇总一个基因在所有数据来源中的信息
+     */
+    public GeneCard getGeneCard(String gene) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        Future<List<cellcycledata>> cellCycle = submit("cellCycleGenes", timings, deadline,
+                () -> this.cellcycledataService.selectByGeneSymbol(gene));
+        Future<List<PPIData>> ppi = submit("ppi", timings, deadline,
+                () -> this.ppiDataService.getPPIDataByGene(gene));
+        Future<List<TFData>> tf = submit("tf", timings, deadline,
+                () -> this.tfDataService.getTFDataByGene(gene));
+        Future<List<MirnaGene>> mirna = submit("mirna", timings, deadline,
+                () -> this.mirnaGeneService.getMirnaGeneDataByGene(gene));
+        Future<List<SLData>> sl = submit("sl", timings, deadline,
+                () -> this.slDataService.selectSLDataByGene(gene));
+        Future<List<SLNatureData>> slNature = submit("slNature", timings, deadline,
+                () -> this.slNatureDataService.selectSLNatureDataByGene(gene));
+        Future<List<GeneTarget>> geneTargets = submit("geneTargets", timings, deadline,
+                () -> this.geneTargetService.selectByGene(gene));
+
+        GeneCard card = new GeneCard();
+        card.setGene(gene);
+        // 静态文件已在内存中建好索引，直接在当前线程读取
+        card.setHallmarks(timed("hallmarks", timings, () -> this.staticDatasetService.getHallmarksOfGene(gene)));
+        card.setKeggPathways(timed("keggPathways", timings, () -> {
+            List<String> terms = new ArrayList<>();
+            for (KeggPathway pathway : this.staticDatasetService.getPathwaysOfGene(gene)) {
+                terms.add(pathway.getTerm());
+            }
+            return terms;
+        }));
+
+        card.setCellCycleGenes(await("cellCycleGenes", cellCycle, deadline, errors));
+        card.setPpi(await("ppi", ppi, deadline, errors));
+        card.setTf(await("tf", tf, deadline, errors));
+        card.setMirna(await("mirna", mirna, deadline, errors));
+        card.setSl(await("sl", sl, deadline, errors));
+        card.setSlNature(await("slNature", slNature, deadline, errors));
+        card.setGeneTargets(await("geneTargets", geneTargets, deadline, errors));
+
+        Map<String, Long> orderedTimings = new LinkedHashMap<>();
+        for (String source : new String[]{"cellCycleGenes", "ppi", "tf", "mirna", "sl", "slNature",
+                "geneTargets", "hallmarks", "keggPathways"}) {
+            Long millis = timings.get(source);
+            if (millis != null) {
+                orderedTimings.put(source, millis);
+            }
+        }
+        card.setTimings(orderedTimings);
+        card.setErrors(errors);
+        card.setTotalMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return card;
+    }
+
+    /**
+     * 在线程池中执行一个来源的查询，先在截止时间之前取得查询名额
+     * 用FutureTask而不是CompletableFuture：超时后cancel(true)会中断正在执行的查询
+     */
+    private <T> Future<T> submit(String source, Map<String, Long> timings, long deadline, Supplier<T> query) {
+        FutureTask<T> task = new FutureTask<>(() -> {
+            try {
+                if (!this.queryPermits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new IllegalStateException("Too many concurrent gene card queries");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a query slot");
+            }
+            try {
+                return QueryDeadlineInterceptor.withDeadline(deadline, () -> timed(source, timings, query));
+            } finally {
+                this.queryPermits.release();
+            }
+        });
+        this.executor.execute(task);
+        return task;
+    }
+
+    private static <T> T timed(String source, Map<String, Long> timings, Supplier<T> query) {
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            timings.put(source, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private static <T> List<T> await(String source, Future<List<T>> future, long deadline,
+                                     Map<String, String> errors) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            errors.put(source, "timeout");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            log.warn("Gene card source {} failed: {}", source, cause.getMessage());
+            errors.put(source, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.put(source, "interrupted");
+        }
+        return Collections.emptyList();
+    }
+}
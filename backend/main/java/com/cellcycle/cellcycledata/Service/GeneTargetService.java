@@ -3,7 +3,9 @@ package com.cellcycle.cellcycledata.Service;
 import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import com.cellcycle.cellcycledata.Dao.GeneTargetDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
 import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 
 import java.util.List;
 
@@ -11,16 +13,40 @@ import java.util.List;
 public class GeneTargetService {
     @Resource
     private GeneTargetDao geneTargetDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
     
     public List<GeneTarget> selectAllGeneTargets() {
-        return this.geneTargetDao.selectAllGeneTargets();
+        return this.queryCacheService.get(QueryCacheService.GENE_TARGET, "selectAllGeneTargets",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllGeneTargets() : this.geneTargetDao.selectAllGeneTargets());
     }
     
     public List<GeneTarget> selectByGene(String gene) {
-        return this.geneTargetDao.selectByGene(gene);
+        return this.queryCacheService.get(QueryCacheService.GENE_TARGET, "selectByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectGeneTargetsByGene(gene)
+                        : this.geneTargetDao.selectByGene(gene), gene);
     }
     
     public List<GeneTarget> selectByStage(String stage) {
-        return this.geneTargetDao.selectByStage(stage);
+        return this.queryCacheService.get(QueryCacheService.GENE_TARGET, "selectByStage",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectGeneTargetsByStage(stage)
+                        : this.geneTargetDao.selectByStage(stage), stage);
+    }
+    
+    /**
+     * 键集分页读取基因靶点数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.GENE_TARGET, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.geneTargetDao::selectPage);
+    }
+    
+    public List<String> selectAllDistinctDrugs() {
+        return this.queryCacheService.get(QueryCacheService.GENE_TARGET, "selectAllDistinctDrugs",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDistinctDrugs() : this.geneTargetDao.selectAllDistinctDrugs());
     }
 }
@@ -0,0 +1,236 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.KeysetPageQuery;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 键集分页与字段投影的公共逻辑：解析游标和fields参数、执行Dao查询、生成下一页游标
+ */
+public final class KeysetPages {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 1000;
+
+    /** 游标内各排序键取值之间的分隔符 */
+    private static final String KEY_SEPARATOR = "\u001f";
+    /** 非NULL取值的前缀，NULL在游标中为空串 */
+    private static final String VALUE_PREFIX = "=";
+
+    private KeysetPages() {
+    }
+
+    /**
+     * 读取一页数据
+     * 排序键相同的行可能有很多，游标记录最后返回的排序键以及该分组内已返回的行数，
+     * 分组内的行按全部字段排序，因此重复的排序键、完全相同的行和NULL值都不会在翻页时丢失或重复
+     * @param table 数据表
+     * @param cursor 上一页返回的游标，为空时读取第一页
+     * @param limit 每页行数
+     * @param fields 逗号分隔的字段名，为空时返回全部字段
+     * @param query 对应Dao的selectPage方法
+     */
+    public static PageResult page(PageableTable table, String cursor, Integer limit, String fields,
+                                  Function<KeysetPageQuery, List<Map<String, Object>>> query) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> requested = parseFields(table, fields);
+
+        // 排序键总是要读出来，用于生成下一页游标
+        Set<String> selected = new LinkedHashSet<>(requested);
+        selected.addAll(table.getKeyFields());
+        List<String> selectedFields = new ArrayList<>(selected);
+
+        Position position = decodeCursor(table, cursor);
+        List<String> key = position == null ? null : position.key;
+        int skip = position == null ? 0 : position.skip;
+        boolean inGroup = position != null;
+        String nextCursor = null;
+        List<Map<String, Object>> rows = new ArrayList<>(pageSize);
+        while (true) {
+            int remaining = pageSize - rows.size();
+            if (inGroup) {
+                if (remaining == 0) {
+                    nextCursor = encodeCursor(key, skip);
+                    break;
+                }
+                // 从key分组的第skip行继续，多读一行判断分组是否读完
+                List<Map<String, Object>> group = query.apply(groupQuery(table, selectedFields, key, skip, remaining + 1));
+                int taken = Math.min(group.size(), remaining);
+                rows.addAll(group.subList(0, taken));
+                skip += taken;
+                if (group.size() > remaining) {
+                    nextCursor = encodeCursor(key, skip);
+                    break;
+                }
+                inGroup = false;
+                continue;
+            }
+
+            // 排序键大于key的行，多读一行判断是否还有下一页
+            List<Map<String, Object>> batch = query.apply(rangeQuery(table, selectedFields, key, null, remaining + 1));
+            if (batch.size() <= remaining) {
+                rows.addAll(batch);
+                break;
+            }
+            if (remaining == 0) {
+                nextCursor = encodeCursor(key, skip);
+                break;
+            }
+            // 多读的那一行所在的分组可能在本页被截断：先读完比它小的完整分组(由数据库或快照按各自的排序规则判断)，
+            // 该分组本身再按组内顺序从头读取
+            List<String> boundary = keyOf(table, batch.get(remaining));
+            if (!boundary.equals(keyOf(table, batch.get(0)))) {
+                rows.addAll(query.apply(rangeQuery(table, selectedFields, key, boundary, remaining)));
+            }
+            key = boundary;
+            skip = 0;
+            inGroup = true;
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : requested) {
+                item.put(field, row == null ? null : row.get(field));
+            }
+            items.add(item);
+        }
+
+        PageResult result = new PageResult();
+        result.setItems(items);
+        result.setLimit(pageSize);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+
+    private static KeysetPageQuery rangeQuery(PageableTable table, List<String> fields, List<String> after,
+                                              List<String> before, int limit) {
+        KeysetPageQuery pageQuery = new KeysetPageQuery();
+        pageQuery.setTable(table);
+        pageQuery.setFields(fields);
+        pageQuery.setAfterKey(after);
+        pageQuery.setBeforeKey(before);
+        pageQuery.setLimit(limit);
+        return pageQuery;
+    }
+
+    private static KeysetPageQuery groupQuery(PageableTable table, List<String> fields, List<String> key,
+                                              int offset, int limit) {
+        KeysetPageQuery pageQuery = new KeysetPageQuery();
+        pageQuery.setTable(table);
+        pageQuery.setFields(fields);
+        pageQuery.setEqualKey(key);
+        pageQuery.setOffset(offset);
+        pageQuery.setLimit(limit);
+        return pageQuery;
+    }
+
+    /**
+     * 行的排序键取值；读取的字段全为NULL时MyBatis返回null行
+     */
+    private static List<String> keyOf(PageableTable table, Map<String, Object> row) {
+        List<String> key = new ArrayList<>(table.getKeyFields().size());
+        for (String field : table.getKeyFields()) {
+            Object value = row == null ? null : row.get(field);
+            key.add(value == null ? null : value.toString());
+        }
+        return key;
+    }
+
+    private static List<String> parseFields(PageableTable table, String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return new ArrayList<>(table.getColumns().keySet());
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (table.columnOf(name) == null) {
+                throw new InvalidQueryException("Unknown field '" + name + "', allowed fields: "
+                        + table.getColumns().keySet());
+            }
+            parsed.add(name);
+        }
+        if (parsed.isEmpty()) {
+            throw new InvalidQueryException("No valid field in '" + fields + "'");
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    /**
+     * 游标位置：排序键为key的分组中已返回skip行
+     */
+    private static final class Position {
+        final List<String> key;
+        final int skip;
+
+        Position(List<String> key, int skip) {
+            this.key = key;
+            this.skip = skip;
+        }
+    }
+
+    /**
+     * 游标内容为 组内已返回行数、各排序键取值，取值前加VALUE_PREFIX以区分NULL与空字符串
+     */
+    private static String encodeCursor(List<String> key, int skip) {
+        StringBuilder raw = new StringBuilder().append(skip);
+        for (String value : key) {
+            raw.append(KEY_SEPARATOR);
+            if (value != null) {
+                raw.append(VALUE_PREFIX).append(value);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(PageableTable table, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException("Malformed cursor");
+        }
+        String[] parts = raw.split(KEY_SEPARATOR, -1);
+        if (parts.length != table.getKeyFields().size() + 1) {
+            throw new InvalidQueryException("Cursor does not belong to table " + table.getTableName());
+        }
+        int skip;
+        try {
+            skip = Integer.parseInt(parts[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidQueryException("Malformed cursor");
+        }
+        if (skip < 0) {
+            throw new InvalidQueryException("Malformed cursor");
+        }
+        List<String> key = new ArrayList<>(parts.length - 1);
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].isEmpty()) {
+                key.add(null);
+            } else if (parts[i].startsWith(VALUE_PREFIX)) {
+                key.add(parts[i].substring(VALUE_PREFIX.length()));
+            } else {
+                throw new InvalidQueryException("Malformed cursor");
+            }
+        }
+        return new Position(key, skip);
+    }
+}
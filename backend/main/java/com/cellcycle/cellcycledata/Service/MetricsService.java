@@ -0,0 +1,410 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.cellcycle.cellcycledata.Engine.Histogram;
+import com.cellcycle.cellcycledata.Entity.QueryCacheStats;
+import com.cellcycle.cellcycledata.Entity.ReplicaRouting;
+import com.cellcycle.cellcycledata.Entity.ReplicaStatus;
+import com.cellcycle.cellcycledata.config.ReplicaRoutingDataSource;
+import com.cellcycle.cellcycledata.Entity.SlowSqlEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 接口、Mapper方法和JSON序列化的耗时统计，以及数据库连接池状态
+ * 统计数据只保存在内存中，通过Prometheus文本格式对外暴露
+ */
+@Service("metricsService")
+public class MetricsService {
+
+    private static final String PREFIX = "cellcycledata_";
+
+    @Resource
+    private DataSource dataSource;
+
+    /**
+     * 保留的慢SQL条数
+     */
+    @Value("${cellcycledata.metrics.slow-sql-size:50}")
+    private int slowSqlSize;
+
+    private final ConcurrentMap<String, Histogram> httpDuration = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> httpRows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> jsonDuration = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> sqlDuration = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> sqlRows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> admissionWait = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> admissionRejected = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> coalescedResponses = new ConcurrentHashMap<>();
+
+    /** 按耗时排序的最小堆，堆顶是当前保留的最快一条 */
+    private final PriorityQueue<SlowSqlEntry> slowSql = new PriorityQueue<>(Comparator.comparing(SlowSqlEntry::getMillis));
+    /** 堆满后新记录至少要超过这个耗时才需要加锁入堆 */
+    private volatile double slowSqlThreshold;
+
+    /** 查询缓存统计的来源，由QueryCacheService启动时登记 */
+    private volatile Supplier<List<QueryCacheStats>> queryCaches;
+
+    /**
+     * 记录一次HTTP请求
+     * @param route 匹配到的路由模板，例如 /cellcycledata/ppi/gene/{gene}
+     */
+    public void recordRequest(String route, String method, int status, long nanos) {
+        String labels = labels("route", route, "method", method, "status", String.valueOf(status));
+        histogram(this.httpDuration, labels, Histogram.LATENCY_SECONDS).record(seconds(nanos));
+    }
+
+    /**
+     * 记录一次响应体的JSON序列化
+     * @param rows 响应中的行数，不是列表时为-1
+     */
+    public void recordSerialization(String route, long nanos, int rows) {
+        String labels = labels("route", route);
+        histogram(this.jsonDuration, labels, Histogram.LATENCY_SECONDS).record(seconds(nanos));
+        if (rows >= 0) {
+            histogram(this.httpRows, labels, Histogram.ROWS).record(rows);
+        }
+    }
+
+    /**
+     * 记录一次Mapper方法执行
+     * @param statement MappedStatement的id
+     * @param sql 只在需要进入慢SQL列表时才取SQL文本
+     */
+    public void recordSql(String statement, long nanos, int rows, Supplier<String> sql) {
+        String labels = labels("statement", statement);
+        histogram(this.sqlDuration, labels, Histogram.LATENCY_SECONDS).record(seconds(nanos));
+        if (rows >= 0) {
+            histogram(this.sqlRows, labels, Histogram.ROWS).record(rows);
+        }
+
+        double millis = nanos / 1e6;
+        if (millis <= this.slowSqlThreshold) {
+            return;
+        }
+        SlowSqlEntry entry = new SlowSqlEntry();
+        entry.setStatement(statement);
+        entry.setSql(sql.get().replaceAll("\\s+", " ").trim());
+        entry.setMillis(millis);
+        entry.setRows(rows);
+        entry.setTimestamp(System.currentTimeMillis());
+        synchronized (this.slowSql) {
+            this.slowSql.add(entry);
+            if (this.slowSql.size() > this.slowSqlSize) {
+                this.slowSql.poll();
+            }
+            if (this.slowSql.size() >= this.slowSqlSize) {
+                this.slowSqlThreshold = this.slowSql.peek().getMillis();
+            }
+        }
+    }
+
+    /**
+     * 目前最慢的若干条SQL，按耗时降序
+     */
+    public List<SlowSqlEntry> getSlowSql(int limit) {
+        List<SlowSqlEntry> entries;
+        synchronized (this.slowSql) {
+            entries = new ArrayList<>(this.slowSql);
+        }
+        entries.sort(Comparator.comparing(SlowSqlEntry::getMillis).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * 清空慢SQL列表，调整索引或SQL后重新观察
+     */
+    public void resetSlowSql() {
+        synchronized (this.slowSql) {
+            this.slowSql.clear();
+            this.slowSqlThreshold = 0;
+        }
+    }
+
+    /**
+     * 记录一次排队等待准入的耗时，无需排队的请求不记录
+     */
+    public void recordAdmissionWait(String route, long nanos) {
+        histogram(this.admissionWait, labels("route", route), Histogram.LATENCY_SECONDS).record(seconds(nanos));
+    }
+
+    /**
+     * 记录一次准入拒绝
+     * @param reason queue_full：排队已满；timeout：排队超时；global_前缀表示全局名额不足
+     */
+    public void recordAdmissionRejected(String route, String reason) {
+        counter(this.admissionRejected, labels("route", route, "reason", reason)).increment();
+    }
+
+    /**
+     * 记录一次直接写出其他请求序列化结果的响应
+     */
+    public void recordCoalescedResponse(String route) {
+        counter(this.coalescedResponses, labels("route", route)).increment();
+    }
+
+    public void registerQueryCaches(Supplier<List<QueryCacheStats>> queryCaches) {
+        this.queryCaches = queryCaches;
+    }
+
+    /**
+     * 以Prometheus文本格式(0.0.4)输出全部指标
+     */
+    public String renderPrometheus() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        writeHistograms(out, "http_request_duration_seconds", "HTTP request latency by route", this.httpDuration);
+        writeHistograms(out, "http_response_rows", "Rows in JSON list responses by route", this.httpRows);
+        writeHistograms(out, "json_serialization_duration_seconds", "Jackson serialization time by route", this.jsonDuration);
+        writeHistograms(out, "sql_duration_seconds", "Mapper method latency including result mapping", this.sqlDuration);
+        writeHistograms(out, "sql_rows", "Rows returned or affected by mapper method", this.sqlRows);
+        writeHistograms(out, "admission_queue_seconds", "Time requests waited for a route concurrency slot",
+                this.admissionWait);
+        labeled(out, "admission_rejected_total", "Requests rejected with 503 by route and reason", "counter",
+                sums(this.admissionRejected));
+        labeled(out, "coalesced_responses_total", "Responses that reused a concurrent identical serialization",
+                "counter", sums(this.coalescedResponses));
+        writePool(out);
+        writeReplicas(out);
+        writeQueryCaches(out);
+        return out.toString();
+    }
+
+    private void writeQueryCaches(StringBuilder out) {
+        Supplier<List<QueryCacheStats>> source = this.queryCaches;
+        if (source == null) {
+            return;
+        }
+        List<QueryCacheStats> caches = source.get();
+        Map<String, Double> entries = new TreeMap<>();
+        Map<String, Double> weight = new TreeMap<>();
+        Map<String, Double> hits = new TreeMap<>();
+        Map<String, Double> misses = new TreeMap<>();
+        Map<String, Double> coalesced = new TreeMap<>();
+        Map<String, Double> evictions = new TreeMap<>();
+        Map<String, Double> invalidations = new TreeMap<>();
+        Map<String, Double> version = new TreeMap<>();
+        for (QueryCacheStats cache : caches) {
+            String labels = labels("table", cache.getTable());
+            entries.put(labels, (double) cache.getEntries());
+            weight.put(labels, (double) cache.getWeight());
+            hits.put(labels, (double) cache.getHits());
+            misses.put(labels, (double) cache.getMisses());
+            coalesced.put(labels, (double) cache.getCoalesced());
+            evictions.put(labels, (double) cache.getEvictions());
+            invalidations.put(labels, (double) cache.getInvalidations());
+            version.put(labels, (double) cache.getVersion());
+        }
+        labeled(out, "query_cache_entries", "Cached query results by table", "gauge", entries);
+        labeled(out, "query_cache_rows", "Rows held in cached query results by table", "gauge", weight);
+        labeled(out, "query_cache_hits_total", "Query cache hits by table", "counter", hits);
+        labeled(out, "query_cache_misses_total", "Query cache misses by table", "counter", misses);
+        labeled(out, "query_cache_coalesced_total", "Misses that joined an identical in-flight query by table", "counter",
+                coalesced);
+        labeled(out, "query_cache_evictions_total", "Entries evicted for size or weight by table", "counter", evictions);
+        labeled(out, "query_cache_invalidations_total", "Entries dropped by table reloads", "counter", invalidations);
+        labeled(out, "query_cache_data_version", "Data version of each table, incremented on reload", "gauge", version);
+    }
+
+    private void writePool(StringBuilder out) {
+        DruidDataSource druid = druid();
+        if (druid == null) {
+            return;
+        }
+        gauge(out, "db_pool_active_connections", "Connections currently borrowed", druid.getActiveCount());
+        gauge(out, "db_pool_idle_connections", "Connections idle in the pool", druid.getPoolingCount());
+        gauge(out, "db_pool_max_connections", "Configured maxActive", druid.getMaxActive());
+        gauge(out, "db_pool_active_peak_connections", "Highest number of borrowed connections", druid.getActivePeak());
+        gauge(out, "db_pool_waiting_threads", "Threads currently waiting for a connection", druid.getWaitThreadCount());
+        counter(out, "db_pool_wait_total", "Times a thread had to wait for a connection", druid.getNotEmptyWaitCount());
+        counter(out, "db_pool_wait_seconds_total", "Total time spent waiting for a connection",
+                druid.getNotEmptyWaitMillis() / 1000.0);
+    }
+
+    /**
+     * 读写分离的路由统计；未配置只读副本时enabled为false
+     */
+    public ReplicaRouting getReplicaRouting() {
+        ReplicaRoutingDataSource routing = routing();
+        if (routing != null) {
+            return routing.getRouting();
+        }
+        ReplicaRouting disabled = new ReplicaRouting();
+        disabled.setEnabled(false);
+        disabled.setPrimaryRoutes(0L);
+        disabled.setFallbacks(0L);
+        disabled.setReplicas(new ArrayList<>());
+        return disabled;
+    }
+
+    private void writeReplicas(StringBuilder out) {
+        ReplicaRoutingDataSource routing = routing();
+        if (routing == null) {
+            return;
+        }
+        ReplicaRouting snapshot = routing.getRouting();
+        Map<String, Double> routed = new TreeMap<>();
+        Map<String, Double> outstanding = new TreeMap<>();
+        Map<String, Double> lag = new TreeMap<>();
+        Map<String, Double> healthy = new TreeMap<>();
+        Map<String, Double> open = new TreeMap<>();
+        Map<String, Double> failures = new TreeMap<>();
+        routed.put(labels("target", "primary", "reason", "write"), (double) snapshot.getPrimaryRoutes());
+        routed.put(labels("target", "primary", "reason", "fallback"), (double) snapshot.getFallbacks());
+        for (ReplicaStatus replica : snapshot.getReplicas()) {
+            String labels = labels("replica", replica.getName());
+            routed.put(labels("target", replica.getName(), "reason", "read"), (double) replica.getRouted());
+            outstanding.put(labels, (double) replica.getOutstanding());
+            // 无法获取延迟时为-1，复制已停止时没有延迟值，用NaN表示
+            lag.put(labels, replica.getLagSeconds() == null ? Double.NaN : replica.getLagSeconds());
+            healthy.put(labels, Boolean.TRUE.equals(replica.getHealthy()) ? 1.0 : 0.0);
+            open.put(labels, "closed".equals(replica.getState()) ? 0.0 : 1.0);
+            failures.put(labels, (double) replica.getFailures());
+        }
+        labeled(out, "db_route_total", "Connections handed out by routing target", "counter", routed);
+        labeled(out, "db_replica_outstanding_connections", "Connections borrowed from each replica", "gauge", outstanding);
+        labeled(out, "db_replica_lag_seconds",
+                "Replication lag reported by each replica, -1 when not reported, NaN when replication is stopped", "gauge", lag);
+        labeled(out, "db_replica_healthy", "Whether the last health check of each replica passed", "gauge", healthy);
+        labeled(out, "db_replica_circuit_open", "Whether the circuit breaker of each replica is open or half-open", "gauge", open);
+        labeled(out, "db_replica_failures_total", "Connection and health check failures of each replica", "counter", failures);
+    }
+
+    private ReplicaRoutingDataSource routing() {
+        if (this.dataSource instanceof ReplicaRoutingDataSource) {
+            return (ReplicaRoutingDataSource) this.dataSource;
+        }
+        return null;
+    }
+
+    private DruidDataSource druid() {
+        if (this.dataSource == null || this.dataSource instanceof DruidDataSource) {
+            return (DruidDataSource) this.dataSource;
+        }
+        try {
+            return this.dataSource.isWrapperFor(DruidDataSource.class) ? this.dataSource.unwrap(DruidDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static void writeHistograms(StringBuilder out, String name, String help, Map<String, Histogram> family) {
+        if (family.isEmpty()) {
+            return;
+        }
+        String metric = PREFIX + name;
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(" histogram\n");
+        // 按标签排序，输出稳定便于比对
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(family).entrySet()) {
+            String labels = entry.getKey();
+            Histogram.Snapshot snapshot = entry.getValue().snapshot();
+            double[] bounds = snapshot.getBounds();
+            long[] cumulative = snapshot.getCumulative();
+            for (int i = 0; i < bounds.length; i++) {
+                out.append(metric).append("_bucket{").append(labels).append(",le=\"")
+                        .append(format(bounds[i])).append("\"} ").append(cumulative[i]).append('\n');
+            }
+            out.append(metric).append("_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(snapshot.getCount()).append('\n');
+            out.append(metric).append("_sum{").append(labels).append("} ").append(format(snapshot.getSum())).append('\n');
+            out.append(metric).append("_count{").append(labels).append("} ").append(snapshot.getCount()).append('\n');
+        }
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        single(out, name, help, "gauge", value);
+    }
+
+    private static void counter(StringBuilder out, String name, String help, double value) {
+        single(out, name, help, "counter", value);
+    }
+
+    private static void single(StringBuilder out, String name, String help, String type, double value) {
+        String metric = PREFIX + name;
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+        out.append(metric).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void labeled(StringBuilder out, String name, String help, String type, Map<String, Double> series) {
+        if (series.isEmpty()) {
+            return;
+        }
+        String metric = PREFIX + name;
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+        for (Map.Entry<String, Double> entry : series.entrySet()) {
+            out.append(metric).append('{').append(entry.getKey()).append("} ").append(format(entry.getValue())).append('\n');
+        }
+    }
+
+    private static LongAdder counter(ConcurrentMap<String, LongAdder> family, String labels) {
+        LongAdder counter = family.get(labels);
+        return counter != null ? counter : family.computeIfAbsent(labels, key -> new LongAdder());
+    }
+
+    private static Map<String, Double> sums(Map<String, LongAdder> family) {
+        Map<String, Double> sums = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : family.entrySet()) {
+            sums.put(entry.getKey(), (double) entry.getValue().sum());
+        }
+        return sums;
+    }
+
+    private static Histogram histogram(ConcurrentMap<String, Histogram> family, String labels, double[] bounds) {
+        Histogram histogram = family.get(labels);
+        return histogram != null ? histogram : family.computeIfAbsent(labels, key -> new Histogram(bounds));
+    }
+
+    /**
+     * 由键值对拼出标签串，例如 route="/x",method="GET"
+     */
+    private static String labels(String... pairs) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1] == null ? "" : pairs[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    labels.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    labels.append("\\n");
+                } else {
+                    labels.append(ch);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -2,11 +2,16 @@ package com.cellcycle.cellcycledata.Service;
 
 import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.MirnaGeneDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
 import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * MirnaGene服务类，处理miRNA-gene互作数据的业务逻辑
@@ -15,64 +20,90 @@ import java.util.Map;
 public class MirnaGeneService {
     @Resource
     private MirnaGeneDao mirnaGeneDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
     
     /**
      * 获取所有miRNA-gene互作数据
      */
     public List<MirnaGene> getAllMirnaGeneData() {
-        // 调试：查看表结构
-        try {
-            System.out.println("=== Table Structure Debug ===");
-            List<Map<String, Object>> columns = this.mirnaGeneDao.showColumns();
-            for (Map<String, Object> column : columns) {
-                System.out.println("Column: " + column);
-            }
-            
-            System.out.println("=== Raw Data Debug ===");
-            List<Map<String, Object>> rawData = this.mirnaGeneDao.selectRawData();
-            for (Map<String, Object> row : rawData) {
-                System.out.println("Raw row: " + row);
-            }
-            System.out.println("=== End Raw Debug ===");
-        } catch (Exception e) {
-            System.out.println("Debug query failed: " + e.getMessage());
-        }
-        
-        return this.mirnaGeneDao.selectAllMirnaGeneData();
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getAllMirnaGeneData",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllMirnaGeneData() : this.mirnaGeneDao.selectAllMirnaGeneData());
     }
     
     /**
      * 根据miRNA名称获取互作数据
      */
     public List<MirnaGene> getMirnaGeneDataByMirna(String miRNA) {
-        return this.mirnaGeneDao.selectMirnaGeneDataByMirna(miRNA);
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getMirnaGeneDataByMirna",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectMirnaGeneDataByMirna(miRNA)
+                        : this.mirnaGeneDao.selectMirnaGeneDataByMirna(miRNA), miRNA);
     }
     
     /**
      * 根据基因名称获取互作数据
      */
     public List<MirnaGene> getMirnaGeneDataByGene(String gene) {
-        return this.mirnaGeneDao.selectMirnaGeneDataByGene(gene);
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getMirnaGeneDataByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectMirnaGeneDataByGene(gene)
+                        : this.mirnaGeneDao.selectMirnaGeneDataByGene(gene), gene);
     }
     
     /**
      * 获取所有唯一的miRNA名称
      */
     public List<String> getAllDistinctMirnas() {
-        return this.mirnaGeneDao.selectAllDistinctMirnas();
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getAllDistinctMirnas",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDistinctMirnas() : this.mirnaGeneDao.selectAllDistinctMirnas());
     }
     
     /**
      * 获取所有唯一的基因名称
      */
     public List<String> getAllDistinctGenes() {
-        return this.mirnaGeneDao.selectAllDistinctGenes();
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getAllDistinctGenes",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDistinctGenes() : this.mirnaGeneDao.selectAllDistinctGenes());
     }
     
     /**
      * 根据miRNA或基因名称获取互作数据
      */
     public List<MirnaGene> getMirnaGeneDataByMirnaOrGene(String name) {
-        return this.mirnaGeneDao.selectMirnaGeneDataByMirnaOrGene(name);
+        return this.queryCacheService.get(QueryCacheService.MIRNA_GENE, "getMirnaGeneDataByMirnaOrGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectMirnaGeneDataByMirnaOrGene(name)
+                        : this.mirnaGeneDao.selectMirnaGeneDataByMirnaOrGene(name), name);
+    }
+    
+    /**
+     * 批量获取一组靶基因的miRNA互作数据，按基因分组
+     */
+    public Map<String, List<MirnaGene>> getMirnaGeneDataByGenes(Collection<String> genes) {
+        Function<List<String>, List<MirnaGene>> query = this.snapshotService.isServing()
+                ? this.snapshotService::selectMirnaGeneDataByGenes : this.mirnaGeneDao::selectMirnaGeneDataByGenes;
+        return GeneBatches.queryByGene(GeneBatches.distinctGenes(genes), query,
+                row -> new String[]{row.getGene()});
+    }
+    
+    /**
+     * 流式输出所有miRNA-gene互作数据，不在内存中保留整张表
+     */
+    public void streamAllMirnaGeneData(ResultHandler<MirnaGene> handler) {
+        if (this.snapshotService.isServing()) {
+            this.snapshotService.streamAllMirnaGeneData(handler);
+        } else {
+            this.mirnaGeneDao.streamAllMirnaGeneData(handler);
+        }
+    }
+    
+    /**
+     * 键集分页读取miRNA-gene互作数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.MIRNA_GENE, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.mirnaGeneDao::selectPage);
     }
 }
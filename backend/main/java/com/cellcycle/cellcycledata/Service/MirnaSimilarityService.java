@@ -0,0 +1,137 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.MirnaGeneDao;
+import com.cellcycle.cellcycledata.Engine.CoTargetIndex;
+import com.cellcycle.cellcycledata.Engine.GeneNames;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.CoTargetSimilarity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * miRNA共靶标/基因共调控相似度：启动时把mirna_gene表载入位图索引，
+ * 在专用fork-join线程池上计算前k名，并缓存最近的查询结果
+ */
+@Service("mirnaSimilarityService")
+public class MirnaSimilarityService {
+
+    private static final Logger log = LoggerFactory.getLogger(MirnaSimilarityService.class);
+
+    @Resource
+    private MirnaGeneDao mirnaGeneDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    /**
+     * 计算线程数，0表示使用CPU核数
+     */
+    @Value("${cellcycledata.mirna.similarity.parallelism:0}")
+    private int parallelism;
+
+    @Value("${cellcycledata.mirna.similarity.cache-size:1024}")
+    private int cacheSize;
+
+    private ForkJoinPool pool;
+
+    /**
+     * 索引与基于它算出的结果缓存一起替换，重新加载后旧结果不会混入
+     */
+    private volatile Loaded loaded;
+
+    private static final class Loaded {
+        final CoTargetIndex index;
+        final Map<String, CoTargetSimilarity> cache;
+
+        Loaded(CoTargetIndex index, int cacheSize) {
+            this.index = index;
+            this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CoTargetSimilarity>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CoTargetSimilarity> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        this.pool = new ForkJoinPool(this.parallelism > 0 ? this.parallelism : Runtime.getRuntime().availableProcessors());
+        reload();
+        this.queryCacheService.registerReloader(QueryCacheService.MIRNA_GENE, this::reload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * 重新读取mirna_gene表并重建索引，失败时保留原有索引
+     */
+    public synchronized void reload() {
+        this.queryCacheService.invalidate(QueryCacheService.MIRNA_GENE);
+        try {
+            long start = System.currentTimeMillis();
+            CoTargetIndex index = CoTargetIndex.build(this.snapshotService.isServing()
+                    ? this.snapshotService.selectAllMirnaGeneData() : this.mirnaGeneDao.selectAllMirnaGeneData());
+            this.loaded = new Loaded(index, this.cacheSize);
+            log.info("miRNA co-targeting index built: {} miRNAs, {} genes in {} ms",
+                    index.mirnaCount(), index.geneCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("miRNA co-targeting index build failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 与某个miRNA共有靶基因最多的miRNA，索引未加载时返回null
+     */
+    public CoTargetSimilarity getSimilarMirnas(String miRNA, String metric, int k, int minShared) {
+        return topK(CoTargetIndex.Side.MIRNA, miRNA, metric, k, minShared);
+    }
+
+    /**
+     * 与某个基因共享调控miRNA最多的基因，索引未加载时返回null
+     */
+    public CoTargetSimilarity getCoRegulatedGenes(String gene, String metric, int k, int minShared) {
+        return topK(CoTargetIndex.Side.GENE, gene, metric, k, minShared);
+    }
+
+    private CoTargetSimilarity topK(CoTargetIndex.Side side, String name, String metric, int k, int minShared) {
+        Loaded current = this.loaded;
+        if (current == null) {
+            return null;
+        }
+        CoTargetIndex.Metric parsed = parseMetric(metric);
+        String key = side + "|" + GeneNames.normalize(name) + "|" + parsed + "|" + k + "|" + minShared;
+        CoTargetSimilarity cached = current.cache.get(key);
+        if (cached == null) {
+            // 不在锁内计算，同一查询并发时可能各算一次，结果相同
+            cached = current.index.topK(side, name, parsed, k, minShared, this.pool);
+            current.cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    private static CoTargetIndex.Metric parseMetric(String metric) {
+        try {
+            return CoTargetIndex.Metric.valueOf(metric.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException("Unknown metric '" + metric + "', expected jaccard or overlap");
+        }
+    }
+}
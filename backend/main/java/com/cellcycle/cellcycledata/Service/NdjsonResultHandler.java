@@ -0,0 +1,55 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 将MyBatis逐行回调的结果写成NDJSON(每行一个JSON对象)
+ * 行对象写出后即可被回收，内存占用与表的大小无关；
+ * 客户端断开时写出失败，抛出的异常会中止正在进行的查询
+ */
+public class NdjsonResultHandler<T> implements ResultHandler<T> {
+
+    /** 每写出多少行刷新一次输出流 */
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectWriter writer;
+    private final OutputStream out;
+    private long rows;
+
+    public NdjsonResultHandler(ObjectWriter writer, OutputStream out) {
+        this.writer = writer;
+        this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends T> context) {
+        try {
+            this.out.write(this.writer.writeValueAsBytes(context.getResultObject()));
+            this.out.write('\n');
+            if (++this.rows % FLUSH_INTERVAL == 0) {
+                this.out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 刷新剩余缓冲，在查询结束后调用
+     */
+    public void finish() throws IOException {
+        this.out.flush();
+    }
+
+    public long getRows() {
+        return this.rows;
+    }
+}
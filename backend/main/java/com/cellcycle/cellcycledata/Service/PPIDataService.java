@@ -1,61 +1,211 @@
 package com.cellcycle.cellcycledata.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.PPIDataDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.PPIEvidenceColumns;
+import com.cellcycle.cellcycledata.Engine.PPIGraph;
 import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPIEvidenceResult;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Entity.PPISubnetwork;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service("ppiDataService")
 public class PPIDataService {
+    private static final Logger log = LoggerFactory.getLogger(PPIDataService.class);
+
     @Resource
     private PPIDataDao ppiDataDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    @Value("${cellcycledata.ppi.in-memory:true}")
+    private boolean inMemoryEnabled;
+
+    /**
+     * 启动时加载的内存互作图，为null时回退到数据库查询
+     */
+    private volatile PPIGraph graph;
+
+    /**
+     * 与互作图一同加载的证据通道列存储，用于多通道阈值过滤
+     */
+    private volatile PPIEvidenceColumns evidence;
+
+    @PostConstruct
+    public void init() {
+        if (inMemoryEnabled) {
+            reloadGraph();
+            this.queryCacheService.registerReloader(QueryCacheService.PPI, this::reloadGraph);
+        }
+    }
+
+    /**
+     * 从ppi表重新加载内存互作图和证据通道列存储，加载失败时保留原有的图
+     */
+    public synchronized void reloadGraph() {
+        this.queryCacheService.invalidate(QueryCacheService.PPI);
+        try {
+            long start = System.currentTimeMillis();
+            List<PPIData> rows = selectAllPPIData();
+            PPIGraph loaded = PPIGraph.build(rows);
+            PPIEvidenceColumns columns = PPIEvidenceColumns.build(loaded);
+            this.graph = loaded;
+            this.evidence = columns;
+            log.info("PPI graph loaded: {} genes, {} interactions in {} ms",
+                    loaded.nodeCount(), loaded.edgeCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("PPI graph load failed, falling back to database queries: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前的内存互作图，未加载时返回null
+     */
+    public PPIGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * 整张ppi表，快照提供服务时读取快照
+     */
+    private List<PPIData> selectAllPPIData() {
+        return this.snapshotService.isServing() ? this.snapshotService.selectAllPPIData()
+                : this.ppiDataDao.selectAllPPIData();
+    }
     
     /**
      * 获取所有蛋白质互作数据
      */
     public List<PPIData> getAllPPIData() {
-        // 调试：查看表结构
-        try {
-            System.out.println("=== Table Structure Debug ===");
-            List<Map<String, Object>> columns = this.ppiDataDao.showColumns();
-            for (Map<String, Object> column : columns) {
-                System.out.println("Column: " + column);
-            }
-            
-            System.out.println("=== Raw Data Debug ===");
-            List<Map<String, Object>> rawData = this.ppiDataDao.selectRawData();
-            for (Map<String, Object> row : rawData) {
-                System.out.println("Raw row: " + row);
-            }
-            System.out.println("=== End Raw Debug ===");
-        } catch (Exception e) {
-            System.out.println("Debug query failed: " + e.getMessage());
-        }
-        
-        return this.ppiDataDao.selectAllPPIData();
+        return this.queryCacheService.get(QueryCacheService.PPI, "getAllPPIData", this::selectAllPPIData);
     }
     
     /**
      * 根据最低分数阈值获取蛋白质互作数据
      */
     public List<PPIData> getPPIDataByMinScore(Double minScore) {
-        return this.ppiDataDao.selectPPIDataByMinScore(minScore);
+        PPIGraph current = this.graph;
+        if (current != null && minScore != null) {
+            return current.edgesWithMinScore(minScore);
+        }
+        return this.queryCacheService.get(QueryCacheService.PPI, "getPPIDataByMinScore",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectPPIDataByMinScore(minScore)
+                        : this.ppiDataDao.selectPPIDataByMinScore(minScore), minScore);
     }
     
     /**
      * 获取与特定基因相关的蛋白质互作数据
      */
     public List<PPIData> getPPIDataByGene(String gene) {
-        return this.ppiDataDao.selectPPIDataByGene(gene);
+        PPIGraph current = this.graph;
+        if (current != null) {
+            return current.edgesOf(gene);
+        }
+        return this.queryCacheService.get(QueryCacheService.PPI, "getPPIDataByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectPPIDataByGene(gene)
+                        : this.ppiDataDao.selectPPIDataByGene(gene), gene);
     }
     
     /**
      * 根据基因和最低分数阈值获取蛋白质互作数据
      */
     public List<PPIData> getPPIDataByGeneAndMinScore(String gene, Double minScore) {
-        return this.ppiDataDao.selectPPIDataByGeneAndMinScore(gene, minScore);
+        PPIGraph current = this.graph;
+        if (current != null && minScore != null) {
+            return current.edgesOf(gene, minScore);
+        }
+        return this.queryCacheService.get(QueryCacheService.PPI, "getPPIDataByGeneAndMinScore",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectPPIDataByGeneAndMinScore(gene, minScore)
+                        : this.ppiDataDao.selectPPIDataByGeneAndMinScore(gene, minScore), gene, minScore);
+    }
+    
+    /**
+     * 批量获取一组基因的蛋白质互作数据，按基因分组
+     * @param minScore 最低综合分数，为null时不过滤
+     */
+    public Map<String, List<PPIData>> getPPIDataByGenes(Collection<String> genes, Double minScore) {
+        List<String> distinct = GeneBatches.distinctGenes(genes);
+        PPIGraph current = this.graph;
+        if (current != null) {
+            Map<String, List<PPIData>> grouped = new LinkedHashMap<>();
+            for (String gene : distinct) {
+                grouped.put(gene, minScore == null ? current.edgesOf(gene) : current.edgesOf(gene, minScore));
+            }
+            return grouped;
+        }
+        Function<List<String>, List<PPIData>> query = this.snapshotService.isServing()
+                ? this.snapshotService::selectPPIDataByGenes : this.ppiDataDao::selectPPIDataByGenes;
+        Map<String, List<PPIData>> grouped = GeneBatches.queryByGene(distinct, query,
+                row -> new String[]{row.getNode1(), row.getNode2()});
+        if (minScore != null) {
+            // 过滤到新列表，不修改查询返回的行列表
+            grouped.replaceAll((gene, rows) -> rows.stream()
+                    .filter(row -> row.getCombined_score() != null && row.getCombined_score() >= minScore)
+                    .collect(Collectors.toList()));
+        }
+        return grouped;
+    }
+    
+    /**
+     * 提取以种子基因为中心的多跳互作子网络，内存图未加载时返回null
+     */
+    public PPISubnetwork getSubnetwork(Collection<String> seeds, int depth, double minScore, int maxNodes) {
+        PPIGraph current = this.graph;
+        if (current == null) {
+            return null;
+        }
+        return current.subnetwork(seeds, depth, minScore, maxNodes);
+    }
+    
+    /**
+     * 按各证据通道的最低值过滤互作并排序，在内存列存储上计算，未加载时返回null
+     * @param minimums 通道名 -> 最低值，见PPIEvidenceColumns.CHANNELS
+     * @param sort 排序键，形如"coexpression:desc"，为空时按combined_score降序
+     * @param gene 只保留一端为该基因的互作，为null时不限
+     */
+    public PPIEvidenceResult filterByEvidence(Map<String, Double> minimums, List<String> sort, String gene,
+                                              int offset, int limit) {
+        PPIEvidenceColumns current = this.evidence;
+        if (current == null) {
+            return null;
+        }
+        return current.filter(minimums, sort, gene, offset, limit);
+    }
+    
+    /**
+     * 流式输出所有蛋白质互作数据，不在内存中保留整张表
+     */
+    public void streamAllPPIData(ResultHandler<PPIData> handler) {
+        if (this.snapshotService.isServing()) {
+            this.snapshotService.streamAllPPIData(handler);
+        } else {
+            this.ppiDataDao.streamAllPPIData(handler);
+        }
+    }
+    
+    /**
+     * 键集分页读取蛋白质互作数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.PPI, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.ppiDataDao::selectPage);
     }
 }
@@ -0,0 +1,197 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Engine.QueryCache;
+import com.cellcycle.cellcycledata.Entity.QueryCacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * 各数据表的查询结果缓存
+ * 参考数据只在重新加载时变化，因此Service层的数据库查询按"方法名+参数"缓存在所属表的缓存中；
+ * 重新加载某张表时该表的数据版本号加一，依赖它的缓存条目全部失效
+ */
+@Service("queryCacheService")
+public class QueryCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCacheService.class);
+
+    public static final String PPI = "ppi";
+    public static final String TF = "tf";
+    public static final String MIRNA_GENE = "mirna_gene";
+    public static final String SL = "sl";
+    public static final String SL_NATURE = "sl_nature";
+    public static final String GENE_TARGET = "gene_target";
+    public static final String DRUG_INFORMATION = "drug_information";
+    public static final String CELL_CYCLE_GENES = "cellcyclegenedata";
+
+    public static final List<String> TABLES = Collections.unmodifiableList(Arrays.asList(
+            PPI, TF, MIRNA_GENE, SL, SL_NATURE, GENE_TARGET, DRUG_INFORMATION, CELL_CYCLE_GENES));
+
+    @Resource
+    private MetricsService metricsService;
+
+    /**
+     * 关闭后不再保留查询结果，但并发的相同查询仍然合并为一次
+     */
+    @Value("${cellcycledata.cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每张表最多缓存的查询结果数
+     */
+    @Value("${cellcycledata.cache.max-entries:1000}")
+    private int maxEntries;
+
+    /**
+     * 每张表缓存的结果行数上限
+     */
+    @Value("${cellcycledata.cache.max-weight:200000}")
+    private long maxWeight;
+
+    private final Map<String, QueryCache<List<Object>, Object>> caches = new LinkedHashMap<>();
+
+    /**
+     * 表名 -> 该表数据变化后需要重建的内存结构，由各Service启动时登记
+     */
+    private final Map<String, List<Runnable>> reloaders = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String table : TABLES) {
+            this.caches.put(table, new QueryCache<>(table, this.enabled ? this.maxEntries : 0, this.maxWeight,
+                    QueryCache::rows));
+        }
+        this.metricsService.registerQueryCaches(this::getStats);
+    }
+
+    /**
+     * 取缓存的查询结果，未命中时执行query并写入table的缓存；并发的相同查询只执行一次
+     * 结果在请求之间共享，列表、集合和映射以不可修改的视图返回，需要修改的调用方先复制
+     * @param method 区分同一张表上的不同查询，通常为Service方法名
+     * @param args 查询参数，需实现equals/hashCode
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String table, String method, Supplier<T> query, Object... args) {
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(method);
+        key.addAll(Arrays.asList(args));
+        return (T) cache(table).get(key, () -> unmodifiable(query.get()));
+    }
+
+    private static Object unmodifiable(Object value) {
+        if (value instanceof List) {
+            return Collections.unmodifiableList((List<?>) value);
+        }
+        if (value instanceof Set) {
+            return Collections.unmodifiableSet((Set<?>) value);
+        }
+        if (value instanceof Map) {
+            return Collections.unmodifiableMap((Map<?, ?>) value);
+        }
+        return value;
+    }
+
+    /**
+     * 表数据已变化，使该表的全部缓存条目失效，返回新的数据版本号
+     */
+    public long invalidate(String table) {
+        return cache(table).invalidate();
+    }
+
+    /**
+     * 表的当前数据版本号，每次invalidate加一
+     */
+    public long version(String table) {
+        return cache(table).version();
+    }
+
+    /**
+     * 登记表数据变化后需要执行的重建操作；同一个Runnable登记到多张表时，一次重新加载只执行一遍
+     * 重建操作自身负责调用invalidate
+     */
+    public void registerReloader(String table, Runnable reloader) {
+        cache(table);
+        this.reloaders.computeIfAbsent(table, key -> new CopyOnWriteArrayList<>()).add(reloader);
+    }
+
+    /**
+     * 重新加载若干张表：执行登记的重建操作，没有重建操作的表直接使缓存失效
+     * @param tables 表名，为null或空时重新加载全部表
+     * @return 表名 -> 重新加载后的数据版本号
+     * @throws InvalidQueryException 表名不存在
+     */
+    public Map<String, Long> reload(Collection<String> tables) {
+        List<String> selected = new ArrayList<>();
+        if (tables == null || tables.isEmpty()) {
+            selected.addAll(TABLES);
+        } else {
+            for (String table : tables) {
+                String name = normalize(table);
+                cache(name);
+                if (!selected.contains(name)) {
+                    selected.add(name);
+                }
+            }
+        }
+        Set<Runnable> pending = new LinkedHashSet<>();
+        for (String table : selected) {
+            List<Runnable> registered = this.reloaders.get(table);
+            if (registered == null || registered.isEmpty()) {
+                invalidate(table);
+            } else {
+                pending.addAll(registered);
+            }
+        }
+        for (Runnable reloader : pending) {
+            reloader.run();
+        }
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (String table : selected) {
+            versions.put(table, this.caches.get(table).version());
+        }
+        log.info("Reloaded tables {}", versions);
+        return versions;
+    }
+
+    /**
+     * 各表缓存的统计，按TABLES的顺序
+     */
+    public List<QueryCacheStats> getStats() {
+        List<QueryCacheStats> stats = new ArrayList<>();
+        for (QueryCache<List<Object>, Object> cache : this.caches.values()) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+
+    private QueryCache<List<Object>, Object> cache(String table) {
+        QueryCache<List<Object>, Object> cache = this.caches.get(table);
+        if (cache == null) {
+            throw new InvalidQueryException("Unknown table '" + table + "', available tables: " + TABLES);
+        }
+        return cache;
+    }
+
+    private static String normalize(String table) {
+        return table == null ? "" : table.trim().toLowerCase(Locale.ROOT);
+    }
+}
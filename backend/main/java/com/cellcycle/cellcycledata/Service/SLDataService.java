@@ -1,47 +1,151 @@
 package com.cellcycle.cellcycledata.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.SLDataDao;
+import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.SLIndex;
 import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLPair;
+import com.cellcycle.cellcycledata.Entity.SLPairsInSet;
+import com.cellcycle.cellcycledata.Entity.SLSharedPartners;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Service("slDataService")
 public class SLDataService {
+    private static final Logger log = LoggerFactory.getLogger(SLDataService.class);
+
     @Resource
     private SLDataDao slDataDao;
+
+    @Resource
+    private SLNatureDataDao slNatureDataDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    @Value("${cellcycledata.sl.in-memory:true}")
+    private boolean inMemoryEnabled;
+
+    /**
+     * 由sl和sl_nature构建的合成致死索引，为null时基因对和基因集合查询不可用
+     */
+    private volatile SLIndex index;
+
+    @PostConstruct
+    public void init() {
+        if (inMemoryEnabled) {
+            reloadIndex();
+            this.queryCacheService.registerReloader(QueryCacheService.SL, this::reloadIndex);
+        }
+    }
+
+    /**
+     * 从sl和sl_nature表重新构建合成致死索引，构建失败时保留原有索引
+     */
+    public synchronized void reloadIndex() {
+        this.queryCacheService.invalidate(QueryCacheService.SL);
+        try {
+            long start = System.currentTimeMillis();
+            SLIndex loaded = this.snapshotService.isServing()
+                    ? SLIndex.build(this.snapshotService.selectAllSLData(), this.snapshotService.selectAllSLNatureData())
+                    : SLIndex.build(this.slDataDao.selectAllSLData(), this.slNatureDataDao.selectAllSLNatureData());
+            this.index = loaded;
+            log.info("SL index loaded: {} genes, {} pairs in {} ms",
+                    loaded.geneCount(), loaded.pairCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("SL index load failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前的合成致死索引，未加载时返回null
+     */
+    public SLIndex getIndex() {
+        return this.index;
+    }
     
     /**
      * 获取所有合成致死数据
      */
     public List<SLData> selectAllSLData() {
-        // 调试：查看表结构
-        try {
-            System.out.println("=== SL Table Structure Debug ===");
-            List<Map<String, Object>> columns = this.slDataDao.showColumns();
-            for (Map<String, Object> column : columns) {
-                System.out.println("Column: " + column);
-            }
-            
-            System.out.println("=== SL Raw Data Debug ===");
-            List<Map<String, Object>> rawData = this.slDataDao.selectRawData();
-            for (Map<String, Object> row : rawData) {
-                System.out.println("Raw row: " + row);
-            }
-            System.out.println("=== End SL Raw Debug ===");
-        } catch (Exception e) {
-            System.out.println("Debug query failed: " + e.getMessage());
-        }
-        
-        return this.slDataDao.selectAllSLData();
+        return this.queryCacheService.get(QueryCacheService.SL, "selectAllSLData",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllSLData() : this.slDataDao.selectAllSLData());
     }
     
     /**
      * 根据基因名称查询相关的合成致死数据
      */
     public List<SLData> selectSLDataByGene(String gene) {
-        return this.slDataDao.selectSLDataByGene(gene);
+        return this.queryCacheService.get(QueryCacheService.SL, "selectSLDataByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectSLDataByGene(gene)
+                        : this.slDataDao.selectSLDataByGene(gene), gene);
+    }
+    
+    /**
+     * 批量获取一组基因的合成致死数据，按基因分组
+     */
+    public Map<String, List<SLData>> selectSLDataByGenes(Collection<String> genes) {
+        Function<List<String>, List<SLData>> query = this.snapshotService.isServing()
+                ? this.snapshotService::selectSLDataByGenes : this.slDataDao::selectSLDataByGenes;
+        return GeneBatches.queryByGene(GeneBatches.distinctGenes(genes), query,
+                row -> new String[]{row.getGeneA(), row.getGeneB()});
+    }
+    
+    /**
+     * 判断两个基因是否构成合成致死，索引未加载时返回null
+     */
+    public SLPair getSLPair(String geneA, String geneB) {
+        SLIndex current = this.index;
+        return current == null ? null : current.pair(geneA, geneB);
+    }
+    
+    /**
+     * 与一组基因全部构成合成致死的共同伙伴，索引未加载时返回null
+     */
+    public SLSharedPartners getSharedPartners(Collection<String> genes) {
+        SLIndex current = this.index;
+        return current == null ? null : current.sharedPartners(GeneBatches.distinctGenes(genes));
+    }
+    
+    /**
+     * 一组基因内部的全部合成致死对，索引未加载时返回null
+     */
+    public SLPairsInSet getPairsWithin(Collection<String> genes) {
+        SLIndex current = this.index;
+        return current == null ? null : current.pairsWithin(GeneBatches.distinctGenes(genes));
+    }
+    
+    /**
+     * 流式输出所有合成致死数据，不在内存中保留整张表
+     */
+    public void streamAllSLData(ResultHandler<SLData> handler) {
+        if (this.snapshotService.isServing()) {
+            this.snapshotService.streamAllSLData(handler);
+        } else {
+            this.slDataDao.streamAllSLData(handler);
+        }
+    }
+    
+    /**
+     * 键集分页读取合成致死数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.SL, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.slDataDao::selectPage);
     }
 }
@@ -1,63 +1,126 @@
 package com.cellcycle.cellcycledata.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.SLNatureFacetCube;
 import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLNatureFacets;
+import com.cellcycle.cellcycledata.Entity.SLNatureRows;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 
 import java.util.List;
 import java.util.Map;
 
 @Service("slNatureDataService")
 public class SLNatureDataService {
+    private static final Logger log = LoggerFactory.getLogger(SLNatureDataService.class);
+
     @Resource
     private SLNatureDataDao slNatureDataDao;
-    
+
+    @Resource
+    private SLDataService slDataService;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
     /**
-     * 获取所有合成致死自然数据
+     * 全表的分面立方体，同时缓存全部行；为null时回退到数据库查询
      */
-    public List<SLNatureData> selectAllSLNatureData() {
-        // 调试：查看表结构
+    private volatile SLNatureFacetCube cube;
+
+    @PostConstruct
+    public void init() {
+        reloadCube();
+        this.queryCacheService.registerReloader(QueryCacheService.SL_NATURE, this::reload);
+    }
+
+    /**
+     * 重新读取sl_nature表并重建分面立方体，失败时保留原有立方体
+     */
+    public synchronized void reloadCube() {
+        this.queryCacheService.invalidate(QueryCacheService.SL_NATURE);
         try {
-            System.out.println("=== SL Nature Table Structure Debug ===");
-            List<Map<String, Object>> columns = this.slNatureDataDao.showColumns();
-            for (Map<String, Object> column : columns) {
-                System.out.println("Column: " + column);
-            }
-            
-            System.out.println("=== SL Nature Raw Data Debug ===");
-            List<Map<String, Object>> rawData = this.slNatureDataDao.selectRawData();
-            for (Map<String, Object> row : rawData) {
-                System.out.println("Raw row: " + row);
-            }
-            System.out.println("=== End SL Nature Raw Debug ===");
-        } catch (Exception e) {
-            System.out.println("Debug query failed: " + e.getMessage());
+            long start = System.currentTimeMillis();
+            SLNatureFacetCube loaded = SLNatureFacetCube.build(this.snapshotService.isServing()
+                    ? this.snapshotService.selectAllSLNatureData() : this.slNatureDataDao.selectAllSLNatureData());
+            this.cube = loaded;
+            log.info("SL nature facet cube built: {} rows in {} ms", loaded.rows().size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("SL nature facet cube build failed: {}", e.getMessage());
         }
-        
-        // 获取所有数据并打印详细日志
-        List<SLNatureData> allData = this.slNatureDataDao.selectAllSLNatureData();
-        System.out.println("=== SL Nature All Data Debug ===");
-        System.out.println("Total records: " + allData.size());
-        if (!allData.isEmpty()) {
-            SLNatureData firstRecord = allData.get(0);
-            System.out.println("First record details:");
-            System.out.println("  geneA: " + firstRecord.getGeneA());
-            System.out.println("  stageGeneA: " + firstRecord.getStageGeneA());
-            System.out.println("  geneB: " + firstRecord.getGeneB());
-            System.out.println("  stageGeneB: " + firstRecord.getStageGeneB());
-            System.out.println("  geminiSensitive: " + firstRecord.getGeminiSensitive());
-            System.out.println("  cellLine: " + firstRecord.getCellLine());
+    }
+
+    /**
+     * sl_nature表数据变更后调用：重建分面立方体，并重建同样依赖该表的合成致死索引
+     */
+    public void reload() {
+        reloadCube();
+        this.slDataService.reloadIndex();
+    }
+    
+    /**
+     * 获取所有合成致死自然数据，立方体已加载时直接返回内存中的行
+     */
+    public List<SLNatureData> selectAllSLNatureData() {
+        SLNatureFacetCube current = this.cube;
+        if (current != null) {
+            return current.rows();
         }
-        System.out.println("=== End SL Nature All Data Debug ===");
-        
-        return allData;
+        return this.queryCacheService.get(QueryCacheService.SL_NATURE, "selectAllSLNatureData",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllSLNatureData() : this.slNatureDataDao.selectAllSLNatureData());
+    }
+    
+    /**
+     * 按分面过滤后的总数及各维度计数，立方体未加载时返回null
+     */
+    public SLNatureFacets getFacets(Map<String, String> filters) {
+        SLNatureFacetCube current = this.cube;
+        return current == null ? null : current.facets(filters);
+    }
+    
+    /**
+     * 按分面过滤后的一页明细，立方体未加载时返回null
+     */
+    public SLNatureRows getFacetRows(Map<String, String> filters, int offset, int limit) {
+        SLNatureFacetCube current = this.cube;
+        return current == null ? null : current.page(filters, offset, limit);
     }
     
     /**
      * 根据基因名称查询相关的合成致死自然数据
      */
     public List<SLNatureData> selectSLNatureDataByGene(String gene) {
-        return this.slNatureDataDao.selectSLNatureDataByGene(gene);
+        return this.queryCacheService.get(QueryCacheService.SL_NATURE, "selectSLNatureDataByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectSLNatureDataByGene(gene)
+                        : this.slNatureDataDao.selectSLNatureDataByGene(gene), gene);
+    }
+    
+    /**
+     * 流式输出所有合成致死自然数据，不在内存中保留整张表
+     */
+    public void streamAllSLNatureData(ResultHandler<SLNatureData> handler) {
+        if (this.snapshotService.isServing()) {
+            this.snapshotService.streamAllSLNatureData(handler);
+        } else {
+            this.slNatureDataDao.streamAllSLNatureData(handler);
+        }
+    }
+    
+    /**
+     * 键集分页读取合成致死自然数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.SL_NATURE, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.slNatureDataDao::selectPage);
     }
 }
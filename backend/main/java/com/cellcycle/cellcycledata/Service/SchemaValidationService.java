@@ -0,0 +1,168 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.cellcycle.cellcycledata.Dao.MirnaGeneDao;
+import com.cellcycle.cellcycledata.Dao.PPIDataDao;
+import com.cellcycle.cellcycledata.Dao.SLDataDao;
+import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SchemaCheckResult;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 启动时校验数据表结构与实体类是否一致
+ * 每张表只执行一次SHOW COLUMNS，实体字段在表中缺失时视为结构漂移，
+ * 默认直接中止启动；校验结果保留下来供诊断接口查看
+ */
+@Service("schemaValidationService")
+public class SchemaValidationService {
+    private static final Logger log = LoggerFactory.getLogger(SchemaValidationService.class);
+
+    @Resource
+    private PPIDataDao ppiDataDao;
+    @Resource
+    private TFDataDao tfDataDao;
+    @Resource
+    private MirnaGeneDao mirnaGeneDao;
+    @Resource
+    private SLDataDao slDataDao;
+    @Resource
+    private SLNatureDataDao slNatureDataDao;
+
+    @Value("${cellcycledata.schema.fail-fast:true}")
+    private boolean failFast;
+
+    private volatile List<SchemaCheckResult> results = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        List<SchemaCheckResult> checked = validate();
+        List<String> drifted = new ArrayList<>();
+        for (SchemaCheckResult result : checked) {
+            if ("DRIFT".equals(result.getStatus())) {
+                drifted.add(result.getTable() + " missing " + result.getMissingColumns());
+            }
+        }
+        if (!drifted.isEmpty() && failFast) {
+            throw new IllegalStateException("Database schema does not match entity classes: " + drifted);
+        }
+    }
+
+    /**
+     * 重新校验全部数据表并更新结果
+     */
+    public List<SchemaCheckResult> validate() {
+        List<SchemaCheckResult> checked = new ArrayList<>();
+        checked.add(check("ppi", PPIData.class, this.ppiDataDao::showColumns));
+        checked.add(check("tf", TFData.class, this.tfDataDao::showColumns));
+        checked.add(check("mirna_gene", MirnaGene.class, this.mirnaGeneDao::showColumns));
+        checked.add(check("sl", SLData.class, this.slDataDao::showColumns));
+        checked.add(check("sl_nature", SLNatureData.class, this.slNatureDataDao::showColumns));
+        this.results = Collections.unmodifiableList(checked);
+        return this.results;
+    }
+
+    /**
+     * 最近一次校验的结果
+     */
+    public List<SchemaCheckResult> getResults() {
+        return this.results;
+    }
+
+    /**
+     * SHOW COLUMNS结果中的列名；MySQL返回Field，H2等驱动返回大写的FIELD或COLUMN_NAME
+     */
+    private static Object columnName(Map<String, Object> column) {
+        for (Map.Entry<String, Object> entry : column.entrySet()) {
+            if ("Field".equalsIgnoreCase(entry.getKey()) || "COLUMN_NAME".equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private SchemaCheckResult check(String table, Class<?> entity, Supplier<List<Map<String, Object>>> showColumns) {
+        SchemaCheckResult result = new SchemaCheckResult();
+        result.setTable(table);
+        result.setEntity(entity.getSimpleName());
+        result.setCheckedAt(System.currentTimeMillis());
+
+        List<Map<String, Object>> columns;
+        try {
+            columns = showColumns.get();
+        } catch (RuntimeException e) {
+            // 数据库不可用时无法判断是否漂移，不阻止启动
+            log.warn("Cannot read columns of table {}: {}", table, e.getMessage());
+            result.setStatus("UNAVAILABLE");
+            result.setError(e.getMessage());
+            return result;
+        }
+
+        // MySQL列名不区分大小写，统一按小写比较，输出时保留表中的写法
+        Map<String, String> actual = new LinkedHashMap<>();
+        for (Map<String, Object> column : columns) {
+            Object name = columnName(column);
+            if (name != null) {
+                actual.put(name.toString().toLowerCase(Locale.ROOT), name.toString());
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        Map<String, String> extra = new LinkedHashMap<>(actual);
+        for (String expected : expectedColumns(entity)) {
+            String key = expected.toLowerCase(Locale.ROOT);
+            if (extra.remove(key) == null) {
+                missing.add(expected);
+            }
+        }
+
+        result.setMissingColumns(missing);
+        result.setExtraColumns(new ArrayList<>(extra.values()));
+        result.setStatus(missing.isEmpty() ? "OK" : "DRIFT");
+        if (missing.isEmpty()) {
+            log.info("Schema of table {} matches {}", table, entity.getSimpleName());
+        } else {
+            log.error("Schema drift on table {}: columns {} required by {} are missing",
+                    table, missing, entity.getSimpleName());
+        }
+        return result;
+    }
+
+    /**
+     * 实体类映射的列名：有@TableField时取其值，否则与字段名一致
+     */
+    private static List<String> expectedColumns(Class<?> entity) {
+        List<String> columns = new ArrayList<>();
+        for (Field field : entity.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            TableField tableField = field.getAnnotation(TableField.class);
+            if (tableField != null && !tableField.exist()) {
+                continue;
+            }
+            columns.add(tableField != null && !tableField.value().isEmpty() ? tableField.value() : field.getName());
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,805 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.DrugInformationDao;
+import com.cellcycle.cellcycledata.Dao.GeneTargetDao;
+import com.cellcycle.cellcycledata.Dao.KeysetPageQuery;
+import com.cellcycle.cellcycledata.Dao.MirnaGeneDao;
+import com.cellcycle.cellcycledata.Dao.PPIDataDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Dao.SLDataDao;
+import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Dao.cellcycledataDao;
+import com.cellcycle.cellcycledata.Engine.ReferenceSnapshot;
+import com.cellcycle.cellcycledata.Engine.SnapshotWriter;
+import com.cellcycle.cellcycledata.Entity.DrugInformation;
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SnapshotInfo;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.cellcycledata;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * 参考数据快照：把8张参考数据表导出为一个二进制文件，启动时映射该文件
+ * 开启serve后，各Service的数据库查询、键集分页和启动时的内存索引构建都改为读取快照，MySQL不可用时仍能提供只读查询
+ * 快照中的行按需从映射区解码为实体对象，按基因等列的查询走快照内的行号索引；
+ * 内存索引仍由解码出的整表实体列表构建，其中的字符串按字典编号共享同一对象
+ */
+@Service("snapshotService")
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    @Resource
+    private PPIDataDao ppiDataDao;
+
+    @Resource
+    private TFDataDao tfDataDao;
+
+    @Resource
+    private MirnaGeneDao mirnaGeneDao;
+
+    @Resource
+    private SLDataDao slDataDao;
+
+    @Resource
+    private SLNatureDataDao slNatureDataDao;
+
+    @Resource
+    private GeneTargetDao geneTargetDao;
+
+    @Resource
+    private DrugInformationDao drugInformationDao;
+
+    @Resource
+    private cellcycledataDao cellcycledataDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    /**
+     * 快照文件路径，为空时不导出也不加载
+     */
+    @Value("${cellcycledata.snapshot.path:}")
+    private String path;
+
+    @Value("${cellcycledata.snapshot.load-on-startup:true}")
+    private boolean loadOnStartup;
+
+    /**
+     * 映射时校验全部数据段的CRC32；关闭后只读文件头和目录，映射只需几毫秒
+     */
+    @Value("${cellcycledata.snapshot.verify:true}")
+    private boolean verify;
+
+    @Value("${cellcycledata.snapshot.serve:false}")
+    private boolean serve;
+
+    private volatile ReferenceSnapshot snapshot;
+
+    private volatile long millis;
+
+    /** 键集分页用的行顺序，按快照中的表对象缓存，替换快照后旧表的条目随之回收 */
+    private final Map<ReferenceSnapshot.Table, int[]> pageOrders = new WeakHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!this.loadOnStartup || this.path.trim().isEmpty()) {
+            return;
+        }
+        if (!Files.exists(snapshotPath())) {
+            log.info("No reference snapshot at {}, reading from the database", snapshotPath());
+            return;
+        }
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Reference snapshot {} could not be loaded, reading from the database: {}",
+                    snapshotPath(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        ReferenceSnapshot current = this.snapshot;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * 从数据库读取全部参考数据表写成新快照并映射；serve开启时随后重建各表的缓存和内存索引
+     * @throws IllegalStateException 未配置快照路径
+     */
+    public synchronized SnapshotInfo export() throws IOException {
+        Path target = snapshotPath();
+        long start = System.currentTimeMillis();
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.table(QueryCacheService.PPI, this.ppiDataDao.selectAllPPIData())
+                .string("node1", PPIData::getNode1)
+                .string("node2", PPIData::getNode2)
+                .string("node1_string_id", PPIData::getNode1_string_id)
+                .string("node2_string_id", PPIData::getNode2_string_id)
+                .integer("neighborhood_on_chromosome", PPIData::getNeighborhood_on_chromosome)
+                .decimal("gene_fusion", PPIData::getGene_fusion)
+                .decimal("phylogenetic_cooccurrence", PPIData::getPhylogenetic_cooccurrence)
+                .decimal("homology", PPIData::getHomology)
+                .decimal("coexpression", PPIData::getCoexpression)
+                .decimal("experimentally_determined_interaction", PPIData::getExperimentally_determined_interaction)
+                .decimal("database_annotated", PPIData::getDatabase_annotated)
+                .decimal("automated_textmining", PPIData::getAutomated_textmining)
+                .decimal("combined_score", PPIData::getCombined_score)
+                .index("node1")
+                .index("node2");
+        writer.table(QueryCacheService.TF, this.tfDataDao.selectAllTFData())
+                .string("tf", TFData::getTf)
+                .string("target_gene", TFData::getTarget_gene)
+                .string("interaction", TFData::getInteraction)
+                .index("tf")
+                .index("target_gene");
+        writer.table(QueryCacheService.MIRNA_GENE, this.mirnaGeneDao.selectAllMirnaGeneData())
+                .string("miRNA", MirnaGene::getMiRNA)
+                .string("gene", MirnaGene::getGene)
+                .index("miRNA")
+                .index("gene");
+        writer.table(QueryCacheService.SL, this.slDataDao.selectAllSLData())
+                .string("geneA", SLData::getGeneA)
+                .string("geneB", SLData::getGeneB)
+                .index("geneA")
+                .index("geneB");
+        writer.table(QueryCacheService.SL_NATURE, this.slNatureDataDao.selectAllSLNatureData())
+                .string("Gene_A", SLNatureData::getGeneA)
+                .string("stage_Gene_A", SLNatureData::getStageGeneA)
+                .string("Gene_B", SLNatureData::getGeneB)
+                .string("stage_Gene_B", SLNatureData::getStageGeneB)
+                .string("GEMINI_sensitive", SLNatureData::getGeminiSensitive)
+                .string("Cell_line", SLNatureData::getCellLine)
+                .index("Gene_A")
+                .index("Gene_B");
+        writer.table(QueryCacheService.GENE_TARGET, this.geneTargetDao.selectAllGeneTargets())
+                .string("gene", GeneTarget::getGene)
+                .string("stage", GeneTarget::getStage)
+                .string("drug", GeneTarget::getDrug)
+                .string("cancer", GeneTarget::getCancer)
+                .string("pmid", GeneTarget::getPmid)
+                .index("gene")
+                .index("stage");
+        writer.table(QueryCacheService.DRUG_INFORMATION, this.drugInformationDao.selectAllDrugInformation())
+                .string("drug", DrugInformation::getDrug)
+                .string("information", DrugInformation::getInformation)
+                .index("drug");
+        writer.table(QueryCacheService.CELL_CYCLE_GENES, this.cellcycledataDao.selectAllCellcycledata())
+                .string("Gene_Symbol", cellcycledata::getGene_Symbol)
+                .string("Description", cellcycledata::getDescription)
+                .string("Category", cellcycledata::getCategory)
+                .string("Species", cellcycledata::getSpecies)
+                .string("Gene_ID", cellcycledata::getGene_ID)
+                .string("Related_Gene_Symbol", cellcycledata::getRelated_Gene_Symbol)
+                .string("UniProt_ID", cellcycledata::getUniProt_ID)
+                .string("Article_Title", cellcycledata::getArticle_Title)
+                .string("PMID", cellcycledata::getPMID)
+                .string("Year_of_Publication", cellcycledata::getYear_of_Publication)
+                .string("Method", cellcycledata::getMethod)
+                .string("stage", cellcycledata::getStage)
+                .index("Gene_Symbol")
+                .index("stage")
+                .index("Category")
+                .index("Species");
+        writer.write(target);
+        log.info("Reference snapshot written to {} in {} ms", target, System.currentTimeMillis() - start);
+        load();
+        this.millis = System.currentTimeMillis() - start;
+        return getInfo();
+    }
+
+    /**
+     * 重新映射快照文件，例如由其他节点导出后复制过来；serve开启时随后重建各表的缓存和内存索引
+     */
+    public synchronized SnapshotInfo load() throws IOException {
+        open();
+        if (this.serve) {
+            this.queryCacheService.reload(null);
+        }
+        return getInfo();
+    }
+
+    private void open() throws IOException {
+        long start = System.currentTimeMillis();
+        ReferenceSnapshot loaded = ReferenceSnapshot.open(snapshotPath(), this.verify);
+        ReferenceSnapshot previous = this.snapshot;
+        this.snapshot = loaded;
+        this.millis = System.currentTimeMillis() - start;
+        if (previous != null) {
+            previous.close();
+        }
+        log.info("Reference snapshot {} mapped: {} tables, {} bytes in {} ms", loaded.path(),
+                loaded.tableNames().size(), loaded.sizeBytes(), this.millis);
+    }
+
+    private Path snapshotPath() {
+        if (this.path == null || this.path.trim().isEmpty()) {
+            throw new IllegalStateException("cellcycledata.snapshot.path is not configured");
+        }
+        return Paths.get(this.path.trim());
+    }
+
+    /**
+     * 快照已加载且开启了serve时返回true，此时各Service改为调用本类的查询方法
+     */
+    public boolean isServing() {
+        return this.serve && this.snapshot != null;
+    }
+
+    public SnapshotInfo getInfo() {
+        SnapshotInfo info = new SnapshotInfo();
+        info.setPath(this.path);
+        ReferenceSnapshot current = this.snapshot;
+        info.setLoaded(current != null);
+        info.setServing(this.serve && current != null);
+        if (current != null) {
+            info.setPath(current.path().toString());
+            info.setFormatVersion(ReferenceSnapshot.FORMAT_VERSION);
+            info.setCreatedAt(current.createdAt());
+            info.setChecksum(String.format("%08x", current.checksum()));
+            info.setSizeBytes(current.sizeBytes());
+            info.setDictionarySize(current.dictionarySize());
+            Map<String, Integer> tables = new LinkedHashMap<>();
+            for (String name : current.tableNames()) {
+                tables.put(name, current.table(name).rowCount());
+            }
+            info.setTables(tables);
+            info.setMillis(this.millis);
+        }
+        return info;
+    }
+
+    public List<PPIData> selectAllPPIData() {
+        return all(QueryCacheService.PPI, SnapshotService::ppi);
+    }
+
+    public List<PPIData> selectPPIDataByMinScore(Double minScore) {
+        ReferenceSnapshot.Table table = table(QueryCacheService.PPI);
+        int score = table.column("combined_score");
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < table.rowCount(); row++) {
+            Double value = table.decimal(score, row);
+            if (value != null && value >= minScore) {
+                rows.add(row);
+            }
+        }
+        return read(table, SnapshotService::ppi, rows.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public List<PPIData> selectPPIDataByGene(String gene) {
+        return byKey(QueryCacheService.PPI, SnapshotService::ppi, Arrays.asList(gene), "node1", "node2");
+    }
+
+    public List<PPIData> selectPPIDataByGeneAndMinScore(String gene, Double minScore) {
+        List<PPIData> rows = selectPPIDataByGene(gene);
+        rows.removeIf(row -> row.getCombined_score() == null || row.getCombined_score() < minScore);
+        return rows;
+    }
+
+    public List<PPIData> selectPPIDataByGenes(Collection<String> genes) {
+        return byKey(QueryCacheService.PPI, SnapshotService::ppi, genes, "node1", "node2");
+    }
+
+    public void streamAllPPIData(ResultHandler<PPIData> handler) {
+        stream(QueryCacheService.PPI, SnapshotService::ppi, handler);
+    }
+
+    public List<TFData> selectAllTFData() {
+        return all(QueryCacheService.TF, SnapshotService::tf);
+    }
+
+    public List<TFData> selectTFDataByTF(String tf) {
+        return byKey(QueryCacheService.TF, SnapshotService::tf, Arrays.asList(tf), "tf");
+    }
+
+    public List<TFData> selectTFDataByTargetGene(String targetGene) {
+        return byKey(QueryCacheService.TF, SnapshotService::tf, Arrays.asList(targetGene), "target_gene");
+    }
+
+    public List<TFData> selectTFDataByGene(String gene) {
+        return byKey(QueryCacheService.TF, SnapshotService::tf, Arrays.asList(gene), "tf", "target_gene");
+    }
+
+    public List<TFData> selectTFDataByGenes(Collection<String> genes) {
+        return byKey(QueryCacheService.TF, SnapshotService::tf, genes, "tf", "target_gene");
+    }
+
+    public List<String> selectAllDistinctTFs() {
+        return distinct(QueryCacheService.TF, "tf");
+    }
+
+    public void streamAllTFData(ResultHandler<TFData> handler) {
+        stream(QueryCacheService.TF, SnapshotService::tf, handler);
+    }
+
+    public List<MirnaGene> selectAllMirnaGeneData() {
+        return all(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene);
+    }
+
+    public List<MirnaGene> selectMirnaGeneDataByMirna(String miRNA) {
+        return byKey(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene, Arrays.asList(miRNA), "miRNA");
+    }
+
+    public List<MirnaGene> selectMirnaGeneDataByGene(String gene) {
+        return byKey(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene, Arrays.asList(gene), "gene");
+    }
+
+    public List<MirnaGene> selectMirnaGeneDataByMirnaOrGene(String name) {
+        return byKey(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene, Arrays.asList(name), "miRNA", "gene");
+    }
+
+    public List<MirnaGene> selectMirnaGeneDataByGenes(Collection<String> genes) {
+        return byKey(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene, genes, "gene");
+    }
+
+    public List<String> selectAllDistinctMirnas() {
+        return distinct(QueryCacheService.MIRNA_GENE, "miRNA");
+    }
+
+    public List<String> selectAllDistinctGenes() {
+        return distinct(QueryCacheService.MIRNA_GENE, "gene");
+    }
+
+    public void streamAllMirnaGeneData(ResultHandler<MirnaGene> handler) {
+        stream(QueryCacheService.MIRNA_GENE, SnapshotService::mirnaGene, handler);
+    }
+
+    public List<SLData> selectAllSLData() {
+        return all(QueryCacheService.SL, SnapshotService::sl);
+    }
+
+    public List<SLData> selectSLDataByGene(String gene) {
+        return byKey(QueryCacheService.SL, SnapshotService::sl, Arrays.asList(gene), "geneA", "geneB");
+    }
+
+    public List<SLData> selectSLDataByGenes(Collection<String> genes) {
+        return byKey(QueryCacheService.SL, SnapshotService::sl, genes, "geneA", "geneB");
+    }
+
+    public void streamAllSLData(ResultHandler<SLData> handler) {
+        stream(QueryCacheService.SL, SnapshotService::sl, handler);
+    }
+
+    public List<SLNatureData> selectAllSLNatureData() {
+        return all(QueryCacheService.SL_NATURE, SnapshotService::slNature);
+    }
+
+    public List<SLNatureData> selectSLNatureDataByGene(String gene) {
+        return byKey(QueryCacheService.SL_NATURE, SnapshotService::slNature, Arrays.asList(gene), "Gene_A", "Gene_B");
+    }
+
+    public void streamAllSLNatureData(ResultHandler<SLNatureData> handler) {
+        stream(QueryCacheService.SL_NATURE, SnapshotService::slNature, handler);
+    }
+
+    public List<GeneTarget> selectAllGeneTargets() {
+        return all(QueryCacheService.GENE_TARGET, SnapshotService::geneTarget);
+    }
+
+    public List<GeneTarget> selectGeneTargetsByGene(String gene) {
+        return byKey(QueryCacheService.GENE_TARGET, SnapshotService::geneTarget, Arrays.asList(gene), "gene");
+    }
+
+    public List<GeneTarget> selectGeneTargetsByStage(String stage) {
+        return byKey(QueryCacheService.GENE_TARGET, SnapshotService::geneTarget, Arrays.asList(stage), "stage");
+    }
+
+    public List<String> selectAllDistinctDrugs() {
+        return distinct(QueryCacheService.GENE_TARGET, "drug");
+    }
+
+    public List<DrugInformation> selectAllDrugInformation() {
+        return all(QueryCacheService.DRUG_INFORMATION, SnapshotService::drugInformation);
+    }
+
+    /**
+     * 与数据库查询一致，同名药物有多条时取第一条，不存在时返回null
+     */
+    public DrugInformation selectDrugInformationByDrug(String drug) {
+        List<DrugInformation> rows = byKey(QueryCacheService.DRUG_INFORMATION, SnapshotService::drugInformation,
+                Arrays.asList(drug), "drug");
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public List<String> selectAllDrugNames() {
+        return distinct(QueryCacheService.DRUG_INFORMATION, "drug");
+    }
+
+    public List<cellcycledata> selectAllCellcycledata() {
+        return all(QueryCacheService.CELL_CYCLE_GENES, SnapshotService::cellCycleGene);
+    }
+
+    public List<cellcycledata> selectCellcycledataBy(String column, String value) {
+        return byKey(QueryCacheService.CELL_CYCLE_GENES, SnapshotService::cellCycleGene, Arrays.asList(value), column);
+    }
+
+    /**
+     * 与SELECT Gene_Symbol FROM cellcyclegenedata一致，按行顺序返回且不去重
+     */
+    public List<String> selectAllGeneSymbols() {
+        ReferenceSnapshot.Table table = table(QueryCacheService.CELL_CYCLE_GENES);
+        int symbol = table.column("Gene_Symbol");
+        List<String> symbols = new ArrayList<>(table.rowCount());
+        for (int row = 0; row < table.rowCount(); row++) {
+            symbols.add(table.string(symbol, row));
+        }
+        return symbols;
+    }
+
+    public void streamAllCellcycledata(ResultHandler<cellcycledata> handler) {
+        stream(QueryCacheService.CELL_CYCLE_GENES, SnapshotService::cellCycleGene, handler);
+    }
+
+    /**
+     * 与各Dao的selectPage相同的键集分页查询：按排序键排序，同一排序键的行按全部字段排序，NULL最小
+     * 字符串按字典编号(即String.compareTo)比较，与MySQL的排序规则不同，serve开关切换前后的游标不能混用
+     */
+    public List<Map<String, Object>> selectPage(KeysetPageQuery query) {
+        PageableTable pageable = query.getTable();
+        ReferenceSnapshot.Table table = table(pageable.getTableName());
+        int[] keys = columns(table, pageable, pageable.getKeyFields());
+        int[] order = pageOrder(table, pageable, keys);
+        int from;
+        int to;
+        if (query.getEqualKey() != null) {
+            to = bound(table, order, keys, query.getEqualKey(), true);
+            from = Math.min(to, bound(table, order, keys, query.getEqualKey(), false) + query.getOffset());
+        } else {
+            from = query.getAfterKey() == null ? 0 : bound(table, order, keys, query.getAfterKey(), true);
+            to = query.getBeforeKey() == null ? order.length : bound(table, order, keys, query.getBeforeKey(), false);
+        }
+        to = Math.max(from, Math.min(to, from + query.getLimit()));
+
+        List<String> fields = query.getFields();
+        int[] selected = columns(table, pageable, fields);
+        List<Map<String, Object>> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int f = 0; f < selected.length; f++) {
+                row.put(fields.get(f), table.value(selected[f], order[i]));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static int[] columns(ReferenceSnapshot.Table table, PageableTable pageable, List<String> fields) {
+        int[] columns = new int[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = table.column(pageable.columnOf(fields.get(i)));
+        }
+        return columns;
+    }
+
+    /**
+     * 表的分页顺序，第一次分页时排序一次
+     */
+    private int[] pageOrder(ReferenceSnapshot.Table table, PageableTable pageable, int[] keys) {
+        synchronized (this.pageOrders) {
+            int[] order = this.pageOrders.get(table);
+            if (order == null) {
+                int[] all = columns(table, pageable, new ArrayList<>(pageable.getColumns().keySet()));
+                Integer[] rows = new Integer[table.rowCount()];
+                for (int row = 0; row < rows.length; row++) {
+                    rows[row] = row;
+                }
+                Arrays.sort(rows, (a, b) -> {
+                    int cmp = compareRows(table, keys, a, b);
+                    return cmp != 0 ? cmp : compareRows(table, all, a, b);
+                });
+                order = Arrays.stream(rows).mapToInt(Integer::intValue).toArray();
+                this.pageOrders.put(table, order);
+            }
+            return order;
+        }
+    }
+
+    private static int compareRows(ReferenceSnapshot.Table table, int[] columns, int a, int b) {
+        for (int column : columns) {
+            int cmp = table.compare(column, a, b);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 分页顺序中第一个排序键大于key(upper为true)或不小于key(upper为false)的位置
+     */
+    private static int bound(ReferenceSnapshot.Table table, int[] order, int[] keys, List<String> key, boolean upper) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = 0;
+            for (int i = 0; i < keys.length && cmp == 0; i++) {
+                cmp = table.compare(keys[i], order[mid], key.get(i));
+            }
+            if (cmp < 0 || (upper && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 按已解析的列号把一行解码为实体
+     */
+    private interface RowReader<T> {
+        T read(int row);
+    }
+
+    private ReferenceSnapshot.Table table(String name) {
+        ReferenceSnapshot current = this.snapshot;
+        if (current == null) {
+            throw new IllegalStateException("No reference snapshot is loaded");
+        }
+        ReferenceSnapshot.Table table = current.table(name);
+        if (table == null) {
+            throw new IllegalStateException("Reference snapshot " + current.path() + " has no table " + name);
+        }
+        return table;
+    }
+
+    private <T> List<T> all(String name, Function<ReferenceSnapshot.Table, RowReader<T>> reader) {
+        ReferenceSnapshot.Table table = table(name);
+        RowReader<T> rows = reader.apply(table);
+        List<T> result = new ArrayList<>(table.rowCount());
+        for (int row = 0; row < table.rowCount(); row++) {
+            result.add(rows.read(row));
+        }
+        return result;
+    }
+
+    /**
+     * 任一索引列的规范化取值等于任一key的行，按行号排序去重
+     */
+    private <T> List<T> byKey(String name, Function<ReferenceSnapshot.Table, RowReader<T>> reader,
+                              Collection<String> keys, String... columns) {
+        ReferenceSnapshot.Table table = table(name);
+        TreeSet<Integer> matched = new TreeSet<>();
+        for (String key : keys) {
+            for (String column : columns) {
+                for (int row : table.rows(column, key)) {
+                    matched.add(row);
+                }
+            }
+        }
+        return read(table, reader, matched.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static <T> List<T> read(ReferenceSnapshot.Table table, Function<ReferenceSnapshot.Table, RowReader<T>> reader,
+                                    int[] rows) {
+        RowReader<T> decoder = reader.apply(table);
+        List<T> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(decoder.read(row));
+        }
+        return result;
+    }
+
+    private List<String> distinct(String name, String column) {
+        ReferenceSnapshot.Table table = table(name);
+        return table.distinct(table.column(column));
+    }
+
+    /**
+     * 逐行解码并回调，与MyBatis的流式查询一样不在内存中保留整张表
+     */
+    private <T> void stream(String name, Function<ReferenceSnapshot.Table, RowReader<T>> reader,
+                            ResultHandler<T> handler) {
+        ReferenceSnapshot.Table table = table(name);
+        RowReader<T> rows = reader.apply(table);
+        RowContext<T> context = new RowContext<>();
+        for (int row = 0; row < table.rowCount() && !context.stopped; row++) {
+            context.current = rows.read(row);
+            context.count++;
+            handler.handleResult(context);
+        }
+    }
+
+    private static final class RowContext<T> implements ResultContext<T> {
+        private T current;
+        private int count;
+        private boolean stopped;
+
+        @Override
+        public T getResultObject() {
+            return current;
+        }
+
+        @Override
+        public int getResultCount() {
+            return count;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public void stop() {
+            this.stopped = true;
+        }
+    }
+
+    private static RowReader<PPIData> ppi(ReferenceSnapshot.Table t) {
+        int node1 = t.column("node1");
+        int node2 = t.column("node2");
+        int node1StringId = t.column("node1_string_id");
+        int node2StringId = t.column("node2_string_id");
+        int neighborhood = t.column("neighborhood_on_chromosome");
+        int geneFusion = t.column("gene_fusion");
+        int cooccurrence = t.column("phylogenetic_cooccurrence");
+        int homology = t.column("homology");
+        int coexpression = t.column("coexpression");
+        int experimental = t.column("experimentally_determined_interaction");
+        int database = t.column("database_annotated");
+        int textmining = t.column("automated_textmining");
+        int combined = t.column("combined_score");
+        return row -> {
+            PPIData data = new PPIData();
+            data.setNode1(t.string(node1, row));
+            data.setNode2(t.string(node2, row));
+            data.setNode1_string_id(t.string(node1StringId, row));
+            data.setNode2_string_id(t.string(node2StringId, row));
+            data.setNeighborhood_on_chromosome(t.integer(neighborhood, row));
+            data.setGene_fusion(t.decimal(geneFusion, row));
+            data.setPhylogenetic_cooccurrence(t.decimal(cooccurrence, row));
+            data.setHomology(t.decimal(homology, row));
+            data.setCoexpression(t.decimal(coexpression, row));
+            data.setExperimentally_determined_interaction(t.decimal(experimental, row));
+            data.setDatabase_annotated(t.decimal(database, row));
+            data.setAutomated_textmining(t.decimal(textmining, row));
+            data.setCombined_score(t.decimal(combined, row));
+            return data;
+        };
+    }
+
+    private static RowReader<TFData> tf(ReferenceSnapshot.Table t) {
+        int tf = t.column("tf");
+        int targetGene = t.column("target_gene");
+        int interaction = t.column("interaction");
+        return row -> {
+            TFData data = new TFData();
+            data.setTf(t.string(tf, row));
+            data.setTarget_gene(t.string(targetGene, row));
+            data.setInteraction(t.string(interaction, row));
+            return data;
+        };
+    }
+
+    private static RowReader<MirnaGene> mirnaGene(ReferenceSnapshot.Table t) {
+        int miRNA = t.column("miRNA");
+        int gene = t.column("gene");
+        return row -> {
+            MirnaGene data = new MirnaGene();
+            data.setMiRNA(t.string(miRNA, row));
+            data.setGene(t.string(gene, row));
+            return data;
+        };
+    }
+
+    private static RowReader<SLData> sl(ReferenceSnapshot.Table t) {
+        int geneA = t.column("geneA");
+        int geneB = t.column("geneB");
+        return row -> {
+            SLData data = new SLData();
+            data.setGeneA(t.string(geneA, row));
+            data.setGeneB(t.string(geneB, row));
+            return data;
+        };
+    }
+
+    private static RowReader<SLNatureData> slNature(ReferenceSnapshot.Table t) {
+        int geneA = t.column("Gene_A");
+        int stageGeneA = t.column("stage_Gene_A");
+        int geneB = t.column("Gene_B");
+        int stageGeneB = t.column("stage_Gene_B");
+        int gemini = t.column("GEMINI_sensitive");
+        int cellLine = t.column("Cell_line");
+        return row -> {
+            SLNatureData data = new SLNatureData();
+            data.setGeneA(t.string(geneA, row));
+            data.setStageGeneA(t.string(stageGeneA, row));
+            data.setGeneB(t.string(geneB, row));
+            data.setStageGeneB(t.string(stageGeneB, row));
+            data.setGeminiSensitive(t.string(gemini, row));
+            data.setCellLine(t.string(cellLine, row));
+            return data;
+        };
+    }
+
+    private static RowReader<GeneTarget> geneTarget(ReferenceSnapshot.Table t) {
+        int gene = t.column("gene");
+        int stage = t.column("stage");
+        int drug = t.column("drug");
+        int cancer = t.column("cancer");
+        int pmid = t.column("pmid");
+        return row -> {
+            GeneTarget data = new GeneTarget();
+            data.setGene(t.string(gene, row));
+            data.setStage(t.string(stage, row));
+            data.setDrug(t.string(drug, row));
+            data.setCancer(t.string(cancer, row));
+            data.setPmid(t.string(pmid, row));
+            return data;
+        };
+    }
+
+    private static RowReader<DrugInformation> drugInformation(ReferenceSnapshot.Table t) {
+        int drug = t.column("drug");
+        int information = t.column("information");
+        return row -> {
+            DrugInformation data = new DrugInformation();
+            data.setDrug(t.string(drug, row));
+            data.setInformation(t.string(information, row));
+            return data;
+        };
+    }
+
+    private static RowReader<cellcycledata> cellCycleGene(ReferenceSnapshot.Table t) {
+        int symbol = t.column("Gene_Symbol");
+        int description = t.column("Description");
+        int category = t.column("Category");
+        int species = t.column("Species");
+        int geneId = t.column("Gene_ID");
+        int related = t.column("Related_Gene_Symbol");
+        int uniProt = t.column("UniProt_ID");
+        int title = t.column("Article_Title");
+        int pmid = t.column("PMID");
+        int year = t.column("Year_of_Publication");
+        int method = t.column("Method");
+        int stage = t.column("stage");
+        return row -> {
+            cellcycledata data = new cellcycledata();
+            data.setGene_Symbol(t.string(symbol, row));
+            data.setDescription(t.string(description, row));
+            data.setCategory(t.string(category, row));
+            data.setSpecies(t.string(species, row));
+            data.setGene_ID(t.string(geneId, row));
+            data.setRelated_Gene_Symbol(t.string(related, row));
+            data.setUniProt_ID(t.string(uniProt, row));
+            data.setArticle_Title(t.string(title, row));
+            data.setPMID(t.string(pmid, row));
+            data.setYear_of_Publication(t.string(year, row));
+            data.setMethod(t.string(method, row));
+            data.setStage(t.string(stage, row));
+            return data;
+        };
+    }
+}
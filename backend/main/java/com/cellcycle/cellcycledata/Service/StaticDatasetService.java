@@ -0,0 +1,348 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.GeneNames;
+import com.cellcycle.cellcycledata.Entity.GeneInteractionCount;
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 静态TSV数据集服务(KEGG通路、癌症标志、miRNA互作数量)
+ * 启动时解析每个文件，得到不可变的类型化记录、基因索引以及预先序列化好的JSON和ETag；
+ * 访问时按固定间隔检查文件修改时间，文件变化后自动重新加载
+ */
+@Service("staticDatasetService")
+public class StaticDatasetService {
+    private static final Logger log = LoggerFactory.getLogger(StaticDatasetService.class);
+
+    private static final String KEGG_PATHWAY_FILE = "Browser/KEGG_pathway.txt";
+    private static final String HALLMARK_CELL_FILE = "home/hallmark_cell.txt";
+    private static final String MIRNA_WORDCLOUD_FILE = "network/miRNA_gene_interaction_number.txt";
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 外部数据目录，为空时从classpath的static目录读取
+     */
+    @Value("${cellcycledata.static.dir:}")
+    private String externalDir;
+
+    /**
+     * 两次检查文件修改时间的最小间隔(毫秒)
+     */
+    @Value("${cellcycledata.static.reload-check-ms:5000}")
+    private long reloadCheckMillis;
+
+    private final Dataset<KeggData> kegg = new Dataset<>(KEGG_PATHWAY_FILE, StaticDatasetService::parseKegg, data -> data.rows);
+    private final Dataset<HallmarkData> hallmark = new Dataset<>(HALLMARK_CELL_FILE, StaticDatasetService::parseHallmark, data -> data.genes);
+    private final Dataset<List<GeneInteractionCount>> mirnaWordcloud = new Dataset<>(MIRNA_WORDCLOUD_FILE, StaticDatasetService::parseWordcloud, data -> data);
+
+    /**
+     * 启动时解析全部数据集，文件缺失或无法解析时中止启动
+     */
+    @PostConstruct
+    public void init() {
+        this.kegg.current();
+        this.hallmark.current();
+        this.mirnaWordcloud.current();
+        log.info("Loaded static datasets: {} KEGG pathways, {} hallmark genes, {} miRNA interaction counts",
+                getKeggPathways().size(), getHallmarkGenes().size(), getMirnaInteractionCounts().size());
+    }
+
+    /**
+     * 预先序列化的JSON及其ETag
+     */
+    public static final class JsonSnapshot {
+        private final byte[] json;
+        private final String etag;
+
+        private JsonSnapshot(byte[] json) {
+            this.json = json;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    public JsonSnapshot getKeggPathwayJson() {
+        return this.kegg.current().json;
+    }
+
+    public JsonSnapshot getHallmarkCellJson() {
+        return this.hallmark.current().json;
+    }
+
+    public JsonSnapshot getMirnaGeneWordcloudJson() {
+        return this.mirnaWordcloud.current().json;
+    }
+
+    /**
+     * 全部KEGG通路
+     */
+    public List<KeggPathway> getKeggPathways() {
+        return this.kegg.current().data.pathways;
+    }
+
+    /**
+     * 包含该基因的KEGG通路
+     */
+    public List<KeggPathway> getPathwaysOfGene(String gene) {
+        List<KeggPathway> pathways = this.kegg.current().data.byGene.get(GeneNames.normalize(gene));
+        return pathways == null ? Collections.<KeggPathway>emptyList() : pathways;
+    }
+
+    /**
+     * 全部基因的癌症标志
+     */
+    public List<HallmarkGene> getHallmarkGenes() {
+        return this.hallmark.current().data.genes;
+    }
+
+    /**
+     * 该基因对应的癌症标志
+     */
+    public List<String> getHallmarksOfGene(String gene) {
+        HallmarkGene hallmarkGene = this.hallmark.current().data.byGene.get(GeneNames.normalize(gene));
+        return hallmarkGene == null ? Collections.<String>emptyList() : hallmarkGene.getHallmarks();
+    }
+
+    /**
+     * 各基因的miRNA互作数量
+     */
+    public List<GeneInteractionCount> getMirnaInteractionCounts() {
+        return this.mirnaWordcloud.current().data;
+    }
+
+    private org.springframework.core.io.Resource resolve(String file) {
+        if (this.externalDir != null && !this.externalDir.trim().isEmpty()) {
+            return new FileSystemResource(this.externalDir.trim() + "/" + file);
+        }
+        return new ClassPathResource("static/" + file);
+    }
+
+    /**
+     * 一个TSV文件及其当前已解析的快照
+     */
+    private final class Dataset<T> {
+        private final String file;
+        private final Function<List<String[]>, T> parser;
+        private final Function<T, Object> jsonView;
+        private volatile Snapshot<T> snapshot;
+        private volatile long lastChecked;
+
+        Dataset(String file, Function<List<String[]>, T> parser, Function<T, Object> jsonView) {
+            this.file = file;
+            this.parser = parser;
+            this.jsonView = jsonView;
+        }
+
+        Snapshot<T> current() {
+            Snapshot<T> loaded = this.snapshot;
+            if (loaded != null && System.currentTimeMillis() - this.lastChecked < reloadCheckMillis) {
+                return loaded;
+            }
+            synchronized (this) {
+                loaded = this.snapshot;
+                long now = System.currentTimeMillis();
+                if (loaded != null && now - this.lastChecked < reloadCheckMillis) {
+                    return loaded;
+                }
+                this.lastChecked = now;
+                org.springframework.core.io.Resource resource = resolve(this.file);
+                try {
+                    long lastModified = resource.lastModified();
+                    if (loaded == null || lastModified != loaded.lastModified) {
+                        loaded = load(resource, lastModified);
+                        if (this.snapshot != null) {
+                            log.info("Reloaded {} after it changed on disk", this.file);
+                        }
+                        this.snapshot = loaded;
+                    }
+                } catch (IOException e) {
+                    if (loaded == null) {
+                        throw new UncheckedIOException(e);
+                    }
+                    log.warn("Failed to reload {}, keeping previous version: {}", this.file, e.getMessage());
+                }
+                return loaded;
+            }
+        }
+
+        private Snapshot<T> load(org.springframework.core.io.Resource resource, long lastModified) throws IOException {
+            List<String[]> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line.split("\t"));
+                }
+            }
+            T data = this.parser.apply(lines);
+            byte[] json = objectMapper.writeValueAsBytes(this.jsonView.apply(data));
+            return new Snapshot<>(data, new JsonSnapshot(json), lastModified);
+        }
+    }
+
+    private static final class Snapshot<T> {
+        private final T data;
+        private final JsonSnapshot json;
+        private final long lastModified;
+
+        Snapshot(T data, JsonSnapshot json, long lastModified) {
+            this.data = data;
+            this.json = json;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class KeggData {
+        /** 与文件表头一一对应的原始行，接口按原样返回 */
+        private final List<Map<String, String>> rows;
+        private final List<KeggPathway> pathways;
+        private final Map<String, List<KeggPathway>> byGene;
+
+        KeggData(List<Map<String, String>> rows, List<KeggPathway> pathways, Map<String, List<KeggPathway>> byGene) {
+            this.rows = rows;
+            this.pathways = pathways;
+            this.byGene = byGene;
+        }
+    }
+
+    private static final class HallmarkData {
+        private final List<HallmarkGene> genes;
+        private final Map<String, HallmarkGene> byGene;
+
+        HallmarkData(List<HallmarkGene> genes, Map<String, HallmarkGene> byGene) {
+            this.genes = genes;
+            this.byGene = byGene;
+        }
+    }
+
+    private static KeggData parseKegg(List<String[]> lines) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        List<KeggPathway> pathways = new ArrayList<>();
+        Map<String, List<KeggPathway>> byGene = new LinkedHashMap<>();
+        String[] headers = lines.isEmpty() ? new String[0] : lines.get(0);
+        for (int r = 1; r < lines.size(); r++) {
+            String[] values = lines.get(r);
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < headers.length && i < values.length; i++) {
+                row.put(headers[i], values[i]);
+            }
+            rows.add(Collections.unmodifiableMap(row));
+
+            List<String> genes = new ArrayList<>();
+            String geneList = row.get("Genes");
+            if (geneList != null) {
+                for (String gene : geneList.split(",")) {
+                    if (!gene.trim().isEmpty()) {
+                        genes.add(gene.trim());
+                    }
+                }
+            }
+            KeggPathway pathway = new KeggPathway(
+                    row.get("Category"),
+                    row.get("Term"),
+                    parseInt(row.get("Count")),
+                    parseDouble(row.get("%")),
+                    parseDouble(row.get("PValue")),
+                    Collections.unmodifiableList(genes),
+                    parseInt(row.get("List Total")),
+                    parseInt(row.get("Pop Hits")),
+                    parseInt(row.get("Pop Total")),
+                    parseDouble(row.get("Fold Enrichment")),
+                    parseDouble(row.get("Bonferroni")),
+                    parseDouble(row.get("Benjamini")),
+                    parseDouble(row.get("FDR")));
+            pathways.add(pathway);
+            for (String gene : genes) {
+                byGene.computeIfAbsent(GeneNames.normalize(gene), key -> new ArrayList<>()).add(pathway);
+            }
+        }
+        for (Map.Entry<String, List<KeggPathway>> entry : byGene.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return new KeggData(Collections.unmodifiableList(rows), Collections.unmodifiableList(pathways),
+                Collections.unmodifiableMap(byGene));
+    }
+
+    private static HallmarkData parseHallmark(List<String[]> lines) {
+        // 按基因首次出现的顺序汇总，基因名保留首次出现时的写法
+        Map<String, String> names = new LinkedHashMap<>();
+        Map<String, List<String>> hallmarks = new LinkedHashMap<>();
+        for (int r = 1; r < lines.size(); r++) {
+            String[] values = lines.get(r);
+            if (values.length < 2) {
+                continue;
+            }
+            String key = GeneNames.normalize(values[0]);
+            names.putIfAbsent(key, values[0]);
+            hallmarks.computeIfAbsent(key, k -> new ArrayList<>()).add(values[1]);
+        }
+        Map<String, HallmarkGene> byGene = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : hallmarks.entrySet()) {
+            List<String> geneHallmarks = entry.getValue();
+            byGene.put(entry.getKey(), new HallmarkGene(names.get(entry.getKey()),
+                    Collections.unmodifiableList(geneHallmarks), geneHallmarks.size()));
+        }
+        return new HallmarkData(Collections.unmodifiableList(new ArrayList<>(byGene.values())),
+                Collections.unmodifiableMap(byGene));
+    }
+
+    private static List<GeneInteractionCount> parseWordcloud(List<String[]> lines) {
+        List<GeneInteractionCount> counts = new ArrayList<>();
+        for (int r = 1; r < lines.size(); r++) {
+            String[] values = lines.get(r);
+            if (values.length < 2) {
+                continue;
+            }
+            Integer value = parseInt(values[1]);
+            counts.add(new GeneInteractionCount(values[0], value == null ? 0 : value));
+        }
+        return Collections.unmodifiableList(counts);
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return value == null ? null : Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
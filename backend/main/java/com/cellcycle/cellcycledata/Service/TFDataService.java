@@ -1,64 +1,177 @@
 package com.cellcycle.cellcycledata.Service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.TFGraph;
+import com.cellcycle.cellcycledata.Entity.TFCascade;
+import com.cellcycle.cellcycledata.Entity.TFChain;
+import com.cellcycle.cellcycledata.Entity.TFComponent;
 import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.TFLoops;
+import com.cellcycle.cellcycledata.Entity.PageResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 转录因子-基因互作数据服务类
  */
 @Service("tfDataService")
 public class TFDataService {
+    private static final Logger log = LoggerFactory.getLogger(TFDataService.class);
+
     @Resource
     private TFDataDao tfDataDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
+
+    /**
+     * 启动时加载的调控网络，级联、调控链和环路查询都基于它
+     */
+    private volatile TFGraph graph;
+
+    @PostConstruct
+    public void init() {
+        reloadGraph();
+        this.queryCacheService.registerReloader(QueryCacheService.TF, this::reloadGraph);
+    }
+
+    /**
+     * 从tf表重新加载调控网络，加载失败时保留原有的图
+     */
+    public synchronized void reloadGraph() {
+        this.queryCacheService.invalidate(QueryCacheService.TF);
+        try {
+            long start = System.currentTimeMillis();
+            TFGraph loaded = TFGraph.build(selectAllTFData());
+            this.graph = loaded;
+            log.info("TF network loaded: {} genes, {} regulations in {} ms",
+                    loaded.nodeCount(), loaded.edgeCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("TF network load failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 整张tf表，快照提供服务时读取快照
+     */
+    private List<TFData> selectAllTFData() {
+        return this.snapshotService.isServing() ? this.snapshotService.selectAllTFData() : this.tfDataDao.selectAllTFData();
+    }
     
     /**
      * 获取所有转录因子-基因互作数据
      */
     public List<TFData> getAllTFData() {
-        // 调试：查看表结构
-        try {
-            System.out.println("=== TF Table Structure Debug ===");
-            List<Map<String, Object>> columns = this.tfDataDao.showColumns();
-            for (Map<String, Object> column : columns) {
-                System.out.println("Column: " + column);
-            }
-            
-            System.out.println("=== TF Raw Data Debug ===");
-            List<Map<String, Object>> rawData = this.tfDataDao.selectRawData();
-            for (Map<String, Object> row : rawData) {
-                System.out.println("Raw row: " + row);
-            }
-            System.out.println("=== End TF Raw Debug ===");
-        } catch (Exception e) {
-            System.out.println("TF Debug query failed: " + e.getMessage());
-        }
-        
-        return this.tfDataDao.selectAllTFData();
+        return this.queryCacheService.get(QueryCacheService.TF, "getAllTFData", this::selectAllTFData);
     }
     
     /**
      * 获取与特定转录因子相关的互作数据
      */
     public List<TFData> getTFDataByTF(String tf) {
-        return this.tfDataDao.selectTFDataByTF(tf);
+        return this.queryCacheService.get(QueryCacheService.TF, "getTFDataByTF",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectTFDataByTF(tf)
+                        : this.tfDataDao.selectTFDataByTF(tf), tf);
     }
     
     /**
      * 获取与特定目标基因相关的互作数据
      */
     public List<TFData> getTFDataByTargetGene(String targetGene) {
-        return this.tfDataDao.selectTFDataByTargetGene(targetGene);
+        return this.queryCacheService.get(QueryCacheService.TF, "getTFDataByTargetGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectTFDataByTargetGene(targetGene)
+                        : this.tfDataDao.selectTFDataByTargetGene(targetGene), targetGene);
     }
     
     /**
      * 获取与特定基因相关的互作数据（作为转录因子或目标基因）
      */
     public List<TFData> getTFDataByGene(String gene) {
-        return this.tfDataDao.selectTFDataByGene(gene);
+        return this.queryCacheService.get(QueryCacheService.TF, "getTFDataByGene",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectTFDataByGene(gene)
+                        : this.tfDataDao.selectTFDataByGene(gene), gene);
+    }
+    
+    /**
+     * 批量获取一组基因作为转录因子或靶基因的调控数据，按基因分组
+     */
+    public Map<String, List<TFData>> getTFDataByGenes(Collection<String> genes) {
+        Function<List<String>, List<TFData>> query = this.snapshotService.isServing()
+                ? this.snapshotService::selectTFDataByGenes : this.tfDataDao::selectTFDataByGenes;
+        return GeneBatches.queryByGene(GeneBatches.distinctGenes(genes), query,
+                row -> new String[]{row.getTf(), row.getTarget_gene()});
+    }
+    
+    /**
+     * 流式输出所有转录因子-基因互作数据，不在内存中保留整张表
+     */
+    public void streamAllTFData(ResultHandler<TFData> handler) {
+        if (this.snapshotService.isServing()) {
+            this.snapshotService.streamAllTFData(handler);
+        } else {
+            this.tfDataDao.streamAllTFData(handler);
+        }
+    }
+    
+    /**
+     * 键集分页读取转录因子-基因互作数据
+     */
+    public PageResult selectPage(String cursor, Integer limit, String fields) {
+        return KeysetPages.page(PageableTable.TF, cursor, limit, fields,
+                this.snapshotService.isServing() ? this.snapshotService::selectPage : this.tfDataDao::selectPage);
+    }
+    
+    /**
+     * 获取所有唯一的转录因子名称
+     */
+    public List<String> getAllDistinctTFs() {
+        return this.queryCacheService.get(QueryCacheService.TF, "getAllDistinctTFs",
+                () -> this.snapshotService.isServing() ? this.snapshotService.selectAllDistinctTFs()
+                        : this.tfDataDao.selectAllDistinctTFs());
+    }
+    
+    /**
+     * 在depth步内可达的下游靶基因或上游调控因子，调控网络未加载时返回null
+     */
+    public TFCascade getCascade(String gene, boolean downstream, int depth, int maxNodes) {
+        TFGraph current = this.graph;
+        return current == null ? null : current.cascade(gene, downstream, depth, maxNodes);
+    }
+    
+    /**
+     * 两个基因之间的最短调控链，调控网络未加载时返回null
+     */
+    public TFChain getShortestChain(String source, String target, int maxDepth) {
+        TFGraph current = this.graph;
+        return current == null ? null : current.shortestChain(source, target, maxDepth);
+    }
+    
+    /**
+     * 包含某个基因的前馈环和反馈环，调控网络未加载时返回null
+     */
+    public TFLoops getLoops(String gene, int maxLength, int limit) {
+        TFGraph current = this.graph;
+        return current == null ? null : current.loops(gene, maxLength, limit);
+    }
+    
+    /**
+     * 调控网络的强连通分量，调控网络未加载时返回null
+     */
+    public List<TFComponent> getComponents(int minSize) {
+        TFGraph current = this.graph;
+        return current == null ? null : current.components(minSize);
     }
 }
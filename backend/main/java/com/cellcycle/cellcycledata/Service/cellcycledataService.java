@@ -2,6 +2,7 @@ package com.cellcycle.cellcycledata.Service;
 
 import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
+import org.apache.ibatis.session.ResultHandler;
 import com.cellcycle.cellcycledata.Dao.cellcycledataDao;
 import com.cellcycle.cellcycledata.Entity.cellcycledata;
 
@@ -12,9 +13,27 @@ import java.util.List;
 public class cellcycledataService  {
     @Resource
     private cellcycledataDao cellcycledataDao;
+
+    @Resource
+    private QueryCacheService queryCacheService;
+
+    @Resource
+    private SnapshotService snapshotService;
   
   
-    public List<cellcycledata> selectAllCellcycledata(){return this.cellcycledataDao.selectAllCellcycledata();}
+    public List<cellcycledata> selectAllCellcycledata(){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectAllCellcycledata", () -> this.snapshotService.isServing() ? this.snapshotService.selectAllCellcycledata() : this.cellcycledataDao.selectAllCellcycledata());}
+
+    public void streamAllCellcycledata(ResultHandler<cellcycledata> handler){if (this.snapshotService.isServing()) this.snapshotService.streamAllCellcycledata(handler); else this.cellcycledataDao.streamAllCellcycledata(handler);}
+
+    public List<cellcycledata> selectByGeneSymbol(String geneSymbol){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectByGeneSymbol", () -> this.snapshotService.isServing() ? this.snapshotService.selectCellcycledataBy("Gene_Symbol", geneSymbol) : this.cellcycledataDao.selectByGeneSymbol(geneSymbol), geneSymbol);}
+
+    public List<cellcycledata> selectByStage(String stage){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectByStage", () -> this.snapshotService.isServing() ? this.snapshotService.selectCellcycledataBy("stage", stage) : this.cellcycledataDao.selectByStage(stage), stage);}
+
+    public List<cellcycledata> selectByCategory(String category){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectByCategory", () -> this.snapshotService.isServing() ? this.snapshotService.selectCellcycledataBy("Category", category) : this.cellcycledataDao.selectByCategory(category), category);}
+
+    public List<cellcycledata> selectBySpecies(String species){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectBySpecies", () -> this.snapshotService.isServing() ? this.snapshotService.selectCellcycledataBy("Species", species) : this.cellcycledataDao.selectBySpecies(species), species);}
+
+    public List<String> selectAllGeneSymbols(){return this.queryCacheService.get(QueryCacheService.CELL_CYCLE_GENES, "selectAllGeneSymbols", () -> this.snapshotService.isServing() ? this.snapshotService.selectAllGeneSymbols() : this.cellcycledataDao.selectAllGeneSymbols());}
   
   
   
@@ -0,0 +1,21 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 注册管理接口的令牌校验拦截器
+ */
+@Configuration
+public class AdminConfig implements WebMvcConfigurer {
+
+    @Value("${cellcycledata.admin.token:}")
+    private String token;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(this.token));
+    }
+}
@@ -0,0 +1,16 @@
+package com.cellcycle.cellcycledata.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记需要管理员令牌才能调用的接口(重新加载数据、清空统计等)，由AdminTokenInterceptor校验
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdminEndpoint {
+}
@@ -0,0 +1,49 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 校验@AdminEndpoint接口的X-Admin-Token请求头
+ * 未配置令牌时管理接口一律返回403，令牌缺失或错误时返回401
+ */
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(String token) {
+        this.token = token == null || token.trim().isEmpty() ? null : token.trim().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(AdminEndpoint.class)) {
+            return true;
+        }
+        if (this.token == null) {
+            reject(response, 403, "Admin endpoints are disabled, set cellcycledata.admin.token to enable them");
+            return false;
+        }
+        String supplied = request.getHeader(HEADER);
+        // 定长比较，响应时间不泄露令牌前缀
+        if (supplied == null || !MessageDigest.isEqual(this.token, supplied.trim().getBytes(StandardCharsets.UTF_8))) {
+            reject(response, 401, "Missing or invalid " + HEADER + " header");
+            return false;
+        }
+        return true;
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
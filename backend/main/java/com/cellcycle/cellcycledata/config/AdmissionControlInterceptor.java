@@ -0,0 +1,70 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Service.AdmissionService;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 按路由模板做并发准入，名额不足时直接返回503和Retry-After
+ * 标有@DatabaseRoute的接口另外占用一个全局名额：开始序列化响应体时查询已经结束，由releaseGlobal提前归还；
+ * 异步(流式)请求边查边写，在第一次分派时占用名额，直到最后一次分派结束才归还
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String ROUTE_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".route";
+    /** 持有全局名额时保存AdmissionService，归还后移除 */
+    private static final String GLOBAL_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".global";
+
+    private final AdmissionService admissionService;
+
+    public AdmissionControlInterceptor(AdmissionService admissionService) {
+        this.admissionService = admissionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getAttribute(ROUTE_ATTRIBUTE) != null) {
+            return true;
+        }
+        String route = RequestMetricsInterceptor.routeOf(request);
+        boolean global = handler instanceof HandlerMethod
+                && ((HandlerMethod) handler).hasMethodAnnotation(DatabaseRoute.class);
+        if (!this.admissionService.enter(route, global)) {
+            response.setStatus(503);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many concurrent requests for " + route + ", please retry later");
+            return false;
+        }
+        request.setAttribute(ROUTE_ATTRIBUTE, route);
+        if (global) {
+            request.setAttribute(GLOBAL_ATTRIBUTE, this.admissionService);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object route = request.getAttribute(ROUTE_ATTRIBUTE);
+        if (route != null) {
+            releaseGlobal(request);
+            request.removeAttribute(ROUTE_ATTRIBUTE);
+            this.admissionService.exit(route.toString());
+        }
+    }
+
+    /**
+     * 归还请求持有的全局名额，没有持有时不做任何事；路由名额仍保留到请求结束
+     */
+    public static void releaseGlobal(HttpServletRequest request) {
+        Object service = request.getAttribute(GLOBAL_ATTRIBUTE);
+        if (service != null) {
+            request.removeAttribute(GLOBAL_ATTRIBUTE);
+            ((AdmissionService) service).exitGlobal();
+        }
+    }
+}
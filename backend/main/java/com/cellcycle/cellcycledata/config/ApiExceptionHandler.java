@@ -0,0 +1,20 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 统一处理请求参数错误，返回400及错误说明；只处理InvalidQueryException，
+ * 其他层抛出的IllegalArgumentException等属于服务器错误，不把内部消息返回给调用方
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQuery(InvalidQueryException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
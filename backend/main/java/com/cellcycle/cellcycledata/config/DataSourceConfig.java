@@ -0,0 +1,100 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 数据源配置：按spring.datasource.*创建主库连接池(与Spring Boot默认行为相同)，
+ * 配置了只读副本时再用ReplicaRoutingDataSource包装，副本沿用主库的连接池类型和驱动
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    /** 无法取得连接池配置时假定的最大连接数(Druid的默认值) */
+    private static final int DEFAULT_MAX_ACTIVE = 8;
+
+    /**
+     * 逗号分隔的只读副本JDBC地址，为空时不做读写分离
+     */
+    @Value("${cellcycledata.replicas.urls:}")
+    private String replicaUrls;
+
+    /**
+     * 副本的用户名和密码，为空时与主库相同
+     */
+    @Value("${cellcycledata.replicas.username:}")
+    private String replicaUsername;
+
+    @Value("${cellcycledata.replicas.password:}")
+    private String replicaPassword;
+
+    @Value("${cellcycledata.replicas.health-check-ms:5000}")
+    private long healthCheckMillis;
+
+    @Value("${cellcycledata.replicas.max-lag-seconds:30}")
+    private double maxLagSeconds;
+
+    @Value("${cellcycledata.replicas.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${cellcycledata.replicas.open-ms:30000}")
+    private long openMillis;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        List<String> urls = new ArrayList<>();
+        for (String url : this.replicaUrls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        if (urls.isEmpty()) {
+            return primary;
+        }
+        String username = this.replicaUsername.isEmpty() ? properties.getUsername() : this.replicaUsername;
+        String password = this.replicaPassword.isEmpty() ? properties.getPassword() : this.replicaPassword;
+        List<String> names = new ArrayList<>();
+        List<String> displayed = new ArrayList<>();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            names.add("replica-" + (i + 1));
+            // 日志和指标中只显示地址部分，连接参数里可能带有账号信息
+            int query = urls.get(i).indexOf('?');
+            displayed.add(query < 0 ? urls.get(i) : urls.get(i).substring(0, query));
+            replicas.add(properties.initializeDataSourceBuilder()
+                    .url(urls.get(i)).username(username).password(password).build());
+        }
+        log.info("Routing read-only statements across {} replicas: {}", urls.size(), displayed);
+        return new ReplicaRoutingDataSource(primary, names, displayed, replicas, this.failureThreshold, this.openMillis,
+                this.maxLagSeconds, this.healthCheckMillis);
+    }
+
+    /**
+     * 主库连接池的最大连接数，供需要限制并发数据库访问的地方使用；读写分离时同样取主库
+     */
+    public static int maxActive(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(DruidDataSource.class)) {
+                return dataSource.unwrap(DruidDataSource.class).getMaxActive();
+            }
+        } catch (SQLException e) {
+            log.warn("Cannot read connection pool size: {}", e.toString());
+        }
+        return DEFAULT_MAX_ACTIVE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cellcycle.cellcycledata.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记可能向数据库连接池借连接的接口，只有这些接口占用AdmissionService的全局名额；
+ * 只读内存索引、静态数据或监控数据的接口不加此注解，连接池满时不受影响
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DatabaseRoute {
+}
@@ -0,0 +1,48 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Service.AdmissionService;
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+
+/**
+ * 注册请求耗时拦截器和并发准入拦截器，并用带计时的转换器替换默认的Jackson转换器
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Resource
+    private MetricsService metricsService;
+
+    @Resource
+    private AdmissionService admissionService;
+
+    /**
+     * 并发的相同列表响应共享序列化结果时，保留副本的上限(字节)
+     */
+    @Value("${cellcycledata.serialization.share-max-bytes:1048576}")
+    private int shareMaxBytes;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(this.metricsService));
+        // 在耗时拦截器之后注册，被拒绝的请求也会以503计入接口耗时；监控接口不做准入，服务繁忙时仍可查看
+        registry.addInterceptor(new AdmissionControlInterceptor(this.admissionService))
+                .excludePathPatterns("/cellcycledata/metrics", "/cellcycledata/metrics/**", "/cellcycledata/cache/stats");
+    }
+
+    /**
+     * 容器中存在该类型的Bean时，Spring Boot不再创建默认的Jackson转换器
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, this.metricsService, this.shareMaxBytes);
+    }
+}
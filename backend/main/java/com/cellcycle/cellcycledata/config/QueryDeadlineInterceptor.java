@@ -0,0 +1,59 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * MyBatis插件：当前线程设置了截止时间时，把语句的查询超时缩短到剩余时间(向上取整到秒，至少1秒)，
+ * 超过截止时间的查询由数据库驱动中止并归还连接，而不是一直占用到数据库返回
+ */
+@Component
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class QueryDeadlineInterceptor implements Interceptor {
+
+    /** System.nanoTime()的截止时间 */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * 在当前线程执行query，其中的SQL语句都在deadline(System.nanoTime())之前超时
+     */
+    public static <T> T withDeadline(long deadline, Supplier<T> query) {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(deadline);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Long deadline = DEADLINE.get();
+        if (deadline != null && result instanceof Statement) {
+            Statement statement = (Statement) result;
+            long remaining = deadline - System.nanoTime();
+            int seconds = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                    (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            int current = statement.getQueryTimeout();
+            if (current == 0 || seconds < current) {
+                statement.setQueryTimeout(seconds);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * MyBatis插件：执行SELECT语句期间把当前线程标记为只读，
+ * 非事务的SqlSession在语句执行时才取连接，ReplicaRoutingDataSource据此把连接路由到只读副本；
+ * Spring事务中的查询不做标记，与同一事务的写入共用主库连接，读到自己刚写入的数据
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ReadRoutingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        boolean readOnly = "query".equals(invocation.getMethod().getName())
+                && statement.getSqlCommandType() == SqlCommandType.SELECT
+                && !TransactionSynchronizationManager.isActualTransactionActive();
+        Boolean previous = ReplicaRoutingDataSource.markReadOnly(readOnly);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+}
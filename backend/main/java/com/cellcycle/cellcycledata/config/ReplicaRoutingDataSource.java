@@ -0,0 +1,378 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Entity.ReplicaRouting;
+import com.cellcycle.cellcycledata.Entity.ReplicaStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源：Mapper中的SELECT语句分发到只读副本，其余连接一律取自主库
+ * 每次取连接时在健康且未熔断的副本中选择借出连接最少的一个；副本取连接连续失败达到阈值即熔断一段时间，
+ * 熔断期满后由下一次健康检查或一次试探请求决定恢复还是继续熔断；没有可用副本时回退到主库
+ * 是否只读由ReadRoutingInterceptor在执行语句前按线程标记，Spring事务等Mapper之外的连接不受影响
+ */
+public class ReplicaRoutingDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final double maxLagSeconds;
+    private final ScheduledExecutorService healthChecker;
+
+    /** 轮转起点，借出连接数相同时避免总是选中第一个副本 */
+    private final AtomicInteger nextStart = new AtomicInteger();
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param replicaNames 与replicaSources一一对应，用于日志和指标
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openMillis 熔断持续时间
+     * @param maxLagSeconds 复制延迟超过该值的副本不参与路由
+     * @param healthCheckMillis 健康检查间隔
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<String> replicaNames, List<String> replicaUrls,
+                                    List<DataSource> replicaSources, int failureThreshold, long openMillis,
+                                    double maxLagSeconds, long healthCheckMillis) {
+        this.primary = primary;
+        List<Replica> created = new ArrayList<>();
+        for (int i = 0; i < replicaSources.size(); i++) {
+            created.add(new Replica(replicaNames.get(i), replicaUrls.get(i), replicaSources.get(i)));
+        }
+        this.replicas = Collections.unmodifiableList(created);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.maxLagSeconds = maxLagSeconds;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.healthChecker.scheduleWithFixedDelay(this::checkAll, 0, Math.max(100, healthCheckMillis),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 标记当前线程接下来取得的连接是否用于只读语句，返回原先的标记以便恢复
+     */
+    public static Boolean markReadOnly(boolean readOnly) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(readOnly);
+        return previous;
+    }
+
+    public static void restore(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    /**
+     * 一个只读副本及其熔断状态
+     */
+    private final class Replica {
+        final String name;
+        final String url;
+        final DataSource dataSource;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final LongAdder routed = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        /** 熔断截止时间，0表示未熔断 */
+        volatile long openUntil;
+        /** 半开状态下是否已有试探请求在进行 */
+        final AtomicBoolean probing = new AtomicBoolean();
+        volatile boolean healthy = true;
+        /** 复制延迟(秒)：-1表示无法获取，NaN表示复制已停止 */
+        volatile double lagSeconds = -1;
+        volatile long checkedAt;
+        volatile String lastError;
+
+        Replica(String name, String url, DataSource dataSource) {
+            this.name = name;
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+
+        String state(long now) {
+            long until = this.openUntil;
+            return until == 0 ? "closed" : now < until ? "open" : "half_open";
+        }
+
+        void recordSuccess() {
+            this.consecutiveFailures.set(0);
+            if (this.openUntil != 0) {
+                log.info("Replica {} recovered, circuit closed", this.name);
+            }
+            this.openUntil = 0;
+            this.probing.set(false);
+        }
+
+        void recordFailure(Exception e) {
+            this.failures.increment();
+            this.lastError = e.toString();
+            int failed = this.consecutiveFailures.incrementAndGet();
+            boolean halfOpen = this.openUntil != 0;
+            if (halfOpen || failed >= failureThreshold) {
+                this.openUntil = System.currentTimeMillis() + openMillis;
+                log.warn("Replica {} circuit opened for {} ms after {} consecutive failures: {}",
+                        this.name, openMillis, failed, e.toString());
+            }
+            this.probing.set(false);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!Boolean.TRUE.equals(READ_ONLY.get()) || this.replicas.isEmpty()) {
+            this.primaryRoutes.increment();
+            return this.primary.getConnection();
+        }
+        List<Replica> tried = new ArrayList<>();
+        Replica replica;
+        while ((replica = choose(tried)) != null) {
+            replica.outstanding.incrementAndGet();
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.recordSuccess();
+                replica.routed.increment();
+                return track(connection, replica);
+            } catch (SQLException | RuntimeException e) {
+                replica.outstanding.decrementAndGet();
+                replica.recordFailure(e);
+                tried.add(replica);
+            }
+        }
+        this.fallbacks.increment();
+        return this.primary.getConnection();
+    }
+
+    /**
+     * 在健康且未熔断(或可以试探)的副本中选借出连接最少的一个
+     */
+    private Replica choose(List<Replica> excluded) {
+        long now = System.currentTimeMillis();
+        int size = this.replicas.size();
+        int start = Math.floorMod(this.nextStart.getAndIncrement(), size);
+        while (true) {
+            Replica best = null;
+            for (int i = 0; i < size; i++) {
+                Replica candidate = this.replicas.get((start + i) % size);
+                if (!candidate.healthy || excluded.contains(candidate)) {
+                    continue;
+                }
+                String state = candidate.state(now);
+                if ("open".equals(state) || ("half_open".equals(state) && candidate.probing.get())) {
+                    continue;
+                }
+                if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                    best = candidate;
+                }
+            }
+            if (best == null || !"half_open".equals(best.state(now)) || best.probing.compareAndSet(false, true)) {
+                return best;
+            }
+            // 试探名额被其他线程抢先，重新选择
+        }
+    }
+
+    /**
+     * 包装副本连接，关闭时归还借出计数
+     */
+    private static Connection track(Connection connection, Replica replica) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        replica.outstanding.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * 检查每个副本的连通性和复制延迟；熔断期内的副本不检查，期满后检查结果决定是否恢复
+     */
+    private void checkAll() {
+        long now = System.currentTimeMillis();
+        for (Replica replica : this.replicas) {
+            if ("open".equals(replica.state(now))) {
+                continue;
+            }
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                statement.execute("SELECT 1");
+                double lag = replicationLag(statement);
+                replica.lagSeconds = lag;
+                replica.healthy = lag <= this.maxLagSeconds;
+                if (Double.isNaN(lag)) {
+                    replica.lastError = "replication is not running";
+                } else if (lag > this.maxLagSeconds) {
+                    replica.lastError = "replication lag " + lag + "s exceeds " + this.maxLagSeconds + "s";
+                } else {
+                    replica.lastError = null;
+                }
+                replica.recordSuccess();
+            } catch (SQLException | RuntimeException e) {
+                replica.healthy = false;
+                replica.recordFailure(e);
+            } finally {
+                replica.checkedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * 读取MySQL复制延迟：先用8.0.22起的SHOW REPLICA STATUS，不支持时改用SHOW SLAVE STATUS
+     * 不是复制节点(无结果行)或库不支持这两条语句(例如本地测试用的替身库)时返回-1；
+     * 延迟列为NULL表示复制线程已停止，返回NaN
+     */
+    private static double replicationLag(Statement statement) {
+        String[][] queries = {{"SHOW REPLICA STATUS", "Seconds_Behind_Source"}, {"SHOW SLAVE STATUS", "Seconds_Behind_Master"}};
+        for (String[] query : queries) {
+            try (ResultSet resultSet = statement.executeQuery(query[0])) {
+                if (!resultSet.next()) {
+                    return -1;
+                }
+                long lag = resultSet.getLong(query[1]);
+                return resultSet.wasNull() ? Double.NaN : lag;
+            } catch (SQLException e) {
+                // 语句不支持或无权限，尝试下一条
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 当前路由统计与各副本状态
+     */
+    public ReplicaRouting getRouting() {
+        long now = System.currentTimeMillis();
+        List<ReplicaStatus> statuses = new ArrayList<>();
+        for (Replica replica : this.replicas) {
+            ReplicaStatus status = new ReplicaStatus();
+            status.setName(replica.name);
+            status.setUrl(replica.url);
+            status.setState(replica.state(now));
+            status.setHealthy(replica.healthy);
+            status.setLagSeconds(Double.isNaN(replica.lagSeconds) ? null : replica.lagSeconds);
+            status.setOutstanding(replica.outstanding.get());
+            status.setRouted(replica.routed.sum());
+            status.setFailures(replica.failures.sum());
+            status.setConsecutiveFailures(replica.consecutiveFailures.get());
+            status.setCheckedAt(replica.checkedAt == 0 ? null : replica.checkedAt);
+            status.setLastError(replica.lastError);
+            statuses.add(status);
+        }
+        ReplicaRouting routing = new ReplicaRouting();
+        routing.setEnabled(true);
+        routing.setPrimaryRoutes(this.primaryRoutes.sum());
+        routing.setFallbacks(this.fallbacks.sum());
+        routing.setReplicas(statuses);
+        return routing;
+    }
+
+    @Override
+    public void close() {
+        this.healthChecker.shutdownNow();
+        closeQuietly(this.primary);
+        for (Replica replica : this.replicas) {
+            closeQuietly(replica.dataSource);
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Closing data source failed: {}", e.toString());
+            }
+        }
+    }
+
+    /**
+     * 指定用户名密码取连接不在路由范围内，直接使用主库
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        this.primaryRoutes.increment();
+        return this.primary.getConnection(username, password);
+    }
+
+    /**
+     * 连接池统计等按类型解包的调用转给主库，例如取得DruidDataSource
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        if (iface.isInstance(this.primary)) {
+            return (T) this.primary;
+        }
+        return this.primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(this.primary) || this.primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.primary.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.primary.getParentLogger();
+    }
+}
@@ -0,0 +1,49 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 按路由模板记录每个请求的耗时
+ * 异步(流式)请求在第二次分派结束时才记录，耗时覆盖整个导出过程
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MetricsService metricsService;
+
+    public RequestMetricsInterceptor(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * 当前请求匹配到的路由模板，未匹配到处理器时统一归为unmatched，避免按原始URL产生大量序列
+     */
+    static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "unmatched" : pattern.toString();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start instanceof Long) {
+            int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+            this.metricsService.recordRequest(routeOf(request), request.getMethod(), status,
+                    System.nanoTime() - (Long) start);
+        }
+    }
+}
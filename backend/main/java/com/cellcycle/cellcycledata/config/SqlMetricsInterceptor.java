@@ -0,0 +1,68 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.cellcycle.cellcycledata.Service.NdjsonResultHandler;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * MyBatis插件：按Mapper方法记录执行耗时(含结果映射)和行数，并收集慢SQL
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    /**
+     * 延迟注入，避免SqlSessionFactory创建时提前初始化MetricsService依赖的数据源
+     */
+    @Lazy
+    @Resource
+    private MetricsService metricsService;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement statement = (MappedStatement) args[0];
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            int rows = -1;
+            if (result instanceof List) {
+                rows = ((List<?>) result).size();
+            } else if (result instanceof Integer) {
+                rows = (Integer) result;
+            }
+            // 流式查询结果不经过List，行数由结果处理器统计
+            if (args.length > 3 && args[3] instanceof NdjsonResultHandler) {
+                rows = (int) Math.min(Integer.MAX_VALUE, ((NdjsonResultHandler<?>) args[3]).getRows());
+            }
+            BoundSql boundSql = args.length > 5 ? (BoundSql) args[5] : null;
+            Object parameter = args[1];
+            this.metricsService.recordSql(statement.getId(), nanos, rows,
+                    () -> (boundSql != null ? boundSql : statement.getBoundSql(parameter)).getSql());
+        }
+    }
+}
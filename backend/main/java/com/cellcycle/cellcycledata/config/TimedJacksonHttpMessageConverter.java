@@ -0,0 +1,225 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 记录响应体序列化耗时和列表行数的Jackson消息转换器
+ * 查询缓存和合并查询让并发的相同请求拿到同一个列表对象。列表响应照常边序列化边写出，
+ * 同时在内存中保留一份不超过shareMaxBytes的副本；同一对象正在序列化时后到的请求等待并直接写出这份副本，
+ * 不再各自序列化一遍。超过上限或没有等待者时丢弃副本，等待者各自序列化；
+ * 开始写出前先归还请求占用的全局准入名额，此时查询已经结束，写出和等待都不再需要数据库连接
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MetricsService metricsService;
+
+    /** 为等待者保留的序列化结果上限(字节)，0表示不共享 */
+    private final int shareMaxBytes;
+
+    /** 正在序列化的列表响应，按对象身份和Content-Type区分，写完即移除 */
+    private final ConcurrentMap<BodyKey, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private static final class BodyKey {
+        final Object body;
+        final String contentType;
+
+        BodyKey(Object body, String contentType) {
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BodyKey && ((BodyKey) other).body == body
+                    && ((BodyKey) other).contentType.equals(contentType);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(body) * 31 + contentType.hashCode();
+        }
+    }
+
+    /**
+     * 一次正在进行的序列化；结果为null表示没有可共享的副本
+     */
+    private static final class Flight {
+        final AtomicInteger waiters = new AtomicInteger();
+        final CompletableFuture<byte[]> bytes = new CompletableFuture<>();
+    }
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, MetricsService metricsService, int shareMaxBytes) {
+        super(objectMapper);
+        this.metricsService = metricsService;
+        this.shareMaxBytes = Math.max(0, shareMaxBytes);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String route = "unmatched";
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            route = RequestMetricsInterceptor.routeOf(request);
+            AdmissionControlInterceptor.releaseGlobal(request);
+        }
+        try {
+            if (object instanceof Collection && this.shareMaxBytes > 0) {
+                writeShared(object, type, outputMessage, route);
+            } else {
+                super.writeInternal(object, type, outputMessage);
+            }
+        } finally {
+            this.metricsService.recordSerialization(route, System.nanoTime() - start, rowsOf(object));
+        }
+    }
+
+    /**
+     * 同一列表对象的并发写出共享一次序列化结果；没有可共享的副本或序列化失败时等待者各自重新序列化
+     */
+    private void writeShared(Object object, Type type, HttpOutputMessage outputMessage, String route) throws IOException {
+        BodyKey key = new BodyKey(object, String.valueOf(outputMessage.getHeaders().getContentType()));
+        Flight flight = new Flight();
+        Flight leader = this.inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            leader.waiters.incrementAndGet();
+            byte[] bytes;
+            try {
+                bytes = leader.bytes.join();
+            } catch (CompletionException e) {
+                bytes = null;
+            }
+            if (bytes != null) {
+                this.metricsService.recordCoalescedResponse(route);
+                outputMessage.getBody().write(bytes);
+            } else {
+                super.writeInternal(object, type, outputMessage);
+            }
+            return;
+        }
+        CappedCopy copy = new CappedCopy(outputMessage.getBody(), this.shareMaxBytes, () -> {
+            // 超过上限：不再接收新的等待者，已在等待的立即各自序列化
+            this.inFlight.remove(key, flight);
+            flight.bytes.complete(null);
+        });
+        try {
+            super.writeInternal(object, type, new CopyingOutputMessage(outputMessage.getHeaders(), copy));
+            flight.bytes.complete(flight.waiters.get() > 0 ? copy.toByteArray() : null);
+        } catch (IOException | RuntimeException e) {
+            flight.bytes.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 写入真实响应的同时保留一份副本，副本超过上限时丢弃并通知一次；关闭时不关闭真实响应流
+     */
+    private static final class CappedCopy extends OutputStream {
+        private final OutputStream target;
+        private final int maxBytes;
+        private final Runnable overflow;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(8192);
+
+        CappedCopy(OutputStream target, int maxBytes, Runnable overflow) {
+            this.target = target;
+            this.maxBytes = maxBytes;
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.target.write(b);
+            keep(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.target.write(b, off, len);
+            keep(b, off, len);
+        }
+
+        private void keep(byte[] b, int off, int len) {
+            if (this.copy == null) {
+                return;
+            }
+            if (this.copy.size() + len > this.maxBytes) {
+                this.copy = null;
+                this.overflow.run();
+                return;
+            }
+            this.copy.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return this.copy == null ? null : this.copy.toByteArray();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.target.flush();
+        }
+    }
+
+    /**
+     * 沿用真实响应的头部(决定字符集)，正文写入CappedCopy
+     */
+    private static final class CopyingOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers;
+        private final OutputStream body;
+
+        CopyingOutputMessage(HttpHeaders headers, OutputStream body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static int rowsOf(Object body) {
+        if (body instanceof Collection) {
+            return ((Collection<?>) body).size();
+        }
+        if (body instanceof PageResult && ((PageResult) body).getItems() != null) {
+            return ((PageResult) body).getItems().size();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,15 @@
+-- 查询所依赖的索引，导入数据后手动执行一次
+
+-- 键集分页：排序键与 PageableTable 中声明的 keyFields 保持一致
+CREATE INDEX idx_ppi_page ON ppi (node1, node2);
+CREATE INDEX idx_tf_page ON tf (tf, target_gene);
+CREATE INDEX idx_mirna_gene_page ON mirna_gene (miRNA, gene);
+CREATE INDEX idx_sl_page ON sl (geneA, geneB);
+CREATE INDEX idx_sl_nature_page ON sl_nature (Gene_A, Gene_B, Cell_line);
+CREATE INDEX idx_gene_target_page ON gene_target (gene, drug, cancer);
+
+-- 细胞周期基因表的单列查询
+CREATE INDEX idx_cellcyclegenedata_symbol ON cellcyclegenedata (Gene_Symbol);
+CREATE INDEX idx_cellcyclegenedata_stage ON cellcyclegenedata (stage);
+CREATE INDEX idx_cellcyclegenedata_category ON cellcyclegenedata (Category);
+CREATE INDEX idx_cellcyclegenedata_species ON cellcyclegenedata (Species);
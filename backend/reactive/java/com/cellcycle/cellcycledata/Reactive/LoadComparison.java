@@ -0,0 +1,78 @@
+package com.cellcycle.cellcycledata.Reactive;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用同样的负载分别压测MVC应用和非阻塞应用，对比吞吐量
+ * 模拟大量慢客户端：每个连接按NDJSON逐行读取，每读一行停顿read-delay-ms毫秒
+ * 用法: LoadComparison [MVC地址] [非阻塞地址]，并发数等通过-D参数调整:
+ * -Dclients=2000 -Drequests=5 -Dpath=/cellcycledata/ppi/all/stream -Dread-delay-ms=1
+ * 编译和运行方式见 backend/reactive/run.sh
+ */
+public final class LoadComparison {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private LoadComparison() {
+    }
+
+    public static void main(String[] args) {
+        String mvc = args.length > 0 ? args[0] : "http://localhost:8991";
+        String reactive = args.length > 1 ? args[1] : "http://localhost:8992";
+        int clients = Integer.getInteger("clients", 2000);
+        int requests = Integer.getInteger("requests", 5);
+        String path = System.getProperty("path", "/cellcycledata/ppi/all/stream");
+        long readDelayMs = Long.getLong("read-delay-ms", 1L);
+
+        System.out.printf("%d clients x %d requests, GET %s, %d ms per row%n", clients, requests, path, readDelayMs);
+        run("mvc", mvc, path, clients, requests, readDelayMs);
+        run("reactive", reactive, path, clients, requests, readDelayMs);
+    }
+
+    private static void run(String name, String baseUrl, String path, int clients, int requests, long readDelayMs) {
+        ConnectionProvider connections = ConnectionProvider.builder(name)
+                .maxConnections(clients)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        LongAdder rows = new LongAdder();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        long start = System.nanoTime();
+        Flux.range(0, clients * requests)
+                .flatMap(i -> client.get()
+                        .uri(path)
+                        .accept(NDJSON)
+                        .retrieve()
+                        .bodyToFlux(Map.class)
+                        .delayElements(Duration.ofMillis(readDelayMs))
+                        .doOnNext(row -> rows.increment())
+                        .then()
+                        .doOnSuccess(done -> completed.increment())
+                        .onErrorResume(e -> {
+                            failed.increment();
+                            return Mono.empty();
+                        }), clients)
+                .blockLast();
+        double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        connections.dispose();
+
+        System.out.printf("%-8s %s: %d ok, %d failed in %.1f s, %.1f req/s, %.0f rows/s%n", name, baseUrl,
+                completed.sum(), failed.sum(), seconds, completed.sum() / seconds, rows.sum() / seconds);
+    }
+}
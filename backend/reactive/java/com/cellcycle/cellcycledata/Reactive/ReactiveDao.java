@@ -0,0 +1,201 @@
+package com.cellcycle.cellcycledata.Reactive;
+
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.Resource;
+
+/**
+ * 与Dao包中各Mapper相同的SQL，通过R2DBC执行
+ * 结果以Flux逐行发出，下游请求多少行才从数据库读取多少行
+ */
+@Repository("reactiveDao")
+public class ReactiveDao {
+
+    private static final String SL_NATURE_COLUMNS = "SELECT Gene_A AS geneA, stage_Gene_A AS stageGeneA, Gene_B AS geneB, "
+            + "stage_Gene_B AS stageGeneB, GEMINI_sensitive AS geminiSensitive, Cell_line AS cellLine FROM sl_nature";
+
+    @Resource
+    private DatabaseClient databaseClient;
+
+    public Flux<PPIData> selectAllPPIData() {
+        return this.databaseClient.sql("SELECT * FROM ppi").map(ReactiveDao::ppi).all();
+    }
+
+    public Flux<PPIData> selectPPIDataByMinScore(Double minScore) {
+        return this.databaseClient.sql("SELECT * FROM ppi WHERE combined_score >= :minScore")
+                .bind("minScore", minScore).map(ReactiveDao::ppi).all();
+    }
+
+    public Flux<PPIData> selectPPIDataByGene(String gene) {
+        return this.databaseClient.sql("SELECT * FROM ppi WHERE node1 = :gene OR node2 = :gene")
+                .bind("gene", gene).map(ReactiveDao::ppi).all();
+    }
+
+    public Flux<PPIData> selectPPIDataByGeneAndMinScore(String gene, Double minScore) {
+        return this.databaseClient.sql("SELECT * FROM ppi WHERE (node1 = :gene OR node2 = :gene) AND combined_score >= :minScore")
+                .bind("gene", gene).bind("minScore", minScore).map(ReactiveDao::ppi).all();
+    }
+
+    public Flux<TFData> selectAllTFData() {
+        return this.databaseClient.sql("SELECT * FROM tf").map(ReactiveDao::tf).all();
+    }
+
+    public Flux<TFData> selectTFDataByTF(String tf) {
+        return this.databaseClient.sql("SELECT * FROM tf WHERE tf = :tf").bind("tf", tf).map(ReactiveDao::tf).all();
+    }
+
+    public Flux<TFData> selectTFDataByTargetGene(String targetGene) {
+        return this.databaseClient.sql("SELECT * FROM tf WHERE target_gene = :targetGene")
+                .bind("targetGene", targetGene).map(ReactiveDao::tf).all();
+    }
+
+    public Flux<TFData> selectTFDataByGene(String gene) {
+        return this.databaseClient.sql("SELECT * FROM tf WHERE tf = :gene OR target_gene = :gene")
+                .bind("gene", gene).map(ReactiveDao::tf).all();
+    }
+
+    public Flux<MirnaGene> selectAllMirnaGeneData() {
+        return this.databaseClient.sql("SELECT * FROM mirna_gene").map(ReactiveDao::mirnaGene).all();
+    }
+
+    public Flux<MirnaGene> selectMirnaGeneDataByMirna(String miRNA) {
+        return this.databaseClient.sql("SELECT * FROM mirna_gene WHERE miRNA = :miRNA")
+                .bind("miRNA", miRNA).map(ReactiveDao::mirnaGene).all();
+    }
+
+    public Flux<MirnaGene> selectMirnaGeneDataByGene(String gene) {
+        return this.databaseClient.sql("SELECT * FROM mirna_gene WHERE gene = :gene")
+                .bind("gene", gene).map(ReactiveDao::mirnaGene).all();
+    }
+
+    public Flux<MirnaGene> selectMirnaGeneDataByMirnaOrGene(String name) {
+        return this.databaseClient.sql("SELECT * FROM mirna_gene WHERE miRNA = :name OR gene = :name")
+                .bind("name", name).map(ReactiveDao::mirnaGene).all();
+    }
+
+    public Flux<String> selectAllDistinctMirnas() {
+        return this.databaseClient.sql("SELECT DISTINCT miRNA FROM mirna_gene ORDER BY miRNA")
+                .map(row -> row.get("miRNA", String.class)).all();
+    }
+
+    public Flux<String> selectAllDistinctGenes() {
+        return this.databaseClient.sql("SELECT DISTINCT gene FROM mirna_gene ORDER BY gene")
+                .map(row -> row.get("gene", String.class)).all();
+    }
+
+    public Flux<SLData> selectAllSLData() {
+        return this.databaseClient.sql("SELECT geneA, geneB FROM sl").map(ReactiveDao::sl).all();
+    }
+
+    public Flux<SLData> selectSLDataByGene(String gene) {
+        return this.databaseClient.sql("SELECT geneA, geneB FROM sl WHERE geneA = :gene OR geneB = :gene")
+                .bind("gene", gene).map(ReactiveDao::sl).all();
+    }
+
+    public Flux<SLNatureData> selectAllSLNatureData() {
+        return this.databaseClient.sql(SL_NATURE_COLUMNS).map(ReactiveDao::slNature).all();
+    }
+
+    public Flux<SLNatureData> selectSLNatureDataByGene(String gene) {
+        return this.databaseClient.sql(SL_NATURE_COLUMNS + " WHERE Gene_A = :gene OR Gene_B = :gene")
+                .bind("gene", gene).map(ReactiveDao::slNature).all();
+    }
+
+    public Flux<GeneTarget> selectAllGeneTargets() {
+        return this.databaseClient.sql("SELECT * FROM gene_target").map(ReactiveDao::geneTarget).all();
+    }
+
+    public Flux<GeneTarget> selectGeneTargetsByGene(String gene) {
+        return this.databaseClient.sql("SELECT * FROM gene_target WHERE gene = :gene")
+                .bind("gene", gene).map(ReactiveDao::geneTarget).all();
+    }
+
+    public Flux<GeneTarget> selectGeneTargetsByStage(String stage) {
+        return this.databaseClient.sql("SELECT * FROM gene_target WHERE stage = :stage")
+                .bind("stage", stage).map(ReactiveDao::geneTarget).all();
+    }
+
+    private static PPIData ppi(Row row) {
+        PPIData data = new PPIData();
+        data.setNode1(row.get("node1", String.class));
+        data.setNode2(row.get("node2", String.class));
+        data.setNode1_string_id(row.get("node1_string_id", String.class));
+        data.setNode2_string_id(row.get("node2_string_id", String.class));
+        Number neighborhood = number(row, "neighborhood_on_chromosome");
+        data.setNeighborhood_on_chromosome(neighborhood == null ? null : neighborhood.intValue());
+        data.setGene_fusion(decimal(row, "gene_fusion"));
+        data.setPhylogenetic_cooccurrence(decimal(row, "phylogenetic_cooccurrence"));
+        data.setHomology(decimal(row, "homology"));
+        data.setCoexpression(decimal(row, "coexpression"));
+        data.setExperimentally_determined_interaction(decimal(row, "experimentally_determined_interaction"));
+        data.setDatabase_annotated(decimal(row, "database_annotated"));
+        data.setAutomated_textmining(decimal(row, "automated_textmining"));
+        data.setCombined_score(decimal(row, "combined_score"));
+        return data;
+    }
+
+    private static TFData tf(Row row) {
+        TFData data = new TFData();
+        data.setTf(row.get("tf", String.class));
+        data.setTarget_gene(row.get("target_gene", String.class));
+        data.setInteraction(row.get("interaction", String.class));
+        return data;
+    }
+
+    private static MirnaGene mirnaGene(Row row) {
+        MirnaGene data = new MirnaGene();
+        data.setMiRNA(row.get("miRNA", String.class));
+        data.setGene(row.get("gene", String.class));
+        return data;
+    }
+
+    private static SLData sl(Row row) {
+        SLData data = new SLData();
+        data.setGeneA(row.get("geneA", String.class));
+        data.setGeneB(row.get("geneB", String.class));
+        return data;
+    }
+
+    private static SLNatureData slNature(Row row) {
+        SLNatureData data = new SLNatureData();
+        data.setGeneA(row.get("geneA", String.class));
+        data.setStageGeneA(row.get("stageGeneA", String.class));
+        data.setGeneB(row.get("geneB", String.class));
+        data.setStageGeneB(row.get("stageGeneB", String.class));
+        data.setGeminiSensitive(row.get("geminiSensitive", String.class));
+        data.setCellLine(row.get("cellLine", String.class));
+        return data;
+    }
+
+    private static GeneTarget geneTarget(Row row) {
+        GeneTarget data = new GeneTarget();
+        data.setGene(row.get("gene", String.class));
+        data.setStage(row.get("stage", String.class));
+        data.setDrug(row.get("drug", String.class));
+        data.setCancer(row.get("cancer", String.class));
+        data.setPmid(row.get("pmid", String.class));
+        return data;
+    }
+
+    /**
+     * 数值列按驱动返回的类型(DOUBLE、DECIMAL或整数)统一读取
+     */
+    private static Number number(Row row, String column) {
+        Object value = row.get(column);
+        return value instanceof Number ? (Number) value : null;
+    }
+
+    private static Double decimal(Row row, String column) {
+        Number value = number(row, column);
+        return value == null ? null : value.doubleValue();
+    }
+}
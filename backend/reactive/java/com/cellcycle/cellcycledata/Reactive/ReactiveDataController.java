@@ -0,0 +1,161 @@
+package com.cellcycle.cellcycledata.Reactive;
+
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.Resource;
+
+/**
+ * 与MVC应用 /cellcycledata/** 路径相同的非阻塞查询接口(PPI、TF、miRNA、合成致死、药物靶点)
+ * Accept为application/x-ndjson时逐行写出，发送速度由客户端读取速度决定(背压)，慢客户端不占用线程，
+ * 但在读完之前一直占用一个R2DBC连接；
+ * 默认的application/json由编码器汇总为JSON数组后一次写出。各 /all/stream 路径固定为NDJSON
+ */
+@RestController
+@CrossOrigin
+@RequestMapping("cellcycledata")
+public class ReactiveDataController {
+
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Resource
+    private ReactiveDao reactiveDao;
+
+    @GetMapping(value = "/ppi/all", produces = {JSON, NDJSON})
+    public Flux<PPIData> getAllPPIData() {
+        return this.reactiveDao.selectAllPPIData();
+    }
+
+    @GetMapping(value = "/ppi/all/stream", produces = NDJSON)
+    public Flux<PPIData> streamAllPPIData() {
+        return this.reactiveDao.selectAllPPIData();
+    }
+
+    @GetMapping(value = "/ppi/score/{minScore}", produces = {JSON, NDJSON})
+    public Flux<PPIData> getPPIDataByMinScore(@PathVariable("minScore") Double minScore) {
+        return this.reactiveDao.selectPPIDataByMinScore(minScore);
+    }
+
+    @GetMapping(value = "/ppi/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<PPIData> getPPIDataByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectPPIDataByGene(gene);
+    }
+
+    @GetMapping(value = "/ppi/gene/{gene}/score/{minScore}", produces = {JSON, NDJSON})
+    public Flux<PPIData> getPPIDataByGeneAndMinScore(@PathVariable("gene") String gene,
+                                                     @PathVariable("minScore") Double minScore) {
+        return this.reactiveDao.selectPPIDataByGeneAndMinScore(gene, minScore);
+    }
+
+    @GetMapping(value = "/tf/all", produces = {JSON, NDJSON})
+    public Flux<TFData> getAllTFData() {
+        return this.reactiveDao.selectAllTFData();
+    }
+
+    @GetMapping(value = "/tf/all/stream", produces = NDJSON)
+    public Flux<TFData> streamAllTFData() {
+        return this.reactiveDao.selectAllTFData();
+    }
+
+    @GetMapping(value = "/tf/factor/{tf}", produces = {JSON, NDJSON})
+    public Flux<TFData> getTFDataByTF(@PathVariable("tf") String tf) {
+        return this.reactiveDao.selectTFDataByTF(tf);
+    }
+
+    @GetMapping(value = "/tf/target/{targetGene}", produces = {JSON, NDJSON})
+    public Flux<TFData> getTFDataByTargetGene(@PathVariable("targetGene") String targetGene) {
+        return this.reactiveDao.selectTFDataByTargetGene(targetGene);
+    }
+
+    @GetMapping(value = "/tf/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<TFData> getTFDataByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectTFDataByGene(gene);
+    }
+
+    @GetMapping(value = "/mirna/all", produces = {JSON, NDJSON})
+    public Flux<MirnaGene> getAllMirnaGeneData() {
+        return this.reactiveDao.selectAllMirnaGeneData();
+    }
+
+    @GetMapping(value = "/mirna/all/stream", produces = NDJSON)
+    public Flux<MirnaGene> streamAllMirnaGeneData() {
+        return this.reactiveDao.selectAllMirnaGeneData();
+    }
+
+    @GetMapping(value = "/mirna/mirna/{miRNA}", produces = {JSON, NDJSON})
+    public Flux<MirnaGene> getMirnaGeneDataByMirna(@PathVariable("miRNA") String miRNA) {
+        return this.reactiveDao.selectMirnaGeneDataByMirna(miRNA);
+    }
+
+    @GetMapping(value = "/mirna/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<MirnaGene> getMirnaGeneDataByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectMirnaGeneDataByGene(gene);
+    }
+
+    @GetMapping(value = "/mirna/mirnas", produces = {JSON, NDJSON})
+    public Flux<String> getAllDistinctMirnas() {
+        return this.reactiveDao.selectAllDistinctMirnas();
+    }
+
+    @GetMapping(value = "/mirna/genes", produces = {JSON, NDJSON})
+    public Flux<String> getAllDistinctGenes() {
+        return this.reactiveDao.selectAllDistinctGenes();
+    }
+
+    @GetMapping(value = "/mirna/search/{name}", produces = {JSON, NDJSON})
+    public Flux<MirnaGene> getMirnaGeneDataByMirnaOrGene(@PathVariable("name") String name) {
+        return this.reactiveDao.selectMirnaGeneDataByMirnaOrGene(name);
+    }
+
+    @GetMapping(value = "/sl/all", produces = {JSON, NDJSON})
+    public Flux<SLData> getAllSLData() {
+        return this.reactiveDao.selectAllSLData();
+    }
+
+    @GetMapping(value = "/sl/all/stream", produces = NDJSON)
+    public Flux<SLData> streamAllSLData() {
+        return this.reactiveDao.selectAllSLData();
+    }
+
+    @GetMapping(value = "/sl/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<SLData> getSLDataByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectSLDataByGene(gene);
+    }
+
+    @GetMapping(value = "/sl/nature/all", produces = {JSON, NDJSON})
+    public Flux<SLNatureData> getAllSLNatureData() {
+        return this.reactiveDao.selectAllSLNatureData();
+    }
+
+    @GetMapping(value = "/sl/nature/all/stream", produces = NDJSON)
+    public Flux<SLNatureData> streamAllSLNatureData() {
+        return this.reactiveDao.selectAllSLNatureData();
+    }
+
+    @GetMapping(value = "/sl/nature/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<SLNatureData> getSLNatureDataByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectSLNatureDataByGene(gene);
+    }
+
+    @GetMapping(value = "/gene-targets", produces = {JSON, NDJSON})
+    public Flux<GeneTarget> getAllGeneTargets() {
+        return this.reactiveDao.selectAllGeneTargets();
+    }
+
+    @GetMapping(value = "/gene-targets/gene/{gene}", produces = {JSON, NDJSON})
+    public Flux<GeneTarget> getGeneTargetsByGene(@PathVariable("gene") String gene) {
+        return this.reactiveDao.selectGeneTargetsByGene(gene);
+    }
+
+    @GetMapping(value = "/gene-targets/stage/{stage}", produces = {JSON, NDJSON})
+    public Flux<GeneTarget> getGeneTargetsByStage(@PathVariable("stage") String stage) {
+        return this.reactiveDao.selectGeneTargetsByStage(stage);
+    }
+}
@@ -0,0 +1,46 @@
+#!/bin/sh
+# 编译并运行 backend/reactive 下的非阻塞应用，或用同样的负载对比MVC应用和非阻塞应用
+#
+#   backend/reactive/run.sh server [Spring参数...]
+#       启动非阻塞应用(默认端口8992，配置见 resources/reactive.properties)，例如 --server.port=9000
+#   backend/reactive/run.sh compare [MVC地址] [非阻塞地址]
+#       对两个已启动的应用各跑一轮LoadComparison，默认 http://localhost:8991 和 http://localhost:8992；
+#       负载参数通过环境变量LOAD_OPTS传入，例如
+#       LOAD_OPTS="-Dclients=500 -Drequests=2 -Dread-delay-ms=5" backend/reactive/run.sh compare
+#       结果每个应用一行：成功/失败请求数、耗时、每秒请求数和行数
+#
+# 需要两个环境变量：
+#   APP_CLASSPATH       应用编译输出(backend/main，提供实体类)及其依赖；
+#                       在应用的构建环境中可由 mvn dependency:build-classpath 得到依赖部分
+#   REACTIVE_CLASSPATH  spring-boot-starter-webflux、spring-r2dbc、r2dbc-pool、r2dbc-mysql 及其依赖
+#
+# 两个应用应连接同一个数据库并在同一台机器上运行，对比时把MVC应用的连接池和非阻塞应用的
+# spring.r2dbc.pool.max-size设为相同大小，否则比较的是连接数而不是编程模型
+set -eu
+
+: "${APP_CLASSPATH:?APP_CLASSPATH must list the compiled application and its dependencies}"
+: "${REACTIVE_CLASSPATH:?REACTIVE_CLASSPATH must list spring-boot-starter-webflux and the R2DBC driver}"
+
+here=$(cd "$(dirname "$0")" && pwd)
+out=${REACTIVE_OUT:-$here/target}
+command=${1:-}
+case "$command" in
+    server|compare) shift ;;
+    *)
+        echo "usage: $0 server [spring args...] | compare [mvc-url] [reactive-url]" >&2
+        exit 2
+        ;;
+esac
+
+rm -rf "$out/classes"
+mkdir -p "$out/classes"
+find "$here/java" -name '*.java' > "$out/sources.txt"
+javac -encoding UTF-8 -cp "$APP_CLASSPATH:$REACTIVE_CLASSPATH" -d "$out/classes" @"$out/sources.txt"
+cp -R "$here/resources/." "$out/classes/"
+
+classpath="$out/classes:$REACTIVE_CLASSPATH:$APP_CLASSPATH"
+if [ "$command" = server ]; then
+    exec java -cp "$classpath" com.cellcycle.cellcycledata.Reactive.ReactiveApplication "$@"
+fi
+# shellcheck disable=SC2086
+exec java ${LOAD_OPTS:-} -cp "$classpath" com.cellcycle.cellcycledata.Reactive.LoadComparison "$@"
@@ -0,0 +1,153 @@
+package com.cellcycle.cellcycledata.Dao;
+
+import com.cellcycle.cellcycledata.Entity.cellcycledata;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在H2上执行cellcycledata.xml中的单列查询，并确认db/indexes.sql建立的索引被查询计划使用
+ */
+class cellcycledataDaoTest {
+
+    private static final String MAPPER = "com/cellcycle/cellcycledata/Mapper/cellcycledata.xml";
+
+    private static UnpooledDataSource dataSource;
+
+    private static SqlSession session;
+
+    private static cellcycledataDao dao;
+
+    @BeforeAll
+    static void setUp() throws SQLException, IOException {
+        dataSource = new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:cellcycledata;MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1", "sa", "");
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        try (InputStream in = Resources.getResourceAsStream(MAPPER)) {
+            new XMLMapperBuilder(in, configuration, MAPPER, configuration.getSqlFragments()).parse();
+        }
+        session = new SqlSessionFactoryBuilder().build(configuration).openSession(true);
+        dao = session.getMapper(cellcycledataDao.class);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE cellcyclegenedata (Gene_Symbol VARCHAR(32), Description VARCHAR(64), "
+                    + "Category VARCHAR(32), Species VARCHAR(32), stage VARCHAR(16))");
+            for (String ddl : indexStatements()) {
+                statement.execute(ddl);
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO cellcyclegenedata VALUES (?, ?, ?, ?, ?)")) {
+                String[][] rows = {
+                        {"CDK1", "cyclin-dependent kinase 1", "kinase", "Homo sapiens", "G2/M"},
+                        {"CCNB1", "cyclin B1", "cyclin", "Homo sapiens", "G2/M"},
+                        {"CDK1", "cdc2 homolog", "kinase", "Mus musculus", "G2/M"},
+                        {"CCND1", "cyclin D1", "cyclin", "Homo sapiens", "G1"},
+                        {"E2F1", "transcription factor", null, "Homo sapiens", "G1/S"},
+                        {"cdk1", "lower-case symbol", "kinase", "Danio rerio", "G2/M"},
+                };
+                for (String[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setString(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        session.close();
+    }
+
+    /** indexes.sql中属于cellcyclegenedata的建索引语句 */
+    private static List<String> indexStatements() throws IOException {
+        try (InputStream in = Resources.getResourceAsStream("db/indexes.sql");
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            List<String> statements = new ArrayList<>();
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.startsWith("CREATE INDEX") && line.contains(" ON cellcyclegenedata ")) {
+                    statements.add(line.substring(0, line.length() - 1));
+                }
+            }
+            assertEquals(4, statements.size());
+            return statements;
+        }
+    }
+
+    private static List<String> descriptions(List<cellcycledata> rows) {
+        return rows.stream().map(cellcycledata::getDescription).collect(Collectors.toList());
+    }
+
+    @Test
+    void selectByGeneSymbolReturnsOnlyExactMatches() {
+        assertEquals(Arrays.asList("cyclin-dependent kinase 1", "cdc2 homolog"), descriptions(dao.selectByGeneSymbol("CDK1")));
+        assertTrue(dao.selectByGeneSymbol("CDK2").isEmpty());
+    }
+
+    @Test
+    void selectByStageCategoryAndSpecies() {
+        assertEquals(Arrays.asList("cyclin D1"), descriptions(dao.selectByStage("G1")));
+        assertEquals(Arrays.asList("cyclin B1", "cyclin D1"), descriptions(dao.selectByCategory("cyclin")));
+        assertEquals(Arrays.asList("cdc2 homolog"), descriptions(dao.selectBySpecies("Mus musculus")));
+        for (cellcycledata row : dao.selectByStage("G2/M")) {
+            assertEquals("G2/M", row.getStage());
+        }
+    }
+
+    @Test
+    void geneSymbolProjectionReturnsEverySymbol() {
+        List<String> fromEntities = dao.selectAllCellcycledata().stream()
+                .map(cellcycledata::getGene_Symbol).sorted().collect(Collectors.toList());
+        List<String> projected = dao.selectAllGeneSymbols().stream().sorted().collect(Collectors.toList());
+        assertEquals(fromEntities, projected);
+        assertEquals(6, projected.size());
+    }
+
+    @Test
+    void lookupsUseTheirIndexes() throws SQLException {
+        assertPlanUses("Gene_Symbol", "idx_cellcyclegenedata_symbol");
+        assertPlanUses("stage", "idx_cellcyclegenedata_stage");
+        assertPlanUses("Category", "idx_cellcyclegenedata_category");
+        assertPlanUses("Species", "idx_cellcyclegenedata_species");
+    }
+
+    private static void assertPlanUses(String column, String index) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement(
+                     "EXPLAIN SELECT * FROM cellcyclegenedata WHERE " + column + " = ?")) {
+            explain.setString(1, "x");
+            try (ResultSet plan = explain.executeQuery()) {
+                assertTrue(plan.next());
+                String text = plan.getString(1);
+                assertTrue(text.toLowerCase().contains(index), text);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.AutocompleteSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompleteIndexTest {
+
+    private static AutocompleteIndex index() {
+        return AutocompleteIndex.build(Arrays.asList(
+                Arrays.asList(new AutocompleteIndex.Term("CDK1", "gene"), new AutocompleteIndex.Term("CDK2", "gene"),
+                        new AutocompleteIndex.Term("CDK4", "gene"), new AutocompleteIndex.Term("CDC20", "gene"),
+                        new AutocompleteIndex.Term("TP53", "gene")),
+                Arrays.asList(new AutocompleteIndex.Term("cdk1", "gene"), new AutocompleteIndex.Term("CDK1", "tf")),
+                Arrays.asList(new AutocompleteIndex.Term("hsa-miR-21-5p", "mirna"),
+                        new AutocompleteIndex.Term("hsa-miR-210-3p", "mirna"))));
+    }
+
+    private static List<String> terms(List<AutocompleteSuggestion> suggestions) {
+        return suggestions.stream().map(s -> s.getType() + ":" + s.getTerm()).collect(Collectors.toList());
+    }
+
+    @Test
+    void duplicatesDifferingOnlyInCaseAreMergedPerType() {
+        assertEquals(8, index().size());
+    }
+
+    @Test
+    void prefixMatchesComeFirstInKeyOrderAndRespectLimit() {
+        List<AutocompleteSuggestion> result = index().suggest("cdk", 10, 0, null);
+        assertEquals(Arrays.asList("gene:CDK1", "tf:CDK1", "gene:CDK2", "gene:CDK4"), terms(result));
+        assertNull(result.get(0).getDistance());
+        assertEquals(2, index().suggest("cdk", 2, 0, null).size());
+        assertEquals(Integer.valueOf(0), index().suggest("Cdk1", 1, 0, null).get(0).getDistance());
+    }
+
+    @Test
+    void typeFilterAppliesToPrefixAndFuzzyMatches() {
+        assertEquals(Collections.singletonList("tf:CDK1"), terms(index().suggest("cdk", 10, 1, Collections.singleton("tf"))));
+        assertEquals(Arrays.asList("mirna:hsa-miR-21-5p", "mirna:hsa-miR-210-3p"),
+                terms(index().suggest("hsa-mir-21", 10, 0, Collections.singleton("mirna"))));
+    }
+
+    @Test
+    void fuzzyMatchesFillRemainingSlotsByDistance() {
+        List<AutocompleteSuggestion> result = index().suggest("cdk3", 10, 1, Collections.singleton("gene"));
+        assertEquals(Arrays.asList("gene:CDK1", "gene:CDK2", "gene:CDK4"), terms(result));
+        for (AutocompleteSuggestion suggestion : result) {
+            assertEquals(Integer.valueOf(1), suggestion.getDistance());
+        }
+        assertEquals(Collections.singletonList("gene:TP53"), terms(index().suggest("tp35", 10, 2, null)));
+        assertTrue(index().suggest("tp35", 10, 1, null).isEmpty());
+        assertTrue(index().suggest("  ", 10, 2, null).isEmpty());
+    }
+
+    @Test
+    void boundedDistanceStopsAtMaxEditsPlusOne() {
+        assertEquals(0, AutocompleteIndex.boundedDistance("cdk1", "cdk1", 2));
+        assertEquals(1, AutocompleteIndex.boundedDistance("cdk1", "cdk", 2));
+        assertEquals(2, AutocompleteIndex.boundedDistance("tp53", "tp35", 2));
+        assertEquals(3, AutocompleteIndex.boundedDistance("cdc20", "ccnb1", 2));
+        assertEquals(2, AutocompleteIndex.boundedDistance("a", "abcdef", 1));
+    }
+}
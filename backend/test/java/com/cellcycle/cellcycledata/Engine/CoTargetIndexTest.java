@@ -0,0 +1,145 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.CoTargetNeighbor;
+import com.cellcycle.cellcycledata.Entity.CoTargetSimilarity;
+import com.cellcycle.cellcycledata.Entity.MirnaGene;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoTargetIndexTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static MirnaGene pair(String miRNA, String gene) {
+        MirnaGene row = new MirnaGene();
+        row.setMiRNA(miRNA);
+        row.setGene(gene);
+        return row;
+    }
+
+    private static List<String> names(CoTargetSimilarity similarity) {
+        List<String> names = new ArrayList<>();
+        for (CoTargetNeighbor neighbor : similarity.getNeighbors()) {
+            names.add(neighbor.getName() + ":" + neighbor.getShared());
+        }
+        return names;
+    }
+
+    @Test
+    void duplicatesAndBlanksAreIgnoredAndNamesMatchCaseInsensitively() {
+        CoTargetIndex index = CoTargetIndex.build(Arrays.asList(
+                pair("miR-1", "CDK1"), pair("mir-1", "cdk1"), pair("miR-1", "CCNB1"), pair("miR-1", "PLK1"),
+                pair("miR-2", "CDK1"), pair("miR-2", "CCNB1"), pair("miR-3", "PLK1"), pair("miR-3", "E2F1"),
+                pair(null, "CDK1"), pair("miR-4", " ")));
+        assertEquals(3, index.mirnaCount());
+        assertEquals(4, index.geneCount());
+
+        CoTargetSimilarity jaccard = index.topK(CoTargetIndex.Side.MIRNA, " MIR-1 ", CoTargetIndex.Metric.JACCARD, 5, 1, POOL);
+        assertEquals("miR-1", jaccard.getQuery());
+        assertEquals(3, jaccard.getSize().intValue());
+        assertEquals(Arrays.asList("miR-2:2", "miR-3:1"), names(jaccard));
+        // 2 / (3 + 2 - 2) 与 1 / (3 + 2 - 1)
+        assertEquals(2.0 / 3, jaccard.getNeighbors().get(0).getScore(), 1e-12);
+        assertEquals(0.25, jaccard.getNeighbors().get(1).getScore(), 1e-12);
+
+        CoTargetSimilarity overlap = index.topK(CoTargetIndex.Side.MIRNA, "miR-1", CoTargetIndex.Metric.OVERLAP, 5, 2, POOL);
+        assertEquals(Arrays.asList("miR-2:2"), names(overlap));
+        assertEquals(1.0, overlap.getNeighbors().get(0).getScore(), 1e-12);
+
+        CoTargetSimilarity genes = index.topK(CoTargetIndex.Side.GENE, "cdk1", CoTargetIndex.Metric.OVERLAP, 5, 1, POOL);
+        assertEquals(Arrays.asList("CCNB1:2", "PLK1:1"), names(genes));
+
+        assertThrows(InvalidQueryException.class,
+                () -> index.topK(CoTargetIndex.Side.GENE, "miR-1", CoTargetIndex.Metric.JACCARD, 5, 1, POOL));
+        assertThrows(InvalidQueryException.class,
+                () -> index.topK(CoTargetIndex.Side.MIRNA, null, CoTargetIndex.Metric.JACCARD, 5, 1, POOL));
+    }
+
+    /**
+     * 对象数超过叶子任务大小，使fork-join实际拆分并合并各段的前k名
+     */
+    @Test
+    void parallelTopKMatchesBruteForce() {
+        Random random = new Random(5);
+        int mirnaCount = 1300;
+        int geneCount = 200;
+        List<MirnaGene> rows = new ArrayList<>();
+        Map<Integer, Set<Integer>> targets = new LinkedHashMap<>();
+        for (int m = 0; m < mirnaCount; m++) {
+            Set<Integer> set = new HashSet<>();
+            int degree = 1 + random.nextInt(12);
+            for (int i = 0; i < degree; i++) {
+                int gene = random.nextInt(geneCount);
+                set.add(gene);
+                rows.add(pair("miR-" + m, "G" + gene));
+            }
+            targets.put(m, set);
+        }
+        CoTargetIndex index = CoTargetIndex.build(rows);
+
+        for (CoTargetIndex.Metric metric : CoTargetIndex.Metric.values()) {
+            for (int trial = 0; trial < 20; trial++) {
+                int query = random.nextInt(mirnaCount);
+                int k = 1 + random.nextInt(15);
+                int minShared = 1 + random.nextInt(2);
+                Set<Integer> mine = targets.get(query);
+
+                List<CoTargetNeighbor> expected = new ArrayList<>();
+                for (int m = 0; m < mirnaCount; m++) {
+                    if (m == query) {
+                        continue;
+                    }
+                    Set<Integer> shared = new HashSet<>(mine);
+                    shared.retainAll(targets.get(m));
+                    if (shared.size() < minShared) {
+                        continue;
+                    }
+                    int size = targets.get(m).size();
+                    CoTargetNeighbor neighbor = new CoTargetNeighbor();
+                    neighbor.setName("miR-" + m);
+                    neighbor.setShared(shared.size());
+                    neighbor.setSize(size);
+                    neighbor.setScore(metric == CoTargetIndex.Metric.JACCARD
+                            ? (double) shared.size() / (mine.size() + size - shared.size())
+                            : (double) shared.size() / Math.min(mine.size(), size));
+                    expected.add(neighbor);
+                }
+                expected.sort(Comparator.comparingDouble(CoTargetNeighbor::getScore).reversed()
+                        .thenComparing(Comparator.comparingInt(CoTargetNeighbor::getShared).reversed())
+                        .thenComparing(CoTargetNeighbor::getName));
+                List<CoTargetNeighbor> top = expected.subList(0, Math.min(k, expected.size()));
+
+                CoTargetSimilarity actual = index.topK(CoTargetIndex.Side.MIRNA, "miR-" + query, metric, k, minShared, POOL);
+                assertEquals(top, actual.getNeighbors(), metric + " miR-" + query);
+                assertEquals(mine.size(), actual.getSize().intValue());
+            }
+        }
+    }
+
+    @Test
+    void isolatedQueryHasNoNeighbors() {
+        CoTargetIndex index = CoTargetIndex.build(Arrays.asList(pair("miR-1", "CDK1"), pair("miR-2", "PLK1")));
+        assertTrue(index.topK(CoTargetIndex.Side.MIRNA, "miR-1", CoTargetIndex.Metric.JACCARD, 10, 1, POOL)
+                .getNeighbors().isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.DrugCandidate;
+import com.cellcycle.cellcycledata.Entity.DrugEvidence;
+import com.cellcycle.cellcycledata.Entity.DrugInformation;
+import com.cellcycle.cellcycledata.Entity.DrugRepurposing;
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrugTargetIndexTest {
+
+    private static GeneTarget target(String gene, String drug) {
+        GeneTarget row = new GeneTarget();
+        row.setGene(gene);
+        row.setDrug(drug);
+        return row;
+    }
+
+    private static DrugInformation information(String drug, String text) {
+        DrugInformation row = new DrugInformation();
+        row.setDrug(drug);
+        row.setInformation(text);
+        return row;
+    }
+
+    private static DrugTargetIndex index() {
+        return DrugTargetIndex.build(
+                Arrays.asList(target("CDK4", "Palbociclib"), target("cdk4", "palbociclib"), target("CDK6", "Palbociclib"),
+                        target("CDK4", "Abemaciclib"), target("PLK1", "Volasertib"), target("WEE1", "Adavosertib"),
+                        target("PLK1", "Onvansertib"), target("", "Empty"), target("CDK6", null)),
+                Arrays.asList(information("PALBOCICLIB", "CDK4/6 inhibitor"), information("palbociclib", "duplicate"),
+                        information("Unknown", "not targeted")));
+    }
+
+    private static List<String> drugs(DrugRepurposing result) {
+        List<String> drugs = new ArrayList<>();
+        for (DrugCandidate candidate : result.getCandidates()) {
+            drugs.add(candidate.getDrug());
+        }
+        return drugs;
+    }
+
+    @Test
+    void duplicateTargetsMergeCaseInsensitively() {
+        DrugTargetIndex index = index();
+        assertEquals(5, index.drugCount());
+        assertEquals(4, index.geneCount());
+    }
+
+    @Test
+    void scoresSumRelatedGeneWeightsAndRankWithTieBreaks() {
+        List<DrugTargetIndex.RelatedGene> related = Arrays.asList(
+                new DrugTargetIndex.RelatedGene("CDK4", "direct", null, 1.0),
+                new DrugTargetIndex.RelatedGene("CDK6", "ppi", 0.9, 0.45),
+                new DrugTargetIndex.RelatedGene("PLK1", "sl", null, 0.5),
+                new DrugTargetIndex.RelatedGene("NOPE", "ppi", 0.8, 0.4));
+        DrugRepurposing result = index().rank("cdk4", related, 2, 1, 10);
+        assertEquals("cdk4", result.getGene());
+        assertEquals(4, result.getTotal().intValue());
+        // 同分的Onvansertib与Volasertib都只有一条证据，按名称排序
+        assertEquals(Arrays.asList("Palbociclib", "Abemaciclib", "Onvansertib", "Volasertib"), drugs(result));
+
+        DrugCandidate palbociclib = result.getCandidates().get(0);
+        assertEquals(1, palbociclib.getRank().intValue());
+        assertEquals(1.45, palbociclib.getScore(), 1e-12);
+        assertEquals(2, palbociclib.getTargetCount().intValue());
+        assertEquals("CDK4/6 inhibitor", palbociclib.getInformation());
+        List<DrugEvidence> evidence = palbociclib.getEvidence();
+        assertEquals(Arrays.asList("direct", "ppi"), Arrays.asList(evidence.get(0).getRelation(), evidence.get(1).getRelation()));
+        assertEquals(0.9, evidence.get(1).getPpiScore(), 1e-12);
+        assertNull(result.getCandidates().get(1).getInformation());
+
+        assertEquals(Arrays.asList("Palbociclib", "Abemaciclib"), drugs(index().rank("CDK4", related, 2, 1, 2)));
+    }
+
+    @Test
+    void equalScoresPreferMoreEvidence() {
+        List<DrugTargetIndex.RelatedGene> related = Arrays.asList(
+                new DrugTargetIndex.RelatedGene("WEE1", "direct", null, 1.0),
+                new DrugTargetIndex.RelatedGene("CDK4", "sl", null, 0.5),
+                new DrugTargetIndex.RelatedGene("CDK6", "sl", null, 0.5));
+        assertEquals(Arrays.asList("Palbociclib", "Adavosertib", "Abemaciclib"),
+                drugs(index().rank("WEE1", related, 0, 2, 10)));
+    }
+
+    @Test
+    void geneWithoutTargetedNeighboursHasNoCandidates() {
+        DrugRepurposing result = index().rank("TP53", Collections.singletonList(
+                new DrugTargetIndex.RelatedGene("TP53", "direct", null, 1.0)), 0, 0, 10);
+        assertEquals(0, result.getTotal().intValue());
+        assertTrue(result.getCandidates().isEmpty());
+    }
+}
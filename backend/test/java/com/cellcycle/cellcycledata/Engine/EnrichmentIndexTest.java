@@ -0,0 +1,103 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.EnrichmentResult;
+import com.cellcycle.cellcycledata.Entity.EnrichmentTerm;
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnrichmentIndexTest {
+
+    private static KeggPathway pathway(String term, List<String> genes, int popHits, int popTotal) {
+        return new KeggPathway("KEGG_PATHWAY", term, genes.size(), null, null, genes, null, popHits, popTotal,
+                null, null, null, null);
+    }
+
+    /**
+     * 文件中T1只列出A、B、C，全基因组中有5个成员；T2列出C、D，全基因组中有4个成员；总体20个基因
+     */
+    private static EnrichmentIndex index() {
+        return EnrichmentIndex.build(
+                Arrays.asList(pathway("T1", Arrays.asList("A", "B", "C"), 5, 20),
+                        pathway("T2", Arrays.asList("C", "D"), 4, 20)),
+                Arrays.asList(new HallmarkGene("A", Collections.singletonList("H1"), 1),
+                        new HallmarkGene("B", Arrays.asList("H1", "H2"), 2),
+                        new HallmarkGene("E", Collections.singletonList("H2"), 1)));
+    }
+
+    private static Map<String, EnrichmentTerm> byTerm(EnrichmentResult result) {
+        Map<String, EnrichmentTerm> terms = new HashMap<>();
+        for (EnrichmentTerm term : result.getTerms()) {
+            terms.put(term.getTerm(), term);
+        }
+        return terms;
+    }
+
+    @Test
+    void keggUsesGenomeWidePopulationAndTermSizes() {
+        EnrichmentResult result = index().enrich(Arrays.asList("A", "b", "D", "X"), null,
+                Collections.singletonList("kegg"), 0, 1.0);
+        assertEquals(Arrays.asList("A", "B", "D"), result.getGenes());
+        assertEquals(Collections.singletonList("X"), result.getUnmappedGenes());
+        Map<String, EnrichmentTerm> terms = byTerm(result);
+
+        // 抽取n=3，T1: K=5, k=2，P(X>=2) = [C(5,2)C(15,1) + C(5,3)C(15,0)] / C(20,3) = 160/1140
+        EnrichmentTerm t1 = terms.get("T1");
+        assertEquals(20, t1.getBackgroundSize().intValue());
+        assertEquals(5, t1.getTermSize().intValue());
+        assertEquals(3, t1.getListSize().intValue());
+        assertEquals(2, t1.getOverlap().intValue());
+        assertEquals(160.0 / 1140, t1.getPValue(), 1e-12);
+        assertEquals((2.0 / 3) / (5.0 / 20), t1.getFoldEnrichment(), 1e-12);
+
+        // T2: K=4, k=1，P(X>=1) = 1 - C(16,3)/C(20,3) = 580/1140
+        EnrichmentTerm t2 = terms.get("T2");
+        assertEquals(580.0 / 1140, t2.getPValue(), 1e-12);
+
+        // Benjamini-Hochberg：q1 = min(p1*2/1, q2)，q2 = p2
+        assertEquals(320.0 / 1140, t1.getFdr(), 1e-12);
+        assertEquals(580.0 / 1140, t2.getFdr(), 1e-12);
+    }
+
+    @Test
+    void customBackgroundCountsWithinTheBackground() {
+        EnrichmentResult result = index().enrich(Arrays.asList("A", "B", "D"), Arrays.asList("A", "B", "C", "D", "X"),
+                Collections.singletonList("kegg"), 0, 1.0);
+        EnrichmentTerm t1 = byTerm(result).get("T1");
+        assertEquals(4, t1.getBackgroundSize().intValue());
+        assertEquals(3, t1.getTermSize().intValue());
+        // N=4、K=3时抽3个至少有2个成员，P(X>=2) = 1
+        assertEquals(1.0, t1.getPValue(), 1e-12);
+    }
+
+    @Test
+    void hallmarkUsesItsAnnotatedGenesAsPopulation() {
+        EnrichmentResult result = index().enrich(Arrays.asList("A", "B"), null,
+                Collections.singletonList(" Hallmark "), 0, 1.0);
+        Map<String, EnrichmentTerm> terms = byTerm(result);
+        // 总体{A, B, E}，H1 = {A, B}，抽取2个均命中：C(2,2)C(1,0)/C(3,2) = 1/3
+        assertEquals(3, terms.get("H1").getBackgroundSize().intValue());
+        assertEquals(1.0 / 3, terms.get("H1").getPValue(), 1e-12);
+        assertEquals(1.0, terms.get("H2").getPValue(), 1e-12);
+
+        assertThrows(InvalidQueryException.class,
+                () -> index().enrich(Arrays.asList("A"), null, Collections.singletonList("go"), 0, 1.0));
+    }
+
+    @Test
+    void upperTailMatchesDirectSummation() {
+        EnrichmentIndex index = index();
+        assertEquals(1.0, index.upperTail(0, 20, 5, 3), 1e-12);
+        assertEquals(10.0 / 1140, index.upperTail(3, 20, 5, 3), 1e-12);
+        assertEquals(0.0, index.upperTail(4, 20, 5, 3), 1e-12);
+    }
+}
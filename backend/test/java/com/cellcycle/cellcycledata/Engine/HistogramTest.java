@@ -0,0 +1,75 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistogramTest {
+
+    @Test
+    void bucketsAreCumulativeAndUpperBoundsInclusive() {
+        Histogram histogram = new Histogram(new double[]{1, 2, 5});
+        for (double value : new double[]{0.5, 1, 1.5, 5, 7}) {
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertArrayEquals(new long[]{2, 3, 4, 5}, snapshot.getCumulative());
+        assertEquals(5, snapshot.getCount());
+        assertEquals(15.0, snapshot.getSum(), 1e-9);
+        assertEquals(7.0, snapshot.getMax(), 1e-9);
+    }
+
+    @Test
+    void quantilesInterpolateWithinBucketAndCapAtMax() {
+        Histogram histogram = new Histogram(new double[]{1, 2, 5});
+        assertEquals(0.0, histogram.snapshot().quantile(0.5), 1e-9);
+        for (double value : new double[]{0.5, 1, 1.5, 5, 7}) {
+            histogram.record(value);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        // rank 1 落在第一个桶(0,1]的一半处
+        assertEquals(0.5, snapshot.quantile(0.2), 1e-9);
+        // rank 2.5 落在(1,2]，桶内只有一次记录
+        assertEquals(1.5, snapshot.quantile(0.5), 1e-9);
+        // 超出所有上界的部分只能用最大值
+        assertEquals(7.0, snapshot.quantile(1.0), 1e-9);
+
+        Histogram small = new Histogram(Histogram.LATENCY_SECONDS);
+        small.record(0.0001);
+        assertEquals(0.0001, small.snapshot().quantile(0.99), 1e-12);
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        Histogram histogram = new Histogram(Histogram.ROWS);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(i % 2 == 0 ? 5 : thread * 1000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(80000, snapshot.getCount());
+        assertEquals(7000.0, snapshot.getMax(), 1e-9);
+        // 0 和 5 都不超过10，8个线程各有一半记录为5，另有线程0的一半为0
+        assertEquals(45000, snapshot.getCumulative()[2]);
+    }
+}
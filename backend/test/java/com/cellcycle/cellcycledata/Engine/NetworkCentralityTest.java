@@ -0,0 +1,157 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.CentralityEntry;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NetworkCentralityTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static PPIData edge(String node1, String node2, double score) {
+        PPIData row = new PPIData();
+        row.setNode1(node1);
+        row.setNode2(node2);
+        row.setCombined_score(score);
+        return row;
+    }
+
+    private static Map<String, CentralityEntry> byGene(NetworkCentrality centrality) {
+        Map<String, CentralityEntry> entries = new HashMap<>();
+        for (CentralityEntry entry : centrality.ranking(NetworkCentrality.Metric.DEGREE, 0, Integer.MAX_VALUE)) {
+            entries.put(entry.getGene(), entry);
+        }
+        return entries;
+    }
+
+    /**
+     * 路径 A-B-C 加上低分边 C-D：阈值0.5时D不在网络中
+     */
+    @Test
+    void pathGraphHasHandComputedValues() {
+        PPIGraph graph = PPIGraph.build(Arrays.asList(
+                edge("A", "B", 0.9), edge("B", "C", 0.6), edge("C", "D", 0.2), edge("B", "A", 0.4)));
+        NetworkCentrality centrality = NetworkCentrality.compute(graph, 0.5, POOL);
+        assertEquals(3, centrality.nodeCount());
+        assertEquals(2, centrality.edgeCount());
+
+        Map<String, CentralityEntry> entries = byGene(centrality);
+        assertEquals(1.0, entries.get("B").getBetweenness(), 1e-12);
+        assertEquals(0.0, entries.get("A").getBetweenness(), 1e-12);
+        assertEquals(1.0, entries.get("B").getCloseness(), 1e-12);
+        assertEquals(2.0 / 3, entries.get("A").getCloseness(), 1e-12);
+        // 重复的A-B只保留最高分
+        assertEquals(1.5, entries.get("B").getWeightedDegree(), 1e-12);
+        double pageRank = 0;
+        for (CentralityEntry entry : entries.values()) {
+            pageRank += entry.getPageRank();
+        }
+        assertEquals(1.0, pageRank, 1e-9);
+
+        List<CentralityEntry> byPageRank = centrality.ranking(NetworkCentrality.Metric.PAGERANK, 0, 10);
+        assertEquals("B", byPageRank.get(0).getGene());
+        assertEquals(1, byPageRank.get(0).getRank().intValue());
+        assertEquals(Arrays.asList("A", "C"), Arrays.asList(byPageRank.get(1).getGene(), byPageRank.get(2).getGene()));
+        assertEquals(1, centrality.ranking(NetworkCentrality.Metric.DEGREE, 2, 10).size());
+    }
+
+    /**
+     * 逐对枚举最短路径计算介数，与并行Brandes算法比较
+     */
+    @Test
+    void betweennessMatchesAllPairsBruteForce() {
+        Random random = new Random(21);
+        int n = 60;
+        List<PPIData> rows = new ArrayList<>();
+        for (int i = 0; i < 110; i++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            if (a != b) {
+                rows.add(edge("G" + a, "G" + b, random.nextDouble()));
+            }
+        }
+        PPIGraph graph = PPIGraph.build(rows);
+        NetworkCentrality centrality = NetworkCentrality.compute(graph, 0.3, POOL);
+
+        Map<String, Set<String>> adjacency = new HashMap<>();
+        for (PPIData row : rows) {
+            if (row.getCombined_score() >= 0.3) {
+                adjacency.computeIfAbsent(row.getNode1(), key -> new HashSet<>()).add(row.getNode2());
+                adjacency.computeIfAbsent(row.getNode2(), key -> new HashSet<>()).add(row.getNode1());
+            }
+        }
+        List<String> nodes = new ArrayList<>(adjacency.keySet());
+        Map<String, Map<String, Integer>> distance = new HashMap<>();
+        Map<String, Map<String, Double>> paths = new HashMap<>();
+        for (String source : nodes) {
+            Map<String, Integer> d = new HashMap<>();
+            Map<String, Double> sigma = new HashMap<>();
+            d.put(source, 0);
+            sigma.put(source, 1.0);
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(source);
+            while (!queue.isEmpty()) {
+                String u = queue.poll();
+                for (String v : adjacency.get(u)) {
+                    if (!d.containsKey(v)) {
+                        d.put(v, d.get(u) + 1);
+                        queue.add(v);
+                    }
+                    if (d.get(v) == d.get(u) + 1) {
+                        sigma.merge(v, sigma.get(u), Double::sum);
+                    }
+                }
+            }
+            distance.put(source, d);
+            paths.put(source, sigma);
+        }
+
+        double pairs = (nodes.size() - 1.0) * (nodes.size() - 2.0) / 2;
+        Map<String, CentralityEntry> entries = byGene(centrality);
+        assertEquals(nodes.size(), entries.size());
+        for (String v : nodes) {
+            double expected = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                for (int j = i + 1; j < nodes.size(); j++) {
+                    String s = nodes.get(i), t = nodes.get(j);
+                    Integer st = distance.get(s).get(t);
+                    Integer sv = distance.get(s).get(v);
+                    Integer vt = distance.get(v).get(t);
+                    if (s.equals(v) || t.equals(v) || st == null || sv == null || vt == null || sv + vt != st) {
+                        continue;
+                    }
+                    expected += paths.get(s).get(v) * paths.get(v).get(t) / paths.get(s).get(t);
+                }
+            }
+            assertEquals(expected / pairs, entries.get(v).getBetweenness(), 1e-9, v);
+            assertEquals(adjacency.get(v).size(), entries.get(v).getDegree().intValue(), v);
+        }
+    }
+
+    @Test
+    void cancelledComputationStops() {
+        PPIGraph graph = PPIGraph.build(Arrays.asList(edge("A", "B", 0.9), edge("B", "C", 0.9)));
+        assertThrows(CancellationException.class, () -> NetworkCentrality.compute(graph, 0, POOL, () -> true));
+    }
+}
@@ -0,0 +1,195 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPIEvidenceResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PPIEvidenceColumnsTest {
+
+    private static final int GENES = 40;
+
+    private static Double maybe(Random random, double missing) {
+        return random.nextDouble() < missing ? null : Math.round(random.nextDouble() * 1000) / 1000.0;
+    }
+
+    /**
+     * 超过一个块(1024行)的随机互作，含缺失值、大小写不同的基因名和自环
+     */
+    private static List<PPIData> sample() {
+        Random random = new Random(42);
+        List<PPIData> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            PPIData row = new PPIData();
+            String node1 = "GENE" + random.nextInt(GENES);
+            row.setNode1(random.nextInt(10) == 0 ? node1.toLowerCase() : node1);
+            row.setNode2(i % 500 == 0 ? node1 : "GENE" + random.nextInt(GENES));
+            row.setNeighborhood_on_chromosome(random.nextInt(5) == 0 ? null : random.nextInt(1000));
+            row.setCoexpression(maybe(random, 0.3));
+            row.setExperimentally_determined_interaction(maybe(random, 0.5));
+            row.setCombined_score(maybe(random, 0.05));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static boolean matches(PPIData row, String gene, Map<String, Function<PPIData, Double>> minimums,
+                                   Map<String, Double> thresholds) {
+        if (gene != null) {
+            String key = GeneNames.normalize(gene);
+            if (!key.equals(GeneNames.normalize(row.getNode1())) && !key.equals(GeneNames.normalize(row.getNode2()))) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Function<PPIData, Double>> entry : minimums.entrySet()) {
+            Double value = entry.getValue().apply(row);
+            if (value == null || value < thresholds.get(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Function<PPIData, Double>> channels() {
+        Map<String, Function<PPIData, Double>> channels = new LinkedHashMap<>();
+        channels.put("coexpression", PPIData::getCoexpression);
+        channels.put("experimentally_determined_interaction", PPIData::getExperimentally_determined_interaction);
+        channels.put("combined_score", PPIData::getCombined_score);
+        channels.put("neighborhood_on_chromosome",
+                row -> row.getNeighborhood_on_chromosome() == null ? null : row.getNeighborhood_on_chromosome().doubleValue());
+        return channels;
+    }
+
+    /**
+     * 暴力过滤并按单个通道排序，缺失值排在最后
+     */
+    private static List<PPIData> expected(List<PPIData> rows, String gene, Map<String, Double> thresholds,
+                                          String sortChannel, boolean descending) {
+        Map<String, Function<PPIData, Double>> all = channels();
+        Map<String, Function<PPIData, Double>> used = new LinkedHashMap<>();
+        for (String channel : thresholds.keySet()) {
+            used.put(channel, all.get(channel));
+        }
+        Function<PPIData, Double> key = all.get(sortChannel);
+        Comparator<Double> direction = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return rows.stream()
+                .filter(row -> matches(row, gene, used, thresholds))
+                .sorted(Comparator.comparing(key, Comparator.nullsLast(direction)))
+                .collect(Collectors.toList());
+    }
+
+    private static Set<PPIData> identities(List<PPIData> rows) {
+        Set<PPIData> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(rows);
+        return set;
+    }
+
+    private static void assertSameResult(List<PPIData> expected, PPIEvidenceResult result, String sortChannel) {
+        Function<PPIData, Double> key = channels().get(sortChannel);
+        assertEquals(expected.size(), result.getTotal().intValue());
+        // 排序键相同的行先后顺序由实现决定，因此比较排序键序列和行集合
+        assertEquals(expected.stream().map(key).collect(Collectors.toList()),
+                result.getRows().stream().map(key).collect(Collectors.toList()));
+        assertEquals(identities(expected), identities(result.getRows()));
+    }
+
+    @Test
+    void filtersMatchBruteForceWithAndWithoutGene() {
+        List<PPIData> rows = sample();
+        PPIEvidenceColumns columns = PPIEvidenceColumns.build(rows);
+        List<Map<String, Double>> conditions = new ArrayList<>();
+        conditions.add(Collections.emptyMap());
+        conditions.add(Collections.singletonMap("coexpression", 0.8));
+        Map<String, Double> two = new LinkedHashMap<>();
+        two.put("experimentally_determined_interaction", 0.3);
+        two.put("neighborhood_on_chromosome", 500.0);
+        conditions.add(two);
+        conditions.add(Collections.singletonMap("combined_score", 2.0));
+
+        for (Map<String, Double> thresholds : conditions) {
+            for (String gene : Arrays.asList(null, "GENE7", " gene7 ", "GENE0", "TP53")) {
+                PPIEvidenceResult byScore = columns.filter(thresholds, Collections.emptyList(), gene, 0, rows.size());
+                assertSameResult(expected(rows, gene, thresholds, "combined_score", true), byScore, "combined_score");
+
+                PPIEvidenceResult byCoexpression = columns.filter(thresholds,
+                        Collections.singletonList("coexpression:asc"), gene, 0, rows.size());
+                assertSameResult(expected(rows, gene, thresholds, "coexpression", false), byCoexpression,
+                        "coexpression");
+            }
+        }
+    }
+
+    @Test
+    void geneFiltersScanOnlyTheGenesEdges() {
+        List<PPIData> rows = sample();
+        PPIGraph graph = PPIGraph.build(rows);
+        PPIEvidenceColumns columns = PPIEvidenceColumns.build(graph);
+        for (int g = 0; g < GENES; g++) {
+            String gene = "GENE" + g;
+            int degree = graph.edgesOf(gene).size();
+            PPIEvidenceResult result = columns.filter(Collections.singletonMap("coexpression", 0.5),
+                    Collections.emptyList(), gene, 0, 10);
+            assertEquals(degree, result.getScannedRows().longValue());
+            assertTrue(result.getTotal() <= degree);
+        }
+        PPIEvidenceResult unknown = columns.filter(Collections.emptyMap(), Collections.emptyList(), "TP53", 0, 10);
+        assertEquals(0, unknown.getTotal().intValue());
+        assertEquals(0, unknown.getScannedRows().longValue());
+        assertTrue(unknown.getRows().isEmpty());
+
+        // 自环只计一次
+        PPIData loop = rows.get(0);
+        long loops = columns.filter(Collections.emptyMap(), Collections.emptyList(), loop.getNode1(), 0, rows.size())
+                .getRows().stream().filter(row -> row == loop).count();
+        assertEquals(1, loops);
+    }
+
+    @Test
+    void pagesConcatenateToTheFullOrder() {
+        List<PPIData> rows = sample();
+        PPIEvidenceColumns columns = PPIEvidenceColumns.build(rows);
+        Map<String, Double> thresholds = Collections.singletonMap("experimentally_determined_interaction", 0.2);
+        for (String sort : Arrays.asList("combined_score:desc", "coexpression:desc")) {
+            for (String gene : Arrays.asList(null, "GENE3")) {
+                List<String> keys = Collections.singletonList(sort);
+                PPIEvidenceResult whole = columns.filter(thresholds, keys, gene, 0, rows.size());
+                List<PPIData> paged = new ArrayList<>();
+                for (int offset = 0; offset < whole.getTotal() + 20; offset += 7) {
+                    PPIEvidenceResult page = columns.filter(thresholds, keys, gene, offset, 7);
+                    assertEquals(whole.getTotal(), page.getTotal());
+                    paged.addAll(page.getRows());
+                }
+                assertEquals(whole.getRows().size(), paged.size());
+                for (int i = 0; i < paged.size(); i++) {
+                    assertSame(whole.getRows().get(i), paged.get(i), sort + " " + gene + " at " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void unknownChannelsAreRejected() {
+        PPIEvidenceColumns columns = PPIEvidenceColumns.build(sample());
+        assertThrows(InvalidQueryException.class, () -> columns.filter(Collections.singletonMap("score", 0.1),
+                Collections.emptyList(), null, 0, 10));
+        assertThrows(InvalidQueryException.class, () -> columns.filter(Collections.emptyMap(),
+                Collections.singletonList("coexpression:up"), null, 0, 10));
+    }
+}
@@ -0,0 +1,97 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PPIGraphTest {
+
+    static PPIData edge(String node1, String node2, Double score) {
+        PPIData row = new PPIData();
+        row.setNode1(node1);
+        row.setNode2(node2);
+        row.setCombined_score(score);
+        return row;
+    }
+
+    private static List<PPIData> sample() {
+        return Arrays.asList(
+                edge("CDK1", "CCNB1", 0.9),
+                edge("cdk1", "CDC20", 0.5),
+                edge("CCNB1", "CDC20", 0.7),
+                edge("CDC20", "BUB1", null),
+                edge("BUB1", "BUB1", 0.4),
+                edge("PLK1", "CDK1", 0.95));
+    }
+
+    @Test
+    void normalizesGeneNamesAndKeepsFirstSpelling() {
+        PPIGraph graph = PPIGraph.build(sample());
+        assertEquals(5, graph.nodeCount());
+        assertEquals(6, graph.edgeCount());
+        assertEquals(graph.nodeId("CDK1"), graph.nodeId(" cdk1 "));
+        assertEquals("CDK1", graph.geneName(graph.nodeId("cdk1")));
+        assertEquals(-1, graph.nodeId("TP53"));
+    }
+
+    @Test
+    void edgesOfGeneAreSortedByScoreAndIncludeUnscored() {
+        PPIGraph graph = PPIGraph.build(sample());
+        assertEquals(Arrays.asList(0.95, 0.9, 0.5), scores(graph.edgesOf("CDK1")));
+        assertEquals(Arrays.asList(0.7, 0.5, null), scores(graph.edgesOf("CDC20")));
+        // 自环只出现一次
+        assertEquals(Arrays.asList(0.4, null), scores(graph.edgesOf("BUB1")));
+        assertTrue(graph.edgesOf("TP53").isEmpty());
+    }
+
+    @Test
+    void minScoreQueriesAreInclusiveAndSkipUnscored() {
+        PPIGraph graph = PPIGraph.build(sample());
+        assertEquals(Arrays.asList(0.95, 0.9), scores(graph.edgesOf("CDK1", 0.9)));
+        assertEquals(Arrays.asList(0.7, 0.5), scores(graph.edgesOf("cdc20", 0)));
+        assertEquals(Arrays.asList(0.95, 0.9, 0.7), scores(graph.edgesWithMinScore(0.7)));
+        assertEquals(5, graph.edgesWithMinScore(0).size());
+        assertTrue(graph.edgesWithMinScore(1.0).isEmpty());
+    }
+
+    @Test
+    void allEdgesKeepsSourceOrder() {
+        List<PPIData> rows = sample();
+        assertEquals(rows, PPIGraph.build(rows).allEdges());
+    }
+
+    @Test
+    void adjacencyDropsSelfLoopsAndMergesDuplicates() {
+        List<PPIData> rows = new ArrayList<>(sample());
+        rows.add(edge("CCNB1", "CDK1", 0.6));
+        PPIGraph graph = PPIGraph.build(rows);
+        PPIGraph.Adjacency adjacency = graph.adjacency(0.5);
+        int cdk1 = graph.nodeId("CDK1");
+        int from = adjacency.offsets[cdk1];
+        int to = adjacency.offsets[cdk1 + 1];
+        assertArrayEquals(new double[]{0.95, 0.9, 0.5}, Arrays.copyOfRange(adjacency.weights, from, to), 0);
+        int bub1 = graph.nodeId("BUB1");
+        assertEquals(adjacency.offsets[bub1], adjacency.offsets[bub1 + 1]);
+    }
+
+    @Test
+    void sortByScoreDescIsStable() {
+        double[] scores = {0.1, 0.5, 0.5, Double.NEGATIVE_INFINITY, 0.9, 0.1};
+        assertArrayEquals(new int[]{4, 1, 2, 0, 5, 3}, PPIGraph.sortByScoreDesc(scores));
+    }
+
+    static List<Double> scores(List<PPIData> rows) {
+        List<Double> scores = new ArrayList<>();
+        for (PPIData row : rows) {
+            scores.add(row.getCombined_score());
+        }
+        return scores;
+    }
+}
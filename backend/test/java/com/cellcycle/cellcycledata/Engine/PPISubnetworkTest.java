@@ -0,0 +1,70 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.PPISubnetwork;
+import com.cellcycle.cellcycledata.Entity.PPISubnetworkNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.cellcycle.cellcycledata.Engine.PPIGraphTest.edge;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PPISubnetworkTest {
+
+    /** A-B-C-D 链，另有 A-E 低分边 */
+    private static PPIGraph chain() {
+        return PPIGraph.build(Arrays.asList(
+                edge("A", "B", 0.9),
+                edge("B", "C", 0.8),
+                edge("C", "D", 0.7),
+                edge("A", "E", 0.2)));
+    }
+
+    @Test
+    void expandsByHopsAlongEdgesAboveThreshold() {
+        PPISubnetwork result = chain().subnetwork(Arrays.asList("a", "X"), 2, 0.5, 100);
+        assertEquals(Collections.singletonList("A"), result.getSeeds());
+        assertEquals(Collections.singletonList("X"), result.getMissingSeeds());
+        assertEquals(Arrays.asList("A:0", "B:1", "C:2"), nodes(result));
+        assertEquals(2, result.getEdges().size());
+        assertFalse(result.getTruncated());
+    }
+
+    @Test
+    void stopsAtMaxNodesAndReportsTruncation() {
+        PPISubnetwork result = chain().subnetwork(Collections.singletonList("A"), 5, 0, 3);
+        assertEquals(3, result.getNodes().size());
+        assertTrue(result.getTruncated());
+    }
+
+    @Test
+    void keepsEverySeedWhenSeedsExceedMaxNodes() {
+        PPISubnetwork result = chain().subnetwork(Arrays.asList("A", "C", "E", "A"), 3, 0, 2);
+        assertEquals(Arrays.asList("A", "C", "E"), result.getSeeds());
+        assertEquals(Arrays.asList("A:0", "C:0", "E:0"), nodes(result));
+        // 种子之间的边仍然返回
+        assertEquals(1, result.getEdges().size());
+        assertTrue(result.getTruncated());
+    }
+
+    @Test
+    void seedsFillingMaxNodesExactlyAreTruncatedOnlyIfExpansionIsCut() {
+        PPIGraph graph = chain();
+        assertFalse(graph.subnetwork(Arrays.asList("A", "B"), 0, 0, 2).getTruncated());
+        assertTrue(graph.subnetwork(Arrays.asList("A", "B"), 1, 0, 2).getTruncated());
+    }
+
+    private static List<String> nodes(PPISubnetwork result) {
+        List<String> nodes = new ArrayList<>();
+        for (PPISubnetworkNode node : result.getNodes()) {
+            nodes.add(node.getGene() + ":" + node.getHop());
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,179 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.QueryCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    private static QueryCache<String, List<String>> cache(int maxEntries, long maxWeight) {
+        return new QueryCache<>("test", maxEntries, maxWeight, QueryCache::rows);
+    }
+
+    @Test
+    void hitsReturnTheCachedValueAndLeastRecentlyUsedIsEvicted() {
+        QueryCache<String, List<String>> cache = cache(2, 100);
+        AtomicInteger loads = new AtomicInteger();
+        List<String> a = cache.get("a", () -> Arrays.asList("A" + loads.incrementAndGet()));
+        assertSame(a, cache.get("a", () -> Arrays.asList("A" + loads.incrementAndGet())));
+        cache.get("b", () -> Collections.singletonList("B"));
+        cache.get("a", () -> Collections.singletonList("unused"));
+        cache.get("c", () -> Collections.singletonList("C"));
+        // b最久未访问，被淘汰
+        assertEquals(Collections.singletonList("B2"), cache.get("b", () -> Collections.singletonList("B2")));
+        assertEquals(1, loads.get());
+
+        QueryCacheStats stats = cache.stats();
+        assertEquals(2, stats.getEntries().intValue());
+        assertEquals(2, stats.getHits().longValue());
+        assertEquals(4, stats.getMisses().longValue());
+        assertEquals(2, stats.getEvictions().longValue());
+    }
+
+    @Test
+    void weightLimitEvictsAndRejectsOversizedEntries() {
+        QueryCache<String, List<String>> cache = cache(10, 3);
+        cache.get("two", () -> Arrays.asList("x", "y"));
+        cache.get("one", () -> Collections.singletonList("z"));
+        cache.get("big", () -> Arrays.asList("1", "2", "3", "4"));
+        assertEquals(1, cache.stats().getRejections().longValue());
+        assertEquals(3, cache.stats().getWeight().longValue());
+        cache.get("another", () -> Collections.singletonList("w"));
+        assertEquals(2, cache.stats().getEntries().intValue());
+
+        QueryCache<String, List<String>> disabled = cache(0, 100);
+        AtomicInteger loads = new AtomicInteger();
+        disabled.get("a", () -> Collections.singletonList("A" + loads.incrementAndGet()));
+        disabled.get("a", () -> Collections.singletonList("A" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateBumpsVersionAndClearsEntries() {
+        QueryCache<String, List<String>> cache = cache(10, 100);
+        cache.get("a", () -> Collections.singletonList("old"));
+        assertEquals(2, cache.invalidate());
+        assertEquals(Collections.singletonList("new"), cache.get("a", () -> Collections.singletonList("new")));
+        assertEquals(1, cache.stats().getInvalidations().longValue());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoadAndItsFailure() throws Exception {
+        QueryCache<String, List<String>> cache = cache(10, 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<List<String>> leader = this.executor.submit(() -> cache.get("a", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Collections.singletonList("A");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<List<String>> follower = this.executor.submit(() -> cache.get("a", () -> {
+            loads.incrementAndGet();
+            return Collections.singletonList("other");
+        }));
+        waitForCoalesced(cache, 1);
+        release.countDown();
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+
+        CountDownLatch failing = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        Future<List<String>> broken = this.executor.submit(() -> cache.get("b", () -> {
+            failing.countDown();
+            await(fail);
+            throw new IllegalStateException("database down");
+        }));
+        assertTrue(failing.await(5, TimeUnit.SECONDS));
+        Future<List<String>> waiter = this.executor.submit(() -> cache.get("b", () -> Collections.singletonList("B")));
+        waitForCoalesced(cache, 2);
+        fail.countDown();
+        Exception e = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertThrows(Exception.class, () -> broken.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 重新加载前开始的查询：重新加载后到达的调用不等待它，它的结果也不写入缓存
+     */
+    @Test
+    void loadsStartedBeforeInvalidateAreNotSharedOrStored() throws Exception {
+        QueryCache<String, List<String>> cache = cache(10, 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> stale = this.executor.submit(() -> cache.get("a", () -> {
+            loading.countDown();
+            await(release);
+            return Collections.singletonList("before reload");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        cache.invalidate();
+        List<String> fresh = cache.get("a", () -> Collections.singletonList("after reload"));
+        assertEquals(Collections.singletonList("after reload"), fresh);
+        assertEquals(0, cache.stats().getCoalesced().longValue());
+
+        release.countDown();
+        assertEquals(Collections.singletonList("before reload"), stale.get(5, TimeUnit.SECONDS));
+        assertSame(fresh, cache.get("a", () -> Collections.singletonList("unused")));
+        assertEquals(1, cache.stats().getEntries().intValue());
+    }
+
+    @Test
+    void staleLoadIsNotStoredEvenWithoutAnotherCaller() throws Exception {
+        QueryCache<String, List<String>> cache = cache(10, 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> stale = this.executor.submit(() -> cache.get("a", () -> {
+            loading.countDown();
+            await(release);
+            return Collections.singletonList("before reload");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidate();
+        release.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+        assertEquals(0, cache.stats().getEntries().intValue());
+        assertEquals(Collections.singletonList("after reload"),
+                cache.get("a", () -> Collections.singletonList("after reload")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitForCoalesced(QueryCache<?, ?> cache, long count) throws InterruptedException {
+        for (int i = 0; i < 500 && cache.stats().getCoalesced() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, cache.stats().getCoalesced().longValue());
+    }
+}
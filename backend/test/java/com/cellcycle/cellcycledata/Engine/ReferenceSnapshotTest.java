@@ -0,0 +1,139 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static TFData tf(String tf, String target, String interaction) {
+        TFData row = new TFData();
+        row.setTf(tf);
+        row.setTarget_gene(target);
+        row.setInteraction(interaction);
+        return row;
+    }
+
+    private static PPIData ppi(String node1, String node2, Integer neighborhood, Double score) {
+        PPIData row = new PPIData();
+        row.setNode1(node1);
+        row.setNode2(node2);
+        row.setNeighborhood_on_chromosome(neighborhood);
+        row.setCombined_score(score);
+        return row;
+    }
+
+    private Path write() throws IOException {
+        Path file = this.dir.resolve("reference.snapshot");
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.table("tf", Arrays.asList(tf("E2F1", "CCNB1", "activation"), tf("e2f1 ", "CDK1", null),
+                        tf("MYC", "E2F1", "repression")))
+                .string("tf", TFData::getTf)
+                .string("target_gene", TFData::getTarget_gene)
+                .string("interaction", TFData::getInteraction)
+                .index("tf")
+                .index("target_gene");
+        writer.table("ppi", Arrays.asList(ppi("CDK1", "CCNB1", 0, 0.9), ppi("CDK2", "CCNE1", null, null)))
+                .string("node1", PPIData::getNode1)
+                .string("node2", PPIData::getNode2)
+                .integer("neighborhood_on_chromosome", PPIData::getNeighborhood_on_chromosome)
+                .decimal("combined_score", PPIData::getCombined_score)
+                .index("node1");
+        long checksum = writer.write(file);
+        try (ReferenceSnapshot snapshot = ReferenceSnapshot.open(file, true)) {
+            assertEquals(checksum, snapshot.checksum());
+        }
+        return file;
+    }
+
+    @Test
+    void cellsRoundTripWithNulls() throws IOException {
+        try (ReferenceSnapshot snapshot = ReferenceSnapshot.open(write(), true)) {
+            assertEquals(Arrays.asList("tf", "ppi"), snapshot.tableNames());
+            assertNull(snapshot.table("sl"));
+
+            ReferenceSnapshot.Table tf = snapshot.table("tf");
+            assertEquals(3, tf.rowCount());
+            int interaction = tf.column("interaction");
+            assertEquals("activation", tf.string(interaction, 0));
+            assertNull(tf.string(interaction, 1));
+            assertEquals("e2f1 ", tf.value(tf.column("tf"), 1));
+            assertThrows(IllegalArgumentException.class, () -> tf.column("nope"));
+
+            ReferenceSnapshot.Table ppi = snapshot.table("ppi");
+            int neighborhood = ppi.column("neighborhood_on_chromosome");
+            int score = ppi.column("combined_score");
+            assertEquals(Integer.valueOf(0), ppi.integer(neighborhood, 0));
+            assertNull(ppi.integer(neighborhood, 1));
+            assertEquals(0.9, ppi.decimal(score, 0), 1e-12);
+            assertNull(ppi.value(score, 1));
+        }
+    }
+
+    @Test
+    void indexesMatchNormalizedValuesAndDistinctKeepsRawValues() throws IOException {
+        try (ReferenceSnapshot snapshot = ReferenceSnapshot.open(write(), true)) {
+            ReferenceSnapshot.Table tf = snapshot.table("tf");
+            assertArrayEquals(new int[]{0, 1}, tf.rows("tf", " e2f1"));
+            assertArrayEquals(new int[]{2}, tf.rows("target_gene", "E2F1"));
+            assertArrayEquals(new int[0], tf.rows("tf", "TP53"));
+            assertThrows(IllegalArgumentException.class, () -> tf.rows("interaction", "activation"));
+            // 按String.compareTo排序，大写在小写之前
+            assertEquals(Arrays.asList("E2F1", "MYC", "e2f1 "), tf.distinct(tf.column("tf")));
+        }
+    }
+
+    @Test
+    void equalStringsShareOneDecodedObjectAndCompareByDictionaryOrder() throws IOException {
+        try (ReferenceSnapshot snapshot = ReferenceSnapshot.open(write(), true)) {
+            ReferenceSnapshot.Table tf = snapshot.table("tf");
+            int target = tf.column("target_gene");
+            int name = tf.column("tf");
+            // tf列第0行与target_gene列第2行都是E2F1
+            assertSame(tf.string(name, 0), tf.string(target, 2));
+            assertTrue(tf.compare(name, 0, 2) < 0);
+            assertTrue(tf.compare(tf.column("interaction"), 1, 0) < 0);
+            assertEquals(0, tf.compare(name, 0, "E2F1"));
+            assertTrue(tf.compare(tf.column("interaction"), 1, "a") < 0);
+            assertTrue(tf.compare(name, 2, null) > 0);
+
+            ReferenceSnapshot.Table ppi = snapshot.table("ppi");
+            int score = ppi.column("combined_score");
+            assertTrue(ppi.compare(score, 1, 0) < 0);
+            assertTrue(ppi.compare(ppi.column("neighborhood_on_chromosome"), 0, 1) > 0);
+        }
+    }
+
+    @Test
+    void corruptionIsDetectedWhenVerifying() throws IOException {
+        Path file = write();
+        byte[] bytes = Files.readAllBytes(file);
+        // 数据段紧跟在48字节的文件头之后
+        bytes[ReferenceSnapshot.HEADER_BYTES] ^= 0x01;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> ReferenceSnapshot.open(file, true));
+        ReferenceSnapshot.open(file, false).close();
+
+        bytes[0] ^= 0x01;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> ReferenceSnapshot.open(file, false));
+        Files.write(file, new byte[10]);
+        assertThrows(IOException.class, () -> ReferenceSnapshot.open(file, false));
+    }
+}
@@ -0,0 +1,145 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.SLData;
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLPair;
+import com.cellcycle.cellcycledata.Entity.SLPairsInSet;
+import com.cellcycle.cellcycledata.Entity.SLSharedPartners;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SLIndexTest {
+
+    private static SLData sl(String geneA, String geneB) {
+        SLData row = new SLData();
+        row.setGeneA(geneA);
+        row.setGeneB(geneB);
+        return row;
+    }
+
+    private static SLNatureData nature(String geneA, String geneB) {
+        SLNatureData row = new SLNatureData();
+        row.setGeneA(geneA);
+        row.setGeneB(geneB);
+        return row;
+    }
+
+    private static SLIndex sample() {
+        return SLIndex.build(
+                Arrays.asList(sl("PARP1", "BRCA1"), sl("PARP1", "BRCA2"), sl("brca1", "parp1"), sl("ATR", "BRCA1"),
+                        sl("ATR", ""), sl(null, "BRCA2")),
+                Arrays.asList(nature("BRCA1", "PARP1"), nature("WEE1", "BRCA1"), nature("WEE1", "BRCA2"),
+                        nature("WEE1", "BRCA2")));
+    }
+
+    @Test
+    void duplicateAndReversedRowsMergeIntoOnePairWithBothSources() {
+        SLIndex index = sample();
+        assertEquals(5, index.geneCount());
+        assertEquals(5, index.pairCount());
+
+        SLPair pair = index.pair("brca1", "Parp1");
+        assertEquals("BRCA1", pair.getGeneA());
+        assertEquals("PARP1", pair.getGeneB());
+        assertEquals(Arrays.asList("sl", "sl_nature"), pair.getSources());
+        assertEquals(Collections.singletonList("sl"), index.pair("PARP1", "BRCA2").getSources());
+        assertEquals(Collections.singletonList("sl_nature"), index.pair("BRCA2", "WEE1").getSources());
+
+        assertTrue(index.pair("PARP1", "WEE1").getSources().isEmpty());
+        SLPair unknown = index.pair("PARP1", "NOPE");
+        assertEquals("NOPE", unknown.getGeneB());
+        assertTrue(unknown.getSources().isEmpty());
+    }
+
+    @Test
+    void partnersAndSetQueries() {
+        SLIndex index = sample();
+        assertEquals(Arrays.asList("ATR", "PARP1", "WEE1"), index.partnersOf("brca1"));
+        assertTrue(index.partnersOf("NOPE").isEmpty());
+
+        SLSharedPartners shared = index.sharedPartners(Arrays.asList("BRCA1", "brca2", "BRCA1"));
+        assertEquals(Arrays.asList("BRCA1", "BRCA2"), shared.getGenes());
+        assertEquals(Arrays.asList("PARP1", "WEE1"), shared.getPartners());
+        assertTrue(shared.getMissingGenes().isEmpty());
+
+        SLSharedPartners withMissing = index.sharedPartners(Arrays.asList("BRCA1", "NOPE"));
+        assertEquals(Collections.singletonList("NOPE"), withMissing.getMissingGenes());
+        assertTrue(withMissing.getPartners().isEmpty());
+
+        SLPairsInSet within = index.pairsWithin(Arrays.asList("PARP1", "BRCA1", "BRCA2", "ATR", "NOPE"));
+        assertEquals(Collections.singletonList("NOPE"), within.getMissingGenes());
+        List<String> pairs = new ArrayList<>();
+        for (SLPair pair : within.getPairs()) {
+            pairs.add(pair.getGeneA() + "-" + pair.getGeneB());
+        }
+        assertEquals(Arrays.asList("PARP1-BRCA1", "PARP1-BRCA2", "BRCA1-ATR"), pairs);
+    }
+
+    @Test
+    void setQueriesMatchBruteForceOnRandomPairs() {
+        Random random = new Random(7);
+        int genes = 60;
+        List<SLData> sl = new ArrayList<>();
+        List<SLNatureData> slNature = new ArrayList<>();
+        Set<String> edges = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(genes), b = random.nextInt(genes);
+            if (a == b) {
+                continue;
+            }
+            if (random.nextBoolean()) {
+                sl.add(sl("G" + a, "G" + b));
+            } else {
+                slNature.add(nature("G" + a, "G" + b));
+            }
+            edges.add(Math.min(a, b) + "-" + Math.max(a, b));
+        }
+        SLIndex index = SLIndex.build(sl, slNature);
+        assertEquals(edges.size(), index.pairCount());
+
+        for (int trial = 0; trial < 50; trial++) {
+            List<String> query = new ArrayList<>();
+            int size = 1 + random.nextInt(4);
+            for (int i = 0; i < size; i++) {
+                query.add("G" + random.nextInt(genes));
+            }
+            Set<String> expectedShared = new TreeSet<>();
+            for (int candidate = 0; candidate < genes; candidate++) {
+                boolean all = !query.contains("G" + candidate);
+                for (String gene : query) {
+                    int g = Integer.parseInt(gene.substring(1));
+                    all &= edges.contains(Math.min(g, candidate) + "-" + Math.max(g, candidate));
+                }
+                if (all) {
+                    expectedShared.add("G" + candidate);
+                }
+            }
+            assertEquals(new ArrayList<>(expectedShared), index.sharedPartners(query).getPartners(), query.toString());
+
+            int expectedPairs = 0;
+            List<String> distinct = new ArrayList<>(new LinkedHashSet<>(query));
+            for (int i = 0; i < distinct.size(); i++) {
+                for (int j = i + 1; j < distinct.size(); j++) {
+                    int a = Integer.parseInt(distinct.get(i).substring(1));
+                    int b = Integer.parseInt(distinct.get(j).substring(1));
+                    if (edges.contains(Math.min(a, b) + "-" + Math.max(a, b))) {
+                        expectedPairs++;
+                    }
+                }
+            }
+            assertEquals(expectedPairs, index.pairsWithin(query).getPairs().size(), query.toString());
+        }
+    }
+}
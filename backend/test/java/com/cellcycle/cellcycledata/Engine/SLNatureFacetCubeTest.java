@@ -0,0 +1,146 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.SLNatureData;
+import com.cellcycle.cellcycledata.Entity.SLNatureFacets;
+import com.cellcycle.cellcycledata.Entity.SLNatureRows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SLNatureFacetCubeTest {
+
+    private static final String[][] DOMAINS = {
+            {"G1", "S", "G2", "M", null},
+            {"G1", "S", "M"},
+            {"HeLa", "U2OS", "RPE1", "HCT116"},
+            {"yes", "no", " "}
+    };
+
+    private static SLNatureData row(int id, String stageA, String stageB, String cellLine, String gemini) {
+        SLNatureData row = new SLNatureData();
+        row.setGeneA("A" + id);
+        row.setGeneB("B" + id);
+        row.setStageGeneA(stageA);
+        row.setStageGeneB(stageB);
+        row.setCellLine(cellLine);
+        row.setGeminiSensitive(gemini);
+        return row;
+    }
+
+    private static List<SLNatureData> randomRows(int count, long seed) {
+        Random random = new Random(seed);
+        List<SLNatureData> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i, pick(random, 0), pick(random, 1), pick(random, 2), pick(random, 3)));
+        }
+        return rows;
+    }
+
+    private static String pick(Random random, int dimension) {
+        return DOMAINS[dimension][random.nextInt(DOMAINS[dimension].length)];
+    }
+
+    private static String valueOf(SLNatureData row, int dimension) {
+        String[] values = {row.getStageGeneA(), row.getStageGeneB(), row.getCellLine(), row.getGeminiSensitive()};
+        return values[dimension] == null ? "" : values[dimension].trim();
+    }
+
+    private static boolean matches(SLNatureData row, Map<String, String> filters) {
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (!valueOf(row, SLNatureFacetCube.DIMENSIONS.indexOf(filter.getKey())).equals(filter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void everyFilterCombinationMatchesBruteForce() {
+        List<SLNatureData> rows = randomRows(500, 11);
+        SLNatureFacetCube cube = SLNatureFacetCube.build(rows);
+        Random random = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            Map<String, String> filters = new LinkedHashMap<>();
+            for (int d = 0; d < SLNatureFacetCube.DIMENSIONS.size(); d++) {
+                if (random.nextBoolean()) {
+                    String value = pick(random, d);
+                    filters.put(SLNatureFacetCube.DIMENSIONS.get(d), value == null ? "" : value.trim());
+                }
+            }
+
+            List<SLNatureData> expected = new ArrayList<>();
+            for (SLNatureData row : rows) {
+                if (matches(row, filters)) {
+                    expected.add(row);
+                }
+            }
+            SLNatureFacets facets = cube.facets(filters);
+            assertEquals(expected.size(), facets.getTotal().intValue(), filters.toString());
+
+            // 每个维度的分面计数：去掉该维度自身的过滤条件后按取值分组
+            for (int d = 0; d < SLNatureFacetCube.DIMENSIONS.size(); d++) {
+                String dimension = SLNatureFacetCube.DIMENSIONS.get(d);
+                Map<String, String> others = new LinkedHashMap<>(filters);
+                others.remove(dimension);
+                Map<String, Integer> counts = new TreeMap<>();
+                for (SLNatureData row : rows) {
+                    if (matches(row, others)) {
+                        counts.merge(valueOf(row, d), 1, Integer::sum);
+                    }
+                }
+                assertEquals(counts, new TreeMap<>(facets.getFacets().get(dimension)), filters + " " + dimension);
+            }
+
+            SLNatureRows page = cube.page(filters, 3, 7);
+            int to = Math.min(expected.size(), 10);
+            List<SLNatureData> slice = 3 < to ? expected.subList(3, to) : Collections.<SLNatureData>emptyList();
+            assertEquals(slice, page.getRows(), filters.toString());
+            assertEquals(expected.size(), page.getTotal().intValue());
+        }
+    }
+
+    @Test
+    void unknownValuesAndDimensions() {
+        SLNatureFacetCube cube = SLNatureFacetCube.build(Arrays.asList(
+                row(1, "G1", "S", "HeLa", "yes"), row(2, "G1", "M", "HeLa", "no"), row(3, "S", "S", "U2OS", "yes")));
+
+        Map<String, String> filters = new LinkedHashMap<>();
+        filters.put("cellLine", "MCF7");
+        SLNatureFacets facets = cube.facets(filters);
+        assertEquals(0, facets.getTotal().intValue());
+        assertTrue(facets.getFacets().get("stageGeneA").isEmpty());
+        // 只有被过滤的维度自身仍列出全部取值
+        assertEquals(2, facets.getFacets().get("cellLine").size());
+        assertTrue(cube.page(filters, 0, 10).getRows().isEmpty());
+
+        assertThrows(InvalidQueryException.class,
+                () -> cube.facets(Collections.singletonMap("tissue", "lung")));
+
+        Map<String, String> trimmed = Collections.singletonMap("stageGeneA", " G1 ");
+        assertEquals(2, cube.facets(trimmed).getTotal().intValue());
+        assertEquals(3, cube.facets(Collections.<String, String>emptyMap()).getTotal().intValue());
+        assertTrue(cube.page(Collections.<String, String>emptyMap(), 5, 10).getRows().isEmpty());
+    }
+
+    @Test
+    void rowsAreAnUnmodifiableCopy() {
+        List<SLNatureData> source = new ArrayList<>(randomRows(5, 1));
+        SLNatureFacetCube cube = SLNatureFacetCube.build(source);
+        source.clear();
+        assertEquals(5, cube.rows().size());
+        assertThrows(UnsupportedOperationException.class, () -> cube.rows().clear());
+        assertSame(cube.rows(), cube.rows());
+    }
+}
@@ -0,0 +1,228 @@
+package com.cellcycle.cellcycledata.Engine;
+
+import com.cellcycle.cellcycledata.Entity.TFCascade;
+import com.cellcycle.cellcycledata.Entity.TFCascadeNode;
+import com.cellcycle.cellcycledata.Entity.TFChain;
+import com.cellcycle.cellcycledata.Entity.TFComponent;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.cellcycle.cellcycledata.Entity.TFLoop;
+import com.cellcycle.cellcycledata.Entity.TFLoops;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TFGraphTest {
+
+    private static TFData tf(String tf, String target, String interaction) {
+        TFData row = new TFData();
+        row.setTf(tf);
+        row.setTarget_gene(target);
+        row.setInteraction(interaction);
+        return row;
+    }
+
+    /**
+     * E2F1→CDK1→CCNB1、E2F1→CCNB1 构成前馈环；CCNB1→E2F1 使三者成为一个强连通分量，
+     * 并与 E2F1→CCNB1 组成两步反馈环；
+     * TP53 以抑制和激活两种记录调控 CDK1，符号为 dual
+     */
+    private static TFGraph sample() {
+        return TFGraph.build(Arrays.asList(
+                tf("E2F1", "CDK1", "Activation"), tf("e2f1", "cdk1", "Activation"),
+                tf("CDK1", "CCNB1", "Activation"), tf("E2F1", "CCNB1", "Repression"),
+                tf("CCNB1", "E2F1", "Repression"), tf("TP53", "CDK1", "Repression"),
+                tf("TP53", "CDK1", "Activation"), tf("TP53", "MDM2", "Activation"),
+                tf("MDM2", "MDM2", "Unknown"), tf(null, "CDK1", "Activation"), tf("MYC", " ", "Activation")));
+    }
+
+    @Test
+    void duplicateRowsMergeAndBlanksAreSkipped() {
+        TFGraph graph = sample();
+        assertEquals(6, graph.nodeCount());
+        assertEquals(7, graph.edgeCount());
+    }
+
+    @Test
+    void cascadeFollowsEdgeSignsWithinDepth() {
+        TFGraph graph = sample();
+        TFCascade down = graph.cascade("e2f1", true, 2, 100);
+        assertEquals("E2F1", down.getGene());
+        assertEquals("downstream", down.getDirection());
+        Map<String, TFCascadeNode> nodes = new HashMap<>();
+        for (TFCascadeNode node : down.getNodes()) {
+            nodes.put(node.getGene(), node);
+        }
+        assertEquals(2, nodes.size());
+        assertEquals(1, nodes.get("CCNB1").getHop().intValue());
+        assertEquals("repression", nodes.get("CCNB1").getEffect());
+        assertEquals("E2F1", nodes.get("CDK1").getVia());
+        assertFalse(down.getTruncated());
+
+        TFCascade up = graph.cascade("CDK1", false, 1, 100);
+        List<String> regulators = new ArrayList<>();
+        for (TFCascadeNode node : up.getNodes()) {
+            regulators.add(node.getGene() + ":" + node.getEffect());
+        }
+        Collections.sort(regulators);
+        assertEquals(Arrays.asList("E2F1:activation", "TP53:unknown"), regulators);
+
+        TFCascade truncated = graph.cascade("TP53", true, 5, 1);
+        assertEquals(1, truncated.getNodes().size());
+        assertTrue(truncated.getTruncated());
+
+        assertThrows(InvalidQueryException.class, () -> graph.cascade("NOPE", true, 1, 10));
+    }
+
+    @Test
+    void shortestChainCombinesSigns() {
+        TFGraph graph = sample();
+        TFChain chain = graph.shortestChain("CDK1", "E2F1", 5);
+        assertEquals(Arrays.asList("CDK1", "CCNB1", "E2F1"), chain.getGenes());
+        assertEquals(Arrays.asList("activation", "repression"), chain.getInteractions());
+        assertEquals("repression", chain.getEffect());
+
+        TFChain dual = graph.shortestChain("TP53", "CCNB1", 5);
+        assertEquals(Arrays.asList("dual", "activation"), dual.getInteractions());
+        assertEquals("unknown", dual.getEffect());
+
+        assertTrue(graph.shortestChain("CDK1", "E2F1", 1).getGenes().isEmpty());
+        TFChain unreachable = graph.shortestChain("MDM2", "E2F1", 5);
+        assertTrue(unreachable.getGenes().isEmpty());
+        assertNull(unreachable.getEffect());
+    }
+
+    @Test
+    void loopsAndComponents() {
+        TFGraph graph = sample();
+        TFLoops loops = graph.loops("CCNB1", 5, 10);
+        assertEquals(3, loops.getComponentSize().intValue());
+        assertEquals(1, loops.getFeedForward().size());
+        TFLoop ffl = loops.getFeedForward().get(0);
+        assertEquals(Arrays.asList("E2F1", "CDK1", "CCNB1"), ffl.getGenes());
+        assertEquals("incoherent", ffl.getEffect());
+        List<String> feedback = new ArrayList<>();
+        for (TFLoop loop : loops.getFeedback()) {
+            feedback.add(String.join(">", loop.getGenes()) + ":" + loop.getEffect());
+        }
+        Collections.sort(feedback);
+        assertEquals(Arrays.asList("CCNB1>E2F1>CCNB1:positive", "CCNB1>E2F1>CDK1>CCNB1:negative"), feedback);
+        assertEquals(1, graph.loops("CCNB1", 2, 10).getFeedback().size());
+        assertTrue(graph.loops("CCNB1", 5, 1).getTruncated());
+
+        TFLoops self = graph.loops("MDM2", 5, 10);
+        assertEquals(1, self.getFeedback().size());
+        assertEquals(Arrays.asList("MDM2", "MDM2"), self.getFeedback().get(0).getGenes());
+
+        List<TFComponent> components = graph.components(2);
+        assertEquals(1, components.size());
+        assertEquals(Arrays.asList("CCNB1", "CDK1", "E2F1"), components.get(0).getGenes());
+        assertEquals(graph.nodeCount(), totalSize(graph.components(1)));
+    }
+
+    private static int totalSize(List<TFComponent> components) {
+        int total = 0;
+        for (TFComponent component : components) {
+            total += component.getSize();
+        }
+        return total;
+    }
+
+    private static Map<Integer, Integer> bfs(Map<Integer, Set<Integer>> edges, int start) {
+        Map<Integer, Integer> hops = new HashMap<>();
+        hops.put(start, 0);
+        Deque<Integer> queue = new ArrayDeque<>(Collections.singleton(start));
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int v : edges.getOrDefault(u, Collections.<Integer>emptySet())) {
+                if (!hops.containsKey(v)) {
+                    hops.put(v, hops.get(u) + 1);
+                    queue.add(v);
+                }
+            }
+        }
+        return hops;
+    }
+
+    @Test
+    void reachabilityAndComponentsMatchBruteForce() {
+        Random random = new Random(9);
+        int n = 80;
+        List<TFData> rows = new ArrayList<>();
+        Map<Integer, Set<Integer>> out = new HashMap<>();
+        Map<Integer, Set<Integer>> in = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            rows.add(tf("G" + v, "G" + v, null));
+            out.computeIfAbsent(v, key -> new HashSet<>()).add(v);
+            in.computeIfAbsent(v, key -> new HashSet<>()).add(v);
+        }
+        for (int i = 0; i < 160; i++) {
+            int u = random.nextInt(n), v = random.nextInt(n);
+            rows.add(tf("G" + u, "G" + v, random.nextBoolean() ? "Activation" : "Repression"));
+            out.get(u).add(v);
+            in.get(v).add(u);
+        }
+        TFGraph graph = TFGraph.build(rows);
+
+        Map<Integer, Map<Integer, Integer>> reach = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            reach.put(v, bfs(out, v));
+        }
+        for (int trial = 0; trial < 40; trial++) {
+            int start = random.nextInt(n);
+            int depth = 1 + random.nextInt(4);
+            boolean downstream = random.nextBoolean();
+            Map<Integer, Integer> hops = bfs(downstream ? out : in, start);
+            Set<String> expected = new TreeSet<>();
+            for (Map.Entry<Integer, Integer> entry : hops.entrySet()) {
+                if (entry.getValue() > 0 && entry.getValue() <= depth) {
+                    expected.add("G" + entry.getKey() + "@" + entry.getValue());
+                }
+            }
+            Set<String> actual = new TreeSet<>();
+            for (TFCascadeNode node : graph.cascade("G" + start, downstream, depth, n).getNodes()) {
+                actual.add(node.getGene() + "@" + node.getHop());
+            }
+            assertEquals(expected, actual, "G" + start + " depth " + depth);
+
+            int target = random.nextInt(n);
+            Integer distance = reach.get(start).get(target);
+            List<String> chain = graph.shortestChain("G" + start, "G" + target, n).getGenes();
+            if (distance == null) {
+                assertTrue(chain.isEmpty());
+            } else if (distance > 0) {
+                assertEquals(distance + 1, chain.size());
+            }
+        }
+
+        // 强连通分量：互相可达的节点归入同一分量
+        for (TFComponent component : graph.components(1)) {
+            for (String a : component.getGenes()) {
+                int u = Integer.parseInt(a.substring(1));
+                Set<Integer> mutual = new HashSet<>();
+                for (int v = 0; v < n; v++) {
+                    if (reach.get(u).containsKey(v) && reach.get(v).containsKey(u)) {
+                        mutual.add(v);
+                    }
+                }
+                assertEquals(mutual.size(), component.getSize().intValue(), a);
+            }
+        }
+    }
+}
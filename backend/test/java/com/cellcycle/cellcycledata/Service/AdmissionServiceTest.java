@@ -0,0 +1,146 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.cellcycle.cellcycledata.Entity.AdmissionRouteStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AdmissionServiceTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(40);
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    private static AdmissionService service(int maxActive, int maxGlobal, String routeLimits, long queueTimeoutMillis) {
+        DruidDataSource pool = new DruidDataSource();
+        pool.setMaxActive(maxActive);
+        AdmissionService service = new AdmissionService();
+        ReflectionTestUtils.setField(service, "metricsService", mock(MetricsService.class));
+        ReflectionTestUtils.setField(service, "dataSource", pool);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxConcurrent", 16);
+        ReflectionTestUtils.setField(service, "maxQueue", 64);
+        ReflectionTestUtils.setField(service, "maxGlobal", maxGlobal);
+        ReflectionTestUtils.setField(service, "queueTimeoutMillis", queueTimeoutMillis);
+        ReflectionTestUtils.setField(service, "routeLimits", routeLimits);
+        service.init();
+        return service;
+    }
+
+    private static AdmissionRouteStats stats(AdmissionService service, String route) {
+        for (AdmissionRouteStats stats : service.getStats()) {
+            if (stats.getRoute().equals(route)) {
+                return stats;
+            }
+        }
+        throw new AssertionError(route);
+    }
+
+    /**
+     * 4个路由各自的上限(16)合计远超连接池，同时涌入40个请求时处理中的请求数始终不超过maxActive
+     */
+    @Test
+    void spikeAcrossRoutesNeverExceedsThePoolSize() throws Exception {
+        AdmissionService service = service(4, 0, "", 100);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String route = "/cellcycledata/route" + (i % 4);
+            results.add(this.executor.submit(() -> {
+                start.await();
+                if (!service.enter(route, true)) {
+                    return false;
+                }
+                try {
+                    peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    Thread.sleep(30);
+                } finally {
+                    active.decrementAndGet();
+                    service.exitGlobal();
+                    service.exit(route);
+                }
+                return true;
+            }));
+        }
+        start.countDown();
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            admitted += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+
+        assertEquals(4, peak.get());
+        // 每30ms只能放行4个，100ms内排不到的请求超时拒绝
+        assertTrue(admitted >= 4 && admitted < 40, String.valueOf(admitted));
+        AdmissionRouteStats global = stats(service, AdmissionService.GLOBAL_ROUTE);
+        assertEquals(4, global.getMaxConcurrent().intValue());
+        assertEquals(0, global.getActive().intValue());
+        assertEquals(admitted, global.getAdmitted().intValue());
+        assertEquals(40 - admitted, global.getTimedOut() + global.getRejected());
+        for (int i = 0; i < 4; i++) {
+            // 全局名额不足时归还已占用的路由名额
+            assertEquals(0, stats(service, "/cellcycledata/route" + i).getActive().intValue());
+        }
+    }
+
+    @Test
+    void routeLimitStillAppliesBelowTheGlobalLimit() {
+        AdmissionService service = service(8, 0, "/cellcycledata/ppi/all=1", 20);
+        assertTrue(service.enter("/cellcycledata/ppi/all", true));
+        assertFalse(service.enter("/cellcycledata/ppi/all", true));
+        assertTrue(service.enter("/cellcycledata/tf/all", true));
+        assertEquals(2, stats(service, AdmissionService.GLOBAL_ROUTE).getActive().intValue());
+        assertEquals(1, stats(service, "/cellcycledata/ppi/all").getTimedOut().longValue());
+        service.exitGlobal();
+        service.exit("/cellcycledata/ppi/all");
+        assertTrue(service.enter("/cellcycledata/ppi/all", true));
+    }
+
+    @Test
+    void explicitGlobalLimitOverridesThePoolSize() {
+        AdmissionService service = service(8, 1, "", 20);
+        assertTrue(service.enter("/a", true));
+        assertFalse(service.enter("/b", true));
+        assertEquals(0, stats(service, "/b").getActive().intValue());
+        assertEquals(1, stats(service, AdmissionService.GLOBAL_ROUTE).getTimedOut().longValue());
+        service.exitGlobal();
+        service.exit("/a");
+        assertTrue(service.enter("/b", true));
+    }
+
+    @Test
+    void routesWithoutDatabaseAccessIgnoreTheGlobalLimit() {
+        AdmissionService service = service(1, 0, "", 20);
+        assertTrue(service.enter("/cellcycledata/ppi/gene/{gene}", true));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(service.enter("/cellcycledata/ppi/subnetwork", false));
+        }
+        assertFalse(service.enter("/cellcycledata/tf/all", true));
+        assertEquals(1, stats(service, AdmissionService.GLOBAL_ROUTE).getActive().intValue());
+        assertEquals(10, stats(service, "/cellcycledata/ppi/subnetwork").getActive().intValue());
+
+        // 全局名额可以先于路由名额归还
+        service.exitGlobal();
+        assertTrue(service.enter("/cellcycledata/tf/all", true));
+        assertEquals(1, stats(service, "/cellcycledata/ppi/gene/{gene}").getActive().intValue());
+    }
+}
@@ -0,0 +1,121 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.PPIGraph;
+import com.cellcycle.cellcycledata.Entity.AutocompleteSuggestion;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 数据表重新加载后，自动补全索引在下一次查询时只重新读取变化的来源
+ */
+class AutocompleteServiceTest {
+
+    private final cellcycledataService cellcycledataService = mock(cellcycledataService.class);
+    private final PPIDataService ppiDataService = mock(PPIDataService.class);
+    private final MirnaGeneService mirnaGeneService = mock(MirnaGeneService.class);
+    private final TFDataService tfDataService = mock(TFDataService.class);
+    private final DrugInformationService drugInformationService = mock(DrugInformationService.class);
+    private final GeneTargetService geneTargetService = mock(GeneTargetService.class);
+    private final StaticDatasetService staticDatasetService = mock(StaticDatasetService.class);
+    private QueryCacheService queryCacheService;
+    private AutocompleteService service;
+
+    @BeforeEach
+    void setUp() {
+        this.queryCacheService = new QueryCacheService();
+        ReflectionTestUtils.setField(this.queryCacheService, "metricsService", mock(MetricsService.class));
+        ReflectionTestUtils.setField(this.queryCacheService, "enabled", true);
+        ReflectionTestUtils.setField(this.queryCacheService, "maxEntries", 100);
+        ReflectionTestUtils.setField(this.queryCacheService, "maxWeight", 1000L);
+        this.queryCacheService.init();
+
+        when(this.cellcycledataService.selectAllGeneSymbols()).thenReturn(Arrays.asList("CDK1", "CCNB1"));
+        when(this.mirnaGeneService.getAllDistinctMirnas()).thenReturn(Collections.singletonList("hsa-miR-21-5p"));
+        when(this.mirnaGeneService.getAllDistinctGenes()).thenReturn(Collections.singletonList("PTEN"));
+        when(this.tfDataService.getAllDistinctTFs()).thenReturn(Collections.singletonList("E2F1"));
+        when(this.drugInformationService.selectAllDrugNames()).thenReturn(Collections.singletonList("palbociclib"));
+        when(this.geneTargetService.selectAllDistinctDrugs()).thenReturn(Collections.singletonList("volasertib"));
+        when(this.staticDatasetService.getKeggPathways()).thenReturn(Collections.emptyList());
+        when(this.staticDatasetService.getHallmarkGenes()).thenReturn(Collections.emptyList());
+
+        this.service = new AutocompleteService();
+        ReflectionTestUtils.setField(this.service, "cellcycledataService", this.cellcycledataService);
+        ReflectionTestUtils.setField(this.service, "ppiDataService", this.ppiDataService);
+        ReflectionTestUtils.setField(this.service, "mirnaGeneService", this.mirnaGeneService);
+        ReflectionTestUtils.setField(this.service, "tfDataService", this.tfDataService);
+        ReflectionTestUtils.setField(this.service, "drugInformationService", this.drugInformationService);
+        ReflectionTestUtils.setField(this.service, "geneTargetService", this.geneTargetService);
+        ReflectionTestUtils.setField(this.service, "staticDatasetService", this.staticDatasetService);
+        ReflectionTestUtils.setField(this.service, "queryCacheService", this.queryCacheService);
+        this.service.init();
+    }
+
+    private List<String> suggest(String query) {
+        return this.service.suggest(query, 10, 0, null).stream()
+                .map(AutocompleteSuggestion::getTerm).collect(Collectors.toList());
+    }
+
+    private static PPIData edge(String node1, String node2) {
+        PPIData row = new PPIData();
+        row.setNode1(node1);
+        row.setNode2(node2);
+        row.setCombined_score(0.9);
+        return row;
+    }
+
+    @Test
+    void unchangedSourcesAreNotReloadedPerQuery() {
+        assertEquals(Collections.singletonList("CDK1"), suggest("cdk"));
+        suggest("e2f");
+        assertTrue(this.service.staleSources().isEmpty());
+        verify(this.cellcycledataService, times(1)).selectAllGeneSymbols();
+        verify(this.tfDataService, times(1)).getAllDistinctTFs();
+    }
+
+    @Test
+    void tableReloadRebuildsOnlyDependentSources() {
+        when(this.cellcycledataService.selectAllGeneSymbols()).thenReturn(Arrays.asList("CDK1", "CDK2", "CCNB1"));
+        assertEquals(Collections.singletonList("CDK1"), suggest("cdk"));
+
+        this.queryCacheService.invalidate(QueryCacheService.CELL_CYCLE_GENES);
+        assertEquals(Collections.singletonList(AutocompleteService.SOURCE_CELL_CYCLE_GENES), this.service.staleSources());
+        assertEquals(Arrays.asList("CDK1", "CDK2"), suggest("cdk"));
+        verify(this.cellcycledataService, times(2)).selectAllGeneSymbols();
+        verify(this.tfDataService, times(1)).getAllDistinctTFs();
+
+        this.queryCacheService.invalidate(QueryCacheService.GENE_TARGET);
+        assertEquals(Collections.singletonList(AutocompleteService.SOURCE_DRUGS), this.service.staleSources());
+    }
+
+    @Test
+    void replacedPpiGraphIsPickedUp() {
+        assertTrue(suggest("plk").isEmpty());
+        when(this.ppiDataService.getGraph()).thenReturn(PPIGraph.build(Collections.singletonList(edge("PLK1", "CDC20"))));
+        assertEquals(Collections.singletonList("PLK1"), suggest("plk"));
+        assertTrue(this.service.staleSources().isEmpty());
+    }
+
+    @Test
+    void failedSourceKeepsTermsAndWaitsForTheNextChange() {
+        when(this.tfDataService.getAllDistinctTFs()).thenThrow(new IllegalStateException("database down"));
+        this.queryCacheService.invalidate(QueryCacheService.TF);
+        assertEquals(Collections.singletonList("E2F1"), suggest("e2f"));
+        suggest("e2f");
+        verify(this.tfDataService, times(2)).getAllDistinctTFs();
+        assertTrue(this.service.staleSources().isEmpty());
+    }
+}
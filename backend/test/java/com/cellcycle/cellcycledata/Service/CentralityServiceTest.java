@@ -0,0 +1,179 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Engine.PPIGraph;
+import com.cellcycle.cellcycledata.Entity.CentralityRanking;
+import com.cellcycle.cellcycledata.Entity.PPIData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 阈值取整、排队上限、淘汰时取消任务及失败任务重新提交
+ */
+class CentralityServiceTest {
+
+    private final PPIDataService ppiDataService = mock(PPIDataService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CentralityService service;
+
+    private static PPIData edge(String node1, String node2, double score) {
+        PPIData row = new PPIData();
+        row.setNode1(node1);
+        row.setNode2(node2);
+        row.setCombined_score(score);
+        return row;
+    }
+
+    private static PPIGraph graph() {
+        return PPIGraph.build(Arrays.asList(edge("CDK1", "CCNB1", 0.9), edge("CCNB1", "PLK1", 0.7)));
+    }
+
+    private CentralityService start(int maxResults, int maxPending) {
+        when(this.ppiDataService.getGraph()).thenReturn(graph());
+        this.service = new CentralityService();
+        ReflectionTestUtils.setField(this.service, "ppiDataService", this.ppiDataService);
+        ReflectionTestUtils.setField(this.service, "parallelism", 2);
+        ReflectionTestUtils.setField(this.service, "defaultMinScore", 0.0);
+        ReflectionTestUtils.setField(this.service, "maxResults", maxResults);
+        ReflectionTestUtils.setField(this.service, "scoreStep", 0.05);
+        ReflectionTestUtils.setField(this.service, "maxPending", maxPending);
+        this.service.init();
+        return this.service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.release.countDown();
+        this.service.shutdown();
+    }
+
+    private ThreadPoolExecutor jobs() {
+        return (ThreadPoolExecutor) ReflectionTestUtils.getField(this.service, "jobs");
+    }
+
+    /**
+     * 等默认任务完成后用一个阻塞任务占住计算线程，之后提交的任务都留在队列中
+     */
+    private void occupyWorker() throws InterruptedException {
+        CentralityRanking ranking = this.service.getRanking("degree", 0, 0, 10);
+        for (int i = 0; i < 500 && !"done".equals(ranking.getStatus()); i++) {
+            Thread.sleep(10);
+            ranking = this.service.getRanking("degree", 0, 0, 10);
+        }
+        assertEquals("done", ranking.getStatus());
+        CountDownLatch started = new CountDownLatch(1);
+        jobs().execute(() -> {
+            started.countDown();
+            try {
+                this.release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 轮询直到任务不再是running
+     */
+    private CentralityRanking await(double minScore) throws InterruptedException {
+        CentralityRanking ranking = this.service.getRanking("degree", minScore, 0, 10);
+        for (int i = 0; i < 500 && "running".equals(ranking.getStatus()); i++) {
+            Thread.sleep(10);
+            ranking = this.service.getRanking("degree", minScore, 0, 10);
+        }
+        return ranking;
+    }
+
+    @Test
+    void thresholdsAreQuantizedDownToTheStep() {
+        start(8, 2);
+        assertEquals(0.15, this.service.quantize(0.15));
+        assertEquals(0.15, this.service.quantize(0.199));
+        assertEquals(0.7, this.service.quantize(0.7));
+        assertEquals(0.0, this.service.quantize(0.049));
+        assertThrows(InvalidQueryException.class, () -> this.service.quantize(-0.1));
+        assertThrows(InvalidQueryException.class, () -> this.service.quantize(Double.NaN));
+        assertThrows(InvalidQueryException.class, () -> this.service.quantize(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void onePendingJobPerKeyAndExtrasAreRejected() throws InterruptedException {
+        start(8, 1);
+        occupyWorker();
+
+        CentralityRanking first = this.service.getRanking("degree", 0.52, 0, 10);
+        assertEquals("running", first.getStatus());
+        assertEquals(0.5, first.getMinScore());
+        CentralityRanking same = this.service.getRanking("pageRank", 0.54, 0, 10);
+        assertEquals(first.getVersion(), same.getVersion());
+
+        CentralityRanking rejected = this.service.getRanking("degree", 0.6, 0, 10);
+        assertEquals("rejected", rejected.getStatus());
+        assertEquals(1, jobs().getQueue().size());
+
+        this.release.countDown();
+        CentralityRanking done = this.service.getRanking("degree", 0.5, 0, 10);
+        for (int i = 0; i < 500 && !"done".equals(done.getStatus()); i++) {
+            Thread.sleep(10);
+            done = this.service.getRanking("degree", 0.5, 0, 10);
+        }
+        assertEquals(first.getVersion(), done.getVersion());
+        assertEquals(3, done.getNodeCount().intValue());
+        assertNotEquals("rejected", this.service.getRanking("degree", 0.6, 0, 10).getStatus());
+    }
+
+    @Test
+    void evictedAndStaleJobsAreCancelledAndLeaveTheQueue() throws InterruptedException {
+        start(1, 2);
+        occupyWorker();
+
+        this.service.getRanking("degree", 0.1, 0, 10);
+        this.service.getRanking("degree", 0.2, 0, 10);
+        // 0.1的结果被淘汰，它的排队任务随之移出队列
+        assertEquals(1, jobs().getQueue().size());
+        this.service.getRanking("degree", 0.3, 0, 10);
+        assertEquals(1, jobs().getQueue().size());
+
+        CentralityRanking before = this.service.getRanking("degree", 0.3, 0, 10);
+        when(this.ppiDataService.getGraph()).thenReturn(graph());
+        CentralityRanking after = this.service.getRanking("degree", 0.3, 0, 10);
+        assertNotEquals(before.getVersion(), after.getVersion());
+        assertEquals(1, jobs().getQueue().size());
+    }
+
+    @Test
+    void failedJobsAreReportedOnceAndResubmitted() throws InterruptedException {
+        start(8, 2);
+        assertEquals("done", await(0).getStatus());
+        // 已关闭的fork-join池让计算抛出RejectedExecutionException
+        ForkJoinPool pool = (ForkJoinPool) ReflectionTestUtils.getField(this.service, "pool");
+        ForkJoinPool closed = new ForkJoinPool(1);
+        closed.shutdownNow();
+        ReflectionTestUtils.setField(this.service, "pool", closed);
+
+        CentralityRanking failed = await(0.5);
+        assertEquals("failed", failed.getStatus());
+        assertTrue(failed.getError().contains("RejectedExecutionException"), failed.getError());
+
+        ReflectionTestUtils.setField(this.service, "pool", pool);
+        CentralityRanking retried = await(0.5);
+        assertEquals("done", retried.getStatus(), retried.getError());
+        assertNotEquals(failed.getVersion(), retried.getVersion());
+        assertEquals(3, retried.getNodeCount().intValue());
+    }
+}
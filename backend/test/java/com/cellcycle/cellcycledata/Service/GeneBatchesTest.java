@@ -0,0 +1,131 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.TFData;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneBatchesTest {
+
+    @Test
+    void distinctGenesTrimsDropsBlanksAndKeepsFirstSpelling() {
+        assertEquals(Arrays.asList("CDK1", "tp53", "E2F1"),
+                GeneBatches.distinctGenes(Arrays.asList(" CDK1 ", "tp53", "", null, "cdk1", "TP53", "E2F1")));
+    }
+
+    @Test
+    void emptyAndOversizedRequestsAreRejected() {
+        assertThrows(InvalidQueryException.class, () -> GeneBatches.distinctGenes(null));
+        assertThrows(InvalidQueryException.class, () -> GeneBatches.distinctGenes(Arrays.asList(" ", null)));
+
+        List<String> genes = new ArrayList<>();
+        for (int i = 0; i <= GeneBatches.MAX_GENES; i++) {
+            genes.add("G" + i);
+        }
+        assertThrows(InvalidQueryException.class, () -> GeneBatches.distinctGenes(genes));
+        genes.remove(genes.size() - 1);
+        assertEquals(GeneBatches.MAX_GENES, GeneBatches.distinctGenes(genes).size());
+    }
+
+    @Test
+    void queriesRunInBoundedChunks() {
+        List<String> genes = new ArrayList<>();
+        for (int i = 0; i < GeneBatches.CHUNK_SIZE * 2 + 1; i++) {
+            genes.add("G" + i);
+        }
+        List<Integer> chunkSizes = new ArrayList<>();
+        Map<String, List<String[]>> grouped = GeneBatches.queryByGene(genes, chunk -> {
+            chunkSizes.add(chunk.size());
+            return Collections.emptyList();
+        }, row -> row);
+        assertEquals(Arrays.asList(GeneBatches.CHUNK_SIZE, GeneBatches.CHUNK_SIZE, 1), chunkSizes);
+        assertEquals(genes, new ArrayList<>(grouped.keySet()));
+        assertTrue(grouped.values().stream().allMatch(List::isEmpty));
+    }
+
+    /**
+     * 模拟数据库的IN查询：返回任一端在本批基因中的行，大小写不敏感
+     */
+    private static List<String[]> select(List<String[]> table, List<String> chunk) {
+        List<String[]> rows = new ArrayList<>();
+        for (String[] row : table) {
+            for (String gene : chunk) {
+                if (gene.equalsIgnoreCase(row[0]) || gene.equalsIgnoreCase(row[1])) {
+                    rows.add(row);
+                    break;
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void rowsSpanningChunksAppearOnceUnderEachGene() {
+        List<String> genes = new ArrayList<>();
+        for (int i = 0; i < GeneBatches.CHUNK_SIZE + 5; i++) {
+            genes.add("G" + i);
+        }
+        String last = genes.get(genes.size() - 1);
+        String[] acrossChunks = {"g0", last.toLowerCase()};
+        String[] selfLoop = {"G1", "G1"};
+        String[] outside = {"G2", "OTHER"};
+        String[] unrelated = {"X", "Y"};
+        List<String[]> table = Arrays.asList(acrossChunks, selfLoop, outside, unrelated);
+
+        Map<String, List<String[]>> grouped = GeneBatches.queryByGene(genes, chunk -> select(table, chunk), row -> row);
+        assertEquals(Collections.singletonList(acrossChunks), grouped.get("G0"));
+        assertEquals(Collections.singletonList(acrossChunks), grouped.get(last));
+        assertEquals(Collections.singletonList(selfLoop), grouped.get("G1"));
+        assertEquals(Collections.singletonList(outside), grouped.get("G2"));
+        assertTrue(grouped.get("G3").isEmpty());
+    }
+
+    @Test
+    void tfBatchQueryGroupsRowsFromInQueries() throws SQLException {
+        // IGNORECASE模拟MySQL默认排序规则下不区分大小写的比较
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:genebatches;MODE=MySQL;DATABASE_TO_UPPER=FALSE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tf (tf VARCHAR(32), target_gene VARCHAR(32), interaction VARCHAR(32))");
+            statement.execute("INSERT INTO tf VALUES ('E2F1', 'CDK1', 'activation'), ('e2f1', 'CCNE1', 'activation'), "
+                    + "('TP53', 'CDKN1A', 'activation'), ('MYC', 'MYC', 'repression'), ('SP1', 'TP53', 'activation')");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(TFDataDao.class);
+        try (SqlSession session = new SqlSessionFactoryBuilder().build(configuration).openSession(true)) {
+            TFDataDao dao = session.getMapper(TFDataDao.class);
+            List<String> genes = GeneBatches.distinctGenes(Arrays.asList("E2F1", "tp53", "MYC", "CCNB1"));
+            Map<String, List<TFData>> grouped = GeneBatches.queryByGene(genes, dao::selectTFDataByGenes,
+                    row -> new String[]{row.getTf(), row.getTarget_gene()});
+
+            assertEquals(Arrays.asList("CDK1", "CCNE1"), targets(grouped.get("E2F1")));
+            assertEquals(Arrays.asList("CDKN1A", "TP53"), targets(grouped.get("tp53")));
+            assertEquals(Collections.singletonList("MYC"), targets(grouped.get("MYC")));
+            assertTrue(grouped.get("CCNB1").isEmpty());
+        }
+    }
+
+    private static List<String> targets(List<TFData> rows) {
+        return rows.stream().map(TFData::getTarget_gene).collect(Collectors.toList());
+    }
+}
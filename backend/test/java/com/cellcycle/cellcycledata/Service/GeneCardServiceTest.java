@@ -0,0 +1,149 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.GeneCard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeneCardServiceTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile long sourceMillis = 20;
+
+    private final cellcycledataService cellcycledataService = mock(cellcycledataService.class);
+    private final PPIDataService ppiDataService = mock(PPIDataService.class);
+    private final TFDataService tfDataService = mock(TFDataService.class);
+    private final MirnaGeneService mirnaGeneService = mock(MirnaGeneService.class);
+    private final SLDataService slDataService = mock(SLDataService.class);
+    private final SLNatureDataService slNatureDataService = mock(SLNatureDataService.class);
+    private final GeneTargetService geneTargetService = mock(GeneTargetService.class);
+    private final StaticDatasetService staticDatasetService = mock(StaticDatasetService.class);
+    private GeneCardService service;
+
+    /** 模拟占用一个数据库连接的查询，记录同时进行的查询数 */
+    private <T> Answer<List<T>> query() {
+        return invocation -> {
+            int now = this.running.incrementAndGet();
+            this.maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(this.sourceMillis);
+                return Collections.emptyList();
+            } finally {
+                this.running.decrementAndGet();
+            }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(this.cellcycledataService.selectByGeneSymbol(anyString())).thenAnswer(query());
+        when(this.ppiDataService.getPPIDataByGene(anyString())).thenAnswer(query());
+        when(this.tfDataService.getTFDataByGene(anyString())).thenAnswer(query());
+        when(this.mirnaGeneService.getMirnaGeneDataByGene(anyString())).thenAnswer(query());
+        when(this.slDataService.selectSLDataByGene(anyString())).thenAnswer(query());
+        when(this.slNatureDataService.selectSLNatureDataByGene(anyString())).thenAnswer(query());
+        when(this.geneTargetService.selectByGene(anyString())).thenAnswer(query());
+        when(this.staticDatasetService.getHallmarksOfGene(anyString())).thenReturn(Collections.singletonList("hallmark"));
+
+        this.service = new GeneCardService();
+        ReflectionTestUtils.setField(this.service, "cellcycledataService", this.cellcycledataService);
+        ReflectionTestUtils.setField(this.service, "ppiDataService", this.ppiDataService);
+        ReflectionTestUtils.setField(this.service, "tfDataService", this.tfDataService);
+        ReflectionTestUtils.setField(this.service, "mirnaGeneService", this.mirnaGeneService);
+        ReflectionTestUtils.setField(this.service, "slDataService", this.slDataService);
+        ReflectionTestUtils.setField(this.service, "slNatureDataService", this.slNatureDataService);
+        ReflectionTestUtils.setField(this.service, "geneTargetService", this.geneTargetService);
+        ReflectionTestUtils.setField(this.service, "staticDatasetService", this.staticDatasetService);
+        ReflectionTestUtils.setField(this.service, "dataSource", mock(DataSource.class));
+        ReflectionTestUtils.setField(this.service, "threads", 16);
+        ReflectionTestUtils.setField(this.service, "queueSize", 256);
+        ReflectionTestUtils.setField(this.service, "timeoutMillis", 5000L);
+        ReflectionTestUtils.setField(this.service, "virtualThreads", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.service.shutdown();
+    }
+
+    @Test
+    void concurrentCardsNeverExceedTheQueryLimit() throws Exception {
+        ReflectionTestUtils.setField(this.service, "maxConcurrentQueries", 3);
+        this.service.init();
+        ExecutorService clients = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<GeneCard>> cards = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                cards.add(clients.submit(() -> this.service.getGeneCard("CDK1")));
+            }
+            for (Future<GeneCard> card : cards) {
+                GeneCard result = card.get();
+                assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+                assertEquals(Collections.singletonList("hallmark"), result.getHallmarks());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(3, this.maxRunning.get());
+    }
+
+    @Test
+    void poolSizeIsTheDefaultLimit() {
+        this.service.init();
+        // 非Druid数据源按Druid默认的8个连接计算
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(this.service, "queryPermits");
+        assertEquals(8, permits.availablePermits());
+    }
+
+    @Test
+    void sourcesWaitingForASlotPastTheDeadlineFailIndividually() {
+        ReflectionTestUtils.setField(this.service, "maxConcurrentQueries", 1);
+        ReflectionTestUtils.setField(this.service, "timeoutMillis", 150L);
+        this.sourceMillis = 100;
+        this.service.init();
+
+        GeneCard card = this.service.getGeneCard("CDK1");
+        assertTrue(card.getErrors().size() >= 5, card.getErrors().toString());
+        assertTrue(card.getErrors().size() < 7, card.getErrors().toString());
+        assertEquals(Collections.singletonList("hallmark"), card.getHallmarks());
+        assertEquals(1, this.maxRunning.get());
+    }
+
+    @Test
+    void timedOutQueriesAreInterruptedAndReturnTheirSlot() throws Exception {
+        ReflectionTestUtils.setField(this.service, "maxConcurrentQueries", 1);
+        ReflectionTestUtils.setField(this.service, "timeoutMillis", 100L);
+        this.sourceMillis = 60_000;
+        this.service.init();
+
+        GeneCard card = this.service.getGeneCard("CDK1");
+        assertEquals(7, card.getErrors().size(), card.getErrors().toString());
+        assertTrue(card.getTotalMillis() < 5_000, String.valueOf(card.getTotalMillis()));
+        // 被中断的查询很快归还名额，而不是占用到查询自己结束
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(this.service, "queryPermits");
+        for (int i = 0; i < 200 && permits.availablePermits() < 1; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, permits.availablePermits());
+        assertEquals(0, this.running.get());
+    }
+}
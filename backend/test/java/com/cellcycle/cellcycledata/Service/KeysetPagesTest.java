@@ -0,0 +1,210 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.GeneTargetDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在H2(MySQL兼容模式，NULL同样排在最前)上执行生成的分页SQL，逐页读完整张表后与全部行比较
+ */
+class KeysetPagesTest {
+
+    private static SqlSession session;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:keyset;MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1", "sa", "");
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(TFDataDao.class);
+        configuration.addMapper(GeneTargetDao.class);
+        configuration.addMapper(SLNatureDataDao.class);
+        SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+        session = factory.openSession(true);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tf (tf VARCHAR(32), target_gene VARCHAR(32), interaction VARCHAR(32))");
+            statement.execute("CREATE TABLE gene_target (gene VARCHAR(32), stage VARCHAR(32), drug VARCHAR(32), "
+                    + "cancer VARCHAR(32), pmid VARCHAR(32))");
+            statement.execute("CREATE TABLE sl_nature (Gene_A VARCHAR(32), stage_Gene_A VARCHAR(32), Gene_B VARCHAR(32), "
+                    + "stage_Gene_B VARCHAR(32), GEMINI_sensitive VARCHAR(32), Cell_line VARCHAR(32))");
+            insert(connection, "tf", tfRows());
+            insert(connection, "gene_target", geneTargetRows());
+            insert(connection, "sl_nature", slNatureRows());
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        session.close();
+    }
+
+    /** 同一(tf, target_gene)下有多种interaction、完全相同的行、NULL和空字符串 */
+    private static List<String[]> tfRows() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            rows.add(new String[]{"E2F1", "CDK1", i % 3 == 0 ? null : "activation" + (i % 2)});
+        }
+        rows.add(new String[]{"E2F1", "CDK1", "activation1"});
+        rows.add(new String[]{"E2F1", null, "repression"});
+        rows.add(new String[]{"E2F1", null, "repression"});
+        rows.add(new String[]{"E2F1", "", null});
+        rows.add(new String[]{null, "CCNB1", "activation"});
+        rows.add(new String[]{null, null, null});
+        rows.add(new String[]{"", "CCNB1", "activation"});
+        for (int i = 0; i < 5; i++) {
+            rows.add(new String[]{"MYC", "CCND" + (i % 2), "activation"});
+        }
+        rows.add(new String[]{"TP53", "CDKN1A", "activation"});
+        return rows;
+    }
+
+    /** 同一(gene, drug, cancer)的多篇文献，以及缺失pmid的行 */
+    private static List<String[]> geneTargetRows() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            rows.add(new String[]{"CDK4", "G1", "palbociclib", "breast", i < 3 ? null : String.valueOf(1000 + i % 4)});
+        }
+        rows.add(new String[]{"CDK4", "G1", "palbociclib", null, "2000"});
+        rows.add(new String[]{"PLK1", "M", "volasertib", "AML", "3000"});
+        return rows;
+    }
+
+    /** 同一基因对和细胞系的多次筛选 */
+    private static List<String[]> slNatureRows() {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(new String[]{"PARP1", "S", "BRCA1", "S", i % 2 == 0 ? "yes" : "no", "HeLa"});
+        }
+        rows.add(new String[]{"PARP1", "S", "BRCA2", "S", "yes", null});
+        return rows;
+    }
+
+    private static void insert(Connection connection, String table, List<String[]> rows) throws SQLException {
+        int width = rows.get(0).length;
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (");
+        for (int i = 0; i < width; i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql.append(')').toString())) {
+            for (String[] row : rows) {
+                for (int i = 0; i < width; i++) {
+                    statement.setString(i + 1, row[i]);
+                }
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    void pagesThroughDuplicateAndNullKeysWithoutLosingRows() {
+        Function<com.cellcycle.cellcycledata.Dao.KeysetPageQuery, List<Map<String, Object>>> tf =
+                session.getMapper(TFDataDao.class)::selectPage;
+        Function<com.cellcycle.cellcycledata.Dao.KeysetPageQuery, List<Map<String, Object>>> geneTarget =
+                session.getMapper(GeneTargetDao.class)::selectPage;
+        Function<com.cellcycle.cellcycledata.Dao.KeysetPageQuery, List<Map<String, Object>>> slNature =
+                session.getMapper(SLNatureDataDao.class)::selectPage;
+        for (int limit = 1; limit <= 25; limit++) {
+            assertEquals(sorted(tfRows()), sorted(readAll(PageableTable.TF, limit, tf)), "tf, limit " + limit);
+            assertEquals(sorted(geneTargetRows()), sorted(readAll(PageableTable.GENE_TARGET, limit, geneTarget)),
+                    "gene_target, limit " + limit);
+            assertEquals(sorted(slNatureRows()), sorted(readAll(PageableTable.SL_NATURE, limit, slNature)),
+                    "sl_nature, limit " + limit);
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Function<com.cellcycle.cellcycledata.Dao.KeysetPageQuery, List<Map<String, Object>>> query =
+                session.getMapper(GeneTargetDao.class)::selectPage;
+        PageResult first = KeysetPages.page(PageableTable.GENE_TARGET, null, geneTargetRows().size(), null, query);
+        assertEquals(geneTargetRows().size(), first.getItems().size());
+        assertNull(first.getNextCursor());
+
+        PageResult partial = KeysetPages.page(PageableTable.GENE_TARGET, null, 9, null, query);
+        assertEquals(9, partial.getItems().size());
+        PageResult rest = KeysetPages.page(PageableTable.GENE_TARGET, partial.getNextCursor(), 9, null, query);
+        assertEquals(2, rest.getItems().size());
+        assertNull(rest.getNextCursor());
+    }
+
+    @Test
+    void projectsOnlyRequestedFields() {
+        PageResult page = KeysetPages.page(PageableTable.TF, null, 3, "interaction",
+                session.getMapper(TFDataDao.class)::selectPage);
+        for (Map<String, Object> item : page.getItems()) {
+            assertEquals(Collections.singleton("interaction"), item.keySet());
+        }
+        assertThrows(InvalidQueryException.class, () -> KeysetPages.page(PageableTable.TF, null, 3, "tf,secret",
+                session.getMapper(TFDataDao.class)::selectPage));
+    }
+
+    @Test
+    void rejectsForeignAndMalformedCursors() {
+        PageResult page = KeysetPages.page(PageableTable.TF, null, 2, null, session.getMapper(TFDataDao.class)::selectPage);
+        assertThrows(InvalidQueryException.class, () -> KeysetPages.page(PageableTable.SL_NATURE, page.getNextCursor(), 2,
+                null, session.getMapper(SLNatureDataDao.class)::selectPage));
+        assertThrows(InvalidQueryException.class, () -> KeysetPages.page(PageableTable.TF, "!!!", 2, null,
+                session.getMapper(TFDataDao.class)::selectPage));
+    }
+
+    private static List<String[]> readAll(PageableTable table, int limit,
+                                          Function<com.cellcycle.cellcycledata.Dao.KeysetPageQuery, List<Map<String, Object>>> query) {
+        List<String[]> rows = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PageResult page = KeysetPages.page(table, cursor, limit, null, query);
+            assertTrue(page.getItems().size() <= limit);
+            assertTrue(page.getNextCursor() == null || page.getItems().size() == limit, "only the last page may be short");
+            for (Map<String, Object> item : page.getItems()) {
+                List<String> row = new ArrayList<>();
+                for (Object value : item.values()) {
+                    row.add(value == null ? null : value.toString());
+                }
+                rows.add(row.toArray(new String[0]));
+            }
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 1000, "paging does not terminate");
+        } while (cursor != null);
+        return rows;
+    }
+
+    private static List<String> sorted(List<String[]> rows) {
+        List<String> result = new ArrayList<>();
+        for (String[] row : rows) {
+            result.add(Arrays.toString(row));
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.SlowSqlEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class MetricsServiceTest {
+
+    private MetricsService service;
+
+    @BeforeEach
+    void setUp() {
+        this.service = new MetricsService();
+        ReflectionTestUtils.setField(this.service, "slowSqlSize", 3);
+    }
+
+    private static long millis(double millis) {
+        return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static List<Double> slowest(List<SlowSqlEntry> entries) {
+        return entries.stream().map(SlowSqlEntry::getMillis).collect(Collectors.toList());
+    }
+
+    @Test
+    void slowSqlKeepsTheSlowestStatementsInDescendingOrder() {
+        for (double ms : new double[]{1, 5, 2, 10, 3}) {
+            this.service.recordSql("PPIDataDao.select" + (int) ms, millis(ms), 7, () -> "SELECT *\n  FROM ppi");
+        }
+        assertEquals(Arrays.asList(10.0, 5.0, 3.0), slowest(this.service.getSlowSql(10)));
+        assertEquals(Arrays.asList(10.0, 5.0), slowest(this.service.getSlowSql(2)));
+        SlowSqlEntry top = this.service.getSlowSql(1).get(0);
+        assertEquals("PPIDataDao.select10", top.getStatement());
+        assertEquals("SELECT * FROM ppi", top.getSql());
+        assertEquals(Integer.valueOf(7), top.getRows());
+
+        // 堆满后低于门槛的记录不取SQL文本
+        this.service.recordSql("PPIDataDao.fast", millis(0.5), 1, () -> {
+            fail("SQL text should not be rendered for fast statements");
+            return null;
+        });
+
+        this.service.resetSlowSql();
+        assertTrue(this.service.getSlowSql(10).isEmpty());
+    }
+
+    @Test
+    void prometheusHistogramsUseCumulativeBucketsAndEscapedLabels() {
+        this.service.recordRequest("/cellcycledata/ppi/gene/{gene}", "GET", 200, millis(3));
+        this.service.recordRequest("/cellcycledata/ppi/gene/{gene}", "GET", 200, millis(40));
+        this.service.recordSerialization("/a\"b\\", millis(1), 42);
+        this.service.recordSerialization("/no-rows", millis(1), -1);
+
+        String text = this.service.renderPrometheus();
+        String labels = "route=\"/cellcycledata/ppi/gene/{gene}\",method=\"GET\",status=\"200\"";
+        assertTrue(text.contains("# TYPE cellcycledata_http_request_duration_seconds histogram\n"));
+        assertTrue(text.contains("cellcycledata_http_request_duration_seconds_bucket{" + labels + ",le=\"0.0025\"} 0\n"));
+        assertTrue(text.contains("cellcycledata_http_request_duration_seconds_bucket{" + labels + ",le=\"0.005\"} 1\n"));
+        assertTrue(text.contains("cellcycledata_http_request_duration_seconds_bucket{" + labels + ",le=\"0.05\"} 2\n"));
+        assertTrue(text.contains("cellcycledata_http_request_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n"));
+        assertTrue(text.contains("cellcycledata_http_request_duration_seconds_count{" + labels + "} 2\n"));
+
+        assertTrue(text.contains("cellcycledata_http_response_rows_bucket{route=\"/a\\\"b\\\\\",le=\"10\"} 0\n"));
+        assertTrue(text.contains("cellcycledata_http_response_rows_bucket{route=\"/a\\\"b\\\\\",le=\"100\"} 1\n"));
+        assertFalse(text.contains("cellcycledata_http_response_rows_bucket{route=\"/no-rows\""));
+        assertTrue(text.contains("cellcycledata_json_serialization_duration_seconds_count{route=\"/no-rows\"} 1\n"));
+
+        // 没有数据源、查询缓存和副本时不输出对应的指标
+        assertFalse(text.contains("db_pool"));
+        assertFalse(text.contains("query_cache"));
+        assertFalse(text.contains("sql_duration"));
+    }
+
+    @Test
+    void eachMetricFamilyIsDeclaredOnce() {
+        this.service.recordSql("A.x", millis(1), 1, () -> "SELECT 1");
+        this.service.recordSql("B.y", millis(2), 2, () -> "SELECT 2");
+        this.service.recordAdmissionRejected("/r", "queue_full");
+        this.service.recordAdmissionRejected("/r", "queue_full");
+        String text = this.service.renderPrometheus();
+        assertEquals(text.indexOf("# TYPE cellcycledata_sql_duration_seconds "),
+                text.lastIndexOf("# TYPE cellcycledata_sql_duration_seconds "));
+        assertTrue(text.contains("cellcycledata_sql_rows_count{statement=\"B.y\"} 1\n"));
+        assertTrue(text.contains("cellcycledata_admission_rejected_total{route=\"/r\",reason=\"queue_full\"} 2\n"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.TFData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.session.ResultContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonResultHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonResultHandler<TFData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(TFData.class), out);
+        handler.handleResult(context(tf("E2F1", "CDK1")));
+        handler.handleResult(context(tf("MYC", "CCND1")));
+        handler.finish();
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        assertEquals("CDK1", this.objectMapper.readValue(lines[0], TFData.class).getTarget_gene());
+        assertEquals("MYC", this.objectMapper.readValue(lines[1], TFData.class).getTf());
+        assertEquals(2, handler.getRows());
+    }
+
+    @Test
+    void flushesPeriodicallyBeforeFinish() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonResultHandler<TFData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(TFData.class), out);
+        for (int i = 0; i < 1000; i++) {
+            handler.handleResult(context(tf("TF" + i, "GENE" + i)));
+        }
+        assertTrue(out.size() > 0);
+    }
+
+    @Test
+    void clientDisconnectAbortsTheQuery() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        NdjsonResultHandler<TFData> handler = new NdjsonResultHandler<>(this.objectMapper.writerFor(TFData.class), broken);
+        assertThrows(UncheckedIOException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                handler.handleResult(context(tf("TF", "GENE")));
+            }
+        });
+    }
+
+    private static TFData tf(String tf, String target) {
+        TFData row = new TFData();
+        row.setTf(tf);
+        row.setTarget_gene(target);
+        return row;
+    }
+
+    private static <T> ResultContext<T> context(T value) {
+        return new ResultContext<T>() {
+            @Override
+            public T getResultObject() {
+                return value;
+            }
+
+            @Override
+            public int getResultCount() {
+                return 1;
+            }
+
+            @Override
+            public boolean isStopped() {
+                return false;
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class QueryCacheServiceTest {
+
+    private QueryCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        this.service = new QueryCacheService();
+        ReflectionTestUtils.setField(this.service, "metricsService", mock(MetricsService.class));
+        ReflectionTestUtils.setField(this.service, "enabled", true);
+        ReflectionTestUtils.setField(this.service, "maxEntries", 100);
+        ReflectionTestUtils.setField(this.service, "maxWeight", 1000L);
+        this.service.init();
+    }
+
+    @Test
+    void sharedResultsCannotBeModified() {
+        List<String> first = this.service.get(QueryCacheService.TF, "getAllDistinctTFs",
+                () -> new ArrayList<>(Arrays.asList("E2F1", "MYC")));
+        assertThrows(UnsupportedOperationException.class, () -> first.add("TP53"));
+        assertThrows(UnsupportedOperationException.class, () -> first.sort(null));
+        assertSame(first, this.service.get(QueryCacheService.TF, "getAllDistinctTFs", ArrayList::new));
+
+        Map<String, Integer> counts = this.service.get(QueryCacheService.TF, "counts",
+                () -> new HashMap<>(Collections.singletonMap("E2F1", 2)));
+        assertThrows(UnsupportedOperationException.class, () -> counts.put("MYC", 1));
+    }
+
+    @Test
+    void argumentsArePartOfTheKeyAndTablesAreSeparate() {
+        AtomicInteger loads = new AtomicInteger();
+        this.service.get(QueryCacheService.PPI, "byGene", () -> Collections.singletonList(loads.incrementAndGet()), "CDK1");
+        this.service.get(QueryCacheService.PPI, "byGene", () -> Collections.singletonList(loads.incrementAndGet()), "CDK2");
+        this.service.get(QueryCacheService.PPI, "byGene", () -> Collections.singletonList(loads.incrementAndGet()), "CDK1");
+        assertEquals(2, loads.get());
+
+        this.service.invalidate(QueryCacheService.TF);
+        this.service.get(QueryCacheService.PPI, "byGene", () -> Collections.singletonList(loads.incrementAndGet()), "CDK1");
+        assertEquals(2, loads.get());
+        assertThrows(InvalidQueryException.class, () -> this.service.invalidate("nope"));
+    }
+
+    @Test
+    void reloadRunsEachRegisteredReloaderOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        Runnable reloader = () -> {
+            runs.incrementAndGet();
+            this.service.invalidate(QueryCacheService.SL);
+            this.service.invalidate(QueryCacheService.SL_NATURE);
+        };
+        this.service.registerReloader(QueryCacheService.SL, reloader);
+        this.service.registerReloader(QueryCacheService.SL_NATURE, reloader);
+
+        Map<String, Long> versions = this.service.reload(Arrays.asList(" SL ", "sl_nature", "tf"));
+        assertEquals(1, runs.get());
+        assertEquals(Long.valueOf(2), versions.get(QueryCacheService.SL));
+        assertEquals(Long.valueOf(2), versions.get(QueryCacheService.SL_NATURE));
+        assertEquals(Long.valueOf(2), versions.get(QueryCacheService.TF));
+        assertThrows(InvalidQueryException.class, () -> this.service.reload(Collections.singletonList("genes")));
+    }
+}
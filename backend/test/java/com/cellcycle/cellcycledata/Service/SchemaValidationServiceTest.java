@@ -0,0 +1,115 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.MirnaGeneDao;
+import com.cellcycle.cellcycledata.Dao.PPIDataDao;
+import com.cellcycle.cellcycledata.Dao.SLDataDao;
+import com.cellcycle.cellcycledata.Dao.SLNatureDataDao;
+import com.cellcycle.cellcycledata.Dao.TFDataDao;
+import com.cellcycle.cellcycledata.Entity.SchemaCheckResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchemaValidationServiceTest {
+
+    private final PPIDataDao ppiDataDao = mock(PPIDataDao.class);
+    private final TFDataDao tfDataDao = mock(TFDataDao.class);
+    private final MirnaGeneDao mirnaGeneDao = mock(MirnaGeneDao.class);
+    private final SLDataDao slDataDao = mock(SLDataDao.class);
+    private final SLNatureDataDao slNatureDataDao = mock(SLNatureDataDao.class);
+    private SchemaValidationService service;
+
+    @BeforeEach
+    void setUp() {
+        this.service = new SchemaValidationService();
+        ReflectionTestUtils.setField(this.service, "ppiDataDao", this.ppiDataDao);
+        ReflectionTestUtils.setField(this.service, "tfDataDao", this.tfDataDao);
+        ReflectionTestUtils.setField(this.service, "mirnaGeneDao", this.mirnaGeneDao);
+        ReflectionTestUtils.setField(this.service, "slDataDao", this.slDataDao);
+        ReflectionTestUtils.setField(this.service, "slNatureDataDao", this.slNatureDataDao);
+        ReflectionTestUtils.setField(this.service, "failFast", true);
+
+        when(this.ppiDataDao.showColumns()).thenReturn(columns("node1", "node2", "node1_string_id", "node2_string_id",
+                "neighborhood_on_chromosome", "gene_fusion", "phylogenetic_cooccurrence", "homology", "coexpression",
+                "experimentally_determined_interaction", "database_annotated", "automated_textmining", "combined_score"));
+        when(this.tfDataDao.showColumns()).thenReturn(columns("TF", "Target_Gene", "interaction", "source"));
+        when(this.mirnaGeneDao.showColumns()).thenReturn(columns("miRNA", "gene"));
+        when(this.slDataDao.showColumns()).thenReturn(columns("geneA", "geneB"));
+        when(this.slNatureDataDao.showColumns()).thenReturn(columns("Gene_A", "stage_Gene_A", "Gene_B", "stage_Gene_B",
+                "GEMINI_sensitive", "Cell_line"));
+    }
+
+    private static List<Map<String, Object>> columns(String... names) {
+        List<Map<String, Object>> columns = new ArrayList<>();
+        for (String name : names) {
+            columns.add(Collections.singletonMap("Field", name));
+        }
+        return columns;
+    }
+
+    @Test
+    void matchingSchemasPassAndAreCheckedOncePerTable() {
+        this.service.init();
+        List<SchemaCheckResult> results = this.service.getResults();
+        assertEquals(5, results.size());
+        for (SchemaCheckResult result : results) {
+            assertEquals("OK", result.getStatus(), result.getTable());
+        }
+        // 列名比较不区分大小写，多出的列只报告不算漂移
+        assertEquals(Collections.singletonList("source"), results.get(1).getExtraColumns());
+        verify(this.tfDataDao, times(1)).showColumns();
+    }
+
+    @Test
+    void upperCaseFieldLabelFromH2IsRecognised() {
+        List<Map<String, Object>> columns = new ArrayList<>();
+        for (String name : new String[]{"geneA", "geneB"}) {
+            columns.add(Collections.singletonMap("FIELD", name));
+        }
+        when(this.slDataDao.showColumns()).thenReturn(columns);
+        this.service.init();
+        assertEquals("OK", this.service.getResults().get(3).getStatus());
+    }
+
+    @Test
+    void missingColumnIsDriftAndStopsStartup() {
+        when(this.slDataDao.showColumns()).thenReturn(columns("geneA"));
+        assertThrows(IllegalStateException.class, this.service::init);
+        SchemaCheckResult sl = this.service.getResults().get(3);
+        assertEquals("DRIFT", sl.getStatus());
+        assertEquals(Collections.singletonList("geneB"), sl.getMissingColumns());
+
+        ReflectionTestUtils.setField(this.service, "failFast", false);
+        this.service.init();
+    }
+
+    @Test
+    void unreachableTableIsReportedWithoutBlockingStartup() {
+        when(this.mirnaGeneDao.showColumns()).thenThrow(new IllegalStateException("Communications link failure"));
+        this.service.init();
+        SchemaCheckResult mirna = this.service.getResults().get(2);
+        assertEquals("UNAVAILABLE", mirna.getStatus());
+        assertEquals(Arrays.asList("OK", "OK", "UNAVAILABLE", "OK", "OK"), statuses(this.service.getResults()));
+    }
+
+    private static List<String> statuses(List<SchemaCheckResult> results) {
+        List<String> statuses = new ArrayList<>();
+        for (SchemaCheckResult result : results) {
+            statuses.add(result.getStatus());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,164 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Dao.GeneTargetDao;
+import com.cellcycle.cellcycledata.Dao.PageableTable;
+import com.cellcycle.cellcycledata.Engine.SnapshotWriter;
+import com.cellcycle.cellcycledata.Entity.GeneTarget;
+import com.cellcycle.cellcycledata.Entity.PageResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private SnapshotService service;
+
+    private static GeneTarget target(String gene, String stage, String drug, String cancer, String pmid) {
+        GeneTarget row = new GeneTarget();
+        row.setGene(gene);
+        row.setStage(stage);
+        row.setDrug(drug);
+        row.setCancer(cancer);
+        row.setPmid(pmid);
+        return row;
+    }
+
+    /**
+     * 排序键(gene, drug, cancer)大量重复，并含NULL和完全相同的行
+     */
+    private static List<GeneTarget> rows() {
+        List<GeneTarget> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(target("CDK4", "G1", "Palbociclib", "breast", "pmid" + (i % 3)));
+        }
+        rows.add(target("CDK4", "G1", null, "breast", "1"));
+        rows.add(target(null, "S", "Unknown", null, "2"));
+        rows.add(target(null, "S", "Unknown", null, "2"));
+        rows.add(target("AURKA", "M", "Alisertib", null, null));
+        rows.add(target("cdk4", "G1", "Palbociclib", "breast", "3"));
+        rows.add(target("PLK1", "M", "Volasertib", "lung", "4"));
+        rows.add(target("CDK4", "G1", "Abemaciclib", "breast", "5"));
+        return rows;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = this.dir.resolve("reference.snapshot");
+        SnapshotWriter writer = new SnapshotWriter();
+        writer.table(QueryCacheService.GENE_TARGET, rows())
+                .string("gene", GeneTarget::getGene)
+                .string("stage", GeneTarget::getStage)
+                .string("drug", GeneTarget::getDrug)
+                .string("cancer", GeneTarget::getCancer)
+                .string("pmid", GeneTarget::getPmid)
+                .index("gene")
+                .index("stage");
+        writer.write(file);
+
+        this.service = new SnapshotService();
+        ReflectionTestUtils.setField(this.service, "queryCacheService", mock(QueryCacheService.class));
+        ReflectionTestUtils.setField(this.service, "path", file.toString());
+        ReflectionTestUtils.setField(this.service, "verify", true);
+        ReflectionTestUtils.setField(this.service, "serve", true);
+        this.service.load();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        this.service.shutdown();
+    }
+
+    private List<Map<String, Object>> pageThrough(int limit) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageResult page = KeysetPages.page(PageableTable.GENE_TARGET, cursor, limit, null, this.service::selectPage);
+            assertTrue(page.getItems().size() <= limit);
+            items.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return items;
+    }
+
+    private static String key(Map<String, Object> item) {
+        return item.get("gene") + "|" + item.get("drug") + "|" + item.get("cancer") + "|" + item.get("stage")
+                + "|" + item.get("pmid");
+    }
+
+    @Test
+    void everyPageSizeReturnsEachRowOnceInKeyOrder() {
+        List<String> expected = new ArrayList<>();
+        for (GeneTarget row : rows()) {
+            expected.add(row.getGene() + "|" + row.getDrug() + "|" + row.getCancer() + "|" + row.getStage()
+                    + "|" + row.getPmid());
+        }
+        expected.sort(null);
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.<String>naturalOrder());
+        for (int limit = 1; limit <= 13; limit++) {
+            List<Map<String, Object>> items = pageThrough(limit);
+            List<String> returned = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                returned.add(key(items.get(i)));
+                if (i > 0) {
+                    Map<String, Object> previous = items.get(i - 1);
+                    Map<String, Object> current = items.get(i);
+                    int cmp = 0;
+                    for (String field : PageableTable.GENE_TARGET.getKeyFields()) {
+                        if (cmp == 0) {
+                            cmp = nullsFirst.compare((String) previous.get(field), (String) current.get(field));
+                        }
+                    }
+                    assertTrue(cmp <= 0, "limit " + limit + " at " + i);
+                }
+            }
+            returned.sort(null);
+            assertEquals(expected, returned, "limit " + limit);
+        }
+        // NULL排在最前，其后按String.compareTo，大写在小写之前
+        List<Map<String, Object>> items = pageThrough(20);
+        assertEquals(null, items.get(0).get("gene"));
+        assertEquals("AURKA", items.get(2).get("gene"));
+        assertEquals("cdk4", items.get(items.size() - 1).get("gene"));
+    }
+
+    @Test
+    void projectedFieldsAreReturnedInRequestOrder() {
+        PageResult page = KeysetPages.page(PageableTable.GENE_TARGET, null, 3, "pmid,gene", this.service::selectPage);
+        assertEquals(Arrays.asList("pmid", "gene"), new ArrayList<>(page.getItems().get(0).keySet()));
+    }
+
+    @Test
+    void servingServicesPageFromTheSnapshot() {
+        GeneTargetDao dao = mock(GeneTargetDao.class);
+        GeneTargetService geneTargetService = new GeneTargetService();
+        ReflectionTestUtils.setField(geneTargetService, "geneTargetDao", dao);
+        ReflectionTestUtils.setField(geneTargetService, "snapshotService", this.service);
+        assertEquals(5, geneTargetService.selectPage(null, 5, null).getItems().size());
+        verify(dao, never()).selectPage(any());
+
+        List<GeneTarget> targets = this.service.selectAllGeneTargets();
+        // 相同的基因名解码为同一个字符串对象
+        assertSame(targets.get(0).getGene(), targets.get(1).getGene());
+    }
+}
@@ -0,0 +1,109 @@
+package com.cellcycle.cellcycledata.Service;
+
+import com.cellcycle.cellcycledata.Entity.HallmarkGene;
+import com.cellcycle.cellcycledata.Entity.KeggPathway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticDatasetServiceTest {
+
+    private static final String KEGG_HEADER = "Category\tTerm\tCount\t%\tPValue\tGenes\tList Total\tPop Hits\tPop Total"
+            + "\tFold Enrichment\tBonferroni\tBenjamini\tFDR\n";
+
+    @TempDir
+    Path dir;
+
+    private StaticDatasetService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        write("Browser/KEGG_pathway.txt", KEGG_HEADER
+                + "KEGG_PATHWAY\thsa04110:Cell cycle\t3\t100.0\t1.0E-5\tCDK1, CCNB1,CDC20\t3\t124\t8534\t68.8\t1.0E-4\t1.0E-4\t1.0E-4\n"
+                + "KEGG_PATHWAY\thsa04115:p53 signaling pathway\t1\t33.3\t0.02\tCDK1\t3\t73\t8534\t39.0\t0.5\t0.2\t0.2\n");
+        write("home/hallmark_cell.txt", "gene\tCancer_Hallmark\nCDK1\tSustaining Proliferative Signaling\n"
+                + "TP53\tGenome Instability and Mutation\ncdk1\tEvading Growth Suppressors\nbroken-line\n");
+        write("network/miRNA_gene_interaction_number.txt", "Var1\tFreq\nCDK1\t12\nTP53\tn/a\n");
+
+        this.service = new StaticDatasetService();
+        ReflectionTestUtils.setField(this.service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(this.service, "externalDir", this.dir.toString());
+        ReflectionTestUtils.setField(this.service, "reloadCheckMillis", 0L);
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = this.dir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parsesTypedRecordsAndGeneIndexesAtStartup() {
+        this.service.init();
+
+        KeggPathway cellCycle = this.service.getKeggPathways().get(0);
+        assertEquals("hsa04110:Cell cycle", cellCycle.getTerm());
+        assertEquals(Arrays.asList("CDK1", "CCNB1", "CDC20"), cellCycle.getGenes());
+        assertEquals(124, cellCycle.getPopHits());
+        assertEquals(8534, cellCycle.getPopTotal());
+        assertEquals(1.0E-5, cellCycle.getPValue());
+        assertEquals(2, this.service.getPathwaysOfGene(" cdk1").size());
+        assertTrue(this.service.getPathwaysOfGene("TP53").isEmpty());
+
+        HallmarkGene cdk1 = this.service.getHallmarkGenes().get(0);
+        assertEquals("CDK1", cdk1.getGene());
+        assertEquals(2, cdk1.getCount());
+        assertEquals(Arrays.asList("Sustaining Proliferative Signaling", "Evading Growth Suppressors"),
+                this.service.getHallmarksOfGene("Cdk1"));
+        assertEquals(2, this.service.getHallmarkGenes().size());
+
+        assertEquals(0, this.service.getMirnaInteractionCounts().get(1).getValue());
+    }
+
+    @Test
+    void recordsAndIndexesAreUnmodifiable() {
+        this.service.init();
+        assertThrows(UnsupportedOperationException.class, () -> this.service.getKeggPathways().clear());
+        assertThrows(UnsupportedOperationException.class, () -> this.service.getKeggPathways().get(0).getGenes().add("X"));
+        assertThrows(UnsupportedOperationException.class, () -> this.service.getPathwaysOfGene("CDK1").remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> this.service.getHallmarksOfGene("CDK1").clear());
+        assertThrows(UnsupportedOperationException.class, () -> this.service.getMirnaInteractionCounts().add(null));
+    }
+
+    @Test
+    void missingFileFailsStartup() throws IOException {
+        Files.delete(this.dir.resolve("home/hallmark_cell.txt"));
+        assertThrows(UncheckedIOException.class, this.service::init);
+    }
+
+    @Test
+    void reloadsChangedFileAndKeepsEtagOtherwise() throws IOException {
+        this.service.init();
+        String etag = this.service.getHallmarkCellJson().getEtag();
+        assertEquals(etag, this.service.getHallmarkCellJson().getEtag());
+
+        Path file = this.dir.resolve("home/hallmark_cell.txt");
+        write("home/hallmark_cell.txt", "gene\tCancer_Hallmark\nMYC\tSustaining Proliferative Signaling\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000));
+
+        assertNotEquals(etag, this.service.getHallmarkCellJson().getEtag());
+        assertEquals(Collections.singletonList("Sustaining Proliferative Signaling"), this.service.getHallmarksOfGene("MYC"));
+        assertTrue(this.service.getHallmarksOfGene("CDK1").isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminTokenInterceptorTest {
+
+    static class Endpoints {
+        @AdminEndpoint
+        public void reload() {
+        }
+
+        public void query() {
+        }
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    @Test
+    void publicEndpointsNeedNoToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(new AdminTokenInterceptor("secret").preHandle(new MockHttpServletRequest(), response, handler("query")));
+        assertTrue(new AdminTokenInterceptor("").preHandle(new MockHttpServletRequest(), response, new Object()));
+    }
+
+    @Test
+    void adminEndpointsAreDisabledWithoutConfiguredToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(AdminTokenInterceptor.HEADER, "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(new AdminTokenInterceptor(" ").preHandle(request, response, handler("reload")));
+        assertEquals(403, response.getStatus());
+    }
+
+    @Test
+    void adminEndpointsRequireMatchingToken() throws Exception {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor("secret");
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(new MockHttpServletRequest(), missing, handler("reload")));
+        assertEquals(401, missing.getStatus());
+
+        MockHttpServletRequest wrong = new MockHttpServletRequest();
+        wrong.addHeader(AdminTokenInterceptor.HEADER, "secret2");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(wrong, rejected, handler("reload")));
+        assertEquals(401, rejected.getStatus());
+
+        MockHttpServletRequest right = new MockHttpServletRequest();
+        right.addHeader(AdminTokenInterceptor.HEADER, "secret");
+        assertTrue(interceptor.preHandle(right, new MockHttpServletResponse(), handler("reload")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.cellcycle.cellcycledata.Entity.AdmissionRouteStats;
+import com.cellcycle.cellcycledata.Service.AdmissionService;
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AdmissionControlInterceptorTest {
+
+    static class Endpoints {
+        @DatabaseRoute
+        public void query() {
+        }
+
+        public void memory() {
+        }
+    }
+
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private final AdmissionService admissionService = service();
+    private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(this.admissionService);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 全局名额只有1个(连接池maxActive为1)
+     */
+    private AdmissionService service() {
+        DruidDataSource pool = new DruidDataSource();
+        pool.setMaxActive(1);
+        AdmissionService service = new AdmissionService();
+        ReflectionTestUtils.setField(service, "metricsService", this.metricsService);
+        ReflectionTestUtils.setField(service, "dataSource", pool);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxConcurrent", 16);
+        ReflectionTestUtils.setField(service, "maxQueue", 64);
+        ReflectionTestUtils.setField(service, "maxGlobal", 0);
+        ReflectionTestUtils.setField(service, "queueTimeoutMillis", 20L);
+        ReflectionTestUtils.setField(service, "routeLimits", "");
+        service.init();
+        return service;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    private static MockHttpServletRequest request(String route) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+        return request;
+    }
+
+    private int globalActive() {
+        AdmissionRouteStats global = this.admissionService.getStats().get(0);
+        assertEquals(AdmissionService.GLOBAL_ROUTE, global.getRoute());
+        return global.getActive();
+    }
+
+    @Test
+    void onlyDatabaseRoutesTakeTheGlobalPermit() throws Exception {
+        MockHttpServletRequest first = request("/cellcycledata/ppi/all");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(this.interceptor.preHandle(first, response, handler("query")));
+        assertEquals(1, globalActive());
+
+        // 全局名额已满时只读内存的路由照常放行，访问数据库的路由返回503
+        for (int i = 0; i < 5; i++) {
+            assertTrue(this.interceptor.preHandle(request("/cellcycledata/ppi/subnetwork"), response, handler("memory")));
+        }
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(this.interceptor.preHandle(request("/cellcycledata/tf/all"), rejected, handler("query")));
+        assertEquals(503, rejected.getStatus());
+
+        this.interceptor.afterCompletion(first, response, handler("query"), null);
+        assertEquals(0, globalActive());
+        assertTrue(this.interceptor.preHandle(request("/cellcycledata/tf/all"), response, handler("query")));
+    }
+
+    @Test
+    void serializationReturnsTheGlobalPermitOnce() throws Exception {
+        MockHttpServletRequest request = request("/cellcycledata/ppi/all");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(this.interceptor.preHandle(request, response, handler("query")));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(
+                new ObjectMapper(), this.metricsService, 0);
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(Arrays.asList("CDK1", "CCNB1"), MediaType.APPLICATION_JSON, message);
+        assertEquals("[\"CDK1\",\"CCNB1\"]", message.getBodyAsString());
+        // 开始写出时查询已经结束，其他访问数据库的请求可以进入
+        assertEquals(0, globalActive());
+        assertTrue(this.admissionService.enter("/cellcycledata/tf/all", true));
+
+        // 请求结束时不会重复归还
+        this.interceptor.afterCompletion(request, response, handler("query"), null);
+        assertEquals(1, globalActive());
+    }
+}
@@ -0,0 +1,42 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Engine.InvalidQueryException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiExceptionHandlerTest {
+
+    @RestController
+    static class Endpoints {
+        @GetMapping("/invalid")
+        public String invalid() {
+            throw new InvalidQueryException("Unknown facet 'x'");
+        }
+
+        @GetMapping("/internal")
+        public String internal() {
+            throw new IllegalArgumentException("Snapshot table tf has no column x");
+        }
+    }
+
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new Endpoints())
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+
+    @Test
+    void onlyInvalidQueriesBecomeBadRequests() throws Exception {
+        this.mvc.perform(get("/invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown facet 'x'"));
+        // 其他IllegalArgumentException不转换为400，交给容器按服务器错误处理
+        assertThrows(Exception.class, () -> this.mvc.perform(get("/internal")));
+    }
+}
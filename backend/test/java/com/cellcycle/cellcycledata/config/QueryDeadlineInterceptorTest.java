@@ -0,0 +1,64 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueryDeadlineInterceptorTest {
+
+    private final QueryDeadlineInterceptor interceptor = new QueryDeadlineInterceptor();
+
+    /**
+     * 调用StatementHandler.prepare，返回已设置过超时的语句
+     */
+    private Statement prepare(int configuredTimeout) throws Throwable {
+        Statement statement = mock(Statement.class);
+        when(statement.getQueryTimeout()).thenReturn(configuredTimeout);
+        StatementHandler handler = mock(StatementHandler.class);
+        when(handler.prepare(null, null)).thenReturn(statement);
+        Invocation invocation = new Invocation(handler,
+                StatementHandler.class.getMethod("prepare", Connection.class, Integer.class), new Object[]{null, null});
+        assertSame(statement, this.interceptor.intercept(invocation));
+        return statement;
+    }
+
+    private Statement prepareWithin(long millis, int configuredTimeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        return QueryDeadlineInterceptor.withDeadline(deadline, () -> {
+            try {
+                return prepare(configuredTimeout);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Test
+    void remainingTimeBecomesTheQueryTimeoutRoundedUp() throws Exception {
+        verify(prepareWithin(2_500, 0)).setQueryTimeout(3);
+        // 已过截止时间的语句也至少有1秒，由驱动尽快中止
+        verify(prepareWithin(-100, 0)).setQueryTimeout(1);
+    }
+
+    @Test
+    void shorterConfiguredTimeoutsAreKept() throws Exception {
+        verify(prepareWithin(10_000, 2), never()).setQueryTimeout(anyInt());
+        verify(prepareWithin(10_000, 30)).setQueryTimeout(10);
+    }
+
+    @Test
+    void statementsOutsideADeadlineAreUntouched() throws Throwable {
+        verify(prepare(0), never()).setQueryTimeout(anyInt());
+    }
+}
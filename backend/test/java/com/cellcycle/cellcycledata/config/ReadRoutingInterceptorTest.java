@@ -0,0 +1,119 @@
+package com.cellcycle.cellcycledata.config;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 主库和副本各有一张内容不同的表，从查到的行判断语句实际走了哪个库
+ */
+class ReadRoutingInterceptorTest {
+
+    public interface RowMapper {
+        @Select("SELECT source FROM origin")
+        List<String> sources();
+
+        @Insert("INSERT INTO origin(source) VALUES (#{source})")
+        int insert(String source);
+    }
+
+    private final DataSource primary = database("read-routing-primary");
+    private final DataSource replica = database("read-routing-replica");
+    private ReplicaRoutingDataSource routing;
+    private SqlSessionFactory factory;
+
+    private static DataSource database(String name) {
+        return new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static void reset(DataSource dataSource, String source) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS origin");
+            statement.execute("CREATE TABLE origin (source VARCHAR(32))");
+            statement.execute("INSERT INTO origin(source) VALUES ('" + source + "')");
+        }
+    }
+
+    private static int count(DataSource dataSource, String source) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM origin WHERE source = '" + source + "'")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        reset(this.primary, "primary");
+        reset(this.replica, "replica");
+        this.routing = new ReplicaRoutingDataSource(this.primary, Collections.singletonList("replica-1"),
+                Collections.singletonList("jdbc:h2:mem:read-routing-replica"), Collections.singletonList(this.replica),
+                3, 1000, 10, 60000);
+        Configuration configuration = new Configuration(
+                new Environment("test", new JdbcTransactionFactory(), this.routing));
+        configuration.addMapper(RowMapper.class);
+        configuration.addInterceptor(new ReadRoutingInterceptor());
+        this.factory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        this.routing.close();
+    }
+
+    private List<String> select() {
+        try (SqlSession session = this.factory.openSession(true)) {
+            return session.getMapper(RowMapper.class).sources();
+        }
+    }
+
+    @Test
+    void selectsReadFromTheReplica() {
+        assertEquals(Collections.singletonList("replica"), select());
+        assertEquals(1, this.routing.getRouting().getReplicas().get(0).getRouted().longValue());
+        // 语句结束后恢复线程标记
+        assertNull(ReplicaRoutingDataSource.markReadOnly(false));
+        ReplicaRoutingDataSource.restore(null);
+    }
+
+    @Test
+    void insertsGoToThePrimary() throws SQLException {
+        try (SqlSession session = this.factory.openSession(true)) {
+            assertEquals(1, session.getMapper(RowMapper.class).insert("written"));
+        }
+        assertEquals(1, count(this.primary, "written"));
+        assertEquals(0, count(this.replica, "written"));
+        assertEquals(1, this.routing.getRouting().getPrimaryRoutes().longValue());
+    }
+
+    @Test
+    void selectsInsideATransactionStayOnThePrimary() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals(Collections.singletonList("primary"), select());
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        assertEquals(Collections.singletonList("replica"), select());
+    }
+}
@@ -0,0 +1,205 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Entity.ReplicaRouting;
+import com.cellcycle.cellcycledata.Entity.ReplicaStatus;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 只读语句分发到副本，写入回到主库；延迟过大或不可用的副本被剔除，恢复后重新加入
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+
+    /**
+     * 可控的副本替身：连接带有名称，健康检查读取的复制延迟和可用性可随时修改
+     */
+    private static final class FakeReplica {
+        final String name;
+        final DataSource dataSource = mock(DataSource.class);
+        volatile boolean down;
+        /** 复制延迟(秒)，null表示复制已停止 */
+        volatile Long lag = 0L;
+
+        FakeReplica(String name) throws SQLException {
+            this.name = name;
+            when(this.dataSource.getConnection()).thenAnswer(invocation -> connection());
+        }
+
+        private Connection connection() throws SQLException {
+            if (this.down) {
+                throw new SQLException(this.name + " is down");
+            }
+            Connection connection = mock(Connection.class);
+            Statement statement = mock(Statement.class);
+            when(connection.getCatalog()).thenReturn(this.name);
+            when(connection.createStatement()).thenReturn(statement);
+            when(statement.executeQuery(anyString())).thenAnswer(invocation -> {
+                ResultSet resultSet = mock(ResultSet.class);
+                Long current = this.lag;
+                when(resultSet.next()).thenReturn(true);
+                when(resultSet.getLong(anyString())).thenReturn(current == null ? 0L : current);
+                when(resultSet.wasNull()).thenReturn(current == null);
+                return resultSet;
+            });
+            return connection;
+        }
+    }
+
+    private static DataSource primary() {
+        return new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private ReplicaRoutingDataSource start(FakeReplica... replicas) {
+        DataSource[] sources = new DataSource[replicas.length];
+        String[] names = new String[replicas.length];
+        for (int i = 0; i < replicas.length; i++) {
+            sources[i] = replicas[i].dataSource;
+            names[i] = replicas[i].name;
+        }
+        this.routing = new ReplicaRoutingDataSource(primary(), Arrays.asList(names), Arrays.asList(names),
+                Arrays.asList(sources), 1, 200, 10, 100);
+        return this.routing;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.restore(null);
+        if (this.routing != null) {
+            this.routing.close();
+        }
+    }
+
+    private String route(boolean readOnly) throws SQLException {
+        Boolean previous = ReplicaRoutingDataSource.markReadOnly(readOnly);
+        try (Connection connection = this.routing.getConnection()) {
+            String catalog = connection.getCatalog();
+            return catalog == null || catalog.startsWith("replica") ? catalog : "primary";
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+
+    private ReplicaStatus status(String name) {
+        for (ReplicaStatus status : this.routing.getRouting().getReplicas()) {
+            if (status.getName().equals(name)) {
+                return status;
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    private void waitFor(String name, Predicate<ReplicaStatus> condition) throws InterruptedException {
+        for (int i = 0; i < 300 && !condition.test(status(name)); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.test(status(name)), status(name).toString());
+    }
+
+    @Test
+    void readsGoToReplicasAndWritesToThePrimary() throws Exception {
+        start(new FakeReplica("replica-1"), new FakeReplica("replica-2"));
+        waitFor("replica-1", status -> status.getCheckedAt() != null);
+
+        assertEquals("primary", route(false));
+        assertTrue(route(true).startsWith("replica"));
+        // 借出连接数相同时轮转，两个副本都会被选中
+        assertTrue(Arrays.asList(route(true), route(true)).containsAll(Arrays.asList("replica-1", "replica-2")));
+
+        ReplicaRouting snapshot = this.routing.getRouting();
+        assertEquals(1, snapshot.getPrimaryRoutes().longValue());
+        assertEquals(0, snapshot.getFallbacks().longValue());
+        assertEquals(3, status("replica-1").getRouted() + status("replica-2").getRouted());
+        assertEquals(0, status("replica-1").getOutstanding().intValue());
+    }
+
+    @Test
+    void borrowedConnectionsSteerReadsToTheLeastLoadedReplica() throws Exception {
+        start(new FakeReplica("replica-1"), new FakeReplica("replica-2"));
+        Boolean previous = ReplicaRoutingDataSource.markReadOnly(true);
+        try (Connection held = this.routing.getConnection()) {
+            String busy = held.getCatalog();
+            for (int i = 0; i < 4; i++) {
+                try (Connection connection = this.routing.getConnection()) {
+                    assertNotEquals(busy, connection.getCatalog());
+                }
+            }
+            assertEquals(1, status(busy).getOutstanding().intValue());
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+
+    @Test
+    void laggingReplicaIsEjectedAndReadmitted() throws Exception {
+        FakeReplica lagging = new FakeReplica("replica-1");
+        start(lagging, new FakeReplica("replica-2"));
+        lagging.lag = 60L;
+        waitFor("replica-1", status -> !status.getHealthy());
+        assertEquals(60.0, status("replica-1").getLagSeconds(), 1e-12);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", route(true));
+        }
+
+        lagging.lag = null;
+        waitFor("replica-1", status -> status.getLagSeconds() == null);
+        assertFalse(status("replica-1").getHealthy());
+
+        lagging.lag = 2L;
+        waitFor("replica-1", ReplicaStatus::getHealthy);
+        assertTrue(Arrays.asList(route(true), route(true), route(true)).contains("replica-1"));
+    }
+
+    @Test
+    void downReplicaOpensItsCircuitAndRecoversAfterwards() throws Exception {
+        FakeReplica flaky = new FakeReplica("replica-1");
+        start(flaky, new FakeReplica("replica-2"));
+        waitFor("replica-1", status -> status.getCheckedAt() != null);
+        flaky.down = true;
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-2", route(true));
+        }
+        assertEquals("open", status("replica-1").getState());
+        assertEquals(0, this.routing.getRouting().getFallbacks().longValue());
+
+        flaky.down = false;
+        waitFor("replica-1", status -> "closed".equals(status.getState()) && status.getHealthy());
+        assertTrue(Arrays.asList(route(true), route(true), route(true)).contains("replica-1"));
+    }
+
+    @Test
+    void allReplicasUnavailableFallsBackToThePrimary() throws Exception {
+        FakeReplica first = new FakeReplica("replica-1");
+        FakeReplica second = new FakeReplica("replica-2");
+        start(first, second);
+        first.down = true;
+        second.down = true;
+        assertEquals("primary", route(true));
+        assertEquals("primary", route(true));
+        assertEquals(2, this.routing.getRouting().getFallbacks().longValue());
+        assertEquals(0, this.routing.getRouting().getPrimaryRoutes().longValue());
+
+        first.down = false;
+        waitFor("replica-1", status -> "closed".equals(status.getState()) && status.getHealthy());
+        assertEquals("replica-1", route(true));
+    }
+}
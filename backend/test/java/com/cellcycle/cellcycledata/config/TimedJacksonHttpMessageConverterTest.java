@@ -0,0 +1,144 @@
+package com.cellcycle.cellcycledata.config;
+
+import com.cellcycle.cellcycledata.Service.MetricsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TimedJacksonHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MetricsService metricsService = mock(MetricsService.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * 第一次读取时停住的行，用来让先到的请求停在序列化中途
+     */
+    public static final class Row {
+        private final String name;
+        private final AtomicInteger reads;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        Row(String name, AtomicInteger reads, CountDownLatch started, CountDownLatch release) {
+            this.name = name;
+            this.reads = reads;
+            this.started = started;
+            this.release = release;
+        }
+
+        public String getName() throws InterruptedException {
+            if (this.reads.getAndIncrement() == 0) {
+                this.started.countDown();
+                this.release.await(5, TimeUnit.SECONDS);
+            }
+            return this.name;
+        }
+    }
+
+    private String write(TimedJacksonHttpMessageConverter converter, Object body) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsString();
+    }
+
+    private static void awaitWaiter(TimedJacksonHttpMessageConverter converter) throws InterruptedException {
+        Map<?, ?> inFlight = (Map<?, ?>) ReflectionTestUtils.getField(converter, "inFlight");
+        for (int i = 0; i < 500; i++) {
+            for (Object flight : inFlight.values()) {
+                if (((AtomicInteger) ReflectionTestUtils.getField(flight, "waiters")).get() > 0) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no waiter joined");
+    }
+
+    /**
+     * 先到的请求停在序列化中途，后到的请求等待并写出同一份结果
+     * @return 两个请求的响应正文
+     */
+    private List<String> concurrentWrites(TimedJacksonHttpMessageConverter converter, AtomicInteger reads) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(new Row("gene" + i, reads, started, release));
+        }
+        Future<String> leader = this.executor.submit(() -> write(converter, rows));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = this.executor.submit(() -> write(converter, rows));
+        awaitWaiter(converter);
+        release.countDown();
+        List<String> bodies = new ArrayList<>();
+        bodies.add(leader.get(5, TimeUnit.SECONDS));
+        bodies.add(waiter.get(5, TimeUnit.SECONDS));
+        return bodies;
+    }
+
+    @Test
+    void waiterWritesTheLeadersBytes() throws Exception {
+        TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(
+                this.objectMapper, this.metricsService, 1 << 20);
+        AtomicInteger reads = new AtomicInteger();
+        List<String> bodies = concurrentWrites(converter, reads);
+        assertEquals(bodies.get(0), bodies.get(1));
+        assertTrue(bodies.get(0).startsWith("[{\"name\":\"gene0\"}"));
+        // 只序列化了一次
+        assertEquals(50, reads.get());
+        verify(this.metricsService, times(1)).recordCoalescedResponse(anyString());
+    }
+
+    @Test
+    void responsesAboveTheCapAreNotShared() throws Exception {
+        TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(
+                this.objectMapper, this.metricsService, 64);
+        AtomicInteger reads = new AtomicInteger();
+        List<String> bodies = concurrentWrites(converter, reads);
+        assertEquals(bodies.get(0), bodies.get(1));
+        assertTrue(bodies.get(0).length() > 64);
+        // 超过上限后等待者自己序列化
+        assertEquals(100, reads.get());
+        verify(this.metricsService, never()).recordCoalescedResponse(anyString());
+    }
+
+    @Test
+    void unsharedWritesStreamUnchanged() throws Exception {
+        TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(
+                this.objectMapper, this.metricsService, 0);
+        List<String> genes = new ArrayList<>();
+        genes.add("CDK1");
+        genes.add("CCNB1");
+        assertEquals("[\"CDK1\",\"CCNB1\"]", write(converter, genes));
+        assertEquals("{\"a\":1}", write(converter, Collections.singletonMap("a", 1)));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(converter, "inFlight")).isEmpty());
+    }
+}